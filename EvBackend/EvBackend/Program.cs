@@ -202,6 +202,17 @@ builder.Services.AddHostedService<BookingExpirationService>();
 // ---------------------------------------------------------
 builder.Services.AddSignalR();
 
+// ---------------------------------------------------------
+// Compression (gzip/brotli responses, gzip request bodies)
+// ---------------------------------------------------------
+builder.Services.AddResponseCompression(options =>
+{
+    // ngrok and the mobile app talk HTTPS. Compressing secrets over TLS invites BREACH/CRIME,
+    // so the middleware only runs on the routes in IsCompressibleRoute (see the pipeline)
+    options.EnableForHttps = true;
+});
+builder.Services.AddRequestDecompression();
+
 var app = builder.Build();
 
 // ---------------------------------------------------------
@@ -234,6 +245,15 @@ if (app.Environment.IsDevelopment())
 
 app.UseHttpsRedirection();
 
+app.UseWhen(context => IsCompressibleRoute(context.Request), branch => branch.UseResponseCompression());
+app.UseRequestDecompression();
+// Advertise the request encodings we accept (RFC 7694); the mobile app only gzips bodies when it sees this
+app.Use(async (context, next) =>
+{
+    context.Response.Headers["Accept-Encoding"] = "gzip, br, deflate";
+    await next();
+});
+
 app.UseCors("AllowFrontend");
 
 app.UseAuthentication();
@@ -245,3 +265,19 @@ app.MapControllers();
 app.MapHub<NotificationHub>("/notificationHub");
 
 app.Run();
+
+// Large, tokenless GET payloads: booking lists, QR images and station lists. Auth (JWTs),
+// profiles and everything else stay uncompressed
+static bool IsCompressibleRoute(HttpRequest request)
+{
+    if (!HttpMethods.IsGet(request.Method)) return false;
+    var path = request.Path;
+    return path.StartsWithSegments("/api/bookings/owner")
+        || path.StartsWithSegments("/api/bookings/station")
+        || path.StartsWithSegments("/api/bookings/pending")
+        || path.StartsWithSegments("/api/bookings/approved")
+        || path.StartsWithSegments("/api/bookings/completed")
+        || (path.StartsWithSegments("/api/bookings") && path.Value!.EndsWith("/qrcode"))
+        || path.StartsWithSegments("/api/station/nearby")
+        || path.StartsWithSegments("/api/station/nearby-by-type");
+}
@@ -1,32 +1,31 @@
 package com.evcharging.mobile;
 
 import android.content.Intent;
-import android.os.AsyncTask;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.LinearLayout;
-import android.widget.ListView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.evcharging.mobile.adapter.StationBookingAdapter;
+import com.evcharging.mobile.model.StationBookingRow;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
-import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.session.SessionManager;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.util.ArrayList;
+import java.util.List;
 
 public class AllBookingsActivity extends AppCompatActivity {
 
     private SessionManager session;
-    private ListView lvAllBookings;
+    private RecyclerView rvAllBookings;
+    private StationBookingAdapter adapter;
     private SwipeRefreshLayout srAllBookings;
     private LinearLayout emptyAllBookings; // Add this
 
@@ -40,14 +39,17 @@ public class AllBookingsActivity extends AppCompatActivity {
         FooterHelper.setupFooter(this);
 
         session = new SessionManager(this);
-        lvAllBookings = findViewById(R.id.lvAllBookings);
+        rvAllBookings = findViewById(R.id.rvAllBookings);
+        adapter = new StationBookingAdapter(R.layout.booking_item, "ID: ", this::openBooking);
+        rvAllBookings.setLayoutManager(new LinearLayoutManager(this));
+        rvAllBookings.setAdapter(adapter);
         srAllBookings = findViewById(R.id.srAllBookings);
         emptyAllBookings = findViewById(R.id.emptyAllBookings); // Initialize this
 
         ImageButton btnBack = findViewById(R.id.btnBack);
         btnBack.setOnClickListener(v -> finish());
 
-        srAllBookings.setOnRefreshListener(this::loadUpcomingBookings);
+        srAllBookings.setOnRefreshListener(() -> loadUpcomingBookings(true));
 
         // Show empty state initially
         showEmptyAllBookings();
@@ -56,24 +58,25 @@ public class AllBookingsActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        loadUpcomingBookings();
+        loadUpcomingBookings(false);
     }
 
     private void showEmptyAllBookings() {
-        if (lvAllBookings != null && emptyAllBookings != null) {
-            lvAllBookings.setVisibility(View.GONE);
+        if (rvAllBookings != null && emptyAllBookings != null) {
+            rvAllBookings.setVisibility(View.GONE);
             emptyAllBookings.setVisibility(View.VISIBLE);
         }
     }
 
     private void showAllBookingsList() {
-        if (lvAllBookings != null && emptyAllBookings != null) {
-            lvAllBookings.setVisibility(View.VISIBLE);
+        if (rvAllBookings != null && emptyAllBookings != null) {
+            rvAllBookings.setVisibility(View.VISIBLE);
             emptyAllBookings.setVisibility(View.GONE);
         }
     }
 
-    private void loadUpcomingBookings() {
+    // Cached list at once; the server's replaces it only if something changed
+    private void loadUpcomingBookings(boolean force) {
         User user = session.getLoggedInUser();
         if (user == null || user.getStationId() == null) {
             Toast.makeText(this, "No station assigned", Toast.LENGTH_SHORT).show();
@@ -83,60 +86,47 @@ public class AllBookingsActivity extends AppCompatActivity {
         }
 
         srAllBookings.setRefreshing(true);
-
-        new AsyncTask<Void, Void, ApiResponse>() {
-            @Override
-            protected ApiResponse doInBackground(Void... voids) {
-                ApiClient apiClient = new ApiClient(session);
-                return apiClient.get("/bookings/station/" + user.getStationId() + "/upcoming");
-            }
-
-            @Override
-            protected void onPostExecute(ApiResponse response) {
-                srAllBookings.setRefreshing(false);
-
-                if (response == null || !response.isSuccess() || response.getData() == null) {
-                    showEmptyAllBookings();
-                    return;
-                }
-
-                try {
-                    JSONArray jsonArray = new JSONArray(response.getData());
-                    ArrayList<JSONObject> bookings = new ArrayList<>();
-
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        bookings.add(jsonArray.getJSONObject(i));
+        ApiClient apiClient = new ApiClient(session);
+        ResourceRepository.Resource<List<StationBookingRow>> resource =
+                ResourceRepository.upcomingStationBookings(user.getStationId());
+        ResourceRepository.Listener<List<StationBookingRow>> listener =
+                new ResourceRepository.Listener<List<StationBookingRow>>() {
+                    @Override
+                    public void onData(List<StationBookingRow> bookings) {
+                        srAllBookings.setRefreshing(false);
+                        adapter.submit(bookings, null);
+                        if (bookings.isEmpty()) {
+                            showEmptyAllBookings();
+                        } else {
+                            showAllBookingsList();
+                        }
                     }
 
-                    if (bookings.isEmpty()) {
-                        showEmptyAllBookings();
-                        return;
+                    @Override
+                    public void onDone(String error) {
+                        srAllBookings.setRefreshing(false);
+                        if (error != null && adapter.getItemCount() == 0) showEmptyAllBookings();
                     }
+                };
+
+        ResourceRepository repository = ResourceRepository.getInstance(this);
+        if (force) {
+            repository.refresh(apiClient, resource, listener);
+        } else {
+            repository.load(apiClient, resource, listener);
+        }
+    }
 
-                    showAllBookingsList();
-                    BookingAdapter adapter = new BookingAdapter(AllBookingsActivity.this, bookings);
-                    lvAllBookings.setAdapter(adapter);
-
-                    lvAllBookings.setOnItemClickListener((parent, view, position, id) -> {
-                        JSONObject obj = bookings.get(position);
-                        Intent intent = new Intent(AllBookingsActivity.this, BookingDetailsActivity.class);
-                        intent.putExtra("bookingId", obj.optString("bookingId"));
-                        intent.putExtra("status", obj.optString("status"));
-                        intent.putExtra("formattedStartTime", obj.optString("formattedStartTime", obj.optString("startTime")));
-                        intent.putExtra("formattedEndTime", obj.optString("formattedEndTime", obj.optString("endTime")));
-                        intent.putExtra("qrImageBase64", obj.optString("qrImageBase64"));
-                        intent.putExtra("qrCode", obj.optString("qrCode"));
-                        intent.putExtra("ownerName", obj.optString("ownerName"));
-                        intent.putExtra("slotNumber", obj.optInt("slotNumber"));
-                        startActivity(intent);
-                    });
-
-                } catch (Exception e) {
-                    Log.e("ALL_BOOKINGS", "Parse error: " + e.getMessage());
-                    Toast.makeText(AllBookingsActivity.this, "Error loading bookings", Toast.LENGTH_SHORT).show();
-                    showEmptyAllBookings();
-                }
-            }
-        }.execute();
+    private void openBooking(StationBookingRow row) {
+        Intent intent = new Intent(AllBookingsActivity.this, BookingDetailsActivity.class);
+        intent.putExtra("bookingId", row.getBookingId());
+        intent.putExtra("status", row.getRawStatus());
+        intent.putExtra("formattedStartTime", row.getStartTime());
+        intent.putExtra("formattedEndTime", row.getEndTime());
+        intent.putExtra("qrImageBase64", row.getQrImageBase64());
+        intent.putExtra("qrCode", row.getQrCode());
+        intent.putExtra("ownerName", row.getOwnerName());
+        intent.putExtra("slotNumber", row.getSlotNumber());
+        startActivity(intent);
     }
-}
\ No newline at end of file
+}
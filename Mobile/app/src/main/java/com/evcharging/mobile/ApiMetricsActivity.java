@@ -0,0 +1,165 @@
+package com.evcharging.mobile;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ApplicationInfo;
+import android.net.Uri;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.FileProvider;
+
+import com.evcharging.mobile.network.ApiMetrics;
+import com.evcharging.mobile.network.CompressionInterceptor;
+import com.evcharging.mobile.network.ConnectionWarmer;
+import com.evcharging.mobile.network.LatencyHistogram;
+import com.evcharging.mobile.network.RequestHedger;
+import com.evcharging.mobile.network.RequestScheduler;
+import com.evcharging.mobile.service.LoginPrefetcher;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ApiMetricsActivity - debug view of per-endpoint request telemetry
+ *
+ * Purpose: Show what {@link ApiMetrics} has recorded since launch (call
+ * counts, failure classes and latency percentiles per endpoint) and export
+ * it as a compact text file for offline analysis. Only reachable in
+ * debuggable builds, by long-pressing the welcome text on either home screen.
+ */
+public class ApiMetricsActivity extends AppCompatActivity {
+
+    private static final String TAG = "ApiMetricsActivity";
+
+    private static final String[] TIMINGS = {
+            RequestHedger.REQUEST, RequestScheduler.QUEUE_WAIT, ApiMetrics.TOTAL, ApiMetrics.TTFB,
+            ApiMetrics.DNS, ApiMetrics.CONNECT, ApiMetrics.TLS, ApiMetrics.DECODE,
+            ApiMetrics.COLD_CALL, ApiMetrics.WARM_CALL, ConnectionWarmer.WARMUP, LoginPrefetcher.STAGE
+    };
+
+    private static final String[][] SIZES = {
+            {"in wire", ApiMetrics.RESPONSE_BYTES},
+            {"in", CompressionInterceptor.DECODED_BYTES},
+            {"out wire", CompressionInterceptor.REQUEST_WIRE_BYTES},
+            {"out", CompressionInterceptor.REQUEST_BYTES},
+    };
+
+    private TextView tvMetrics;
+
+    /** Long-press on {@code anchor} opens this screen, in debuggable builds only. */
+    public static void attachDebugEntry(View anchor) {
+        Context context = anchor.getContext();
+        if ((context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0) return;
+        anchor.setOnLongClickListener(v -> {
+            context.startActivity(new Intent(context, ApiMetricsActivity.class));
+            return true;
+        });
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_api_metrics);
+        setTitle("API Metrics");
+
+        tvMetrics = findViewById(R.id.tvMetrics);
+        findViewById(R.id.btnBack).setOnClickListener(v -> finish());
+        findViewById(R.id.btnRefreshMetrics).setOnClickListener(v -> render());
+        findViewById(R.id.btnExportMetrics).setOnClickListener(v -> export());
+        findViewById(R.id.btnResetMetrics).setOnClickListener(v -> {
+            ApiMetrics.reset();
+            render();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        render();
+    }
+
+    private void render() {
+        List<ApiMetrics.Endpoint> endpoints = ApiMetrics.endpoints();
+        if (endpoints.isEmpty()) {
+            tvMetrics.setText("No requests recorded yet.");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ApiMetrics.Endpoint e : endpoints) {
+            long calls = e.counter(ApiMetrics.CALLS);
+            long errors = e.errorCount();
+            sb.append(e.getTemplate()).append('\n');
+            sb.append(String.format(Locale.US, "  calls %d  errors %d (%.0f%%)", calls, errors,
+                    calls > 0 ? 100.0 * errors / calls : 0));
+            for (Map.Entry<String, Long> err : e.errors().entrySet()) {
+                sb.append("  ").append(err.getKey()).append('=').append(err.getValue());
+            }
+            sb.append('\n');
+            if (!e.otherCounters().isEmpty()) {
+                sb.append(" ");
+                for (Map.Entry<String, Long> c : e.otherCounters().entrySet()) {
+                    sb.append(' ').append(c.getKey()).append('=').append(c.getValue());
+                }
+                sb.append('\n');
+            }
+
+            for (String metric : TIMINGS) {
+                LatencyHistogram h = e.histogram(metric);
+                if (h == null || h.getCount() == 0) continue;
+                sb.append(String.format(Locale.US, "  %-8s n=%-5d p50 %s  p90 %s  p99 %s  max %s%n",
+                        metric, h.getCount(), ms(h.percentile(50)), ms(h.percentile(90)),
+                        ms(h.percentile(99)), ms(h.getMax())));
+            }
+            // Payload sizes: on the wire (compressed) next to decoded
+            for (String[] row : SIZES) {
+                LatencyHistogram size = e.histogram(row[1]);
+                if (size == null || size.getCount() == 0) continue;
+                sb.append(String.format(Locale.US, "  %-8s n=%-5d p50 %s  p90 %s  max %s%n",
+                        row[0], size.getCount(), bytes(size.percentile(50)), bytes(size.percentile(90)),
+                        bytes(size.getMax())));
+            }
+            sb.append('\n');
+        }
+        tvMetrics.setText(sb.toString());
+    }
+
+    private void export() {
+        long now = System.currentTimeMillis();
+        File dir = new File(getCacheDir(), "metrics");
+        File file = new File(dir, "api-metrics-" + now + ".txt");
+        try {
+            if (!dir.exists() && !dir.mkdirs()) throw new IllegalStateException("Cannot create " + dir);
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(ApiMetrics.export(now).getBytes(StandardCharsets.UTF_8));
+            }
+            Uri contentUri = FileProvider.getUriForFile(this, getPackageName() + ".fileprovider", file);
+            Intent shareIntent = new Intent(Intent.ACTION_SEND);
+            shareIntent.setType("text/plain");
+            shareIntent.putExtra(Intent.EXTRA_STREAM, contentUri);
+            shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            startActivity(Intent.createChooser(shareIntent, "Export API metrics via"));
+        } catch (Exception e) {
+            Log.e(TAG, "Export failed", e);
+            Toast.makeText(this, "Export failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private static String ms(long micros) {
+        return micros >= 10_000
+                ? String.format(Locale.US, "%dms", micros / 1000)
+                : String.format(Locale.US, "%.1fms", micros / 1000.0);
+    }
+
+    private static String bytes(long n) {
+        return n >= 1024 ? String.format(Locale.US, "%.1fkB", n / 1024.0) : n + "B";
+    }
+}
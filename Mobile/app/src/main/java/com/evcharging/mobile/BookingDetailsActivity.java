@@ -19,8 +19,11 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import android.content.pm.PackageManager;
 import android.widget.ImageButton;
 
+import com.evcharging.mobile.model.StationBookingRow;
+import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.OperatorOfflineStore;
 import com.evcharging.mobile.session.SessionManager;
 import com.journeyapps.barcodescanner.ScanContract;
 import com.journeyapps.barcodescanner.ScanOptions;
@@ -36,6 +39,7 @@ public class BookingDetailsActivity extends AppCompatActivity {
 
     private SessionManager session;
     private ApiClient apiClient;
+    private OperatorOfflineStore offlineStore;
     private String bookingId;
 
     @Override
@@ -47,6 +51,7 @@ public class BookingDetailsActivity extends AppCompatActivity {
 
         session = new SessionManager(this);
         apiClient = new ApiClient(session);
+        offlineStore = OperatorOfflineStore.getInstance(this);
 
         bindViews();
 
@@ -67,7 +72,7 @@ public class BookingDetailsActivity extends AppCompatActivity {
 
         // refresh buttons
         btnScanQr.setOnClickListener(v -> startQrScanner());
-        btnFinalize.setOnClickListener(v -> new FinalizeBookingTask().execute());
+        btnFinalize.setOnClickListener(v -> runTransition(OperatorOfflineStore.ACTION_FINALIZE));
     }
 
     @Override
@@ -129,18 +134,42 @@ public class BookingDetailsActivity extends AppCompatActivity {
                 } else {
                     String scannedCode = result.getContents();
                     Log.d("QR_SCAN", "Scanned QR Code: " + scannedCode);
-
-                    String expectedQr = getIntent().getStringExtra("qrCode");
-                    if (expectedQr != null && scannedCode.trim().equalsIgnoreCase(expectedQr.trim())) {
-                        Toast.makeText(this, "QR matched! Starting charging...", Toast.LENGTH_SHORT).show();
-                        new UpdateBookingStatusTask().execute();
-                    } else {
-                        Toast.makeText(this, "Invalid QR: does not match this booking", Toast.LENGTH_LONG).show();
-                        Log.d("QR_SCAN", "Expected: " + expectedQr + ", Got: " + scannedCode);
-                    }
+                    new VerifyQrTask(scannedCode).execute();
                 }
             });
 
+    /**
+     * Match the scan against the offline QR index (works without signal),
+     * falling back to the token passed in by the list screen.
+     */
+    private class VerifyQrTask extends AsyncTask<Void, Void, Boolean> {
+        private final String scannedCode;
+
+        VerifyQrTask(String scannedCode) {
+            this.scannedCode = scannedCode;
+        }
+
+        @Override
+        protected Boolean doInBackground(Void... voids) {
+            User user = session.getLoggedInUser();
+            String matched = user != null ? offlineStore.verifyQr(user.getStationId(), scannedCode) : null;
+            if (matched != null) return matched.equals(bookingId);
+
+            String expectedQr = getIntent().getStringExtra("qrCode");
+            return expectedQr != null && scannedCode.trim().equalsIgnoreCase(expectedQr.trim());
+        }
+
+        @Override
+        protected void onPostExecute(Boolean matches) {
+            if (matches) {
+                Toast.makeText(BookingDetailsActivity.this, "QR matched! Starting charging...", Toast.LENGTH_SHORT).show();
+                runTransition(OperatorOfflineStore.ACTION_START);
+            } else {
+                Toast.makeText(BookingDetailsActivity.this, "Invalid QR: does not match this booking", Toast.LENGTH_LONG).show();
+            }
+        }
+    }
+
     /** Re-fetch booking from /bookings/{bookingId} and update UI */
     private void refreshBookingFromServer() {
         if (bookingId == null || bookingId.isEmpty()) {
@@ -159,6 +188,10 @@ public class BookingDetailsActivity extends AppCompatActivity {
             @Override
             protected void onPostExecute(ApiResponse response) {
                 srBookingDetails.setRefreshing(false);
+                if (response != null && "Network error".equals(response.getMessage())) {
+                    showSavedBooking();
+                    return;
+                }
                 if (response == null || !response.isSuccess() || response.getData() == null) {
                     Toast.makeText(BookingDetailsActivity.this, "Failed to refresh booking", Toast.LENGTH_SHORT).show();
                     return;
@@ -188,41 +221,46 @@ public class BookingDetailsActivity extends AppCompatActivity {
         }.execute();
     }
 
-    /** PATCH /bookings/{id}/start */
-    private class UpdateBookingStatusTask extends AsyncTask<Void, Void, ApiResponse> {
-        @Override
-        protected ApiResponse doInBackground(Void... voids) {
-            return apiClient.patch("/bookings/" + bookingId + "/start", null);
-        }
+    /** Offline: show the status from the operator's local copy (it includes queued actions). */
+    private void showSavedBooking() {
+        new AsyncTask<Void, Void, StationBookingRow>() {
+            @Override
+            protected StationBookingRow doInBackground(Void... voids) {
+                return offlineStore.findBooking(bookingId);
+            }
 
-        @Override
-        protected void onPostExecute(ApiResponse response) {
-            if (response != null && response.isSuccess()) {
-                Toast.makeText(BookingDetailsActivity.this, "Booking marked as Charging", Toast.LENGTH_SHORT).show();
-                refreshBookingFromServer();
-            } else {
-                Toast.makeText(BookingDetailsActivity.this, "Failed to start: " +
-                        (response != null ? response.getMessage() : "Unknown"), Toast.LENGTH_SHORT).show();
+            @Override
+            protected void onPostExecute(StationBookingRow row) {
+                if (row == null) {
+                    Toast.makeText(BookingDetailsActivity.this, "Offline: booking not saved on this device", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                tvStatus.setText("Status: " + row.getRawStatus() + " (offline)");
             }
-        }
+        }.execute();
     }
 
-    /** PATCH /bookings/{id}/finalize */
-    private class FinalizeBookingTask extends AsyncTask<Void, Void, ApiResponse> {
-        @Override
-        protected ApiResponse doInBackground(Void... voids) {
-            return apiClient.patch("/bookings/" + bookingId + "/finalize", null);
-        }
+    /** PATCH /bookings/{id}/start or /finalize, queued for later when offline */
+    private void runTransition(String action) {
+        offlineStore.transition(apiClient, bookingId, action, new OperatorOfflineStore.TransitionCallback() {
+            @Override
+            public void onDone(String newStatus, boolean queued) {
+                if (queued) {
+                    Toast.makeText(BookingDetailsActivity.this, "Offline: booking marked as " + newStatus
+                            + ", will sync when back online", Toast.LENGTH_LONG).show();
+                    tvStatus.setText("Status: " + newStatus + " (offline)");
+                } else {
+                    Toast.makeText(BookingDetailsActivity.this, OperatorOfflineStore.ACTION_START.equals(action)
+                            ? "Booking marked as Charging" : "Booking finalized", Toast.LENGTH_SHORT).show();
+                    refreshBookingFromServer();
+                }
+            }
 
-        @Override
-        protected void onPostExecute(ApiResponse response) {
-            if (response != null && response.isSuccess()) {
-                Toast.makeText(BookingDetailsActivity.this, "Booking finalized", Toast.LENGTH_SHORT).show();
-                refreshBookingFromServer();
-            } else {
-                Toast.makeText(BookingDetailsActivity.this, "Finalize failed: " +
-                        (response != null ? response.getMessage() : "Unknown"), Toast.LENGTH_SHORT).show();
+            @Override
+            public void onFailed(String message) {
+                Toast.makeText(BookingDetailsActivity.this, (OperatorOfflineStore.ACTION_START.equals(action)
+                        ? "Failed to start: " : "Finalize failed: ") + message, Toast.LENGTH_SHORT).show();
             }
-        }
+        });
     }
 }
@@ -14,19 +14,19 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
-import com.evcharging.mobile.adapter.OwnerBookingAdapter;
-import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.adapter.BookingHistoryAdapter;
+import com.evcharging.mobile.database.BookingDao;
+import com.evcharging.mobile.database.BookingPager;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
-import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.RequestScheduler;
+import com.evcharging.mobile.service.BookingService;
 import com.evcharging.mobile.session.SessionManager;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class ChargingHistoryActivity extends AppCompatActivity {
@@ -37,12 +37,19 @@ public class ChargingHistoryActivity extends AppCompatActivity {
     private ChipGroup chipGroupHistory;
     private Chip chipAll, chipFinalized, chipCancelled, chipExpired;
 
+    // History is read from the local store a page at a time; only
+    // MAX_PAGES * PAGE_SIZE rows are ever held in memory
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 10;
+    private static final int MAX_PAGES = 5;
+    private static final int SYNC_PAGE_SIZE = 100;
+    private static final List<String> HISTORY_STATUSES = Arrays.asList("Finalized", "Cancelled", "Expired");
+
     private SessionManager session;
     private ApiClient apiClient;
-    private OwnerBookingAdapter adapter;
-
-    private List<BookingItem> allBookings = new ArrayList<>();
-    private List<BookingItem> filteredBookings = new ArrayList<>();
+    private BookingDao bookingDao;
+    private BookingPager pager;
+    private BookingHistoryAdapter adapter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -68,7 +75,12 @@ public class ChargingHistoryActivity extends AppCompatActivity {
         chipExpired = findViewById(R.id.chipExpired);
 
         // --- RecyclerView Setup ---
-        adapter = new OwnerBookingAdapter(new ArrayList<>(), item -> {
+        User loggedUser = session.getLoggedInUser();
+        String ownerId = (loggedUser != null) ? loggedUser.getUserId() : "";
+        bookingDao = new BookingDao(this);
+        pager = new BookingPager(bookingDao, ownerId, PAGE_SIZE, PREFETCH_DISTANCE, MAX_PAGES);
+
+        adapter = new BookingHistoryAdapter(pager, item -> {
             Intent i = new Intent(this, OwnerBookingDetailsActivity.class);
             i.putExtra("bookingId", item.getBookingId());
             i.putExtra("stationId", item.getStationId());
@@ -80,6 +92,17 @@ public class ChargingHistoryActivity extends AppCompatActivity {
             i.putExtra("qrBase64", item.getQrImageBase64());
             startActivity(i);
         });
+        adapter.setOnEmptyStateListener(empty -> {
+            if (empty) {
+                showEmptyState(
+                        "No Charging History Found",
+                        "You haven't completed, cancelled or expired any bookings yet.",
+                        R.drawable.ic_history
+                );
+            } else {
+                hideEmptyState();
+            }
+        });
 
         recyclerViewHistory.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewHistory.setAdapter(adapter);
@@ -89,6 +112,7 @@ public class ChargingHistoryActivity extends AppCompatActivity {
         setupFooterNavigation();
         highlightActiveTab("bookings");
 
+        applyFilter(null);
         setupFilterChips();
     }
 
@@ -170,98 +194,66 @@ public class ChargingHistoryActivity extends AppCompatActivity {
         loadData();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pager.release();
+    }
+
     /**
-     * Load past (Finalized/Cancelled/Expired) bookings
+     * Sync the owner's bookings into the local store, then let the pager
+     * re-read whatever pages are on screen. Past (Finalized/Cancelled/Expired)
+     * rows are already visible from the previous sync while this runs.
      */
     private void loadData() {
         swipeRefreshLayout.setRefreshing(true);
 
-        new AsyncTask<Void, Void, List<BookingItem>>() {
+        new AsyncTask<Void, Void, Integer>() {
             @Override
-            protected List<BookingItem> doInBackground(Void... voids) {
+            protected Integer doInBackground(Void... voids) {
                 try {
                     User loggedUser = session.getLoggedInUser();
                     String ownerId = (loggedUser != null) ? loggedUser.getUserId() : null;
-                    if (ownerId == null || ownerId.isEmpty()) return null;
-
-                    ApiResponse res = apiClient.getBookingsByOwner(ownerId);
-                    if (res == null || !res.isSuccess()) return null;
-
-                    JSONArray arr = new JSONArray(res.getData());
-                    List<BookingItem> historyList = new ArrayList<>();
-
-                    for (int i = 0; i < arr.length(); i++) {
-                        JSONObject o = arr.getJSONObject(i);
-                        BookingItem b = new BookingItem();
-
-                        b.setBookingId(o.optString("bookingId", o.optString("_id", null)));
-                        b.setStationId(o.optString("stationId", o.optString("StationId", null)));
-                        b.setStationName(o.optString("stationName", ""));
-                        b.setSlotId(o.optString("slotId"));
-                        b.setSlotNumber(o.optString("slotNumber", o.optString("slotNo", "")));
-                        b.setTimeSlotId(o.optString("timeSlotId"));
-                        b.setOwnerId(o.optString("ownerId"));
-                        b.setStatus(o.optString("status"));
-                        b.setStartTime(o.optString("startTime"));
-                        b.setEndTime(o.optString("endTime"));
-                        b.setQrImageBase64(o.optString("qrImageBase64", null));
-
-                        // Include finalized, cancelled, and expired
-                        if ("Finalized".equalsIgnoreCase(b.getStatus()) ||
-                                "Cancelled".equalsIgnoreCase(b.getStatus()) ||
-                                "Expired".equalsIgnoreCase(b.getStatus())) {
-                            historyList.add(b);
-                        }
-                    }
-                    return historyList;
+                    if (ownerId == null || ownerId.isEmpty()) return -1;
 
+                    // The cached pages are already on screen; don't compete with interactive calls
+                    ApiClient background = apiClient.withLane(RequestScheduler.Lane.BACKGROUND_PREFETCH);
+                    return new BookingService(background).syncOwnerBookings(ownerId, bookingDao, SYNC_PAGE_SIZE);
                 } catch (Exception e) {
                     e.printStackTrace();
-                    return null;
+                    return -1;
                 }
             }
 
             @Override
-            protected void onPostExecute(List<BookingItem> data) {
+            protected void onPostExecute(Integer synced) {
+                if (isFinishing() || isDestroyed()) return;
                 swipeRefreshLayout.setRefreshing(false);
-
-                if (data == null || data.isEmpty()) {
-                    showEmptyState(
-                            "No Charging History Found",
-                            "You haven't completed, cancelled or expired any bookings yet.",
-                            R.drawable.ic_history
-                    );
-                    adapter.setData(new ArrayList<>());
-                } else {
-                    hideEmptyState();
-                    allBookings = data;
-                    applyFilter(null); // Show "All" by default
-                }
+                pager.invalidate();
             }
+        }.execute();
+    }
 
-            private void showEmptyState(String title, String subtitle, int iconRes) {
-                if (emptyStateLayout != null) {
-                    emptyStateLayout.setVisibility(View.VISIBLE);
-                    recyclerViewHistory.setVisibility(View.GONE);
-
-                    TextView tvTitle = emptyStateLayout.findViewById(R.id.tvEmptyTitle);
-                    TextView tvSubtitle = emptyStateLayout.findViewById(R.id.tvEmptySubtitle);
-                    ImageView ivIcon = emptyStateLayout.findViewById(R.id.ivEmptyIcon);
+    private void showEmptyState(String title, String subtitle, int iconRes) {
+        if (emptyStateLayout != null) {
+            emptyStateLayout.setVisibility(View.VISIBLE);
+            recyclerViewHistory.setVisibility(View.GONE);
 
-                    if (tvTitle != null) tvTitle.setText(title);
-                    if (tvSubtitle != null) tvSubtitle.setText(subtitle);
-                    if (ivIcon != null && iconRes != 0) ivIcon.setImageResource(iconRes);
-                }
-            }
+            TextView tvTitle = emptyStateLayout.findViewById(R.id.tvEmptyTitle);
+            TextView tvSubtitle = emptyStateLayout.findViewById(R.id.tvEmptySubtitle);
+            ImageView ivIcon = emptyStateLayout.findViewById(R.id.ivEmptyIcon);
 
-            private void hideEmptyState() {
-                if (emptyStateLayout != null) {
-                    emptyStateLayout.setVisibility(View.GONE);
-                    recyclerViewHistory.setVisibility(View.VISIBLE);
-                }
-            }
+            if (tvTitle != null) tvTitle.setText(title);
+            if (tvSubtitle != null) tvSubtitle.setText(subtitle);
+            if (ivIcon != null && iconRes != 0) ivIcon.setImageResource(iconRes);
+        }
+    }
 
-        }.execute();
+    private void hideEmptyState() {
+        if (emptyStateLayout != null) {
+            emptyStateLayout.setVisibility(View.GONE);
+            recyclerViewHistory.setVisibility(View.VISIBLE);
+        }
     }
 
     // ----------------------------------------------------------
@@ -284,18 +276,7 @@ public class ChargingHistoryActivity extends AppCompatActivity {
     }
 
     private void applyFilter(String status) {
-        filteredBookings.clear();
-
-        if (status == null) {
-            filteredBookings.addAll(allBookings);
-        } else {
-            for (BookingItem b : allBookings) {
-                if (b.getStatus() != null && b.getStatus().equalsIgnoreCase(status)) {
-                    filteredBookings.add(b);
-                }
-            }
-        }
-
-        adapter.setData(filteredBookings);
+        // Paged query on the local store; nothing is filtered in memory
+        pager.setFilter(status == null ? HISTORY_STATUSES : Collections.singletonList(status));
     }
 }
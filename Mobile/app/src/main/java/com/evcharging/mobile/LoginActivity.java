@@ -1,5 +1,6 @@
 package com.evcharging.mobile;
 
+import android.content.Context;
 import android.content.Intent;
 import android.os.AsyncTask;
 import android.os.Bundle;
@@ -7,7 +8,6 @@ import android.text.InputType;
 import android.text.TextUtils;
 import android.text.method.HideReturnsTransformationMethod;
 import android.text.method.PasswordTransformationMethod;
-import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.CheckBox;
@@ -19,15 +19,15 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.ConnectionWarmer;
+import com.evcharging.mobile.service.LoginPrefetcher;
 import com.evcharging.mobile.session.SessionManager;
 import com.evcharging.mobile.utils.DialogUtils;
 import com.evcharging.mobile.utils.JwtUtils;
 
 import java.lang.ref.WeakReference;
-import java.util.concurrent.Executors;
 
 public class LoginActivity extends AppCompatActivity {
 
@@ -88,6 +88,13 @@ public class LoginActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // DNS + TLS before the user taps "Login", so login and getUser go out on a hot connection
+        ConnectionWarmer.getInstance().warmUp("login visible");
+    }
+
     private void togglePasswordVisibility() {
         if (isPasswordVisible) {
             etPassword.setTransformationMethod(PasswordTransformationMethod.getInstance());
@@ -189,9 +196,9 @@ public class LoginActivity extends AppCompatActivity {
                     return;
                 }
 
-                loadAndSaveUser(token);
-
                 if (role.equalsIgnoreCase("operator") || role.equalsIgnoreCase("owner")) {
+                    // Profile, notifications and the role's data load while the home screen opens
+                    prefetchForRole(token);
                     redirectToRoleHome(token);
                     finish();
                 } else {
@@ -217,21 +224,11 @@ public class LoginActivity extends AppCompatActivity {
         }
     }
 
-    private void loadAndSaveUser(String token) {
-        Executors.newSingleThreadExecutor().execute(() -> {
-            // This runs on a background thread
-            ApiResponse response = apiClient.getUser();
-            if (response.isSuccess() && response.getData() != null) {
-                Log.d("LOGIN", "Profile Loaded");
-                User user = apiClient.parseLoggedOwner(response.getData());
-
-                // Save user on main thread
-                runOnUiThread(() -> sessionManager.saveLoggedInUser(user));
-            } else {
-                runOnUiThread(() ->
-                        DialogUtils.showToast(LoginActivity.this,
-                                "Failed to load user profile after login")
-                );
+    private void prefetchForRole(String token) {
+        Context appContext = getApplicationContext();
+        LoginPrefetcher.getInstance(this).start(token).thenAccept(report -> {
+            if (!report.succeeded(LoginPrefetcher.Stage.PROFILE)) {
+                runOnUiThread(() -> DialogUtils.showToast(appContext, "Failed to load user profile after login"));
             }
         });
     }
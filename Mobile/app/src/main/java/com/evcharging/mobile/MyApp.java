@@ -18,7 +18,11 @@ import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.ProcessLifecycleOwner;
 
 import com.evcharging.mobile.model.Notification;
+import com.evcharging.mobile.network.ConnectionWarmer;
+import com.evcharging.mobile.service.AvailabilityCache;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.service.SignalRService;
+import com.evcharging.mobile.session.SessionManager;
 
 public class MyApp extends Application {
 
@@ -42,6 +46,11 @@ public class MyApp extends Application {
         // Create notification channel
         createNotificationChannel();
 
+        // Already logged in: the home screen's first calls come right away, connect now
+        if (new SessionManager(this).getToken() != null) {
+            ConnectionWarmer.getInstance().warmUp("app start");
+        }
+
         // Connect/disconnect SignalR based on app foreground/background
         ProcessLifecycleOwner.get().getLifecycle().addObserver((LifecycleEventObserver) (source, event) -> {
             if (event == Lifecycle.Event.ON_START) {
@@ -66,6 +75,14 @@ public class MyApp extends Application {
         if (notification == null)
             return;
 
+        // Booking notifications (approved, cancelled, ...) may free or take
+        // slots; the message doesn't say which station, so drop them all
+        AvailabilityCache.getInstance().invalidateAll();
+        // Same for cached booking lists, and the notification list just grew
+        ResourceRepository repository = ResourceRepository.getInstance(this);
+        repository.invalidate(ResourceRepository.STATION_BOOKINGS);
+        repository.invalidate(ResourceRepository.NOTIFICATIONS);
+
         // Publish notification to observers
         notificationLiveData.postValue(notification);
 
@@ -118,6 +135,12 @@ public class MyApp extends Application {
         }
     }
 
+    /** Seed the badge with the server's unread count (e.g. after the home screen loads). */
+    public void setNotificationCount(int count) {
+        notificationCount = count;
+        notificationCountLiveData.postValue(notificationCount);
+    }
+
     public void resetNotificationCount() {
         notificationCount = 0;
         notificationCountLiveData.postValue(notificationCount);
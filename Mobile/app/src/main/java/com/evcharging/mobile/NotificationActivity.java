@@ -11,8 +11,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.evcharging.mobile.MyApp;
 import com.evcharging.mobile.adapter.NotificationAdapter;
 import com.evcharging.mobile.model.Notification;
+import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.session.SessionManager;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,9 +24,9 @@ public class NotificationActivity extends AppCompatActivity
 
     private RecyclerView recyclerView;
     private NotificationAdapter adapter;
-    private List<Notification> notifications;
     private LinearLayout layoutEmptyState;
     private ApiClient apiClient;
+    private ResourceRepository repository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,13 +42,13 @@ public class NotificationActivity extends AppCompatActivity
         recyclerView = findViewById(R.id.recyclerViewNotifications);
         layoutEmptyState = findViewById(R.id.layoutEmptyState);
 
-        notifications = new ArrayList<>();
-        adapter = new NotificationAdapter(notifications, this);
+        adapter = new NotificationAdapter(new ArrayList<>(), this);
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
 
         apiClient = new ApiClient(new SessionManager(this));
+        repository = ResourceRepository.getInstance(this);
 
         // Observe global notifications published by MyApp
         MyApp app = (MyApp) getApplication();
@@ -60,39 +62,39 @@ public class NotificationActivity extends AppCompatActivity
         loadNotifications();
     }
 
+    // Cached list at once; the server's replaces it only if something changed
     private void loadNotifications() {
-        // Call API to get notifications in background thread
-        new Thread(() -> {
-            ApiResponse response = apiClient.getUserNotifications();
+        repository.load(apiClient, notificationsResource(), notificationsListener);
+    }
 
-            // Switch back to UI thread to update views
-            runOnUiThread(() -> {
-                if (response.isSuccess() && response.getData() != null) {
-                    // Parse the notifications from JSON response
-                    List<Notification> notificationList = apiClient.parseNotifications(response.getData());
-
-                    if (notificationList != null) {
-                        notifications.clear();
-                        notifications.addAll(notificationList);
-                        adapter.notifyDataSetChanged();
-                    } else {
-                        Toast.makeText(this, "Failed to parse notifications", Toast.LENGTH_SHORT).show();
-                    }
-                } else {
-                    // Show error message
-                    String errorMessage = response.getMessage() != null ? response.getMessage()
-                            : "Failed to load notifications";
-                    Toast.makeText(this, errorMessage, Toast.LENGTH_SHORT).show();
-                }
+    private void refreshNotifications() {
+        repository.refresh(apiClient, notificationsResource(), notificationsListener);
+    }
 
-                // Update empty state regardless of success/failure
-                updateEmptyState();
-            });
-        }).start();
+    private ResourceRepository.Resource<List<Notification>> notificationsResource() {
+        User user = new SessionManager(this).getLoggedInUser();
+        return ResourceRepository.notifications(apiClient, user != null ? user.getUserId() : null);
     }
 
+    private final ResourceRepository.Listener<List<Notification>> notificationsListener =
+            new ResourceRepository.Listener<List<Notification>>() {
+                @Override
+                public void onData(List<Notification> notifications) {
+                    // Diffed off the main thread; empty state follows the committed list
+                    adapter.submitNotifications(notifications, NotificationActivity.this::updateEmptyState);
+                }
+
+                @Override
+                public void onDone(String error) {
+                    if (error != null) {
+                        Toast.makeText(NotificationActivity.this, error, Toast.LENGTH_SHORT).show();
+                    }
+                    updateEmptyState();
+                }
+            };
+
     private void updateEmptyState() {
-        if (notifications.isEmpty()) {
+        if (adapter.getItemCount() == 0) {
             layoutEmptyState.setVisibility(View.VISIBLE);
             recyclerView.setVisibility(View.GONE);
         } else {
@@ -103,10 +105,10 @@ public class NotificationActivity extends AppCompatActivity
 
     private void addNotificationToList(Notification n) {
         // Add at top so newest appear first
-        notifications.add(0, n);
-        adapter.notifyItemInserted(0);
-        recyclerView.scrollToPosition(0);
-        updateEmptyState();
+        adapter.addNotificationAtTop(n, () -> {
+            recyclerView.scrollToPosition(0);
+            updateEmptyState();
+        });
     }
 
     @Override
@@ -121,7 +123,7 @@ public class NotificationActivity extends AppCompatActivity
                     MyApp app = (MyApp) getApplication();
                     app.markNotificationAsRead(notificationId);
                     // Refresh notifications to get updated status
-                    loadNotifications();
+                    refreshNotifications();
                 } else {
                     String errorMessage = response.getMessage() != null ? response.getMessage()
                             : "Failed to mark as read";
@@ -133,20 +135,23 @@ public class NotificationActivity extends AppCompatActivity
 
     @Override
     public void onDelete(String notificationId) {
+        // Drop the row right away; the empty state waits for the diff to commit
+        adapter.removeNotification(notificationId, this::updateEmptyState);
+
         // Call API to delete notification in background thread
         new Thread(() -> {
             ApiResponse response = apiClient.deleteNotification(notificationId);
+            if (response.isSuccess()) repository.invalidate(ResourceRepository.NOTIFICATIONS);
 
             runOnUiThread(() -> {
                 if (response.isSuccess()) {
                     Toast.makeText(this, "Notification deleted", Toast.LENGTH_SHORT).show();
-                    // No need to refresh - adapter already removes item
                 } else {
                     String errorMessage = response.getMessage() != null ? response.getMessage()
                             : "Failed to delete notification";
                     Toast.makeText(this, errorMessage, Toast.LENGTH_SHORT).show();
                     // Refresh to restore deleted item on failure
-                    loadNotifications();
+                    refreshNotifications();
                 }
             });
         }).start();
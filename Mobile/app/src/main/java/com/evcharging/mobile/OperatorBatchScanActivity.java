@@ -0,0 +1,294 @@
+package com.evcharging.mobile;
+
+import android.Manifest;
+import android.content.pm.PackageManager;
+import android.os.AsyncTask;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.ArrayAdapter;
+import android.widget.ImageButton;
+import android.widget.ListView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
+
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.StationBookingRow;
+import com.evcharging.mobile.model.User;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.service.OperatorOfflineStore;
+import com.evcharging.mobile.session.SessionManager;
+import com.google.zxing.client.android.BeepManager;
+import com.journeyapps.barcodescanner.BarcodeResult;
+import com.journeyapps.barcodescanner.DecoratedBarcodeView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OperatorBatchScanActivity - continuous QR scanning at the station
+ *
+ * Purpose: Keep the camera open and start charging for every booking QR code
+ * held up to it, without opening each booking first. Decoded codes are hashed
+ * and matched against an in-memory index of today's bookings, starts are
+ * collected for a short window and sent together, and every scan shows how
+ * long matching and confirming took.
+ */
+public class OperatorBatchScanActivity extends AppCompatActivity {
+
+    private static final int CAMERA_REQUEST = 102;
+    // Scans arriving within this window go out in one batch
+    private static final long BATCH_WINDOW_MS = 400;
+    private static final int MAX_BATCH = 8;
+    // The camera decodes a code held in view many times a second
+    private static final long REPEAT_IGNORE_MS = 3000;
+
+    /** One decoded code and what happened to it. */
+    private static final class ScanEntry {
+        final StationBookingRow row; // null if the code isn't a booking here today
+        final long decodedAt;
+        final long matchMs;
+        String state;
+        long doneMs = -1;
+
+        ScanEntry(StationBookingRow row, long decodedAt, long matchMs) {
+            this.row = row;
+            this.decodedAt = decodedAt;
+            this.matchMs = matchMs;
+        }
+
+        @Override
+        public String toString() {
+            String label = row != null
+                    ? "Slot " + row.getSlotNumber() + " · " + row.getOwnerName() + " · " + row.getStartTime()
+                    : "Unknown code";
+            return label + "\n" + state + "   matched " + matchMs + " ms"
+                    + (doneMs >= 0 ? ", done " + doneMs + " ms" : "");
+        }
+    }
+
+    private ApiClient apiClient;
+    private OperatorOfflineStore offlineStore;
+    private BeepManager beepManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DecoratedBarcodeView barcodeView;
+    private TextView tvScanStats;
+    private ArrayAdapter<ScanEntry> logAdapter;
+
+    private Map<String, StationBookingRow> scanIndex; // null until loaded
+    private final Map<String, Long> lastSeen = new HashMap<>();
+    private final Set<String> handledBookings = new HashSet<>();
+    private final List<ScanEntry> pendingBatch = new ArrayList<>();
+    private final List<ScanEntry> scanLog = new ArrayList<>();
+    private final Runnable flushRunnable = this::flushBatch;
+
+    private int started, queued, rejected, confirmedCount;
+    private long matchTotalMs, doneTotalMs;
+    private boolean destroyed;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_operator_batch_scan);
+        setTitle("Batch QR Scan");
+        FooterHelper.setupFooter(this);
+
+        SessionManager session = new SessionManager(this);
+        apiClient = new ApiClient(session);
+        offlineStore = OperatorOfflineStore.getInstance(this);
+        beepManager = new BeepManager(this);
+
+        User user = session.getLoggedInUser();
+        if (user == null || user.getStationId() == null || user.getStationId().equals("string")) {
+            Toast.makeText(this, "No station assigned to this operator", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        ImageButton btnBack = findViewById(R.id.btnBack);
+        btnBack.setOnClickListener(v -> finish());
+        tvScanStats = findViewById(R.id.tvScanStats);
+        ListView lvScanLog = findViewById(R.id.lvScanLog);
+        logAdapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, scanLog);
+        lvScanLog.setAdapter(logAdapter);
+
+        barcodeView = findViewById(R.id.barcodeView);
+        barcodeView.setStatusText("Hold booking QR codes up to the camera");
+        barcodeView.decodeContinuous(this::onScanned);
+
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA)
+                != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.CAMERA}, CAMERA_REQUEST);
+        }
+
+        loadScanIndex(user.getStationId());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (barcodeView != null && ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA)
+                == PackageManager.PERMISSION_GRANTED) {
+            barcodeView.resume();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (barcodeView == null) return;
+        barcodeView.pause();
+        // Don't leave scans waiting in the batch window
+        flushBatch();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        destroyed = true;
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode != CAMERA_REQUEST) return;
+        if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
+            barcodeView.resume();
+        } else {
+            Toast.makeText(this, "Camera permission is needed to scan", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Index
+    // ---------------------------------------------------------------------
+
+    /** Today's bookings as saved by the dashboard's last sync. */
+    private void loadScanIndex(String stationId) {
+        new AsyncTask<Void, Void, Map<String, StationBookingRow>>() {
+            @Override
+            protected Map<String, StationBookingRow> doInBackground(Void... voids) {
+                return offlineStore.loadScanIndex(stationId);
+            }
+
+            @Override
+            protected void onPostExecute(Map<String, StationBookingRow> index) {
+                if (destroyed) return;
+                scanIndex = index;
+                if (index.isEmpty()) {
+                    tvScanStats.setText("No bookings saved for today. Refresh the dashboard and try again.");
+                } else {
+                    updateStats();
+                }
+            }
+        }.execute();
+    }
+
+    // ---------------------------------------------------------------------
+    // Scanning
+    // ---------------------------------------------------------------------
+
+    private void onScanned(BarcodeResult result) {
+        String text = result.getText();
+        if (text == null || text.trim().isEmpty()) return;
+        if (scanIndex == null) {
+            barcodeView.setStatusText("Still loading today's bookings…");
+            return;
+        }
+
+        String hash = OperatorOfflineStore.hashToken(text);
+        long now = SystemClock.elapsedRealtime();
+        Long seen = lastSeen.put(hash, now);
+        if (seen != null && now - seen < REPEAT_IGNORE_MS) return;
+
+        StationBookingRow row = scanIndex.get(hash);
+        long matchMs = Math.max(0, System.currentTimeMillis() - result.getTimestamp());
+        matchTotalMs += matchMs;
+        beepManager.playBeepSoundAndVibrate();
+
+        ScanEntry entry = new ScanEntry(row, result.getTimestamp(), matchMs);
+        if (row == null) {
+            entry.state = "✗ Not a booking at this station today";
+            rejected++;
+        } else if (handledBookings.contains(row.getBookingId())) {
+            entry.state = "Already scanned";
+        } else if (row.getStatus() != BookingStatus.APPROVED && row.getStatus() != BookingStatus.PENDING) {
+            entry.state = "✗ Booking is " + row.getRawStatus();
+            rejected++;
+        } else {
+            entry.state = "Starting…";
+            handledBookings.add(row.getBookingId());
+            addToBatch(entry);
+        }
+        scanLog.add(0, entry);
+        logAdapter.notifyDataSetChanged();
+        updateStats();
+    }
+
+    private void addToBatch(ScanEntry entry) {
+        pendingBatch.add(entry);
+        if (pendingBatch.size() >= MAX_BATCH) {
+            flushBatch();
+        } else if (pendingBatch.size() == 1) {
+            mainHandler.postDelayed(flushRunnable, BATCH_WINDOW_MS);
+        }
+    }
+
+    private void flushBatch() {
+        mainHandler.removeCallbacks(flushRunnable);
+        if (pendingBatch.isEmpty()) return;
+
+        List<ScanEntry> batch = new ArrayList<>(pendingBatch);
+        pendingBatch.clear();
+        List<String> ids = new ArrayList<>(batch.size());
+        for (ScanEntry e : batch) ids.add(e.row.getBookingId());
+
+        offlineStore.startBatch(apiClient, ids, results -> {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                ScanEntry entry = batch.get(i);
+                OperatorOfflineStore.BatchResult r = results.get(i);
+                entry.doneMs = Math.max(0, now - entry.decodedAt);
+                doneTotalMs += entry.doneMs;
+                confirmedCount++;
+                if (r.isSuccess()) {
+                    entry.state = r.queued ? "✓ Charging (offline, will sync)" : "✓ Charging";
+                    started++;
+                    if (r.queued) queued++;
+                } else {
+                    entry.state = "✗ " + r.error;
+                    rejected++;
+                    // Let the operator try this one again
+                    handledBookings.remove(r.bookingId);
+                }
+            }
+            if (destroyed) return;
+            logAdapter.notifyDataSetChanged();
+            updateStats();
+        });
+    }
+
+    private void updateStats() {
+        int scans = scanLog.size();
+        StringBuilder sb = new StringBuilder();
+        sb.append(scanIndex != null ? scanIndex.size() : 0).append(" bookings today · ")
+                .append(started).append(" started");
+        if (queued > 0) sb.append(" (").append(queued).append(" offline)");
+        sb.append(" · ").append(rejected).append(" rejected");
+        if (scans > 0) sb.append("\nAvg match ").append(matchTotalMs / scans).append(" ms");
+        if (confirmedCount > 0) sb.append(" · avg done ").append(doneTotalMs / confirmedCount).append(" ms");
+        tvScanStats.setText(sb.toString());
+    }
+}
@@ -10,29 +10,42 @@ import android.util.Log;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.evcharging.mobile.adapter.StationBookingAdapter;
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.StationBookingRow;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.LoginPrefetcher;
+import com.evcharging.mobile.service.OperatorOfflineStore;
 import com.evcharging.mobile.session.SessionManager;
 import com.evcharging.mobile.utils.DialogUtils;
+import com.evcharging.mobile.utils.StationAnalytics;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class OperatorHomeActivity extends AppCompatActivity {
 
     private ApiClient apiClient;
     private SessionManager session;
+    private OperatorOfflineStore offlineStore;
     private ImageView ivProfile;
     private TextView tvWelcomeOperator, tvStationInfo, tvOperatorId;
-    private Button btnViewProfile, btnUpdateSlots, btnViewBookings;
+    private Button btnViewProfile, btnUpdateSlots, btnViewBookings, btnBatchScan;
     private ImageButton btnLogout, btnNotificationsOp;
     private TextView tvNotificationCountOp;
-    private ListView lvTodayReservations;
+    private TextView tvOccupancy, tvQueueDepth, tvAvgSession, tvNoShowRate, tvSlotOccupancy;
+    private RecyclerView rvTodayReservations;
+    private StationBookingAdapter todayAdapter;
     private SwipeRefreshLayout srTodayReservations;
     private LinearLayout emptyTodayReservations; // Add this
     private MyApp app;
@@ -47,6 +60,7 @@ public class OperatorHomeActivity extends AppCompatActivity {
 
         session = new SessionManager(this);
         apiClient = new ApiClient(session);
+        offlineStore = OperatorOfflineStore.getInstance(this);
         bindViews();
         loadOperatorBasics();
         wireClicks();
@@ -82,15 +96,26 @@ public class OperatorHomeActivity extends AppCompatActivity {
         tvWelcomeOperator = findViewById(R.id.tvWelcomeOperator);
         tvStationInfo = findViewById(R.id.tvStationInfo);
         tvOperatorId = findViewById(R.id.tvOperatorId);
+        ApiMetricsActivity.attachDebugEntry(tvWelcomeOperator);
         btnViewProfile = findViewById(R.id.btnViewProfile);
         btnUpdateSlots = findViewById(R.id.btnUpdateSlots);
         btnViewBookings = findViewById(R.id.btnViewBookings);
+        btnBatchScan = findViewById(R.id.btnBatchScan);
         btnLogout = findViewById(R.id.btnLogout);
-        lvTodayReservations = findViewById(R.id.lvTodayReservations);
+        rvTodayReservations = findViewById(R.id.rvTodayReservations);
+        todayAdapter = new StationBookingAdapter(R.layout.today_reservation_item, "Booking ID: ",
+                this::openReservation);
+        rvTodayReservations.setLayoutManager(new LinearLayoutManager(this));
+        rvTodayReservations.setAdapter(todayAdapter);
         srTodayReservations = findViewById(R.id.srTodayReservations);
         emptyTodayReservations = findViewById(R.id.emptyTodayReservations); // Initialize this
         btnNotificationsOp = findViewById(R.id.btnNotificationsOp);
         tvNotificationCountOp = findViewById(R.id.tvNotificationCountOp);
+        tvOccupancy = findViewById(R.id.tvOccupancy);
+        tvQueueDepth = findViewById(R.id.tvQueueDepth);
+        tvAvgSession = findViewById(R.id.tvAvgSession);
+        tvNoShowRate = findViewById(R.id.tvNoShowRate);
+        tvSlotOccupancy = findViewById(R.id.tvSlotOccupancy);
     }
 
     private void loadOperatorBasics() {
@@ -124,18 +149,19 @@ public class OperatorHomeActivity extends AppCompatActivity {
         });
 
         btnViewBookings.setOnClickListener(v -> startActivity(new Intent(this, AllBookingsActivity.class)));
+        btnBatchScan.setOnClickListener(v -> startActivity(new Intent(this, OperatorBatchScanActivity.class)));
     }
 
     private void showEmptyTodayReservations() {
-        if (lvTodayReservations != null && emptyTodayReservations != null) {
-            lvTodayReservations.setVisibility(View.GONE);
+        if (rvTodayReservations != null && emptyTodayReservations != null) {
+            rvTodayReservations.setVisibility(View.GONE);
             emptyTodayReservations.setVisibility(View.VISIBLE);
         }
     }
 
     private void showTodayReservationsList() {
-        if (lvTodayReservations != null && emptyTodayReservations != null) {
-            lvTodayReservations.setVisibility(View.VISIBLE);
+        if (rvTodayReservations != null && emptyTodayReservations != null) {
+            rvTodayReservations.setVisibility(View.VISIBLE);
             emptyTodayReservations.setVisibility(View.GONE);
         }
     }
@@ -144,76 +170,124 @@ public class OperatorHomeActivity extends AppCompatActivity {
         User user = session.getLoggedInUser();
 
         if (user == null || user.getStationId() == null || user.getStationId().equals("string")) {
-            String[] msg = { "No station assigned yet" };
-            lvTodayReservations.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, msg));
+            todayAdapter.submit(null, null);
             srTodayReservations.setRefreshing(false);
             showEmptyTodayReservations();
             return;
         }
 
         srTodayReservations.setRefreshing(true);
+        // Right after login the prefetch pipeline is already syncing this station
+        CompletableFuture<LoginPrefetcher.Report> prefetch = LoginPrefetcher.getInstance(this).claim();
+
+        // Sync into the offline store, then always read from it, so a lost
+        // signal mid-shift still shows the last downloaded bookings
+        new AsyncTask<Void, Void, List<StationBookingRow>>() {
+            private OperatorOfflineStore.SyncResult syncResult;
+            private StationAnalytics.Snapshot analytics;
+            private LoginPrefetcher.Report prefetched;
 
-        new AsyncTask<Void, Void, ApiResponse>() {
             @Override
-            protected ApiResponse doInBackground(Void... voids) {
-                ApiClient apiClient = new ApiClient(session);
-                return apiClient.get("/bookings/station/" + user.getStationId() + "/today");
+            protected List<StationBookingRow> doInBackground(Void... voids) {
+                prefetched = prefetch != null ? prefetch.join() : null;
+                if (prefetched != null && prefetched.succeeded(LoginPrefetcher.Stage.STATION_BOOKINGS)) {
+                    syncResult = prefetched.getStationSync();
+                } else {
+                    syncResult = offlineStore.sync(apiClient, user.getStationId());
+                }
+                analytics = offlineStore.analytics(user.getStationId());
+                return offlineStore.loadToday(user.getStationId());
             }
 
             @Override
-            protected void onPostExecute(ApiResponse response) {
+            protected void onPostExecute(List<StationBookingRow> today) {
                 srTodayReservations.setRefreshing(false);
+                if (prefetched != null) showPrefetched(prefetched);
+                showSyncResult(syncResult);
+                showAnalytics(analytics);
+
+                List<StationBookingRow> reservations = new ArrayList<>();
+                for (StationBookingRow row : today) {
+                    // show only "Approved" or "Charging"
+                    if (row.getStatus() == BookingStatus.APPROVED || row.getStatus() == BookingStatus.CHARGING) {
+                        reservations.add(row);
+                    }
+                }
 
-                if (response == null || !response.isSuccess() || response.getData() == null) {
+                if (reservations.isEmpty()) {
+                    todayAdapter.submit(null, null);
                     showEmptyTodayReservations();
                     return;
                 }
 
-                try {
-                    JSONArray jsonArray = new JSONArray(response.getData());
-                    ArrayList<JSONObject> reservations = new ArrayList<>();
+                showTodayReservationsList();
+                // Rows that didn't change since the last refresh are not rebound
+                todayAdapter.submit(reservations, null);
+            }
 
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject obj = jsonArray.getJSONObject(i);
+        }.execute();
+    }
 
-                        // show only "Approved" or "Charging"
-                        String status = obj.optString("status", "");
-                        if ("Approved".equalsIgnoreCase(status) || "Charging".equalsIgnoreCase(status)) {
-                            reservations.add(obj);
-                        }
-                    }
+    // The profile may have brought a station name the token didn't have
+    private void showPrefetched(LoginPrefetcher.Report report) {
+        if (report.succeeded(LoginPrefetcher.Stage.PROFILE)) loadOperatorBasics();
+        int unread = report.getUnreadNotifications();
+        if (unread >= 0) app.setNotificationCount(unread);
+    }
 
-                    if (reservations.isEmpty()) {
-                        showEmptyTodayReservations();
-                        return;
-                    }
+    private void showAnalytics(StationAnalytics.Snapshot a) {
+        if (a == null) return;
+        tvOccupancy.setText(percent(a.getOccupancy()));
+        tvQueueDepth.setText(String.valueOf(a.getQueueDepth()));
+        tvAvgSession.setText(a.getAvgSessionMinutes() > 0
+                ? Math.round(a.getAvgSessionMinutes()) + " min" : "-");
+        tvNoShowRate.setText(percent(a.getNoShowRate()) + " / " + percent(a.getExpiryRate()));
 
-                    showTodayReservationsList();
-                    TodayReservationAdapter adapter = new TodayReservationAdapter(OperatorHomeActivity.this,
-                            reservations);
-                    lvTodayReservations.setAdapter(adapter);
-
-                    lvTodayReservations.setOnItemClickListener((parent, view, position, id) -> {
-                        JSONObject obj = reservations.get(position);
-                        Intent intent = new Intent(OperatorHomeActivity.this, BookingDetailsActivity.class);
-                        intent.putExtra("bookingId", obj.optString("bookingId"));
-                        intent.putExtra("status", obj.optString("status"));
-                        intent.putExtra("startTime", obj.optString("formattedStartTime", obj.optString("startTime")));
-                        intent.putExtra("endTime", obj.optString("formattedEndTime", obj.optString("endTime")));
-                        intent.putExtra("qrImageBase64", obj.optString("qrImageBase64"));
-                        intent.putExtra("qrCode", obj.optString("qrCode"));
-                        intent.putExtra("ownerName", obj.optString("ownerName"));
-                        intent.putExtra("slotNumber", obj.optInt("slotNumber"));
-                        startActivity(intent);
-                    });
-
-                } catch (Exception e) {
-                    Log.e("BOOKINGS", "Error parsing bookings: " + e.getMessage());
-                    showEmptyTodayReservations();
-                }
-            }
+        if (a.getOccupancyBySlot().isEmpty()) {
+            tvSlotOccupancy.setText("No sessions yet today");
+            return;
+        }
+        StringBuilder slots = new StringBuilder();
+        for (Map.Entry<Integer, Double> e : a.getOccupancyBySlot().entrySet()) {
+            if (slots.length() > 0) slots.append("   ");
+            slots.append("Slot ").append(e.getKey()).append(": ").append(percent(e.getValue()));
+        }
+        tvSlotOccupancy.setText(slots.toString());
+    }
 
-        }.execute();
+    private static String percent(double share) {
+        return String.format(Locale.getDefault(), "%.0f%%", share * 100);
+    }
+
+    private void showSyncResult(OperatorOfflineStore.SyncResult result) {
+        if (result == null) return;
+        if (result.offline) {
+            Toast.makeText(this, "Offline: showing saved bookings"
+                    + (result.pendingActions > 0 ? " (" + result.pendingActions + " actions waiting to sync)" : ""),
+                    Toast.LENGTH_LONG).show();
+        }
+        if (!result.conflicts.isEmpty()) {
+            StringBuilder message = new StringBuilder();
+            for (String c : result.conflicts) message.append("• ").append(c).append("\n\n");
+            new com.google.android.material.dialog.MaterialAlertDialogBuilder(this, R.style.CustomAlertDialog)
+                    .setTitle("Offline actions not applied")
+                    .setMessage(message.toString().trim())
+                    .setPositiveButton("OK", null)
+                    .show();
+        }
+    }
+
+    private void openReservation(StationBookingRow row) {
+        Intent intent = new Intent(OperatorHomeActivity.this, BookingDetailsActivity.class);
+        intent.putExtra("bookingId", row.getBookingId());
+        intent.putExtra("status", row.getRawStatus());
+        intent.putExtra("startTime", row.getStartTime());
+        intent.putExtra("endTime", row.getEndTime());
+        intent.putExtra("qrImageBase64", row.getQrImageBase64());
+        intent.putExtra("qrCode", row.getQrCode());
+        intent.putExtra("ownerName", row.getOwnerName());
+        intent.putExtra("slotNumber", row.getSlotNumber());
+        startActivity(intent);
     }
 
     private void attemptLogout() {
@@ -222,21 +296,43 @@ public class OperatorHomeActivity extends AppCompatActivity {
                 "🚪 Logout Confirmation",
                 "Are you sure you want to logout?",
                 "Yes, Logout",
-                () -> {
-                    // Perform logout safely
-                    ApiResponse response = apiClient.logout();
-                    String message = (response != null && response.getMessage() != null)
-                            ? response.getMessage()
-                            : "Logged out successfully";
-
-                    DialogUtils.showToast(this, message);
-
-                    // Redirect to login screen
-                    Intent intent = new Intent(this, LoginActivity.class);
-                    intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                    startActivity(intent);
-                    finish();
-                });
+                () -> offlineStore.flushPending(apiClient, result -> {
+                    if (isFinishing() || isDestroyed()) return;
+                    if (result.pendingActions > 0) {
+                        confirmDiscardPending(result.pendingActions);
+                    } else {
+                        performLogout();
+                    }
+                }));
+    }
+
+    // Logging out clears the local queue; actions that never reached the server would be lost
+    private void confirmDiscardPending(int pending) {
+        DialogUtils.showDialog(
+                this,
+                "⚠️ Unsent offline actions",
+                pending + (pending == 1 ? " start/finalize action" : " start/finalize actions")
+                        + " made offline could not be sent to the server. Logging out now discards "
+                        + (pending == 1 ? "it" : "them")
+                        + " for good. Cancel to stay signed in and log out once you're back online.",
+                "Log out anyway",
+                this::performLogout);
+    }
+
+    private void performLogout() {
+        // Perform logout safely
+        ApiResponse response = apiClient.logout();
+        String message = (response != null && response.getMessage() != null)
+                ? response.getMessage()
+                : "Logged out successfully";
+
+        DialogUtils.showToast(this, message);
+
+        // Redirect to login screen
+        Intent intent = new Intent(this, LoginActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        startActivity(intent);
+        finish();
     }
 
     private void updateNotificationCountOp() {
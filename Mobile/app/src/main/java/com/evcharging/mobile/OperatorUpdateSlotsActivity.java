@@ -1,32 +1,32 @@
 package com.evcharging.mobile;
 
 import android.app.AlertDialog;
-import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
-import android.view.View;
-import android.view.ViewGroup;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.evcharging.mobile.adapter.OperatorSlotAdapter;
+import com.evcharging.mobile.model.SlotRow;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.session.SessionManager;
 
-import org.json.JSONArray;
 import org.json.JSONObject;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 
 public class OperatorUpdateSlotsActivity extends AppCompatActivity {
 
     private SessionManager session;
-    private ListView lvSlots;
+    private RecyclerView rvSlots;
     private SwipeRefreshLayout swipeRefresh;
-    private ArrayList<HashMap<String, String>> slotList = new ArrayList<>();
-    private SlotAdapter adapter;
+    private OperatorSlotAdapter adapter;
     private ApiClient apiClient;
+    private ResourceRepository repository;
     private static final String TAG = "OperatorUpdateSlots";
 
     @Override
@@ -37,170 +37,53 @@ public class OperatorUpdateSlotsActivity extends AppCompatActivity {
 
         session = new SessionManager(this);
         apiClient = new ApiClient(session);
+        repository = ResourceRepository.getInstance(this);
 
-        lvSlots = findViewById(R.id.lvSlots);
+        rvSlots = findViewById(R.id.rvSlots);
         swipeRefresh = findViewById(R.id.swipeRefresh);
 
+        adapter = new OperatorSlotAdapter(this::showStatusChangeDialog);
+        rvSlots.setLayoutManager(new LinearLayoutManager(this));
+        rvSlots.setAdapter(adapter);
+
         ImageButton btnBack = findViewById(R.id.btnBack);
         if (btnBack != null) {
             btnBack.setOnClickListener(v -> finish());
         }
 
-        swipeRefresh.setOnRefreshListener(this::loadSlots);
+        swipeRefresh.setOnRefreshListener(this::refreshSlots);
         loadSlots();
     }
 
+    // Cached slots at once; the server's replace them only if something changed
     private void loadSlots() {
         swipeRefresh.setRefreshing(true);
-        String stationId = session.getStationId();
-        String url = "/slots/station/" + stationId;
-
-        new Thread(() -> {
-            try {
-                ApiResponse response = apiClient.get(url);
-                Log.d(TAG, "GET /slots response: " + response.getMessage());
-
-                if (response.isSuccess() && response.getData() != null) {
-                    runOnUiThread(() -> {
-                        parseSlots(response.getData().toString());
-                        swipeRefresh.setRefreshing(false);
-                    });
-                } else {
-                    runOnUiThread(() -> {
-                        swipeRefresh.setRefreshing(false);
-                        Toast.makeText(this, "Failed: " + response.getMessage(), Toast.LENGTH_SHORT).show();
-                    });
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading slots", e);
-                runOnUiThread(() -> {
-                    swipeRefresh.setRefreshing(false);
-                    Toast.makeText(this, "Network error", Toast.LENGTH_SHORT).show();
-                });
-            }
-        }).start();
+        repository.load(apiClient, ResourceRepository.slots(session.getStationId()), slotsListener);
     }
 
-    private void parseSlots(String responseData) {
-        try {
-            JSONArray arr = new JSONArray(responseData);
-            slotList.clear();
-
-            for (int i = 0; i < arr.length(); i++) {
-                JSONObject s = arr.getJSONObject(i);
-                HashMap<String, String> map = new HashMap<>();
-                map.put("SlotId", s.optString("slotId"));
-                map.put("Number", s.optString("number"));
-                map.put("ConnectorType", s.optString("connectorType"));
-                map.put("Status", s.optString("status"));
-                slotList.add(map);
-            }
-
-            if (adapter == null) {
-                adapter = new SlotAdapter();
-                lvSlots.setAdapter(adapter);
-            } else {
-                adapter.notifyDataSetChanged();
-            }
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing slot JSON", e);
-        }
+    private void refreshSlots() {
+        repository.refresh(apiClient, ResourceRepository.slots(session.getStationId()), slotsListener);
     }
 
-    private class SlotAdapter extends BaseAdapter {
-        @Override
-        public int getCount() {
-            return slotList.size();
-        }
-
-        @Override
-        public Object getItem(int position) {
-            return slotList.get(position);
-        }
-
-        @Override
-        public long getItemId(int position) {
-            return position;
-        }
-
-        @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            if (convertView == null)
-                convertView = getLayoutInflater().inflate(R.layout.slot_list_item, parent, false);
-
-            View vStatusIndicator = convertView.findViewById(R.id.vStatusIndicator);
-            ImageView ivStatus = convertView.findViewById(R.id.ivStatus);
-            TextView tvTitle = convertView.findViewById(R.id.tvSlotTitle);
-            TextView tvSubtitle = convertView.findViewById(R.id.tvSlotSubtitle);
-            TextView tvStatusText = convertView.findViewById(R.id.tvStatusText);
-
-            HashMap<String, String> slot = slotList.get(position);
-            String number = slot.get("Number");
-            String type = slot.get("ConnectorType");
-            String status = slot.get("Status");
-
-            tvTitle.setText("Slot " + number);
-            tvSubtitle.setText(type);
-
-            // Modern status UI handling
-            switch (status.toLowerCase()) {
-                case "available":
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#4CAF50"));
-                    ivStatus.setImageResource(R.drawable.ic_check_circle);
-                    ivStatus.setColorFilter(Color.parseColor("#4CAF50"));
-                    tvStatusText.setTextColor(Color.parseColor("#4CAF50"));
-                    tvStatusText.setText("Available");
-                    break;
-
-                case "booked":
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#FFA726"));
-                    ivStatus.setImageResource(R.drawable.ic_hourglass_empty);
-                    ivStatus.setColorFilter(Color.parseColor("#FFA726"));
-                    tvStatusText.setTextColor(Color.parseColor("#FFA726"));
-                    tvStatusText.setText("Booked");
-                    break;
-
-                case "charging":
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#1E88E5"));
-                    ivStatus.setImageResource(R.drawable.ic_flash_on);
-                    ivStatus.setColorFilter(Color.parseColor("#1E88E5"));
-                    tvStatusText.setTextColor(Color.parseColor("#1E88E5"));
-                    tvStatusText.setText("Charging");
-                    break;
-
-                case "under maintenance":
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#FFC107"));
-                    ivStatus.setImageResource(R.drawable.ic_build);
-                    ivStatus.setColorFilter(Color.parseColor("#FFC107"));
-                    tvStatusText.setTextColor(Color.parseColor("#FFC107"));
-                    tvStatusText.setText("Maintenance");
-                    break;
-
-                case "out of order":
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#E53935"));
-                    ivStatus.setImageResource(R.drawable.ic_error);
-                    ivStatus.setColorFilter(Color.parseColor("#E53935"));
-                    tvStatusText.setTextColor(Color.parseColor("#E53935"));
-                    tvStatusText.setText("Out of Order");
-                    break;
-
-                default:
-                    vStatusIndicator.setBackgroundColor(Color.parseColor("#9E9E9E"));
-                    ivStatus.setImageResource(R.drawable.ic_info);
-                    ivStatus.setColorFilter(Color.parseColor("#9E9E9E"));
-                    tvStatusText.setTextColor(Color.parseColor("#9E9E9E"));
-                    tvStatusText.setText("Unknown");
-                    break;
-            }
+    private final ResourceRepository.Listener<List<SlotRow>> slotsListener =
+            new ResourceRepository.Listener<List<SlotRow>>() {
+                @Override
+                public void onData(List<SlotRow> rows) {
+                    swipeRefresh.setRefreshing(false);
+                    adapter.submit(rows);
+                }
 
-            convertView.setOnClickListener(v -> showStatusChangeDialog(slot));
-            return convertView;
-        }
-    }
+                @Override
+                public void onDone(String error) {
+                    swipeRefresh.setRefreshing(false);
+                    if (error != null) {
+                        Toast.makeText(OperatorUpdateSlotsActivity.this, "Failed: " + error, Toast.LENGTH_SHORT).show();
+                    }
+                }
+            };
 
-    private void showStatusChangeDialog(HashMap<String, String> slot) {
-        String currentStatus = slot.get("Status");
+    private void showStatusChangeDialog(SlotRow slot) {
+        String currentStatus = slot.getStatus();
 
         if (currentStatus.equalsIgnoreCase("Charging")) {
             Toast.makeText(this, "Cannot change status of an active charging slot!", Toast.LENGTH_SHORT).show();
@@ -241,8 +124,8 @@ public class OperatorUpdateSlotsActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void updateSlotStatus(HashMap<String, String> slot, String newStatus) {
-        String slotId = slot.get("SlotId");
+    private void updateSlotStatus(SlotRow slot, String newStatus) {
+        String slotId = slot.getSlotId();
         String url = "/slots/" + slotId + "/status";
 
         new Thread(() -> {
@@ -251,6 +134,7 @@ public class OperatorUpdateSlotsActivity extends AppCompatActivity {
                 body.put("status", newStatus);
 
                 ApiResponse response = apiClient.patch(url, body);
+                if (response.isSuccess()) repository.invalidate(ResourceRepository.SLOTS + session.getStationId());
 
                 Log.d(TAG, "PATCH response message: " + response.getMessage());
                 Log.d(TAG, "PATCH response data: " + response.getData());
@@ -258,7 +142,8 @@ public class OperatorUpdateSlotsActivity extends AppCompatActivity {
                 runOnUiThread(() -> {
                     if (response.isSuccess()) {
                         Toast.makeText(this, "Slot status updated to: " + newStatus, Toast.LENGTH_SHORT).show();
-                        loadSlots();
+                        // Only the edited slot changes; no need to reload the whole list
+                        adapter.updateStatus(slotId, newStatus);
                     } else {
                         Toast.makeText(this, "Failed: " + response.getMessage(), Toast.LENGTH_SHORT).show();
                     }
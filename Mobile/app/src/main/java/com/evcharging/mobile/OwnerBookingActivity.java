@@ -15,21 +15,30 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
+import com.evcharging.mobile.model.BookingItem;
 import com.evcharging.mobile.model.Station;
 import com.evcharging.mobile.model.SlotItem;
 import com.evcharging.mobile.model.TimeSlotItem;
+import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.AvailabilitySearch;
+import com.evcharging.mobile.service.AvailabilityService;
+import com.evcharging.mobile.service.BookingStore;
+import com.evcharging.mobile.service.ResourceRepository;
+import com.evcharging.mobile.service.StationCache;
+import com.evcharging.mobile.service.StationService;
+import com.evcharging.mobile.utils.DialogUtils;
+import com.evcharging.mobile.utils.AvailabilityMatrix;
+import com.evcharging.mobile.utils.AvailabilitySummary;
 import com.evcharging.mobile.session.SessionManager;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.datepicker.CalendarConstraints;
 import com.google.android.material.datepicker.MaterialDatePicker;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.lang.reflect.Type;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -38,7 +47,7 @@ import java.util.concurrent.Executors;
 public class OwnerBookingActivity extends AppCompatActivity {
 
     private Spinner spnType, spnStation, spnSlot, spnTimeSlot;
-    private com.google.android.material.button.MaterialButton btnSelectDate, btnConfirmBooking;
+    private com.google.android.material.button.MaterialButton btnSelectDate, btnConfirmBooking, btnFindEarliest;
     private TextView tvSelectedDate, tvHints;
     private Date selectedDate;
 
@@ -56,6 +65,16 @@ public class OwnerBookingActivity extends AppCompatActivity {
     private List<SlotItem> slots = new ArrayList<>();
     private List<TimeSlotItem> timeSlots = new ArrayList<>();
 
+    // Whole 7-day availability of the selected station, filled in the background
+    private AvailabilityService availabilityService;
+    private AvailabilityMatrix availability;
+    // Free timeslot counts of the same station, once every cell has loaded
+    private AvailabilitySummary availabilitySummary;
+    private ArrayAdapter<String> slotAdapter;
+
+    // Earliest-free search across nearby stations
+    private AvailabilitySearch availabilitySearch;
+
     // Location handling from new version
     private static final double DEFAULT_LAT = 6.9908661;
     private static final double DEFAULT_LON = 79.9395566;
@@ -81,6 +100,8 @@ public class OwnerBookingActivity extends AppCompatActivity {
 
         sessionManager = new SessionManager(this);
         apiClient = new ApiClient(sessionManager);
+        availabilityService = new AvailabilityService(apiClient);
+        availabilitySearch = new AvailabilitySearch(new StationService(apiClient), availabilityService);
 
         // Get location data from new version
         Intent intent = getIntent();
@@ -106,11 +127,19 @@ public class OwnerBookingActivity extends AppCompatActivity {
         setupTypeSpinner();
         setupDatePicker();
         setupConfirm();
+        setupFindEarliest();
         setupFooterNavigation();
         highlightActiveTab("home");
         setupEnhancedUI();
     }
 
+    @Override
+    protected void onDestroy() {
+        availabilitySearch.shutdown();
+        availabilityService.shutdown();
+        super.onDestroy();
+    }
+
     // ---------------- Footer Navigation Setup ----------------
     private void setupFooterNavigation() {
         LinearLayout navHome = findViewById(R.id.navHome);
@@ -189,6 +218,7 @@ public class OwnerBookingActivity extends AppCompatActivity {
         spnTimeSlot = findViewById(R.id.spnTimeSlot);
         btnSelectDate = findViewById(R.id.btnSelectDate);
         btnConfirmBooking = findViewById(R.id.btnConfirmBooking);
+        btnFindEarliest = findViewById(R.id.btnFindEarliest);
         tvSelectedDate = findViewById(R.id.tvSelectedDate);
         tvHints = findViewById(R.id.tvHints);
     }
@@ -221,9 +251,9 @@ public class OwnerBookingActivity extends AppCompatActivity {
                     clearTimeSlots();
                     updateConfirmButtonState();
 
-                    if (selectedDateStr != null) {
-                        loadSlotsForStation(selectedStationId);
-                    } else {
+                    // Start loading the whole week now so later picks resolve locally
+                    prefetchAvailability(selectedStationId);
+                    if (selectedDateStr == null) {
                         showHint("Please select a date to see available slots");
                     }
                 }
@@ -240,7 +270,7 @@ public class OwnerBookingActivity extends AppCompatActivity {
                 if (slots != null && position < slots.size()) {
                     selectedSlotId = slots.get(position).slotId;
                     if (selectedStationId != null && selectedDateStr != null) {
-                        loadTimeslotsFor(selectedStationId, selectedSlotId, selectedDateStr);
+                        showTimeslotsForSelection();
                     }
                     updateConfirmButtonState();
                 }
@@ -322,94 +352,105 @@ public class OwnerBookingActivity extends AppCompatActivity {
     private void loadStationsByType(String selectedType) {
         Toast.makeText(this, "Fetching nearby " + selectedType + " stations...", Toast.LENGTH_SHORT).show();
 
-        Executors.newSingleThreadExecutor().execute(() -> {
-            ApiResponse res = null;
-            try {
-                // Use current location from new version, fallback to default
-                double lat = currentLat != 0.0 ? currentLat : DEFAULT_LAT;
-                double lng = currentLng != 0.0 ? currentLng : DEFAULT_LON;
-                res = apiClient.getNearbyStationsByType(selectedType, lat, lng, DEFAULT_RADIUS);
-            } catch (Exception e) {
-                Log.e("OwnerBooking", "Error fetching stations", e);
-            }
-
-            ApiResponse finalRes = res;
-            runOnUiThread(() -> {
-                if (finalRes == null || !finalRes.isSuccess()) {
-                    toast("Failed to fetch stations");
-                    return;
-                }
-
-                try {
-                    JSONArray arr = new JSONArray(finalRes.getData());
-                    stations.clear();
-
-                    for (int i = 0; i < arr.length(); i++) {
-                        JSONObject obj = arr.getJSONObject(i);
-                        Station s = new Station();
-                        s.setStationId(obj.optString("stationId"));
-                        s.setName(obj.optString("name"));
-                        s.setLocation(obj.optString("location"));
-                        s.setLatitude(obj.optDouble("latitude"));
-                        s.setLongitude(obj.optDouble("longitude"));
-                        s.setType(obj.optString("type"));
-                        stations.add(s);
+        // Use current location from new version, fallback to default
+        double lat = currentLat != 0.0 ? currentLat : DEFAULT_LAT;
+        double lng = currentLng != 0.0 ? currentLng : DEFAULT_LON;
+        StationCache cache = StationCache.getInstance(this);
+
+        // Last result for this area at once, the server's when it differs
+        ResourceRepository.getInstance(this).load(apiClient,
+                ResourceRepository.stationsNear(selectedType, lat, lng, DEFAULT_RADIUS),
+                new ResourceRepository.Listener<List<Station>>() {
+                    private List<Station> shown;
+
+                    @Override
+                    public void onData(List<Station> result) {
+                        shown = result;
+                        showStations(result, selectedType, false);
                     }
 
-                    // Include preselected station if not already present
-                    if (preselectedStationId != null) {
-                        boolean exists = false;
-                        for (Station s : stations) {
-                            if (s.getStationId().equals(preselectedStationId)) {
-                                exists = true;
-                                break;
-                            }
-                        }
-                        if (!exists) {
-                            Station pre = new Station();
-                            pre.setStationId(preselectedStationId);
-                            pre.setName(preselectedStationName + " (Selected)");
-                            pre.setLocation(preselectedLocation);
-                            pre.setLatitude(preselectedLat);
-                            pre.setLongitude(preselectedLng);
-                            pre.setType(selectedType);
-                            stations.add(0, pre);
+                    @Override
+                    public void onDone(String error) {
+                        if (error == null && shown != null) {
+                            // Keeps the offline station index and its area freshness current
+                            List<Station> current = shown;
+                            Executors.newSingleThreadExecutor().execute(() ->
+                                    cache.storeArea(current, lat, lng, DEFAULT_RADIUS, selectedType));
+                        } else if (shown == null) {
+                            // Offline or server error: fall back to stations cached from earlier lookups
+                            Executors.newSingleThreadExecutor().execute(() -> {
+                                List<Station> saved = cache.getNearby(lat, lng, DEFAULT_RADIUS, selectedType);
+                                runOnUiThread(() -> showStations(saved, selectedType, true));
+                            });
                         }
                     }
+                });
+    }
 
-                    if (stations.isEmpty()) {
-                        toast("No nearby " + selectedType + " stations found");
-                        return;
-                    }
+    private void showStations(List<Station> result, String selectedType, boolean fromCache) {
+        if (fromCache && result.isEmpty()) {
+            toast("Failed to fetch stations");
+            return;
+        }
 
-                    List<String> stationNames = new ArrayList<>();
-                    for (Station station : stations) {
-                        stationNames.add(station.getName());
+        try {
+            stations.clear();
+            stations.addAll(result);
+
+            // Include preselected station if not already present
+            if (preselectedStationId != null) {
+                boolean exists = false;
+                for (Station s : stations) {
+                    if (s.getStationId().equals(preselectedStationId)) {
+                        exists = true;
+                        break;
                     }
+                }
+                if (!exists) {
+                    Station pre = new Station();
+                    pre.setStationId(preselectedStationId);
+                    pre.setName(preselectedStationName + " (Selected)");
+                    pre.setLocation(preselectedLocation);
+                    pre.setLatitude(preselectedLat);
+                    pre.setLongitude(preselectedLng);
+                    pre.setType(selectedType);
+                    stations.add(0, pre);
+                }
+            }
 
-                    ArrayAdapter<String> stnAdapter = createEnhancedSpinnerAdapter(stationNames);
-                    stnAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
-                    spnStation.setAdapter(stnAdapter);
-
-                    // Preselect the station that came from the intent
-                    if (preselectedStationId != null) {
-                        for (int i = 0; i < stations.size(); i++) {
-                            if (stations.get(i).getStationId().equals(preselectedStationId)) {
-                                spnStation.setSelection(i);
-                                selectedStationId = preselectedStationId;
-                                break;
-                            }
-                        }
-                    }
+            if (stations.isEmpty()) {
+                toast("No nearby " + selectedType + " stations found");
+                return;
+            }
 
-                    toast(arr.length() + " stations found");
+            List<String> stationNames = new ArrayList<>();
+            for (Station station : stations) {
+                stationNames.add(station.getName());
+            }
 
-                } catch (Exception e) {
-                    Log.e("OwnerBooking", "JSON parse error", e);
-                    toast("Error parsing station data");
+            ArrayAdapter<String> stnAdapter = createEnhancedSpinnerAdapter(stationNames);
+            stnAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
+            spnStation.setAdapter(stnAdapter);
+
+            // Preselect the station that came from the intent
+            if (preselectedStationId != null) {
+                for (int i = 0; i < stations.size(); i++) {
+                    if (stations.get(i).getStationId().equals(preselectedStationId)) {
+                        spnStation.setSelection(i);
+                        selectedStationId = preselectedStationId;
+                        break;
+                    }
                 }
-            });
-        });
+            }
+
+            toast(fromCache
+                    ? result.size() + " saved stations (offline)"
+                    : result.size() + " stations found");
+
+        } catch (Exception e) {
+            Log.e("OwnerBooking", "Station list error", e);
+            toast("Error showing station data");
+        }
     }
 
     private void setupDatePicker() {
@@ -431,13 +472,15 @@ public class OwnerBookingActivity extends AppCompatActivity {
             maxDate.set(Calendar.MILLISECOND, 999);
 
             MaterialDatePicker<Long> datePicker = MaterialDatePicker.Builder.datePicker()
-                    .setTitleText("Select Reservation Date")
+                    .setTitleText(availabilitySummary != null
+                            ? "Select Reservation Date (fully booked days are disabled)"
+                            : "Select Reservation Date")
                     .setSelection(MaterialDatePicker.todayInUtcMilliseconds())
                     .setCalendarConstraints(
                             new CalendarConstraints.Builder()
                                     .setStart(today.getTimeInMillis()) // today as start date
                                     .setEnd(maxDate.getTimeInMillis()) // 6 days from today as max
-                                    .setValidator(new DateValidatorWeekAhead())
+                                    .setValidator(new DateValidatorWeekAhead(fullyBookedDates()))
                                     .build())
                     .build();
 
@@ -447,7 +490,9 @@ public class OwnerBookingActivity extends AppCompatActivity {
                 selectedDateStr = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(selectedDate);
                 String displayDate = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.getDefault()).format(selectedDate);
 
-                tvSelectedDate.setText(displayDate);
+                tvSelectedDate.setText(displayDate + freeCountSuffix(
+                        availabilitySummary != null ? availabilitySummary.countOnDay(selectedDateStr)
+                                : AvailabilitySummary.UNKNOWN));
                 tvSelectedDate.setTextColor(ContextCompat.getColor(getApplicationContext(), R.color.text_primary));
 
                 if (selectedStationId == null) {
@@ -455,7 +500,7 @@ public class OwnerBookingActivity extends AppCompatActivity {
                     return;
                 }
 
-                loadSlotsForStation(selectedStationId);
+                showSlotsForSelectedDate();
                 updateConfirmButtonState();
             });
 
@@ -463,10 +508,35 @@ public class OwnerBookingActivity extends AppCompatActivity {
         });
     }
 
+    /** yyyy-MM-dd days the selected station has no free timeslot on, if known. */
+    private String[] fullyBookedDates() {
+        if (availabilitySummary == null || !availabilitySummary.getStationId().equals(selectedStationId)) {
+            return new String[0];
+        }
+        List<String> booked = new ArrayList<>();
+        for (String date : availabilitySummary.getDates()) {
+            if (availabilitySummary.isFullyBooked(date)) booked.add(date);
+        }
+        return booked.toArray(new String[0]);
+    }
+
     private static class DateValidatorWeekAhead implements CalendarConstraints.DateValidator {
 
+        private final String[] fullyBooked;
+
+        DateValidatorWeekAhead(String[] fullyBooked) {
+            this.fullyBooked = fullyBooked;
+        }
+
         @Override
         public boolean isValid(long date) {
+            // The picker hands over UTC midnight of the day
+            SimpleDateFormat ymd = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+            ymd.setTimeZone(TimeZone.getTimeZone("UTC"));
+            if (Arrays.asList(fullyBooked).contains(ymd.format(new Date(date)))) {
+                return false;
+            }
+
             Calendar selected = Calendar.getInstance();
             selected.setTimeInMillis(date);
 
@@ -493,13 +563,13 @@ public class OwnerBookingActivity extends AppCompatActivity {
 
         @Override
         public void writeToParcel(Parcel dest, int flags) {
-            // Required for parcelable
+            dest.writeStringArray(fullyBooked);
         }
 
         public static final Creator<DateValidatorWeekAhead> CREATOR = new Creator<DateValidatorWeekAhead>() {
             @Override
             public DateValidatorWeekAhead createFromParcel(Parcel in) {
-                return new DateValidatorWeekAhead();
+                return new DateValidatorWeekAhead(in.createStringArray());
             }
 
             @Override
@@ -509,85 +579,155 @@ public class OwnerBookingActivity extends AppCompatActivity {
         };
     }
 
-    private void loadSlotsForStation(String stationId) {
-        clearSlots();
-
-        new AsyncTask<Void, Void, ApiResponse>() {
+    // ---------------- Availability (prefetched per station) ----------------
+    private void prefetchAvailability(String stationId) {
+        availability = null;
+        availabilitySummary = null;
+        showHint("Loading available slots...");
+        availabilityService.prefetch(stationId, new AvailabilityService.Listener() {
             @Override
-            protected void onPreExecute() {
-                Toast.makeText(OwnerBookingActivity.this, "Fetching slots...", Toast.LENGTH_SHORT).show();
-                showHint("Loading available slots...");
+            public void onSlotsLoaded(AvailabilityMatrix matrix) {
+                availability = matrix;
+                // Complete straight away when it came from the cache
+                availabilitySummary = matrix.isComplete() ? AvailabilitySummary.of(matrix) : null;
+                if (matrix.getSlots().isEmpty()) {
+                    showHint("No slots available for this station");
+                    return;
+                }
+                if (selectedDateStr != null) showSlotsForSelectedDate();
             }
 
             @Override
-            protected ApiResponse doInBackground(Void... voids) {
-                try {
-                    ApiResponse res = apiClient.getSlotsByStation(stationId);
-                    if (res != null && res.isSuccess())
-                        return res;
-                    return apiClient.getStationPublic(stationId);
-                } catch (Exception e) {
-                    Log.e("OwnerBooking", "Error fetching slots", e);
-                    return null;
+            public void onCellLoaded(AvailabilityMatrix matrix, int slotIndex, int dayIndex) {
+                // Only fill the spinner if the user is waiting on exactly this cell
+                if (timeSlots.isEmpty() && selectedSlotId != null && selectedDateStr != null
+                        && matrix.slotIndexOf(selectedSlotId) == slotIndex
+                        && matrix.dayIndexOf(selectedDateStr) == dayIndex) {
+                    showTimeslotsForSelection();
                 }
             }
 
             @Override
-            protected void onPostExecute(ApiResponse res) {
-                if (res == null) {
-                    toast("Failed to fetch slots");
-                    showHint("Failed to load slots. Please try again.");
-                    return;
+            public void onComplete(AvailabilityMatrix matrix, long elapsedMs) {
+                Log.d("OwnerBooking", "Availability ready in " + elapsedMs + " ms");
+                availabilitySummary = AvailabilitySummary.of(matrix);
+                if (matrix.getSlots().isEmpty()) return;
+                if (selectedDateStr == null) {
+                    showHint(weekSummaryHint(availabilitySummary));
+                } else {
+                    refreshSlotLabels();
                 }
+            }
 
-                List<SlotItem> slotList = new ArrayList<>();
-                try {
-                    JSONArray arr;
-                    if (res.getData().trim().startsWith("[")) {
-                        arr = new JSONArray(res.getData());
-                    } else {
-                        JSONObject stationObj = new JSONObject(res.getData());
-                        arr = stationObj.optJSONArray("slots");
-                    }
+            @Override
+            public void onError(String message) {
+                toast("Failed to fetch slots");
+                showHint(message);
+            }
+        });
+    }
 
-                    if (arr == null) {
-                        tvHints.setText("No slots available for this station");
-                        return;
-                    }
+    private void showSlotsForSelectedDate() {
+        clearSlots();
+        clearTimeSlots();
+        if (availability == null || !availability.getStationId().equals(selectedStationId)) {
+            // Still loading; onSlotsLoaded fills the spinner
+            showHint("Loading available slots...");
+            return;
+        }
 
-                    for (int i = 0; i < arr.length(); i++) {
-                        JSONObject o = arr.getJSONObject(i);
-                        SlotItem s = new SlotItem();
-                        s.slotId = o.optString("slotId");
-                        s.number = o.optString("number");
-                        s.status = o.optString("status");
-                        s.connectorType = o.optString("connectorType");
-                        slotList.add(s);
-                    }
+        slots = new ArrayList<>(availability.getSlots());
+        slotAdapter = createEnhancedSpinnerAdapter(slotLabels());
+        slotAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
+        spnSlot.setAdapter(slotAdapter);
 
-                    if (slotList.isEmpty()) {
-                        showHint("No slots found for selected date.");
-                        return;
-                    }
+        showHint(slots.size() + " slots available. Select a slot to continue.");
+    }
 
-                    slots = slotList;
+    private List<String> slotLabels() {
+        List<String> labels = new ArrayList<>();
+        for (SlotItem slot : slots) {
+            int free = availabilitySummary != null
+                    ? availabilitySummary.countForSlot(slot.slotId, selectedDateStr)
+                    : AvailabilitySummary.UNKNOWN;
+            labels.add(slot.toString() + freeCountSuffix(free));
+        }
+        return labels;
+    }
 
-                    List<String> slotStrings = new ArrayList<>();
-                    for (SlotItem slot : slots) {
-                        slotStrings.add(slot.toString());
-                    }
+    // Relabel in place so the spinner keeps its selection
+    private void refreshSlotLabels() {
+        if (slotAdapter == null || spnSlot.getAdapter() != slotAdapter) return;
+        List<String> labels = slotLabels();
+        if (labels.size() != slotAdapter.getCount()) return;
+        slotAdapter.setNotifyOnChange(false);
+        slotAdapter.clear();
+        slotAdapter.addAll(labels);
+        slotAdapter.notifyDataSetChanged();
+    }
 
-                    ArrayAdapter<String> slotAdapter = createEnhancedSpinnerAdapter(slotStrings);
-                    slotAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
-                    spnSlot.setAdapter(slotAdapter);
+    private static String freeCountSuffix(int free) {
+        if (free == AvailabilitySummary.UNKNOWN) return "";
+        return free == 0 ? "  ·  fully booked" : "  ·  " + free + " free";
+    }
 
-                    showHint(slotList.size() + " slots available. Select a slot to continue.");
-                } catch (Exception e) {
-                    Log.e("OwnerBooking", "Parse slots failed", e);
-                    showHint("Error parsing slot data.");
-                }
+    private static String weekSummaryHint(AvailabilitySummary summary) {
+        SimpleDateFormat ymd = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        SimpleDateFormat dayName = new SimpleDateFormat("EEE", Locale.getDefault());
+        StringBuilder sb = new StringBuilder("Free time slots this week:\n");
+        for (String date : summary.getDates()) {
+            int free = summary.countOnDay(date);
+            try {
+                sb.append(dayName.format(ymd.parse(date)));
+            } catch (java.text.ParseException e) {
+                sb.append(date);
             }
-        }.execute();
+            sb.append(' ').append(free == AvailabilitySummary.UNKNOWN ? "?" : String.valueOf(free)).append("   ");
+        }
+        return sb.toString().trim();
+    }
+
+    private void showTimeslotsForSelection() {
+        clearTimeSlots();
+        int slot = availability != null ? availability.slotIndexOf(selectedSlotId) : -1;
+        int day = availability != null ? availability.dayIndexOf(selectedDateStr) : -1;
+        if (slot < 0 || day < 0) {
+            loadTimeslotsFor(selectedStationId, selectedSlotId, selectedDateStr);
+            return;
+        }
+
+        switch (availability.getState(slot, day)) {
+            case LOADING:
+                showHint("Loading available time slots...");
+                break;
+            case FAILED:
+                // Prefetch for this cell failed; ask the server directly
+                loadTimeslotsFor(selectedStationId, selectedSlotId, selectedDateStr);
+                break;
+            default:
+                showTimeslots(availability.getAvailable(slot, day));
+                break;
+        }
+    }
+
+    private void showTimeslots(List<TimeSlotItem> fetched) {
+        if (fetched == null || fetched.isEmpty()) {
+            showHint("No time slots available. Please select a different date or slot.");
+            return;
+        }
+
+        timeSlots = new ArrayList<>(fetched);
+
+        List<String> timeSlotStrings = new ArrayList<>();
+        for (TimeSlotItem timeSlot : timeSlots) {
+            timeSlotStrings.add(timeSlot.toString());
+        }
+
+        ArrayAdapter<String> tsAdapter = createEnhancedSpinnerAdapter(timeSlotStrings);
+        tsAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
+        spnTimeSlot.setAdapter(tsAdapter);
+
+        showHint(timeSlots.size() + " time slots available. Select your preferred time.");
     }
 
     private void loadTimeslotsFor(String stationId, String slotId, String dateYmd) {
@@ -603,9 +743,7 @@ public class OwnerBookingActivity extends AppCompatActivity {
             @Override
             protected ApiResponse doInBackground(Void... voids) {
                 try {
-                    String endpoint = String.format("/timeslot/available?stationId=%s&slotId=%s&date=%s", stationId, slotId,
-                            dateYmd);
-                    return apiClient.get(endpoint);
+                    return apiClient.getAvailableTimeslotsForSlot(stationId, slotId, dateYmd);
                 } catch (Exception e) {
                     Log.e("OwnerBooking", "Error fetching timeslots", e);
                     return null;
@@ -632,22 +770,8 @@ public class OwnerBookingActivity extends AppCompatActivity {
                     List<TimeSlotItem> fetched = gson.fromJson(res.getData(), t);
                     if (fetched == null || fetched.isEmpty()) {
                         toast("No available time slots for this date");
-                        showHint("No time slots available. Please select a different date or slot.");
-                        return;
-                    }
-
-                    timeSlots = fetched;
-
-                    List<String> timeSlotStrings = new ArrayList<>();
-                    for (TimeSlotItem timeSlot : timeSlots) {
-                        timeSlotStrings.add(timeSlot.toString());
                     }
-
-                    ArrayAdapter<String> tsAdapter = createEnhancedSpinnerAdapter(timeSlotStrings);
-                    tsAdapter.setDropDownViewResource(R.layout.grid_spinner_dropdown_item);
-                    spnTimeSlot.setAdapter(tsAdapter);
-
-                    showHint(timeSlots.size() + " time slots available. Select your preferred time.");
+                    showTimeslots(fetched);
                 } catch (Exception e) {
                     Log.e("OwnerBooking", "Failed to parse timeslots", e);
                     toast("Timeslot parse error");
@@ -665,69 +789,130 @@ public class OwnerBookingActivity extends AppCompatActivity {
                 return;
             }
 
-            new AsyncTask<Void, Void, ApiResponse>() {
-                @Override
-                protected void onPreExecute() {
-                    Toast.makeText(OwnerBookingActivity.this, "Creating booking...", Toast.LENGTH_SHORT).show();
-                    btnConfirmBooking.setEnabled(false);
-                    btnConfirmBooking.setText("PROCESSING...");
-                }
+            Station station = findById(stations, selectedStationId);
+            SlotItem slot = null;
+            for (SlotItem s : slots) {
+                if (s.slotId.equals(selectedSlotId)) slot = s;
+            }
+            TimeSlotItem timeSlot = null;
+            for (TimeSlotItem ts : timeSlots) {
+                if (ts.timeSlotId.equals(selectedTimeSlotId)) timeSlot = ts;
+            }
+            if (station == null || slot == null || timeSlot == null) {
+                toast("Please complete all selections");
+                return;
+            }
 
-                @Override
-                protected ApiResponse doInBackground(Void... voids) {
-                    try {
-                        return apiClient.createBooking(selectedStationId, selectedTimeSlotId, selectedSlotId);
-                    } catch (Exception e) {
-                        Log.e("OwnerBooking", "Booking error", e);
-                        return null;
-                    }
+            submitBooking(station, slot, timeSlot);
+        });
+    }
+
+    // ---------------- Earliest free charger ----------------
+    private void setupFindEarliest() {
+        btnFindEarliest.setOnClickListener(v -> findEarliest());
+    }
+
+    private void findEarliest() {
+        double lat = currentLat != 0.0 ? currentLat : DEFAULT_LAT;
+        double lng = currentLng != 0.0 ? currentLng : DEFAULT_LON;
+        String date = selectedDateStr != null ? selectedDateStr : AvailabilityService.windowDates().get(0);
+
+        ArrayAdapter<AvailabilitySearch.Option> adapter =
+                new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
+        androidx.appcompat.app.AlertDialog dialog = new MaterialAlertDialogBuilder(this, R.style.CustomAlertDialog)
+                .setTitle("Searching nearby " + selectedType + " stations...")
+                .setAdapter(adapter, (d, which) -> confirmOption(adapter.getItem(which)))
+                .setNegativeButton("Cancel", null)
+                .setOnDismissListener(d -> availabilitySearch.cancel())
+                .create();
+        dialog.show();
+
+        availabilitySearch.search(selectedType, lat, lng, DEFAULT_RADIUS, date, new AvailabilitySearch.Listener() {
+            @Override
+            public void onProgress(List<AvailabilitySearch.Option> ranked, int done, int total) {
+                dialog.setTitle("Searching " + done + "/" + total + " stations...");
+                showOptions(adapter, ranked);
+            }
+
+            @Override
+            public void onFinished(List<AvailabilitySearch.Option> ranked, boolean timedOut) {
+                showOptions(adapter, ranked);
+                if (ranked.isEmpty()) {
+                    dialog.setTitle("No free chargers on " + date);
+                } else {
+                    dialog.setTitle(timedOut ? "Best found (some stations didn't answer)" : "Earliest free chargers");
                 }
+            }
 
-                @Override
-                protected void onPostExecute(ApiResponse res) {
-                    btnConfirmBooking.setEnabled(true);
-                    btnConfirmBooking.setText("CONFIRM BOOKING");
+            @Override
+            public void onError(String message) {
+                dialog.dismiss();
+                toast(message);
+            }
+        });
+    }
 
-                    if (res == null) {
-                        toast("Network error while creating booking");
-                        return;
-                    }
-                    if (!res.isSuccess()) {
-                        toast("Booking failed: " + res.getMessage());
-                        return;
-                    }
+    private void showOptions(ArrayAdapter<AvailabilitySearch.Option> adapter, List<AvailabilitySearch.Option> ranked) {
+        adapter.setNotifyOnChange(false);
+        adapter.clear();
+        adapter.addAll(ranked);
+        adapter.notifyDataSetChanged();
+    }
 
-                    try {
-                        JSONObject bookingObj = new JSONObject(res.getData());
-                        String qrBase64 = bookingObj.optString("qrImageBase64");
-
-                        if (qrBase64 != null && !qrBase64.isEmpty()) {
-                            toast("✅ Booking created successfully!");
-
-                            // Navigate to OwnerBookingsActivity instead of BookingConfirmation
-                            Intent intent = new Intent(OwnerBookingActivity.this, OwnerBookingsActivity.class);
-                            intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
-                            startActivity(intent);
-                            finish(); // Close current activity
-                        } else {
-                            toast("Booking created successfully, but no QR found");
-                            Intent intent = new Intent(OwnerBookingActivity.this, OwnerBookingsActivity.class);
-                            intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
-                            startActivity(intent);
-                            finish();
-                        }
+    private void confirmOption(AvailabilitySearch.Option option) {
+        if (option == null) return;
+        DialogUtils.showDialog(this, "Book this charger?",
+                option.getStation().getName() + "\nSlot: " + option.getSlot() + "\n" + option.getTimeSlot(),
+                "Book",
+                () -> submitBooking(option.getStation(), option.getSlot(), option.getTimeSlot()));
+    }
 
-                    } catch (Exception e) {
-                        Log.e("BookingConfirm", "QR decode error", e);
-                        toast("Error showing QR code");
-                    }
-                }
-            }.execute();
+    private void submitBooking(Station station, SlotItem slot, TimeSlotItem timeSlot) {
+        User user = sessionManager.getLoggedInUser();
+        BookingItem draft = new BookingItem();
+        draft.setOwnerId(user != null ? user.getUserId() : null);
+        draft.setStationId(station.getStationId());
+        draft.setStationName(station.getName());
+        draft.setSlotId(slot.slotId);
+        draft.setSlotNumber(slot.number);
+        draft.setTimeSlotId(timeSlot.timeSlotId);
+        draft.setStartTime(timeSlot.getStartTime());
+        draft.setEndTime(timeSlot.getEndTime());
+
+        btnConfirmBooking.setEnabled(false);
+        btnConfirmBooking.setText("PROCESSING...");
+
+        // Shown in the bookings list right away; the server call finishes in the background
+        BookingStore.getInstance(this).submit(apiClient, draft, timeSlot, availability, new BookingStore.SubmitCallback() {
+            @Override
+            public void onAccepted(BookingItem provisional) {
+                toast("Booking requested. Confirming with the station...");
+                Intent intent = new Intent(OwnerBookingActivity.this, OwnerBookingsActivity.class);
+                intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+                startActivity(intent);
+                finish();
+            }
+
+            @Override
+            public void onRejected(String message) {
+                btnConfirmBooking.setEnabled(true);
+                btnConfirmBooking.setText("CONFIRM BOOKING");
+                toast(message);
+                showHint(message);
+            }
         });
     }
 
+    private static Station findById(List<Station> list, String stationId) {
+        for (Station s : list) {
+            if (s.getStationId().equals(stationId)) return s;
+        }
+        return null;
+    }
+
     private void clearSlots() {
         slots.clear();
+        slotAdapter = null;
         spnSlot.setAdapter(null);
         selectedSlotId = null;
         updateConfirmButtonState();
@@ -19,10 +19,14 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.evcharging.mobile.adapter.OwnerBookingAdapter;
 import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.BookingStatus;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.AvailabilityCache;
+import com.evcharging.mobile.service.BookingStore;
 import com.evcharging.mobile.session.SessionManager;
+import com.evcharging.mobile.utils.BookingIndex;
 import com.evcharging.mobile.utils.DialogUtils;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -33,7 +37,9 @@ import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -42,8 +48,10 @@ public class OwnerBookingsActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private SwipeRefreshLayout swipeRefreshLayout;
     private OwnerBookingAdapter adapter;
-    private final List<BookingItem> bookings = new ArrayList<>();
-    private List<BookingItem> filteredBookings = new ArrayList<>();
+    // Active bookings bucketed by status; chip switches read a ready-made view
+    private final BookingIndex bookingIndex = new BookingIndex(
+            EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED, BookingStatus.CHARGING));
+    private List<BookingItem> filteredBookings = Collections.emptyList();
     private ApiClient apiClient;
     private SessionManager session;
     private final Gson gson = new Gson();
@@ -51,6 +59,18 @@ public class OwnerBookingsActivity extends AppCompatActivity {
     private ChipGroup chipGroup;
     private String currentFilter = "All"; // Track current filter
 
+    // Provisional bookings appear and get confirmed/rolled back without a refetch
+    private BookingStore bookingStore;
+    private final BookingStore.Listener storeListener = (upserted, removedIds) -> {
+        boolean changed = false;
+        for (String id : removedIds) changed |= bookingIndex.remove(id);
+        for (BookingItem b : upserted) changed |= bookingIndex.upsert(b);
+        if (changed) {
+            updateChipCounts();
+            applyFilter(currentFilter);
+        }
+    };
+
     // Request code for update booking
     private static final int UPDATE_BOOKING_REQUEST = 1001;
 
@@ -63,6 +83,9 @@ public class OwnerBookingsActivity extends AppCompatActivity {
         session = new SessionManager(this);
         apiClient = new ApiClient(session);
 
+        bookingStore = BookingStore.getInstance(this);
+        bookingStore.addListener(storeListener);
+
         initializeViews();
         setupRecyclerView();
         setupFilterChips();
@@ -72,6 +95,12 @@ public class OwnerBookingsActivity extends AppCompatActivity {
         highlightActiveTab("bookings");
     }
 
+    @Override
+    protected void onDestroy() {
+        bookingStore.removeListener(storeListener);
+        super.onDestroy();
+    }
+
     private void initializeViews() {
         recyclerView = findViewById(R.id.recyclerViewBookings);
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
@@ -81,19 +110,22 @@ public class OwnerBookingsActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new OwnerBookingAdapter(filteredBookings, new OwnerBookingAdapter.OnBookingActionListener() {
+        adapter = new OwnerBookingAdapter(new ArrayList<>(), new OwnerBookingAdapter.OnBookingActionListener() {
             @Override
             public void onBookingClick(BookingItem booking) {
+                if (stillConfirming(booking)) return;
                 openDetails(booking);
             }
 
             @Override
             public void onUpdateClick(BookingItem booking) {
+                if (stillConfirming(booking)) return;
                 updateBooking(booking);
             }
 
             @Override
             public void onCancelClick(BookingItem booking) {
+                if (stillConfirming(booking)) return;
                 cancelBooking(booking);
             }
 
@@ -105,6 +137,13 @@ public class OwnerBookingsActivity extends AppCompatActivity {
         recyclerView.setAdapter(adapter);
     }
 
+    // A provisional booking has no server id yet, so there is nothing to open or change
+    private boolean stillConfirming(BookingItem booking) {
+        if (!BookingStore.isProvisional(booking)) return false;
+        DialogUtils.showToast(this, "This booking is still being confirmed");
+        return true;
+    }
+
     private void updateBooking(BookingItem booking) {
         // Navigate to update booking activity for result
         Intent intent = new Intent(this, UpdateBookingActivity.class);
@@ -159,7 +198,11 @@ public class OwnerBookingsActivity extends AppCompatActivity {
                     Toast.makeText(OwnerBookingsActivity.this, "Cancel failed: " + errorMsg, Toast.LENGTH_SHORT).show();
                 } else {
                     Toast.makeText(OwnerBookingsActivity.this, "Booking cancelled successfully", Toast.LENGTH_SHORT).show();
-                    // Refresh the list
+                    AvailabilityCache.getInstance().invalidate(booking.getStationId());
+                    // Drop it from the index right away, then refresh from the server
+                    bookingIndex.remove(booking.getBookingId());
+                    updateChipCounts();
+                    applyFilter(currentFilter);
                     fetchBookings();
                 }
             }
@@ -278,24 +321,29 @@ public class OwnerBookingsActivity extends AppCompatActivity {
     }
 
     private void applyFilter(String status) {
-        Log.d("OwnerBookings", "Applying filter: " + status + ", Total bookings: " + bookings.size());
-
-        filteredBookings.clear();
+        // No rescan: the index already holds each status bucket sorted by start time
+        filteredBookings = "All".equals(status)
+                ? bookingIndex.viewAll()
+                : bookingIndex.view(BookingStatus.from(status));
+        Log.d("OwnerBookings", "Showing " + status + " bookings: " + filteredBookings.size()
+                + " of " + bookingIndex.size());
+
+        // Diff runs off the main thread; only changed rows are rebound
+        adapter.setData(filteredBookings);
+        updateEmptyState();
+    }
 
-        if ("All".equals(status)) {
-            filteredBookings.addAll(bookings);
-            Log.d("OwnerBookings", "Showing ALL bookings: " + filteredBookings.size());
-        } else {
-            for (BookingItem booking : bookings) {
-                if (status.equalsIgnoreCase(booking.getStatus())) {
-                    filteredBookings.add(booking);
-                }
-            }
-            Log.d("OwnerBookings", "Showing " + status + " bookings: " + filteredBookings.size());
-        }
+    // Chip badges come straight from the index bucket sizes
+    private void updateChipCounts() {
+        setChipCount(R.id.chipAll, "All", bookingIndex.size());
+        setChipCount(R.id.chipPending, "Pending", bookingIndex.count(BookingStatus.PENDING));
+        setChipCount(R.id.chipApproved, "Approved", bookingIndex.count(BookingStatus.APPROVED));
+        setChipCount(R.id.chipCharging, "Charging", bookingIndex.count(BookingStatus.CHARGING));
+    }
 
-        adapter.notifyDataSetChanged();
-        updateEmptyState();
+    private void setChipCount(int chipId, String label, int count) {
+        Chip chip = findViewById(chipId);
+        if (chip != null) chip.setText(count > 0 ? label + " (" + count + ")" : label);
     }
 
     private void updateEmptyState() {
@@ -455,18 +503,15 @@ public class OwnerBookingsActivity extends AppCompatActivity {
 
                     Log.d("OwnerBookings", "Fetched " + fetched.size() + " bookings");
 
-                    // Show only Pending / Approved / Charging
-                    bookings.clear();
-                    for (BookingItem b : fetched) {
-                        if (b.getStatus() != null &&
-                                (b.getStatus().equalsIgnoreCase("Pending")
-                                        || b.getStatus().equalsIgnoreCase("Approved")
-                                        || b.getStatus().equalsIgnoreCase("Charging"))) {
-                            bookings.add(b);
-                        }
+                    // Index only tracks Pending / Approved / Charging; everything else is dropped
+                    bookingIndex.replaceAll(fetched);
+                    // Keep bookings the server hasn't confirmed yet
+                    for (BookingItem pending : bookingStore.provisionalNotIn(fetched)) {
+                        bookingIndex.upsert(pending);
                     }
+                    updateChipCounts();
 
-                    Log.d("OwnerBookings", "Filtered to " + bookings.size() + " active bookings");
+                    Log.d("OwnerBookings", "Indexed " + bookingIndex.size() + " active bookings");
 
                     // Apply the current filter after loading data
                     applyFilter(currentFilter);
@@ -14,6 +14,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiResponse;
 import com.evcharging.mobile.service.OwnerService;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.session.SessionManager;
 
 public class OwnerEditProfileActivity extends AppCompatActivity {
@@ -111,6 +112,8 @@ public class OwnerEditProfileActivity extends AppCompatActivity {
         protected void onPostExecute(ApiResponse response) {
             Toast.makeText(OwnerEditProfileActivity.this, response.getMessage(), Toast.LENGTH_SHORT).show();
             if (response.isSuccess()) {
+                // The profile screen must not reopen on the cached copy
+                ResourceRepository.getInstance(OwnerEditProfileActivity.this).invalidate(ResourceRepository.PROFILE);
                 // Update local session with new data AND refresh from API
                 refreshUserDataFromApi();
             }
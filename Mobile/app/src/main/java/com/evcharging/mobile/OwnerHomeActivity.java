@@ -28,10 +28,14 @@ import androidx.appcompat.widget.SearchView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 
+import com.evcharging.mobile.database.BookingDao;
+import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.BookingStatus;
 import com.evcharging.mobile.model.Notification;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.BatchRequest;
 import com.evcharging.mobile.session.SessionManager;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
@@ -39,15 +43,26 @@ import com.google.android.gms.maps.MapView;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import android.location.Location;
 import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.service.LocationProvider;
+import com.evcharging.mobile.service.LoginPrefetcher;
+import com.evcharging.mobile.service.StationCache;
+import com.evcharging.mobile.service.StationSearchPipeline;
 import com.evcharging.mobile.service.StationService;
+import com.evcharging.mobile.adapter.StationSuggestionAdapter;
+import com.evcharging.mobile.map.StationClusterer;
+import com.evcharging.mobile.map.StationMarkerManager;
+import com.evcharging.mobile.utils.StationPrefixIndex;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationServices;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.material.card.MaterialCardView;
 import com.evcharging.mobile.utils.DialogUtils;
@@ -58,7 +73,14 @@ public class OwnerHomeActivity extends AppCompatActivity
 
         private static final String MAP_VIEW_BUNDLE_KEY = "MapViewBundleKey";
         private static final String CHANNEL_ID = "ev_notifications";
-        private FusedLocationProviderClient fusedLocationClient;
+        private static final long SEARCH_DEBOUNCE_MS = 300;
+        private static final double NEARBY_RADIUS_KM = 5;
+        private static final String NEARBY_QUERY_KEY = "owner_home_nearby";
+        // Re-query nearby stations after moving this far, or after the interval regardless
+        private static final float NEARBY_REQUERY_METERS = 500f;
+        private static final long NEARBY_REQUERY_MAX_AGE_MS = 10 * 60 * 1000L;
+        private static final int DASHBOARD_BOOKINGS_PAGE = 20;
+        private static final List<String> ACTIVE_STATUSES = Arrays.asList("Pending", "Approved", "Charging");
 
         private MapView mapView;
         private MaterialCardView btnReserve, btnBookings, btnHistory;
@@ -69,6 +91,7 @@ public class OwnerHomeActivity extends AppCompatActivity
 
         private ApiClient apiClient;
         private TextView tvNotificationCount;
+        private TextView tvMyBookingsSubtitle;
         private int notificationCount = 0;
 
         private GoogleMap googleMap;
@@ -78,6 +101,12 @@ public class OwnerHomeActivity extends AppCompatActivity
         private Spinner spinnerStationType;
         private String selectedStationType = "DC";
         private Station selectedStation;
+        private StationSuggestionAdapter suggestionAdapter;
+        private StationSearchPipeline searchPipeline;
+        private StationMarkerManager markerManager;
+        private Marker userMarker;
+        // Local-store reads of the dashboard; the claimed prefetch is usually already done
+        private final ExecutorService dashboardExecutor = Executors.newSingleThreadExecutor();
 
         @Override
         protected void onCreate(Bundle savedInstanceState) {
@@ -106,6 +135,7 @@ public class OwnerHomeActivity extends AppCompatActivity
                 btnLogout = findViewById(R.id.btnLogoutOwner);
                 btnNotifications = findViewById(R.id.btnNotifications);
                 tvNotificationCount = findViewById(R.id.tvNotificationCount);
+                tvMyBookingsSubtitle = findViewById(R.id.tvMyBookingsSubtitle);
                 searchStations = findViewById(R.id.searchStations);
                 spinnerStationType = findViewById(R.id.spinnerStationType);
 
@@ -114,9 +144,10 @@ public class OwnerHomeActivity extends AppCompatActivity
                 tvOwnerId = findViewById(R.id.tvOwnerId);
                 tvWelcomeOwner.setText("Welcome, " + getOwnerName() + "!");
                 tvOwnerId.setText("Owner ID: " + getOwnerId());
+                ApiMetricsActivity.attachDebugEntry(tvWelcomeOwner);
 
                 // --- Location ---
-                fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+                cachedLocation = LocationProvider.getInstance(this).getLastFix();
 
                 // --- MapView ---
                 Bundle mapViewBundle = null;
@@ -233,9 +264,11 @@ public class OwnerHomeActivity extends AppCompatActivity
                 spinnerStationType.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
                         @Override
                         public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                                String selectedType = stationTypes[position];
-                                // You can trigger a search update here if needed
-                                // fetchStationSuggestions(searchStations.getText().toString().trim());
+                                // Re-run the current query against the newly selected type
+                                if (searchPipeline != null) {
+                                        searchPipeline.onQueryChanged(stationTypes[position],
+                                                        searchStations.getText().toString());
+                                }
                         }
 
                         @Override
@@ -246,6 +279,21 @@ public class OwnerHomeActivity extends AppCompatActivity
         }
 
         private void setupStationSearch() {
+                // One adapter for the lifetime of the screen; results are swapped in place
+                suggestionAdapter = new StationSuggestionAdapter(this);
+                searchStations.setAdapter(suggestionAdapter);
+
+                searchPipeline = new StationSearchPipeline(stationService, StationPrefixIndex.getInstance(),
+                                SEARCH_DEBOUNCE_MS, (query, stations, fromNetwork) -> {
+                                        // Keep showing the local matches if the server had nothing to add
+                                        if (fromNetwork && stations.isEmpty()) return;
+                                        suggestionAdapter.setStations(stations);
+                                        if (!stations.isEmpty() && searchStations.hasFocus()
+                                                        && !searchStations.isPopupShowing()) {
+                                                searchStations.showDropDown();
+                                        }
+                                });
+
                 searchStations.addTextChangedListener(new TextWatcher() {
                         @Override
                         public void beforeTextChanged(CharSequence s, int start, int count, int after) {
@@ -257,84 +305,160 @@ public class OwnerHomeActivity extends AppCompatActivity
 
                         @Override
                         public void afterTextChanged(Editable s) {
-                                String query = s.toString().trim();
-                                if (!query.isEmpty()) {
-                                        fetchStationSuggestions(query);
-                                }
+                                fetchStationSuggestions(s.toString());
                         }
                 });
 
                 searchStations.setOnItemClickListener((parent, view, position, id) -> {
+                        // Picking a suggestion sets the text; don't let that reopen the dropdown
+                        searchPipeline.cancel();
                         selectedStation = (Station) parent.getItemAtPosition(position);
                         showStationOnMap(selectedStation);
                 });
         }
 
         private void fetchStationSuggestions(String query) {
-                new Thread(() -> {
-                        String type = spinnerStationType.getSelectedItem() != null
-                                        ? spinnerStationType.getSelectedItem().toString()
-                                        : "";
-                        List<Station> stations = stationService.searchStations(type, query);
-
-                        if (stations != null && !stations.isEmpty()) {
-                                runOnUiThread(() -> {
-                                        ArrayAdapter<Station> adapter = new ArrayAdapter<>(
-                                                        this,
-                                                        android.R.layout.simple_dropdown_item_1line,
-                                                        stations);
-
-                                        searchStations.setAdapter(adapter);
-                                        adapter.notifyDataSetChanged();
-
-                                        searchStations.setAdapter(adapter);
-                                        adapter.notifyDataSetChanged();
-                                });
-                        }
-                }).start();
+                String type = spinnerStationType.getSelectedItem() != null
+                                ? spinnerStationType.getSelectedItem().toString()
+                                : "";
+                searchPipeline.onQueryChanged(type, query);
         }
 
         private void showStationOnMap(Station station) {
-                if (googleMap != null) {
-                        googleMap.clear(); // Clear previous markers
+                if (googleMap != null && markerManager != null) {
+                        // Highlight the pick in place; other markers stay where they are
+                        markerManager.setSelected(station);
                         LatLng stationLatLng = new LatLng(station.getLatitude(), station.getLongitude());
+                        googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(stationLatLng, 15));
+                }
+        }
 
-                        // Add marker for the selected station
-                        googleMap.addMarker(new MarkerOptions()
-                                        .position(stationLatLng)
-                                        .title(station.getName())
-                                        .snippet(station.getLocation()));
+        private boolean onMarkerClick(Marker marker) {
+                StationClusterer.Cluster cluster = markerManager != null ? markerManager.getCluster(marker) : null;
+                if (cluster == null) {
+                        return false; // "You are here" marker: default info window
+                }
+                if (!cluster.isSingle()) {
+                        // Zoom in to break the cluster apart
+                        googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(),
+                                        googleMap.getCameraPosition().zoom + 2));
+                        return true;
+                }
 
-                        // Move camera to the station
-                        googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(stationLatLng, 15));
+                LatLng dest = marker.getPosition();
 
-                        // Add marker click listener for navigation
-                        googleMap.setOnMarkerClickListener(marker -> {
-                                LatLng dest = marker.getPosition();
-
-                                if (cachedLocation != null) {
-                                        // Build Google Maps navigation URL
-                                        String uri = "http://maps.google.com/maps?saddr=" +
-                                                        cachedLocation.getLatitude() + ","
-                                                        + cachedLocation.getLongitude() +
-                                                        "&daddr=" + dest.latitude + "," + dest.longitude;
-
-                                        // Launch Google Maps
-                                        Intent intent = new Intent(Intent.ACTION_VIEW, android.net.Uri.parse(uri));
-                                        intent.setPackage("com.google.android.apps.maps");
-                                        if (intent.resolveActivity(getPackageManager()) != null) {
-                                                startActivity(intent);
-                                        } else {
-                                                DialogUtils.showToast(this, "Google Maps app not found");
-                                        }
-                                } else {
-                                        DialogUtils.showToast(this, "Current location not available");
+                if (cachedLocation != null) {
+                        // Build Google Maps navigation URL
+                        String uri = "http://maps.google.com/maps?saddr=" +
+                                        cachedLocation.getLatitude() + ","
+                                        + cachedLocation.getLongitude() +
+                                        "&daddr=" + dest.latitude + "," + dest.longitude;
+
+                        // Launch Google Maps
+                        Intent intent = new Intent(Intent.ACTION_VIEW, android.net.Uri.parse(uri));
+                        intent.setPackage("com.google.android.apps.maps");
+                        if (intent.resolveActivity(getPackageManager()) != null) {
+                                startActivity(intent);
+                        } else {
+                                DialogUtils.showToast(this, "Google Maps app not found");
+                        }
+                } else {
+                        DialogUtils.showToast(this, "Current location not available");
+
+                }
+
+                return true; // Consume the click
+        }
+
+        // ---------------- Dashboard (profile, notifications, bookings) ----------------
+        // One round trip for all three; BatchRequest falls back to single calls on its own
+        private void loadDashboard() {
+                // Right after login the prefetch pipeline is already loading all of this
+                CompletableFuture<LoginPrefetcher.Report> prefetch = LoginPrefetcher.getInstance(this).claim();
+                if (prefetch != null) {
+                        showPrefetchedDashboard(prefetch);
+                        return;
+                }
+
+                User loggedInUser = new SessionManager(this).getLoggedInUser();
+                String ownerId = loggedInUser != null ? loggedInUser.getUserId() : null;
+
+                new Thread(() -> {
+                        BatchRequest batch = apiClient.batch();
+                        CompletableFuture<User> profile = batch.profile();
+                        CompletableFuture<List<Notification>> notifications = batch.notifications();
+                        CompletableFuture<List<BookingItem>> bookings = ownerId != null && !ownerId.isEmpty()
+                                        ? batch.bookingsByOwner(ownerId, 1, DASHBOARD_BOOKINGS_PAGE)
+                                        : null;
+                        batch.execute();
 
+                        runOnUiThread(() -> {
+                                if (isFinishing() || isDestroyed()) return;
+
+                                User user = valueOrNull(profile);
+                                if (user != null) {
+                                        new SessionManager(this).saveLoggedInUser(user);
+                                        tvWelcomeOwner.setText("Welcome, " + getOwnerName() + "!");
                                 }
 
-                                return true; // Consume the click
+                                List<Notification> list = valueOrNull(notifications);
+                                if (list != null) {
+                                        int unread = 0;
+                                        for (Notification n : list) {
+                                                if (!n.isRead()) unread++;
+                                        }
+                                        ((MyApp) getApplication()).setNotificationCount(unread);
+                                }
+
+                                List<BookingItem> page = bookings != null ? valueOrNull(bookings) : null;
+                                if (page != null) showActiveBookings(page);
                         });
+                }).start();
+        }
+
+        // Profile is in the session, bookings in the local store; anything missing goes to the network
+        private void showPrefetchedDashboard(CompletableFuture<LoginPrefetcher.Report> prefetch) {
+                prefetch.thenAcceptAsync(report -> {
+                        if (!report.succeeded(LoginPrefetcher.Stage.PROFILE)
+                                        || !report.succeeded(LoginPrefetcher.Stage.NOTIFICATIONS)
+                                        || !report.succeeded(LoginPrefetcher.Stage.BOOKINGS)) {
+                                runOnUiThread(this::loadDashboard);
+                                return;
+                        }
+                        int active = new BookingDao(this).count(report.getOwnerId(), ACTIVE_STATUSES);
+                        int unread = report.getUnreadNotifications();
+
+                        runOnUiThread(() -> {
+                                if (isFinishing() || isDestroyed()) return;
+                                tvWelcomeOwner.setText("Welcome, " + getOwnerName() + "!");
+                                ((MyApp) getApplication()).setNotificationCount(unread);
+                                showActiveCount(active);
+                        });
+                }, dashboardExecutor);
+        }
+
+        private void showActiveBookings(List<BookingItem> page) {
+                int active = 0;
+                for (BookingItem b : page) {
+                        BookingStatus status = BookingStatus.from(b.getStatus());
+                        if (status == BookingStatus.PENDING || status == BookingStatus.APPROVED
+                                        || status == BookingStatus.CHARGING) {
+                                active++;
+                        }
                 }
+                showActiveCount(active);
+        }
+
+        private void showActiveCount(int active) {
+                if (active == 0) {
+                        tvMyBookingsSubtitle.setText("View and manage your reservations");
+                } else {
+                        tvMyBookingsSubtitle.setText(active + (active == 1 ? " active reservation" : " active reservations"));
+                }
+        }
+
+        private static <T> T valueOrNull(CompletableFuture<T> future) {
+                return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
         }
 
         private String getOwnerName() {
@@ -407,6 +531,14 @@ public class OwnerHomeActivity extends AppCompatActivity
         public void onMapReady(@NonNull GoogleMap map) {
                 this.googleMap = map;
 
+                if (markerManager == null) {
+                        markerManager = new StationMarkerManager(googleMap,
+                                        (south, west, north, east) -> StationCache.getInstance(this)
+                                                        .getWithin(south, west, north, east, null));
+                        googleMap.setOnCameraIdleListener(markerManager::onCameraIdle);
+                        googleMap.setOnMarkerClickListener(this::onMarkerClick);
+                }
+
                 if (ActivityCompat.checkSelfPermission(this,
                                 Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
                         ActivityCompat.requestPermissions(this,
@@ -419,24 +551,21 @@ public class OwnerHomeActivity extends AppCompatActivity
                 googleMap.getUiSettings().setCompassEnabled(true);
                 googleMap.getUiSettings().setMyLocationButtonEnabled(true);
 
-                if (cachedLocation != null) {
-                        // Use cached location
-                        moveCameraToLocation(cachedLocation);
-                } else {
-                        // Fetch location
-                        fusedLocationClient.getCurrentLocation(
-                                        com.google.android.gms.location.Priority.PRIORITY_HIGH_ACCURACY, null)
-                                        .addOnSuccessListener(this, location -> {
-                                                if (location != null) {
-                                                        cachedLocation = location; // Cache the location
-                                                        moveCameraToLocation(location);
-                                                } else {
-                                                        DialogUtils.showToast(this, "Unable to get location.");
-                                                }
-                                        }).addOnFailureListener(e -> {
-                                        DialogUtils.showToast(this, "Error getting location");
-                                        });
-                }
+                // Process-wide cache: a recreated Activity reuses a recent fix instead of a new GPS request
+                LocationProvider.getInstance(this).getLocation(new LocationProvider.Callback() {
+                        @Override
+                        public void onLocation(Location location) {
+                                if (isDestroyed()) return;
+                                cachedLocation = location;
+                                moveCameraToLocation(location);
+                        }
+
+                        @Override
+                        public void onError(String message) {
+                                if (isDestroyed()) return;
+                                DialogUtils.showToast(OwnerHomeActivity.this, message);
+                        }
+                });
         }
 
         @Override
@@ -464,6 +593,7 @@ public class OwnerHomeActivity extends AppCompatActivity
         protected void onResume() {
                 super.onResume();
                 mapView.onResume();
+                loadDashboard();
         }
 
         @Override
@@ -481,6 +611,9 @@ public class OwnerHomeActivity extends AppCompatActivity
 
         @Override
         protected void onDestroy() {
+                if (searchPipeline != null) searchPipeline.shutdown();
+                if (markerManager != null) markerManager.release();
+                dashboardExecutor.shutdownNow();
                 mapView.onDestroy();
                 super.onDestroy();
         }
@@ -552,29 +685,50 @@ public class OwnerHomeActivity extends AppCompatActivity
         private void moveCameraToLocation(Location location) {
                 LatLng userLatLng = new LatLng(location.getLatitude(), location.getLongitude());
                 googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(userLatLng, 15));
-                googleMap.addMarker(new MarkerOptions().position(userLatLng).title("You are here"));
+                if (userMarker == null) {
+                        userMarker = googleMap.addMarker(new MarkerOptions().position(userLatLng).title("You are here"));
+                } else {
+                        userMarker.setPosition(userLatLng);
+                }
+
+                // Only go back to the server once the user has moved (or the last query is old)
+                LocationProvider locationProvider = LocationProvider.getInstance(this);
+                boolean requery = locationProvider.shouldRequery(NEARBY_QUERY_KEY, location,
+                                NEARBY_REQUERY_METERS, NEARBY_REQUERY_MAX_AGE_MS);
 
-                // Fetch nearby stations in background
+                // Answer from the local station cache; only wait on the network for an uncached area
                 new Thread(() -> {
-                        List<Station> stations = stationService.getNearbyStations(location.getLatitude(),
-                                        location.getLongitude(), 5);
+                        StationCache cache = StationCache.getInstance(this);
+                        double lat = location.getLatitude();
+                        double lng = location.getLongitude();
+                        List<Station> cached = cache.getNearby(lat, lng, NEARBY_RADIUS_KM, null);
+                        if (requery) {
+                                if (cached.isEmpty() && cache.refreshAround(stationService, lat, lng, NEARBY_RADIUS_KM) != null) {
+                                        cached = cache.getNearby(lat, lng, NEARBY_RADIUS_KM, null);
+                                }
+                                // Widen the cached area for the next lookup (no-op while it is still fresh)
+                                cache.refreshInBackground(stationService, lat, lng);
+                                // Only a server answer for this spot counts; after a failure ask again next time
+                                if (cache.isFresh(lat, lng, NEARBY_RADIUS_KM)) {
+                                        locationProvider.markQueried(NEARBY_QUERY_KEY, location);
+                                }
+                        }
+
+                        final List<Station> stations = cached;
                         runOnUiThread(() -> {
                                 if (stations != null && !stations.isEmpty()) {
                                         LatLngBounds.Builder builder = new LatLngBounds.Builder();
                                         builder.include(userLatLng);
 
+                                        // Markers are drawn by the marker manager on camera idle
                                         for (Station s : stations) {
-                                                LatLng stationLatLng = new LatLng(s.getLatitude(), s.getLongitude());
-                                                googleMap.addMarker(new MarkerOptions()
-                                                                .position(stationLatLng)
-                                                                .title(s.getName())
-                                                                .snippet(s.getLocation()));
-                                                builder.include(stationLatLng);
+                                                builder.include(new LatLng(s.getLatitude(), s.getLongitude()));
                                         }
 
                                         LatLngBounds bounds = builder.build();
                                         int padding = 120;
                                         googleMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, padding));
+                                        markerManager.refresh();
                                 } else {
                                         DialogUtils.showToast(this, "No nearby stations found");
                                 }
@@ -18,6 +18,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import com.evcharging.mobile.model.User;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.session.SessionManager;
 import com.evcharging.mobile.utils.DialogUtils;
 
@@ -63,9 +64,7 @@ public class OwnerProfileActivity extends AppCompatActivity {
         showLocalUserProfile();
 
         // Set up swipe refresh
-        swipeRefresh.setOnRefreshListener(() -> {
-            new LoadProfileTask().execute();
-        });
+        swipeRefresh.setOnRefreshListener(() -> loadProfile(true));
 
 // Deactivate Account
         btnDeactivate.setOnClickListener(v ->
@@ -118,8 +117,37 @@ public class OwnerProfileActivity extends AppCompatActivity {
     }
 
     private void refreshProfileData() {
-        // Force refresh from API to get updated data
-        new LoadProfileTask().execute();
+        loadProfile(false);
+    }
+
+    // Cached profile at once; the server's replaces it only if something changed
+    private void loadProfile(boolean force) {
+        User user = sessionManager.getLoggedInUser();
+        ResourceRepository.Resource<User> resource =
+                ResourceRepository.profile(apiClient, user != null ? user.getUserId() : null);
+        ResourceRepository.Listener<User> listener = new ResourceRepository.Listener<User>() {
+            @Override
+            public void onData(User fresh) {
+                updateUIWithUserData(fresh);
+                Log.d("OwnerProfile", "Profile data shown: " + fresh.getFullName());
+            }
+
+            @Override
+            public void onDone(String error) {
+                swipeRefresh.setRefreshing(false); // Stop refresh animation
+                if (error != null) {
+                    Toast.makeText(OwnerProfileActivity.this,
+                            "Failed to load profile", Toast.LENGTH_SHORT).show();
+                }
+            }
+        };
+
+        ResourceRepository repository = ResourceRepository.getInstance(this);
+        if (force) {
+            repository.refresh(apiClient, resource, listener);
+        } else {
+            repository.load(apiClient, resource, listener);
+        }
     }
 
     // ---------------- Footer Navigation Setup ----------------
@@ -196,35 +224,6 @@ public class OwnerProfileActivity extends AppCompatActivity {
 
     // ----------------------------------------------------------
 
-    /**
-     * Load user profile from API
-     */
-    private class LoadProfileTask extends AsyncTask<Void, Void, User> {
-        @Override
-        protected User doInBackground(Void... voids) {
-            ApiResponse response = apiClient.getUser();
-            if (response.isSuccess() && response.getData() != null) {
-                return apiClient.parseLoggedOwner(response.getData());
-            }
-            return null;
-        }
-
-        @Override
-        protected void onPostExecute(User user) {
-            swipeRefresh.setRefreshing(false); // Stop refresh animation
-            if (user != null) {
-                // Update the UI with the fresh data from API
-                updateUIWithUserData(user);
-                Log.d("OwnerProfile", "Profile data refreshed from API: " + user.getFullName());
-            } else {
-                Toast.makeText(OwnerProfileActivity.this,
-                        "Failed to load profile", Toast.LENGTH_SHORT).show();
-                // Fallback to local data
-                showLocalUserProfile();
-            }
-        }
-    }
-
     // Add method to update UI with fresh user data
     private void updateUIWithUserData(User user) {
         if (user != null) {
@@ -272,7 +271,7 @@ public class OwnerProfileActivity extends AppCompatActivity {
         protected void onPostExecute(ApiResponse response) {
             Toast.makeText(OwnerProfileActivity.this, response.getMessage(), Toast.LENGTH_SHORT).show();
             if (response.isSuccess()) {
-                new LoadProfileTask().execute(); // Refresh profile after deactivation
+                loadProfile(true); // Refresh profile after deactivation
             }
         }
     }
@@ -306,7 +305,7 @@ public class OwnerProfileActivity extends AppCompatActivity {
                 return; // Task was cancelled
             Toast.makeText(OwnerProfileActivity.this, response.getMessage(), Toast.LENGTH_SHORT).show();
             if (response.isSuccess()) {
-                new LoadProfileTask().execute(); // Refresh profile after reactivation
+                loadProfile(true); // Refresh profile after reactivation
             }
         }
     }
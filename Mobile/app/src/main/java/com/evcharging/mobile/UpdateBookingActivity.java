@@ -18,6 +18,7 @@ import com.evcharging.mobile.model.SlotItem;
 import com.evcharging.mobile.model.TimeSlotItem;
 import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.service.AvailabilityCache;
 import com.evcharging.mobile.session.SessionManager;
 import com.evcharging.mobile.utils.DialogUtils;
 import com.google.gson.Gson;
@@ -412,6 +413,7 @@ public class UpdateBookingActivity extends AppCompatActivity {
                     Toast.makeText(UpdateBookingActivity.this, "Update failed: " + errorMsg, Toast.LENGTH_SHORT).show();
                 } else {
                     DialogUtils.showToast(UpdateBookingActivity.this, "Booking updated successfully");
+                    AvailabilityCache.getInstance().invalidate(currentBooking.getStationId());
 
                     // Fetch the updated booking details and return it
                     fetchUpdatedBooking();
@@ -0,0 +1,46 @@
+package com.evcharging.mobile.adapter;
+
+import android.util.Log;
+
+/**
+ * BindCounter - counts onBindViewHolder calls between list refreshes.
+ *
+ * Each submitted list opens a new "refresh window"; when the next one is
+ * submitted the previous window's bind count is logged, so a filter change
+ * that only touches two rows shows up as "2 binds" instead of a full page.
+ */
+final class BindCounter {
+
+    private final String tag;
+    private int refreshNumber = 0;
+    private int bindsThisRefresh = 0;
+    private int lastRefreshBinds = 0;
+    private int lastRefreshSize = 0;
+    private int currentSize = 0;
+
+    BindCounter(String tag) {
+        this.tag = tag;
+    }
+
+    /** Called from onBindViewHolder. Always on the main thread. */
+    void onBind() {
+        bindsThisRefresh++;
+    }
+
+    /** Called when a new list is handed to the differ. */
+    void onSubmit(int newSize) {
+        if (refreshNumber > 0) {
+            lastRefreshBinds = bindsThisRefresh;
+            lastRefreshSize = currentSize;
+            Log.d(tag, "Refresh #" + refreshNumber + ": " + lastRefreshBinds
+                    + " binds for " + lastRefreshSize + " rows");
+        }
+        refreshNumber++;
+        bindsThisRefresh = 0;
+        currentSize = newSize;
+    }
+
+    int getLastRefreshBinds() {
+        return lastRefreshBinds;
+    }
+}
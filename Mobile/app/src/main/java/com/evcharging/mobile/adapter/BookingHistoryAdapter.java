@@ -0,0 +1,110 @@
+package com.evcharging.mobile.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.evcharging.mobile.R;
+import com.evcharging.mobile.database.BookingPager;
+import com.evcharging.mobile.model.BookingItem;
+
+/**
+ * Charging history list backed by a {@link BookingPager}. Rows whose page is
+ * still loading bind as placeholders and are refreshed when the page arrives.
+ */
+public class BookingHistoryAdapter extends RecyclerView.Adapter<OwnerBookingAdapter.BookingViewHolder>
+        implements BookingPager.Listener {
+
+    private static final String TAG = "BookingHistoryAdapter";
+
+    public interface OnEmptyStateListener {
+        void onEmptyStateChanged(boolean empty);
+    }
+
+    private final BookingPager pager;
+    private final OwnerBookingAdapter.OnBookingActionListener listener;
+    private final BindCounter bindCounter = new BindCounter(TAG);
+    private OnEmptyStateListener emptyStateListener;
+
+    public BookingHistoryAdapter(BookingPager pager, OwnerBookingAdapter.OnBookingClickListener clickListener) {
+        this.pager = pager;
+        this.listener = new OwnerBookingAdapter.OnBookingActionListener() {
+            @Override
+            public void onBookingClick(BookingItem booking) {
+                clickListener.onBookingClick(booking);
+            }
+
+            @Override
+            public void onUpdateClick(BookingItem booking) { }
+
+            @Override
+            public void onCancelClick(BookingItem booking) { }
+
+            @Override
+            public void onTimeRestrictionClick(BookingItem booking) { }
+        };
+        pager.setListener(this);
+    }
+
+    public void setOnEmptyStateListener(OnEmptyStateListener emptyStateListener) {
+        this.emptyStateListener = emptyStateListener;
+    }
+
+    @NonNull
+    @Override
+    public OwnerBookingAdapter.BookingViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.owner_booking_item, parent, false);
+        return new OwnerBookingAdapter.BookingViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull OwnerBookingAdapter.BookingViewHolder holder, int position) {
+        bindCounter.onBind();
+        BookingItem booking = pager.getItem(position);
+        if (booking != null) {
+            holder.bind(booking, listener);
+        } else {
+            holder.bindPlaceholder();
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return pager.getItemCount();
+    }
+
+    // ----------------------------------------------------
+    // BookingPager.Listener
+    // ----------------------------------------------------
+    @Override
+    public void onReset(int itemCount) {
+        bindCounter.onSubmit(itemCount);
+        // A new filter replaces every row, there is nothing to diff against
+        notifyDataSetChanged();
+        dispatchEmptyState();
+    }
+
+    @Override
+    public void onCountChanged(int oldCount, int newCount) {
+        bindCounter.onSubmit(newCount);
+        if (newCount > oldCount) {
+            notifyItemRangeInserted(oldCount, newCount - oldCount);
+        } else {
+            notifyItemRangeRemoved(newCount, oldCount - newCount);
+        }
+        dispatchEmptyState();
+    }
+
+    @Override
+    public void onItemsChanged(int start, int count) {
+        if (count > 0) notifyItemRangeChanged(start, count);
+    }
+
+    private void dispatchEmptyState() {
+        if (emptyStateListener != null) emptyStateListener.onEmptyStateChanged(pager.getItemCount() == 0);
+    }
+}
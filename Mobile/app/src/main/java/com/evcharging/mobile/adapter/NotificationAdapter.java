@@ -7,27 +7,48 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.evcharging.mobile.R;
 import com.evcharging.mobile.model.Notification;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
 public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapter.NotificationViewHolder> {
 
-    private List<Notification> notifications;
+    private static final String TAG = "NotificationAdapter";
+
+    private static final DiffUtil.ItemCallback<Notification> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Notification>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+                    String oldId = oldItem.getId();
+                    return oldId != null ? oldId.equals(newItem.getId()) : oldItem == newItem;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+                    return oldItem.contentHash() == newItem.contentHash() && oldItem.sameContentAs(newItem);
+                }
+            };
+
+    private final AsyncListDiffer<Notification> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final BindCounter bindCounter = new BindCounter(TAG);
     private OnNotificationActionListener listener;
 
     public interface OnNotificationActionListener {
         void onMarkAsRead(String notificationId);
 
+        /** The row is still listed; the listener removes it (see removeNotification). */
         void onDelete(String notificationId);
     }
 
     public NotificationAdapter(List<Notification> notifications, OnNotificationActionListener listener) {
-        this.notifications = notifications;
         this.listener = listener;
+        submitNotifications(notifications, null);
     }
 
     @NonNull
@@ -40,24 +61,72 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
 
     @Override
     public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position) {
-        Notification notification = notifications.get(position);
+        Notification notification = differ.getCurrentList().get(position);
+        bindCounter.onBind();
         holder.bind(notification);
     }
 
     @Override
     public int getItemCount() {
-        return notifications.size();
+        return differ.getCurrentList().size();
     }
 
     public void updateNotifications(List<Notification> newNotifications) {
-        this.notifications.clear();
-        this.notifications.addAll(newNotifications);
-        notifyDataSetChanged();
+        submitNotifications(newNotifications, null);
+    }
+
+    /**
+     * Diffs against the current list on a background thread; only rows whose
+     * id or rendered content changed are rebound. The list is copied first.
+     */
+    public void submitNotifications(List<Notification> newNotifications, Runnable onCommitted) {
+        List<Notification> snapshot = newNotifications != null
+                ? new ArrayList<>(newNotifications) : new ArrayList<>();
+        bindCounter.onSubmit(snapshot.size());
+        differ.submitList(snapshot, onCommitted);
+    }
+
+    public List<Notification> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    public void addNotificationAtTop(Notification notification, Runnable onCommitted) {
+        List<Notification> updated = new ArrayList<>(differ.getCurrentList().size() + 1);
+        updated.add(notification);
+        updated.addAll(differ.getCurrentList());
+        submitNotifications(updated, onCommitted);
+    }
+
+    // Replaces the row with a read copy; the old snapshot is left untouched
+    public void markAsRead(String notificationId) {
+        List<Notification> updated = new ArrayList<>(differ.getCurrentList());
+        for (int i = 0; i < updated.size(); i++) {
+            Notification n = updated.get(i);
+            if (n.getId() != null && n.getId().equals(notificationId) && !n.isRead()) {
+                Notification read = new Notification(n);
+                read.setRead(true);
+                updated.set(i, read);
+                submitNotifications(updated, null);
+                return;
+            }
+        }
     }
 
-    public void removeNotification(int position) {
-        notifications.remove(position);
-        notifyItemRemoved(position);
+    public void removeNotification(String notificationId, Runnable onCommitted) {
+        List<Notification> updated = new ArrayList<>(differ.getCurrentList());
+        for (int i = 0; i < updated.size(); i++) {
+            String id = updated.get(i).getId();
+            if (id != null && id.equals(notificationId)) {
+                updated.remove(i);
+                submitNotifications(updated, onCommitted);
+                return;
+            }
+        }
+    }
+
+    /** Rows rebound during the previous refresh (diagnostics). */
+    public int getLastRefreshBindCount() {
+        return bindCounter.getLastRefreshBinds();
     }
 
     public class NotificationViewHolder extends RecyclerView.ViewHolder {
@@ -100,27 +169,20 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
             btnMarkRead.setOnClickListener(v -> {
                 if (listener != null && !notification.isRead()) {
                     listener.onMarkAsRead(notification.getId());
-                    notification.setRead(true);
-                    notifyItemChanged(getAdapterPosition());
+                    markAsRead(notification.getId());
                 }
             });
 
             btnDelete.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onDelete(notification.getId());
-                    int position = getAdapterPosition();
-                    if (position != RecyclerView.NO_POSITION) {
-                        removeNotification(position);
-                    }
-                }
+                // The listener removes the row, so it can follow the committed list
+                if (listener != null) listener.onDelete(notification.getId());
             });
 
             // Make entire item clickable to mark as read
             itemView.setOnClickListener(v -> {
                 if (listener != null && !notification.isRead()) {
                     listener.onMarkAsRead(notification.getId());
-                    notification.setRead(true);
-                    notifyItemChanged(getAdapterPosition());
+                    markAsRead(notification.getId());
                 }
             });
         }
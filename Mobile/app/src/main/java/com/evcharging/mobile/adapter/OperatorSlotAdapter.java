@@ -0,0 +1,158 @@
+package com.evcharging.mobile.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.evcharging.mobile.R;
+import com.evcharging.mobile.model.SlotRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Slot list for OperatorUpdateSlotsActivity. Status colours and icons are
+ * precomputed per {@link SlotStyle} so binding never parses a colour string.
+ */
+public class OperatorSlotAdapter extends RecyclerView.Adapter<OperatorSlotAdapter.SlotViewHolder> {
+
+    private static final String TAG = "OperatorSlotAdapter";
+
+    enum SlotStyle {
+        AVAILABLE(0xFF4CAF50, R.drawable.ic_check_circle, "Available"),
+        BOOKED(0xFFFFA726, R.drawable.ic_hourglass_empty, "Booked"),
+        CHARGING(0xFF1E88E5, R.drawable.ic_flash_on, "Charging"),
+        MAINTENANCE(0xFFFFC107, R.drawable.ic_build, "Maintenance"),
+        OUT_OF_ORDER(0xFFE53935, R.drawable.ic_error, "Out of Order"),
+        UNKNOWN(0xFF9E9E9E, R.drawable.ic_info, "Unknown");
+
+        final int color;
+        final int icon;
+        final String label;
+
+        SlotStyle(int color, @DrawableRes int icon, String label) {
+            this.color = color;
+            this.icon = icon;
+            this.label = label;
+        }
+
+        static SlotStyle of(String status) {
+            switch (status.toLowerCase()) {
+                case "available": return AVAILABLE;
+                case "booked": return BOOKED;
+                case "charging": return CHARGING;
+                case "under maintenance": return MAINTENANCE;
+                case "out of order": return OUT_OF_ORDER;
+                default: return UNKNOWN;
+            }
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<SlotRow> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<SlotRow>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull SlotRow oldItem, @NonNull SlotRow newItem) {
+                    return oldItem.getSlotId().equals(newItem.getSlotId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull SlotRow oldItem, @NonNull SlotRow newItem) {
+                    return oldItem.sameContentAs(newItem);
+                }
+            };
+
+    public interface OnSlotClickListener {
+        void onSlotClick(SlotRow slot);
+    }
+
+    private final AsyncListDiffer<SlotRow> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final BindCounter bindCounter = new BindCounter(TAG);
+    private final OnSlotClickListener listener;
+
+    public OperatorSlotAdapter(OnSlotClickListener listener) {
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public SlotViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.slot_list_item, parent, false);
+        return new SlotViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull SlotViewHolder holder, int position) {
+        bindCounter.onBind();
+        holder.bind(differ.getCurrentList().get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    public void submit(List<SlotRow> rows) {
+        List<SlotRow> snapshot = rows != null ? new ArrayList<>(rows) : new ArrayList<>();
+        bindCounter.onSubmit(snapshot.size());
+        differ.submitList(snapshot);
+    }
+
+    /** Swaps a single slot's status; the differ rebinds only that row. */
+    public void updateStatus(String slotId, String newStatus) {
+        List<SlotRow> updated = new ArrayList<>(differ.getCurrentList());
+        for (int i = 0; i < updated.size(); i++) {
+            if (updated.get(i).getSlotId().equals(slotId)) {
+                updated.set(i, updated.get(i).withStatus(newStatus));
+                submit(updated);
+                return;
+            }
+        }
+    }
+
+    // ----------------------------------------------------
+    // ViewHolder
+    // ----------------------------------------------------
+    class SlotViewHolder extends RecyclerView.ViewHolder {
+
+        private final View vStatusIndicator;
+        private final ImageView ivStatus;
+        private final TextView tvTitle, tvSubtitle, tvStatusText;
+        private SlotRow slot;
+
+        SlotViewHolder(@NonNull View itemView) {
+            super(itemView);
+            vStatusIndicator = itemView.findViewById(R.id.vStatusIndicator);
+            ivStatus = itemView.findViewById(R.id.ivStatus);
+            tvTitle = itemView.findViewById(R.id.tvSlotTitle);
+            tvSubtitle = itemView.findViewById(R.id.tvSlotSubtitle);
+            tvStatusText = itemView.findViewById(R.id.tvStatusText);
+
+            itemView.setOnClickListener(v -> {
+                if (listener != null && slot != null) listener.onSlotClick(slot);
+            });
+        }
+
+        void bind(SlotRow slot) {
+            this.slot = slot;
+            SlotStyle style = SlotStyle.of(slot.getStatus());
+
+            tvTitle.setText("Slot " + slot.getNumber());
+            tvSubtitle.setText(slot.getConnectorType());
+
+            vStatusIndicator.setBackgroundColor(style.color);
+            ivStatus.setImageResource(style.icon);
+            ivStatus.setColorFilter(style.color);
+            tvStatusText.setTextColor(style.color);
+            tvStatusText.setText(style.label);
+        }
+    }
+}
@@ -9,6 +9,8 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.evcharging.mobile.R;
@@ -18,6 +20,7 @@ import com.google.android.material.progressindicator.LinearProgressIndicator;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -26,12 +29,30 @@ import java.util.concurrent.TimeUnit;
 
 public class OwnerBookingAdapter extends RecyclerView.Adapter<OwnerBookingAdapter.BookingViewHolder> {
 
-    private List<BookingItem> bookings;
+    private static final String TAG = "OwnerBookingAdapter";
+
+    // Same booking = same bookingId; same content = same rendered fields
+    private static final DiffUtil.ItemCallback<BookingItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<BookingItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull BookingItem oldItem, @NonNull BookingItem newItem) {
+                    String oldId = oldItem.getBookingId();
+                    return oldId != null ? oldId.equals(newItem.getBookingId()) : oldItem == newItem;
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull BookingItem oldItem, @NonNull BookingItem newItem) {
+                    return oldItem.contentHash() == newItem.contentHash() && oldItem.sameContentAs(newItem);
+                }
+            };
+
+    private final AsyncListDiffer<BookingItem> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final BindCounter bindCounter = new BindCounter(TAG);
     private final OnBookingActionListener listener;
 
     // Backward compatible constructor
     public OwnerBookingAdapter(List<BookingItem> bookings, OnBookingClickListener legacyListener) {
-        this.bookings = bookings;
+        submit(bookings, null);
         this.listener = new OnBookingActionListener() {
             @Override
             public void onBookingClick(BookingItem booking) {
@@ -51,7 +72,7 @@ public class OwnerBookingAdapter extends RecyclerView.Adapter<OwnerBookingAdapte
 
     // Modern constructor
     public OwnerBookingAdapter(List<BookingItem> bookings, OnBookingActionListener listener) {
-        this.bookings = bookings;
+        submit(bookings, null);
         this.listener = listener;
     }
 
@@ -65,24 +86,42 @@ public class OwnerBookingAdapter extends RecyclerView.Adapter<OwnerBookingAdapte
 
     @Override
     public void onBindViewHolder(@NonNull BookingViewHolder holder, int position) {
-        BookingItem booking = bookings.get(position);
+        BookingItem booking = differ.getCurrentList().get(position);
+        bindCounter.onBind();
         holder.bind(booking, listener);
     }
 
     @Override
     public int getItemCount() {
-        return bookings != null ? bookings.size() : 0;
+        return differ.getCurrentList().size();
     }
 
     public void setData(List<BookingItem> newBookings) {
-        this.bookings = newBookings;
-        notifyDataSetChanged();
+        submit(newBookings, null);
     }
 
     public void updateList(List<BookingItem> newBookings) {
-        this.bookings.clear();
-        this.bookings.addAll(newBookings);
-        notifyDataSetChanged();
+        submit(newBookings, null);
+    }
+
+    /**
+     * Diffs the new list against the current one on a background thread and
+     * dispatches only the inserts/removes/changes. The list is copied so later
+     * changes to the caller's list can't race the diff.
+     */
+    public void submit(List<BookingItem> newBookings, Runnable onCommitted) {
+        List<BookingItem> snapshot = newBookings != null ? new ArrayList<>(newBookings) : new ArrayList<>();
+        bindCounter.onSubmit(snapshot.size());
+        differ.submitList(snapshot, onCommitted);
+    }
+
+    public List<BookingItem> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    /** Rows rebound during the previous refresh (diagnostics). */
+    public int getLastRefreshBindCount() {
+        return bindCounter.getLastRefreshBinds();
     }
 
     // ----------------------------------------------------
@@ -131,6 +170,24 @@ public class OwnerBookingAdapter extends RecyclerView.Adapter<OwnerBookingAdapte
             cardBooking.setOnClickListener(v -> listener.onBookingClick(booking));
         }
 
+        /** Row shown while its page is still being read from the local store. */
+        public void bindPlaceholder() {
+            tvStationName.setText("Loading…");
+            tvStatus.setText("");
+            tvDate.setText("");
+            tvTime.setText("");
+            tvSlotNumber.setText("");
+            tvDuration.setText("");
+            statusBadge.setBackgroundResource(R.drawable.bg_status_default);
+
+            MaterialButton btnUpdate = itemView.findViewById(R.id.btnUpdate);
+            MaterialButton btnCancel = itemView.findViewById(R.id.btnCancel);
+            if (btnUpdate != null) btnUpdate.setVisibility(View.GONE);
+            if (btnCancel != null) btnCancel.setVisibility(View.GONE);
+            btnViewDetails.setOnClickListener(null);
+            cardBooking.setOnClickListener(null);
+        }
+
         private void setupActionButtons(BookingItem booking, OnBookingActionListener listener) {
             MaterialButton btnUpdate = itemView.findViewById(R.id.btnUpdate);
             MaterialButton btnCancel = itemView.findViewById(R.id.btnCancel);
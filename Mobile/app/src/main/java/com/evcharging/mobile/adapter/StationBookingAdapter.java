@@ -0,0 +1,134 @@
+package com.evcharging.mobile.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.evcharging.mobile.R;
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.StationBookingRow;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Operator-side booking list used by the dashboard (today_reservation_item)
+ * and the upcoming bookings screen (booking_item). Both layouts share the same
+ * view ids; only the layout and the booking id prefix differ.
+ */
+public class StationBookingAdapter extends RecyclerView.Adapter<StationBookingAdapter.RowViewHolder> {
+
+    private static final String TAG = "StationBookingAdapter";
+
+    // Header gradient per status, resolved once instead of on every bind
+    private static final EnumMap<BookingStatus, Integer> HEADER_BACKGROUNDS = new EnumMap<>(BookingStatus.class);
+    static {
+        for (BookingStatus s : BookingStatus.values()) {
+            HEADER_BACKGROUNDS.put(s, R.drawable.bg_gradient_grey);
+        }
+        HEADER_BACKGROUNDS.put(BookingStatus.APPROVED, R.drawable.bg_gradient_green);
+        HEADER_BACKGROUNDS.put(BookingStatus.PENDING, R.drawable.bg_gradient_orange);
+        HEADER_BACKGROUNDS.put(BookingStatus.CHARGING, R.drawable.bg_gradient_blue);
+    }
+
+    private static final DiffUtil.ItemCallback<StationBookingRow> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<StationBookingRow>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull StationBookingRow oldItem, @NonNull StationBookingRow newItem) {
+                    return oldItem.getBookingId().equals(newItem.getBookingId());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull StationBookingRow oldItem, @NonNull StationBookingRow newItem) {
+                    return oldItem.sameContentAs(newItem);
+                }
+            };
+
+    public interface OnRowClickListener {
+        void onRowClick(StationBookingRow row);
+    }
+
+    private final AsyncListDiffer<StationBookingRow> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    private final BindCounter bindCounter = new BindCounter(TAG);
+    private final int layoutRes;
+    private final String idPrefix;
+    private final OnRowClickListener listener;
+
+    public StationBookingAdapter(@LayoutRes int layoutRes, String idPrefix, OnRowClickListener listener) {
+        this.layoutRes = layoutRes;
+        this.idPrefix = idPrefix;
+        this.listener = listener;
+    }
+
+    @NonNull
+    @Override
+    public RowViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+        return new RowViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowViewHolder holder, int position) {
+        bindCounter.onBind();
+        holder.bind(differ.getCurrentList().get(position));
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    public void submit(List<StationBookingRow> rows, Runnable onCommitted) {
+        List<StationBookingRow> snapshot = rows != null ? new ArrayList<>(rows) : new ArrayList<>();
+        bindCounter.onSubmit(snapshot.size());
+        differ.submitList(snapshot, onCommitted);
+    }
+
+    public List<StationBookingRow> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    // ----------------------------------------------------
+    // ViewHolder - views looked up once per inflated row
+    // ----------------------------------------------------
+    class RowViewHolder extends RecyclerView.ViewHolder {
+
+        private final TextView tvBookingId, tvStatus, tvStart, tvEnd, tvOwnerName, tvSlotNumber;
+        private final View header;
+        private StationBookingRow row;
+
+        RowViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvBookingId = itemView.findViewById(R.id.tvBookingId);
+            tvStatus = itemView.findViewById(R.id.tvStatus);
+            tvStart = itemView.findViewById(R.id.tvStartTime);
+            tvEnd = itemView.findViewById(R.id.tvEndTime);
+            tvOwnerName = itemView.findViewById(R.id.tvOwnerName);
+            tvSlotNumber = itemView.findViewById(R.id.tvSlotNumber);
+            header = itemView.findViewById(R.id.headerContainer);
+
+            itemView.setOnClickListener(v -> {
+                if (listener != null && row != null) listener.onRowClick(row);
+            });
+        }
+
+        void bind(StationBookingRow row) {
+            this.row = row;
+            tvBookingId.setText(idPrefix + row.getBookingId());
+            tvStatus.setText(row.getRawStatus());
+            tvStart.setText("Start: " + row.getStartTime());
+            tvEnd.setText("End: " + row.getEndTime());
+            tvOwnerName.setText("Owner: " + row.getOwnerName());
+            tvSlotNumber.setText("Slot: " + row.getSlotLabel());
+            header.setBackgroundResource(HEADER_BACKGROUNDS.get(row.getStatus()));
+        }
+    }
+}
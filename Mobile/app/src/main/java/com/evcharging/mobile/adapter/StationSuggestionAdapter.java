@@ -0,0 +1,53 @@
+package com.evcharging.mobile.adapter;
+
+import android.content.Context;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+
+import androidx.annotation.NonNull;
+
+import com.evcharging.mobile.model.Station;
+
+import java.util.List;
+
+/**
+ * Dropdown adapter for the station search box. Matching is already done by
+ * StationSearchPipeline, so the filter passes the current list through instead
+ * of re-filtering it by toString() prefix.
+ */
+public class StationSuggestionAdapter extends ArrayAdapter<Station> {
+
+    private final Filter passThroughFilter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            return new FilterResults();
+        }
+
+        @Override
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return resultValue instanceof Station ? ((Station) resultValue).getName() : "";
+        }
+    };
+
+    public StationSuggestionAdapter(@NonNull Context context) {
+        super(context, android.R.layout.simple_dropdown_item_1line);
+    }
+
+    public void setStations(List<Station> stations) {
+        setNotifyOnChange(false);
+        clear();
+        if (stations != null) addAll(stations);
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return passThroughFilter;
+    }
+}
@@ -0,0 +1,281 @@
+package com.evcharging.mobile.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * BookingDao - local copy of the owner's bookings
+ *
+ * Purpose: Let booking screens page through history straight from SQLite
+ * (LIMIT/OFFSET, newest first) instead of holding the whole list in memory.
+ * Network sync writes here in batches; screens only ever read pages.
+ */
+public class BookingDao {
+
+    private static final String TAG = "BookingDao";
+
+    static final String TABLE_BOOKINGS = "bookings";
+
+    private static final String COLUMN_BOOKING_ID = "booking_id";
+    private static final String COLUMN_OWNER_ID = "owner_id";
+    private static final String COLUMN_STATION_ID = "station_id";
+    private static final String COLUMN_STATION_NAME = "station_name";
+    private static final String COLUMN_SLOT_ID = "slot_id";
+    private static final String COLUMN_SLOT_NUMBER = "slot_number";
+    private static final String COLUMN_TIME_SLOT_ID = "time_slot_id";
+    private static final String COLUMN_STATUS = "status";
+    private static final String COLUMN_START_TIME = "start_time";
+    private static final String COLUMN_END_TIME = "end_time";
+    private static final String COLUMN_START_EPOCH = "start_epoch"; // for ORDER BY without re-parsing
+    private static final String COLUMN_QR_IMAGE = "qr_image_base64";
+    private static final String COLUMN_CANCELLATION_REASON = "cancellation_reason";
+    private static final String COLUMN_SYNCED_AT = "synced_at";
+
+    static final String CREATE_TABLE_BOOKINGS =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_BOOKINGS + " (" +
+                    COLUMN_BOOKING_ID + " TEXT PRIMARY KEY, " +
+                    COLUMN_OWNER_ID + " TEXT, " +
+                    COLUMN_STATION_ID + " TEXT, " +
+                    COLUMN_STATION_NAME + " TEXT, " +
+                    COLUMN_SLOT_ID + " TEXT, " +
+                    COLUMN_SLOT_NUMBER + " TEXT, " +
+                    COLUMN_TIME_SLOT_ID + " TEXT, " +
+                    COLUMN_STATUS + " TEXT, " +
+                    COLUMN_START_TIME + " TEXT, " +
+                    COLUMN_END_TIME + " TEXT, " +
+                    COLUMN_START_EPOCH + " INTEGER, " +
+                    COLUMN_QR_IMAGE + " TEXT, " +
+                    COLUMN_CANCELLATION_REASON + " TEXT, " +
+                    COLUMN_SYNCED_AT + " INTEGER" +
+                    ")";
+
+    // Paged history queries filter by owner + status and sort by start time
+    static final String CREATE_INDEX_OWNER_STATUS =
+            "CREATE INDEX IF NOT EXISTS idx_bookings_owner_status_start ON " + TABLE_BOOKINGS +
+                    " (" + COLUMN_OWNER_ID + ", " + COLUMN_STATUS + ", " + COLUMN_START_EPOCH + " DESC)";
+
+    private final DatabaseHelper dbHelper;
+
+    public BookingDao(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------------
+
+    /**
+     * Insert or replace a batch of bookings in one transaction.
+     */
+    public void upsertAll(List<BookingItem> items, long syncedAt) {
+        if (items == null || items.isEmpty()) return;
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (BookingItem b : items) {
+                if (b.getBookingId() == null) continue;
+                db.insertWithOnConflict(TABLE_BOOKINGS, null, toValues(b, syncedAt),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving bookings: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Drop an owner's rows that were not touched by the sync that started at
+     * {@code syncStartedAt} (i.e. bookings the server no longer returns).
+     */
+    public int deleteStale(String ownerId, long syncStartedAt) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        return db.delete(TABLE_BOOKINGS,
+                COLUMN_OWNER_ID + " = ? AND " + COLUMN_SYNCED_AT + " < ?",
+                new String[]{ownerId, String.valueOf(syncStartedAt)});
+    }
+
+    public void upsert(BookingItem item, long syncedAt) {
+        if (item == null || item.getBookingId() == null) return;
+        dbHelper.getWritableDatabase().insertWithOnConflict(TABLE_BOOKINGS, null,
+                toValues(item, syncedAt), SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    public boolean delete(String bookingId) {
+        return dbHelper.getWritableDatabase().delete(TABLE_BOOKINGS,
+                COLUMN_BOOKING_ID + " = ?", new String[]{bookingId}) > 0;
+    }
+
+    /**
+     * Swap one row for another in a single transaction, e.g. a provisional
+     * booking for the server's copy. Readers see either the old row or the
+     * new one, never both or neither.
+     */
+    public boolean replace(String oldBookingId, BookingItem item, long syncedAt) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_BOOKINGS, COLUMN_BOOKING_ID + " = ?", new String[]{oldBookingId});
+            db.insertWithOnConflict(TABLE_BOOKINGS, null, toValues(item, syncedAt),
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error replacing booking " + oldBookingId + ": " + e.getMessage(), e);
+            return false;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void clear() {
+        dbHelper.getWritableDatabase().delete(TABLE_BOOKINGS, null, null);
+    }
+
+    // ---------------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------------
+
+    /**
+     * One page of an owner's bookings, newest first.
+     *
+     * @param statuses statuses to include; null or empty for all
+     */
+    public List<BookingItem> queryPage(String ownerId, Collection<String> statuses, int offset, int limit) {
+        List<String> args = new ArrayList<>();
+        String where = buildWhere(ownerId, statuses, args);
+
+        List<BookingItem> page = new ArrayList<>(limit);
+        Cursor cursor = dbHelper.getReadableDatabase().query(
+                TABLE_BOOKINGS, null, where, args.toArray(new String[0]),
+                null, null,
+                COLUMN_START_EPOCH + " DESC, " + COLUMN_BOOKING_ID,
+                offset + "," + limit);
+        try {
+            while (cursor.moveToNext()) {
+                page.add(fromCursor(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return page;
+    }
+
+    public int count(String ownerId, Collection<String> statuses) {
+        List<String> args = new ArrayList<>();
+        String where = buildWhere(ownerId, statuses, args);
+        return (int) DatabaseUtils.queryNumEntries(dbHelper.getReadableDatabase(), TABLE_BOOKINGS,
+                where, args.toArray(new String[0]));
+    }
+
+    /**
+     * An owner's bookings with one of {@code statuses} that start before
+     * {@code endMillis} and no earlier than {@code earliestStartMillis}. Callers
+     * pick the lower bound from the longest booking they expect and check the
+     * end time themselves.
+     */
+    public List<BookingItem> findStartingBetween(String ownerId, Collection<String> statuses,
+                                                 long earliestStartMillis, long endMillis) {
+        List<String> args = new ArrayList<>();
+        String where = buildWhere(ownerId, statuses, args)
+                + " AND " + COLUMN_START_EPOCH + " >= ? AND " + COLUMN_START_EPOCH + " < ?";
+        args.add(String.valueOf(earliestStartMillis));
+        args.add(String.valueOf(endMillis));
+
+        List<BookingItem> found = new ArrayList<>();
+        Cursor cursor = dbHelper.getReadableDatabase().query(
+                TABLE_BOOKINGS, null, where, args.toArray(new String[0]), null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                found.add(fromCursor(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return found;
+    }
+
+    public BookingItem findById(String bookingId) {
+        Cursor cursor = dbHelper.getReadableDatabase().query(TABLE_BOOKINGS, null,
+                COLUMN_BOOKING_ID + " = ?", new String[]{bookingId}, null, null, null, "1");
+        try {
+            return cursor.moveToFirst() ? fromCursor(cursor) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Mapping
+    // ---------------------------------------------------------------------
+
+    private static String buildWhere(String ownerId, Collection<String> statuses, List<String> args) {
+        StringBuilder where = new StringBuilder(COLUMN_OWNER_ID).append(" = ?");
+        args.add(ownerId);
+        if (statuses != null && !statuses.isEmpty()) {
+            where.append(" AND ").append(COLUMN_STATUS).append(" IN (");
+            int i = 0;
+            for (String s : statuses) {
+                where.append(i++ == 0 ? "?" : ",?");
+                args.add(canonicalStatus(s));
+            }
+            where.append(")");
+        }
+        return where.toString();
+    }
+
+    // Stored in the backend's casing so the (owner, status, start) index can be used
+    private static String canonicalStatus(String status) {
+        BookingStatus parsed = BookingStatus.from(status);
+        return parsed != BookingStatus.UNKNOWN ? parsed.getLabel() : status;
+    }
+
+    private static ContentValues toValues(BookingItem b, long syncedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_BOOKING_ID, b.getBookingId());
+        values.put(COLUMN_OWNER_ID, b.getOwnerId());
+        values.put(COLUMN_STATION_ID, b.getStationId());
+        values.put(COLUMN_STATION_NAME, b.getStationName());
+        values.put(COLUMN_SLOT_ID, b.getSlotId());
+        values.put(COLUMN_SLOT_NUMBER, b.getSlotNumber());
+        values.put(COLUMN_TIME_SLOT_ID, b.getTimeSlotId());
+        values.put(COLUMN_STATUS, canonicalStatus(b.getStatus()));
+        values.put(COLUMN_START_TIME, b.getStartTime());
+        values.put(COLUMN_END_TIME, b.getEndTime());
+        values.put(COLUMN_START_EPOCH, TimeUtils.parseUtcMillis(b.getStartTime()));
+        values.put(COLUMN_QR_IMAGE, b.getQrImageBase64());
+        values.put(COLUMN_CANCELLATION_REASON, b.getCancellationReason());
+        values.put(COLUMN_SYNCED_AT, syncedAt);
+        return values;
+    }
+
+    private static BookingItem fromCursor(Cursor c) {
+        BookingItem b = new BookingItem();
+        b.setBookingId(c.getString(c.getColumnIndexOrThrow(COLUMN_BOOKING_ID)));
+        b.setOwnerId(c.getString(c.getColumnIndexOrThrow(COLUMN_OWNER_ID)));
+        b.setStationId(c.getString(c.getColumnIndexOrThrow(COLUMN_STATION_ID)));
+        b.setStationName(c.getString(c.getColumnIndexOrThrow(COLUMN_STATION_NAME)));
+        b.setSlotId(c.getString(c.getColumnIndexOrThrow(COLUMN_SLOT_ID)));
+        b.setSlotNumber(c.getString(c.getColumnIndexOrThrow(COLUMN_SLOT_NUMBER)));
+        b.setTimeSlotId(c.getString(c.getColumnIndexOrThrow(COLUMN_TIME_SLOT_ID)));
+        b.setStatus(c.getString(c.getColumnIndexOrThrow(COLUMN_STATUS)));
+        b.setStartTime(c.getString(c.getColumnIndexOrThrow(COLUMN_START_TIME)));
+        b.setEndTime(c.getString(c.getColumnIndexOrThrow(COLUMN_END_TIME)));
+        b.setQrImageBase64(c.getString(c.getColumnIndexOrThrow(COLUMN_QR_IMAGE)));
+        b.setCancellationReason(c.getString(c.getColumnIndexOrThrow(COLUMN_CANCELLATION_REASON)));
+        return b;
+    }
+}
@@ -0,0 +1,207 @@
+package com.evcharging.mobile.database;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.evcharging.mobile.model.BookingItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BookingPager - windowed, page-at-a-time view over an owner's bookings in SQLite
+ *
+ * Purpose: Keep memory flat no matter how long the history is. Only the total
+ * row count plus at most {@code maxPages} pages of {@code pageSize} rows are
+ * held; the least recently used page is evicted and simply re-read from the
+ * database if the user scrolls back to it. Positions whose page isn't loaded
+ * yet return null so the adapter can show a placeholder row.
+ *
+ * All public methods must be called on the main thread; queries run on a
+ * single background thread and results are posted back.
+ */
+public class BookingPager {
+
+    private static final String TAG = "BookingPager";
+
+    public interface Listener {
+        /** The whole data set was replaced (filter change). */
+        void onReset(int itemCount);
+
+        /** Row count changed after a refresh. */
+        void onCountChanged(int oldCount, int newCount);
+
+        /** Rows [start, start + count) now have data (or new data). */
+        void onItemsChanged(int start, int count);
+    }
+
+    private final BookingDao dao;
+    private final String ownerId;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxPages;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Map<Integer, List<BookingItem>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+
+    private Listener listener;
+    private List<String> statuses = new ArrayList<>();
+    private int itemCount = 0;
+    private int generation = 0; // bumped on filter change so late results are dropped
+    private boolean released = false; // executor is shut down; callers may still be finishing
+
+    public BookingPager(BookingDao dao, String ownerId, int pageSize, int prefetchDistance, int maxPages) {
+        this.dao = dao;
+        this.ownerId = ownerId;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxPages = maxPages;
+        // Access-ordered so the eldest entry is the least recently read page
+        this.pages = new LinkedHashMap<Integer, List<BookingItem>>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<BookingItem>> eldest) {
+                return size() > BookingPager.this.maxPages;
+            }
+        };
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Switch to a different status filter. Drops every loaded page and
+     * re-counts; pages are then loaded lazily as rows are requested.
+     */
+    public void setFilter(Collection<String> newStatuses) {
+        if (released) return;
+        statuses = newStatuses != null ? new ArrayList<>(newStatuses) : new ArrayList<>();
+        generation++;
+        pages.clear();
+        loading.clear();
+
+        final int gen = generation;
+        final List<String> filter = statuses;
+        executor.execute(() -> {
+            int count = dao.count(ownerId, filter);
+            List<BookingItem> first = count > 0 ? dao.queryPage(ownerId, filter, 0, pageSize) : null;
+            mainHandler.post(() -> {
+                if (gen != generation) return;
+                itemCount = count;
+                if (first != null) pages.put(0, first);
+                if (listener != null) listener.onReset(itemCount);
+            });
+        });
+    }
+
+    /**
+     * Re-read the count and the pages currently in memory, e.g. after a sync
+     * wrote new rows. Rows keep showing their old data until the new page lands.
+     */
+    public void invalidate() {
+        if (released) return;
+        final int gen = generation;
+        final List<String> filter = statuses;
+        final List<Integer> loadedPages = new ArrayList<>(pages.keySet());
+        executor.execute(() -> {
+            int count = dao.count(ownerId, filter);
+            Map<Integer, List<BookingItem>> fresh = new LinkedHashMap<>();
+            for (Integer page : loadedPages) {
+                fresh.put(page, dao.queryPage(ownerId, filter, page * pageSize, pageSize));
+            }
+            mainHandler.post(() -> {
+                if (gen != generation) return;
+                int oldCount = itemCount;
+                itemCount = count;
+                if (oldCount != count && listener != null) listener.onCountChanged(oldCount, count);
+                for (Map.Entry<Integer, List<BookingItem>> e : fresh.entrySet()) {
+                    publishPage(e.getKey(), e.getValue());
+                }
+            });
+        });
+    }
+
+    /**
+     * @return the booking at {@code position}, or null while its page loads.
+     * Also schedules the page {@code prefetchDistance} rows ahead.
+     */
+    public BookingItem getItem(int position) {
+        if (position < 0 || position >= itemCount) return null;
+
+        int page = position / pageSize;
+        ensurePage(page);
+        int ahead = position + prefetchDistance;
+        if (ahead < itemCount) ensurePage(ahead / pageSize);
+
+        List<BookingItem> rows = pages.get(page);
+        if (rows == null) return null;
+        int index = position - page * pageSize;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /** Stop the background thread; call from onDestroy. Later calls are no-ops. */
+    public void release() {
+        released = true;
+        generation++;
+        executor.shutdownNow();
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void ensurePage(int page) {
+        if (released || pages.containsKey(page) || loading.contains(page)) return;
+        loading.add(page);
+
+        final int gen = generation;
+        final List<String> filter = statuses;
+        executor.execute(() -> {
+            List<BookingItem> rows = dao.queryPage(ownerId, filter, page * pageSize, pageSize);
+            mainHandler.post(() -> {
+                if (gen != generation) return;
+                loading.remove(page);
+                publishPage(page, rows);
+            });
+        });
+    }
+
+    private void publishPage(int page, List<BookingItem> rows) {
+        List<BookingItem> previous = pages.put(page, rows);
+        if (listener == null) return;
+
+        int start = page * pageSize;
+        if (previous == null) {
+            listener.onItemsChanged(start, Math.min(rows.size(), Math.max(0, itemCount - start)));
+            return;
+        }
+        // Re-read of a page that was already showing: only notify rows that differ
+        for (int i = 0; i < rows.size(); i++) {
+            BookingItem old = i < previous.size() ? previous.get(i) : null;
+            BookingItem now = rows.get(i);
+            boolean same = old != null
+                    && old.getBookingId() != null
+                    && old.getBookingId().equals(now.getBookingId())
+                    && old.sameContentAs(now);
+            if (!same && start + i < itemCount) listener.onItemsChanged(start + i, 1);
+        }
+        Log.d(TAG, "Page " + page + " refreshed (" + pages.size() + "/" + maxPages + " pages in memory)");
+    }
+}
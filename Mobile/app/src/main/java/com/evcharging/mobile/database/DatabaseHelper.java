@@ -24,7 +24,12 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     // Database configuration
     private static final String DATABASE_NAME = "EVChargingApp.db";
-    private static final int DATABASE_VERSION = 1;
+    // v2: local bookings table (BookingDao)
+    // v3: station catalogue (StationDao)
+    // v4: operator's station bookings + offline action queue (StationBookingDao)
+    // v5: end times of station bookings
+    // v6: cached responses of read screens (ResponseCacheDao)
+    private static final int DATABASE_VERSION = 6;
 
     // Table name
     private static final String TABLE_USER = "user";
@@ -85,14 +90,60 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         Log.d(TAG, "Creating database tables");
         db.execSQL(CREATE_TABLE_USER);
         Log.d(TAG, "User table created successfully");
+        createBookingTables(db);
+        createStationTables(db);
+        createStationBookingTables(db);
+        createResponseCacheTable(db);
+    }
+
+    private void createResponseCacheTable(SQLiteDatabase db) {
+        db.execSQL(ResponseCacheDao.CREATE_TABLE_RESPONSE_CACHE);
+        Log.d(TAG, "Response cache table created successfully");
+    }
+
+    private void createStationBookingTables(SQLiteDatabase db) {
+        db.execSQL(StationBookingDao.CREATE_TABLE_STATION_BOOKINGS);
+        db.execSQL(StationBookingDao.CREATE_INDEX_QR_HASH);
+        db.execSQL(StationBookingDao.CREATE_INDEX_STATION_START);
+        db.execSQL(StationBookingDao.CREATE_TABLE_PENDING_TRANSITIONS);
+        Log.d(TAG, "Station booking tables created successfully");
+    }
+
+    private void createStationTables(SQLiteDatabase db) {
+        db.execSQL(StationDao.CREATE_TABLE_STATIONS);
+        Log.d(TAG, "Stations table created successfully");
+    }
+
+    private void createBookingTables(SQLiteDatabase db) {
+        db.execSQL(BookingDao.CREATE_TABLE_BOOKINGS);
+        db.execSQL(BookingDao.CREATE_INDEX_OWNER_STATUS);
+        Log.d(TAG, "Bookings table created successfully");
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         Log.d(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
-        // Drop older table if exists and create fresh table
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_USER);
-        onCreate(db);
+        if (oldVersion < 1) {
+            // Drop older table if exists and create fresh table
+            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USER);
+            onCreate(db);
+            return;
+        }
+        // Additive upgrades keep the logged-in user row intact
+        if (oldVersion < 2) {
+            createBookingTables(db);
+        }
+        if (oldVersion < 3) {
+            createStationTables(db);
+        }
+        if (oldVersion < 4) {
+            createStationBookingTables(db);
+        } else if (oldVersion < 5) {
+            db.execSQL(StationBookingDao.ADD_COLUMN_END_EPOCH);
+        }
+        if (oldVersion < 6) {
+            createResponseCacheTable(db);
+        }
     }
 
     /**
@@ -299,6 +350,25 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void clearAllData() {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_USER, null, null);
+        clearCachedData();
         Log.d(TAG, "All data cleared from database");
     }
+
+    /**
+     * Clear locally cached server data (bookings etc.) so the next user
+     * never sees the previous user's rows
+     */
+    public void clearCachedData() {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete(BookingDao.TABLE_BOOKINGS, null, null);
+        db.delete(StationBookingDao.TABLE_STATION_BOOKINGS, null, null);
+        // Queued start/finalize actions belong to the operator who made them. The operator's
+        // logout replays them first and asks before discarding any that couldn't be sent
+        int dropped = db.delete(StationBookingDao.TABLE_PENDING_TRANSITIONS, null, null);
+        if (dropped > 0) Log.w(TAG, "Dropped " + dropped + " unsent operator actions");
+        // Cached profile and notification JSON of the read screens
+        db.delete(ResponseCacheDao.TABLE_RESPONSE_CACHE, null, null);
+        // Stations are public data and stay cached across logins
+        Log.d(TAG, "Cached server data cleared");
+    }
 }
@@ -0,0 +1,96 @@
+package com.evcharging.mobile.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+/**
+ * ResponseCacheDao - last known response body per cached resource
+ *
+ * Purpose: Disk tier of {@link com.evcharging.mobile.service.ResourceRepository}.
+ * Stores the raw JSON the server returned for a resource key together with
+ * when it was fetched, so a screen can show it at once after a restart and
+ * the repository can tell whether a new response changed anything.
+ */
+public class ResponseCacheDao {
+
+    private static final String TAG = "ResponseCacheDao";
+
+    static final String TABLE_RESPONSE_CACHE = "response_cache";
+
+    private static final String COLUMN_CACHE_KEY = "cache_key";
+    private static final String COLUMN_BODY = "body";
+    private static final String COLUMN_FETCHED_AT = "fetched_at";
+
+    static final String CREATE_TABLE_RESPONSE_CACHE =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_RESPONSE_CACHE + " (" +
+                    COLUMN_CACHE_KEY + " TEXT PRIMARY KEY, " +
+                    COLUMN_BODY + " TEXT NOT NULL, " +
+                    COLUMN_FETCHED_AT + " INTEGER NOT NULL" +
+                    ")";
+
+    /** A stored response. */
+    public static final class Cached {
+        public final String body;
+        public final long fetchedAt;
+
+        Cached(String body, long fetchedAt) {
+            this.body = body;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public ResponseCacheDao(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    // ---------------------------------------------------------------------
+
+    public void put(String key, String body, long fetchedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_CACHE_KEY, key);
+        values.put(COLUMN_BODY, body);
+        values.put(COLUMN_FETCHED_AT, fetchedAt);
+        try {
+            dbHelper.getWritableDatabase().insertWithOnConflict(TABLE_RESPONSE_CACHE, null, values,
+                    SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (Exception e) {
+            Log.e(TAG, "Error caching " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Mark an unchanged response as checked at {@code fetchedAt}. */
+    public void touch(String key, long fetchedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_FETCHED_AT, fetchedAt);
+        dbHelper.getWritableDatabase().update(TABLE_RESPONSE_CACHE, values,
+                COLUMN_CACHE_KEY + " = ?", new String[]{key});
+    }
+
+    public Cached get(String key) {
+        Cursor cursor = dbHelper.getReadableDatabase().query(TABLE_RESPONSE_CACHE,
+                new String[]{COLUMN_BODY, COLUMN_FETCHED_AT},
+                COLUMN_CACHE_KEY + " = ?", new String[]{key}, null, null, null, "1");
+        try {
+            return cursor.moveToFirst() ? new Cached(cursor.getString(0), cursor.getLong(1)) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /** Remove every entry whose key starts with {@code prefix}. */
+    public int deleteByPrefix(String prefix) {
+        // Keys are built by the app, but escape LIKE wildcards anyway
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return dbHelper.getWritableDatabase().delete(TABLE_RESPONSE_CACHE,
+                COLUMN_CACHE_KEY + " LIKE ? ESCAPE '\\'", new String[]{pattern});
+    }
+
+    public void clear() {
+        dbHelper.getWritableDatabase().delete(TABLE_RESPONSE_CACHE, null, null);
+    }
+}
@@ -0,0 +1,295 @@
+package com.evcharging.mobile.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.BookingTiming;
+import com.evcharging.mobile.model.StationBookingRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StationBookingDao - an operator's offline copy of their station's bookings
+ *
+ * Purpose: Hold today's and upcoming bookings of the operator's station so the
+ * dashboard, booking details and QR verification keep working without signal.
+ * QR tokens are stored only as SHA-256 hashes; a scanned code is hashed the
+ * same way and looked up through the qr_hash index.
+ *
+ * Start/finalize actions taken offline wait in a second table, in the order
+ * they were made, until they can be replayed against the server.
+ */
+public class StationBookingDao {
+
+    private static final String TAG = "StationBookingDao";
+
+    static final String TABLE_STATION_BOOKINGS = "station_bookings";
+    static final String TABLE_PENDING_TRANSITIONS = "pending_transitions";
+
+    private static final String COLUMN_BOOKING_ID = "booking_id";
+    private static final String COLUMN_STATION_ID = "station_id";
+    private static final String COLUMN_STATUS = "status";
+    private static final String COLUMN_SLOT_NUMBER = "slot_number";
+    private static final String COLUMN_START_TIME = "start_time"; // display text
+    private static final String COLUMN_END_TIME = "end_time";     // display text
+    private static final String COLUMN_START_EPOCH = "start_epoch";
+    private static final String COLUMN_END_EPOCH = "end_epoch";
+    private static final String COLUMN_OWNER_NAME = "owner_name";
+    private static final String COLUMN_QR_HASH = "qr_hash";
+    private static final String COLUMN_SYNCED_AT = "synced_at";
+
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_ACTION = "action";
+    private static final String COLUMN_FROM_STATUS = "from_status";
+    private static final String COLUMN_QUEUED_AT = "queued_at";
+
+    static final String CREATE_TABLE_STATION_BOOKINGS =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_STATION_BOOKINGS + " (" +
+                    COLUMN_BOOKING_ID + " TEXT PRIMARY KEY, " +
+                    COLUMN_STATION_ID + " TEXT, " +
+                    COLUMN_STATUS + " TEXT, " +
+                    COLUMN_SLOT_NUMBER + " INTEGER, " +
+                    COLUMN_START_TIME + " TEXT, " +
+                    COLUMN_END_TIME + " TEXT, " +
+                    COLUMN_START_EPOCH + " INTEGER, " +
+                    COLUMN_END_EPOCH + " INTEGER, " +
+                    COLUMN_OWNER_NAME + " TEXT, " +
+                    COLUMN_QR_HASH + " TEXT, " +
+                    COLUMN_SYNCED_AT + " INTEGER" +
+                    ")";
+
+    // v5: end times for the station analytics
+    static final String ADD_COLUMN_END_EPOCH =
+            "ALTER TABLE " + TABLE_STATION_BOOKINGS + " ADD COLUMN " + COLUMN_END_EPOCH + " INTEGER";
+
+    static final String CREATE_INDEX_QR_HASH =
+            "CREATE INDEX IF NOT EXISTS idx_station_bookings_qr ON " + TABLE_STATION_BOOKINGS +
+                    " (" + COLUMN_QR_HASH + ")";
+
+    static final String CREATE_INDEX_STATION_START =
+            "CREATE INDEX IF NOT EXISTS idx_station_bookings_station_start ON " + TABLE_STATION_BOOKINGS +
+                    " (" + COLUMN_STATION_ID + ", " + COLUMN_START_EPOCH + ")";
+
+    static final String CREATE_TABLE_PENDING_TRANSITIONS =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_PENDING_TRANSITIONS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_BOOKING_ID + " TEXT NOT NULL, " +
+                    COLUMN_ACTION + " TEXT NOT NULL, " +
+                    COLUMN_FROM_STATUS + " TEXT, " +
+                    COLUMN_QUEUED_AT + " INTEGER" +
+                    ")";
+
+    /** A start/finalize waiting to be sent. */
+    public static final class PendingTransition {
+        public final long id;
+        public final String bookingId;
+        public final String action;     // "start" or "finalize"
+        public final String fromStatus; // local status when the action was taken
+        public final long queuedAt;
+
+        PendingTransition(long id, String bookingId, String action, String fromStatus, long queuedAt) {
+            this.id = id;
+            this.bookingId = bookingId;
+            this.action = action;
+            this.fromStatus = fromStatus;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public StationBookingDao(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    // ---------------------------------------------------------------------
+    // Bookings
+    // ---------------------------------------------------------------------
+
+    /**
+     * Store one sync pass in a single transaction.
+     *
+     * @param startEpochs start time (epoch millis) per row, same order
+     * @param endEpochs   end time (epoch millis) per row, same order
+     * @param qrHashes    hashed QR token per row, same order; null entries allowed
+     */
+    public void upsertAll(String stationId, List<StationBookingRow> rows, List<Long> startEpochs,
+                          List<Long> endEpochs, List<String> qrHashes, long syncedAt) {
+        if (rows == null || rows.isEmpty()) return;
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                StationBookingRow r = rows.get(i);
+                ContentValues v = new ContentValues();
+                v.put(COLUMN_BOOKING_ID, r.getBookingId());
+                v.put(COLUMN_STATION_ID, stationId);
+                v.put(COLUMN_STATUS, r.getRawStatus());
+                v.put(COLUMN_SLOT_NUMBER, r.getSlotNumber());
+                v.put(COLUMN_START_TIME, r.getStartTime());
+                v.put(COLUMN_END_TIME, r.getEndTime());
+                v.put(COLUMN_START_EPOCH, startEpochs.get(i));
+                v.put(COLUMN_END_EPOCH, endEpochs.get(i));
+                v.put(COLUMN_OWNER_NAME, r.getOwnerName());
+                v.put(COLUMN_QR_HASH, qrHashes.get(i));
+                v.put(COLUMN_SYNCED_AT, syncedAt);
+                db.insertWithOnConflict(TABLE_STATION_BOOKINGS, null, v, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving station bookings: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Drop rows of a station that the sync started at {@code syncStartedAt} didn't return. */
+    public int deleteStale(String stationId, long syncStartedAt) {
+        return dbHelper.getWritableDatabase().delete(TABLE_STATION_BOOKINGS,
+                COLUMN_STATION_ID + " = ? AND " + COLUMN_SYNCED_AT + " < ?",
+                new String[]{stationId, String.valueOf(syncStartedAt)});
+    }
+
+    public void updateStatus(String bookingId, String status) {
+        ContentValues v = new ContentValues();
+        v.put(COLUMN_STATUS, status);
+        dbHelper.getWritableDatabase().update(TABLE_STATION_BOOKINGS, v,
+                COLUMN_BOOKING_ID + " = ?", new String[]{bookingId});
+    }
+
+    /** A station's bookings starting in [fromMillis, toMillis), soonest first. */
+    public List<StationBookingRow> queryStartingBetween(String stationId, long fromMillis, long toMillis) {
+        List<StationBookingRow> rows = new ArrayList<>();
+        Cursor c = dbHelper.getReadableDatabase().query(TABLE_STATION_BOOKINGS, null,
+                COLUMN_STATION_ID + " = ? AND " + COLUMN_START_EPOCH + " >= ? AND " + COLUMN_START_EPOCH + " < ?",
+                new String[]{stationId, String.valueOf(fromMillis), String.valueOf(toMillis)},
+                null, null, COLUMN_START_EPOCH);
+        try {
+            while (c.moveToNext()) rows.add(fromCursor(c));
+        } finally {
+            c.close();
+        }
+        return rows;
+    }
+
+    /** Slot, status and times of a station's bookings starting in [fromMillis, toMillis). */
+    public List<BookingTiming> queryTimings(String stationId, long fromMillis, long toMillis) {
+        List<BookingTiming> out = new ArrayList<>();
+        Cursor c = dbHelper.getReadableDatabase().query(TABLE_STATION_BOOKINGS,
+                new String[]{COLUMN_BOOKING_ID, COLUMN_SLOT_NUMBER, COLUMN_STATUS, COLUMN_START_EPOCH, COLUMN_END_EPOCH},
+                COLUMN_STATION_ID + " = ? AND " + COLUMN_START_EPOCH + " >= ? AND " + COLUMN_START_EPOCH + " < ?",
+                new String[]{stationId, String.valueOf(fromMillis), String.valueOf(toMillis)},
+                null, null, null);
+        try {
+            while (c.moveToNext()) {
+                out.add(new BookingTiming(c.getString(0), c.getInt(1), BookingStatus.from(c.getString(2)),
+                        c.getLong(3), c.isNull(4) ? -1 : c.getLong(4)));
+            }
+        } finally {
+            c.close();
+        }
+        return out;
+    }
+
+    public StationBookingRow findById(String bookingId) {
+        Cursor c = dbHelper.getReadableDatabase().query(TABLE_STATION_BOOKINGS, null,
+                COLUMN_BOOKING_ID + " = ?", new String[]{bookingId}, null, null, null, "1");
+        try {
+            return c.moveToFirst() ? fromCursor(c) : null;
+        } finally {
+            c.close();
+        }
+    }
+
+    /** Every stored QR hash of a station mapped to its booking id. */
+    public Map<String, String> loadQrIndex(String stationId) {
+        Map<String, String> index = new HashMap<>();
+        Cursor c = dbHelper.getReadableDatabase().query(TABLE_STATION_BOOKINGS,
+                new String[]{COLUMN_QR_HASH, COLUMN_BOOKING_ID},
+                COLUMN_STATION_ID + " = ? AND " + COLUMN_QR_HASH + " IS NOT NULL",
+                new String[]{stationId}, null, null, null);
+        try {
+            while (c.moveToNext()) index.put(c.getString(0), c.getString(1));
+        } finally {
+            c.close();
+        }
+        return index;
+    }
+
+    // ---------------------------------------------------------------------
+    // Pending transitions
+    // ---------------------------------------------------------------------
+
+    /** Queue an action and apply its status locally in one transaction. */
+    public void enqueue(String bookingId, String action, String fromStatus, String newStatus) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues v = new ContentValues();
+            v.put(COLUMN_BOOKING_ID, bookingId);
+            v.put(COLUMN_ACTION, action);
+            v.put(COLUMN_FROM_STATUS, fromStatus);
+            v.put(COLUMN_QUEUED_AT, System.currentTimeMillis());
+            db.insert(TABLE_PENDING_TRANSITIONS, null, v);
+
+            ContentValues s = new ContentValues();
+            s.put(COLUMN_STATUS, newStatus);
+            db.update(TABLE_STATION_BOOKINGS, s, COLUMN_BOOKING_ID + " = ?", new String[]{bookingId});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Oldest first, which is the order they must be replayed in. */
+    public List<PendingTransition> loadPending() {
+        List<PendingTransition> out = new ArrayList<>();
+        Cursor c = dbHelper.getReadableDatabase().query(TABLE_PENDING_TRANSITIONS, null,
+                null, null, null, null, COLUMN_ID);
+        try {
+            while (c.moveToNext()) {
+                out.add(new PendingTransition(
+                        c.getLong(c.getColumnIndexOrThrow(COLUMN_ID)),
+                        c.getString(c.getColumnIndexOrThrow(COLUMN_BOOKING_ID)),
+                        c.getString(c.getColumnIndexOrThrow(COLUMN_ACTION)),
+                        c.getString(c.getColumnIndexOrThrow(COLUMN_FROM_STATUS)),
+                        c.getLong(c.getColumnIndexOrThrow(COLUMN_QUEUED_AT))));
+            }
+        } finally {
+            c.close();
+        }
+        return out;
+    }
+
+    public int countPending() {
+        return (int) DatabaseUtils.queryNumEntries(
+                dbHelper.getReadableDatabase(), TABLE_PENDING_TRANSITIONS);
+    }
+
+    public void deletePending(long id) {
+        dbHelper.getWritableDatabase().delete(TABLE_PENDING_TRANSITIONS,
+                COLUMN_ID + " = ?", new String[]{String.valueOf(id)});
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static StationBookingRow fromCursor(Cursor c) {
+        return new StationBookingRow(
+                c.getString(c.getColumnIndexOrThrow(COLUMN_BOOKING_ID)),
+                c.getString(c.getColumnIndexOrThrow(COLUMN_STATUS)),
+                c.getInt(c.getColumnIndexOrThrow(COLUMN_SLOT_NUMBER)),
+                c.getString(c.getColumnIndexOrThrow(COLUMN_START_TIME)),
+                c.getString(c.getColumnIndexOrThrow(COLUMN_END_TIME)),
+                c.getString(c.getColumnIndexOrThrow(COLUMN_OWNER_NAME)),
+                null, // the raw QR token is never stored
+                null);
+    }
+}
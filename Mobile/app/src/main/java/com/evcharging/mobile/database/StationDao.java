@@ -0,0 +1,138 @@
+package com.evcharging.mobile.database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.evcharging.mobile.model.Station;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * StationDao - local copy of the station catalogue
+ *
+ * Purpose: Keep every station the app has fetched so nearby lookups still
+ * work offline and the in-memory spatial index can be rebuilt at startup
+ * without a network call.
+ */
+public class StationDao {
+
+    private static final String TAG = "StationDao";
+
+    static final String TABLE_STATIONS = "stations";
+
+    private static final String COLUMN_STATION_ID = "station_id";
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_LOCATION = "location";
+    private static final String COLUMN_TYPE = "type";
+    private static final String COLUMN_LATITUDE = "latitude";
+    private static final String COLUMN_LONGITUDE = "longitude";
+    private static final String COLUMN_SYNCED_AT = "synced_at";
+
+    static final String CREATE_TABLE_STATIONS =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_STATIONS + " (" +
+                    COLUMN_STATION_ID + " TEXT PRIMARY KEY, " +
+                    COLUMN_NAME + " TEXT, " +
+                    COLUMN_LOCATION + " TEXT, " +
+                    COLUMN_TYPE + " TEXT, " +
+                    COLUMN_LATITUDE + " REAL NOT NULL, " +
+                    COLUMN_LONGITUDE + " REAL NOT NULL, " +
+                    COLUMN_SYNCED_AT + " INTEGER" +
+                    ")";
+
+    private final DatabaseHelper dbHelper;
+
+    public StationDao(Context context) {
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------------
+
+    public void upsertAll(Collection<Station> stations, long syncedAt) {
+        if (stations == null || stations.isEmpty()) return;
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Station s : stations) {
+                if (s == null || s.getStationId() == null) continue;
+                db.insertWithOnConflict(TABLE_STATIONS, null, toValues(s, syncedAt),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Log.e(TAG, "Error saving stations: " + e.getMessage(), e);
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void deleteByIds(Collection<String> stationIds) {
+        if (stationIds == null || stationIds.isEmpty()) return;
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String id : stationIds) {
+                db.delete(TABLE_STATIONS, COLUMN_STATION_ID + " = ?", new String[]{id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void clear() {
+        dbHelper.getWritableDatabase().delete(TABLE_STATIONS, null, null);
+    }
+
+    // ---------------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------------
+
+    /** Every cached station; used once to build the in-memory index. */
+    public List<Station> loadAll() {
+        List<Station> stations = new ArrayList<>();
+        Cursor cursor = dbHelper.getReadableDatabase().query(
+                TABLE_STATIONS, null, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                stations.add(fromCursor(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return stations;
+    }
+
+    // ---------------------------------------------------------------------
+    // Mapping
+    // ---------------------------------------------------------------------
+
+    private static ContentValues toValues(Station s, long syncedAt) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_STATION_ID, s.getStationId());
+        values.put(COLUMN_NAME, s.getName());
+        values.put(COLUMN_LOCATION, s.getLocation());
+        values.put(COLUMN_TYPE, s.getType());
+        values.put(COLUMN_LATITUDE, s.getLatitude());
+        values.put(COLUMN_LONGITUDE, s.getLongitude());
+        values.put(COLUMN_SYNCED_AT, syncedAt);
+        return values;
+    }
+
+    private static Station fromCursor(Cursor c) {
+        Station s = new Station();
+        s.setStationId(c.getString(c.getColumnIndexOrThrow(COLUMN_STATION_ID)));
+        s.setName(c.getString(c.getColumnIndexOrThrow(COLUMN_NAME)));
+        s.setLocation(c.getString(c.getColumnIndexOrThrow(COLUMN_LOCATION)));
+        s.setType(c.getString(c.getColumnIndexOrThrow(COLUMN_TYPE)));
+        s.setLatitude(c.getDouble(c.getColumnIndexOrThrow(COLUMN_LATITUDE)));
+        s.setLongitude(c.getDouble(c.getColumnIndexOrThrow(COLUMN_LONGITUDE)));
+        return s;
+    }
+}
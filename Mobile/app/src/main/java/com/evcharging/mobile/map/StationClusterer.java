@@ -0,0 +1,128 @@
+package com.evcharging.mobile.map;
+
+import com.evcharging.mobile.model.Station;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StationClusterer - grid-based marker clustering in map pixel space
+ *
+ * Purpose: Group stations that would overlap on screen at the current zoom
+ * into one cluster marker. Stations are projected to Web Mercator pixels at
+ * the integer zoom level and bucketed into square cells of
+ * {@code cellSizePx}. Because cells are anchored to the world grid (not to the
+ * viewport), panning does not reshuffle clusters, and keys stay stable between
+ * camera moves so the marker layer only has to apply deltas.
+ *
+ * Pure Java with no Maps SDK dependency, so it can run off the UI thread and
+ * be benchmarked on a plain JVM.
+ */
+public class StationClusterer {
+
+    private static final int TILE_SIZE = 256;
+
+    private final int cellSizePx;
+    private final int maxClusterZoom;
+
+    /**
+     * @param cellSizePx     side of a clustering cell in screen pixels
+     * @param maxClusterZoom above this zoom every station gets its own marker
+     */
+    public StationClusterer(int cellSizePx, int maxClusterZoom) {
+        this.cellSizePx = cellSizePx;
+        this.maxClusterZoom = maxClusterZoom;
+    }
+
+    /** One marker's worth of stations. Immutable. */
+    public static final class Cluster {
+        private final String key;
+        private final double latitude;
+        private final double longitude;
+        private final List<Station> stations;
+
+        Cluster(String key, double latitude, double longitude, List<Station> stations) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.stations = stations;
+        }
+
+        /** "s:&lt;stationId&gt;" for a single station, "c:&lt;zoom&gt;:&lt;x&gt;:&lt;y&gt;" for a cell. */
+        public String getKey() { return key; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public int getSize() { return stations.size(); }
+        public boolean isSingle() { return stations.size() == 1; }
+        public Station getStation() { return stations.get(0); }
+        public List<Station> getStations() { return stations; }
+
+        /** Same key, size and position: the existing marker can be kept as is. */
+        public boolean sameAs(Cluster other) {
+            return other != null && key.equals(other.key) && stations.size() == other.stations.size()
+                    && latitude == other.latitude && longitude == other.longitude;
+        }
+    }
+
+    public List<Cluster> cluster(List<Station> stations, float zoom) {
+        int z = (int) Math.floor(zoom);
+        if (z > maxClusterZoom) {
+            List<Cluster> singles = new ArrayList<>(stations.size());
+            for (Station s : stations) singles.add(single(s));
+            return singles;
+        }
+
+        double worldPx = TILE_SIZE * Math.pow(2, z);
+        Map<Long, List<Station>> cells = new HashMap<>();
+        for (Station s : stations) {
+            int cx = (int) Math.floor(mercatorX(s.getLongitude()) * worldPx / cellSizePx);
+            int cy = (int) Math.floor(mercatorY(s.getLatitude()) * worldPx / cellSizePx);
+            long k = ((long) cx << 32) | (cy & 0xffffffffL);
+            List<Station> cell = cells.get(k);
+            if (cell == null) {
+                cell = new ArrayList<>(2);
+                cells.put(k, cell);
+            }
+            cell.add(s);
+        }
+
+        List<Cluster> out = new ArrayList<>(cells.size());
+        for (Map.Entry<Long, List<Station>> e : cells.entrySet()) {
+            List<Station> members = e.getValue();
+            if (members.size() == 1) {
+                out.add(single(members.get(0)));
+                continue;
+            }
+            double lat = 0, lng = 0;
+            for (Station s : members) {
+                lat += s.getLatitude();
+                lng += s.getLongitude();
+            }
+            long k = e.getKey();
+            String key = "c:" + z + ":" + (int) (k >> 32) + ":" + (int) k;
+            out.add(new Cluster(key, lat / members.size(), lng / members.size(),
+                    Collections.unmodifiableList(members)));
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+
+    public static Cluster single(Station s) {
+        return new Cluster("s:" + s.getStationId(), s.getLatitude(), s.getLongitude(),
+                Collections.singletonList(s));
+    }
+
+    // Normalised Web Mercator, both in [0, 1)
+    private static double mercatorX(double lng) {
+        return (lng + 180.0) / 360.0;
+    }
+
+    private static double mercatorY(double lat) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.0511, Math.min(85.0511, lat))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
@@ -0,0 +1,266 @@
+package com.evcharging.mobile.map;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.WorkerThread;
+
+import com.evcharging.mobile.model.Station;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.CameraPosition;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * StationMarkerManager - keeps the map's station markers in sync with the viewport
+ *
+ * Purpose: On every camera-idle event, load the stations around the visible
+ * region, cluster them off the UI thread, and then apply only the difference
+ * to the existing markers: remove the ones that left, add the new ones, and
+ * move or relabel changed clusters. Markers that did not change are untouched,
+ * so the map is never cleared and rebuilt.
+ *
+ * The selected station is always drawn on its own, highlighted, even when its
+ * neighbours are clustered.
+ */
+public class StationMarkerManager {
+
+    private static final String TAG = "StationMarkerManager";
+
+    private static final int CLUSTER_CELL_DP = 64;
+    private static final int MAX_CLUSTER_ZOOM = 15;
+    // Load a margin around the viewport so short pans don't pop markers in
+    private static final double VIEWPORT_PADDING = 0.5;
+    private static final String SELECTED_KEY_PREFIX = "sel:";
+
+    /** Supplies stations for a bounding box; called on a background thread. */
+    public interface StationSource {
+        @WorkerThread
+        List<Station> stationsIn(double south, double west, double north, double east);
+    }
+
+    private final GoogleMap map;
+    private final StationSource source;
+    private final StationClusterer clusterer;
+    private final float density;
+
+    private final Map<String, Marker> markers = new HashMap<>();
+    private final Map<String, BitmapDescriptor> clusterIcons = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private Station selected;
+    private int generation = 0;
+    private boolean released;
+
+    public StationMarkerManager(GoogleMap map, StationSource source) {
+        this.map = map;
+        this.source = source;
+        this.density = Resources.getSystem().getDisplayMetrics().density;
+        this.clusterer = new StationClusterer(Math.round(CLUSTER_CELL_DP * density), MAX_CLUSTER_ZOOM);
+    }
+
+    // ---------------------------------------------------------------------
+    // Public API (main thread)
+    // ---------------------------------------------------------------------
+
+    /** Hook for GoogleMap.setOnCameraIdleListener. */
+    @MainThread
+    public void onCameraIdle() {
+        refresh();
+    }
+
+    /** Re-read the stations for the current viewport, e.g. after the cache was updated. */
+    @MainThread
+    public void refresh() {
+        if (released) return;
+        CameraPosition camera = map.getCameraPosition();
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        if (camera == null || bounds == null) return;
+
+        final float zoom = camera.zoom;
+        double latPad = (bounds.northeast.latitude - bounds.southwest.latitude) * VIEWPORT_PADDING;
+        double lngSpan = bounds.northeast.longitude - bounds.southwest.longitude;
+        if (lngSpan < 0) lngSpan += 360; // viewport crosses the antimeridian
+        double lngPad = lngSpan * VIEWPORT_PADDING;
+        final double south = Math.max(-90, bounds.southwest.latitude - latPad);
+        final double north = Math.min(90, bounds.northeast.latitude + latPad);
+        // The index doesn't wrap, so a padded span of a full turn (or one across the antimeridian) is the whole world
+        boolean wholeWorld = lngSpan + 2 * lngPad >= 360
+                || bounds.southwest.longitude > bounds.northeast.longitude;
+        final double west = wholeWorld ? -180 : Math.max(-180, bounds.southwest.longitude - lngPad);
+        final double east = wholeWorld ? 180 : Math.min(180, bounds.northeast.longitude + lngPad);
+        final Station pinned = selected;
+        final int gen = ++generation;
+
+        executor.execute(() -> {
+            List<Station> visible = new ArrayList<>(source.stationsIn(south, west, north, east));
+            if (pinned != null) removeById(visible, pinned.getStationId());
+
+            List<StationClusterer.Cluster> clusters = clusterer.cluster(visible, zoom);
+            if (pinned != null) {
+                clusters.add(new StationClusterer.Cluster(SELECTED_KEY_PREFIX + pinned.getStationId(),
+                        pinned.getLatitude(), pinned.getLongitude(), Collections.singletonList(pinned)));
+            }
+
+            mainHandler.post(() -> {
+                // A newer camera position already has its own pass queued
+                if (released || gen != generation) return;
+                apply(clusters);
+            });
+        });
+    }
+
+    /** Highlight one station (e.g. a search pick); null clears the highlight. */
+    @MainThread
+    public void setSelected(Station station) {
+        selected = station;
+        refresh();
+    }
+
+    /** The cluster behind a marker, or null for markers this manager doesn't own. */
+    public StationClusterer.Cluster getCluster(Marker marker) {
+        Object tag = marker.getTag();
+        return tag instanceof StationClusterer.Cluster ? (StationClusterer.Cluster) tag : null;
+    }
+
+    @MainThread
+    public void release() {
+        released = true;
+        executor.shutdownNow();
+        for (Marker m : markers.values()) m.remove();
+        markers.clear();
+    }
+
+    // ---------------------------------------------------------------------
+    // Diff
+    // ---------------------------------------------------------------------
+
+    private void apply(List<StationClusterer.Cluster> clusters) {
+        Map<String, StationClusterer.Cluster> next = new HashMap<>(clusters.size() * 2);
+        for (StationClusterer.Cluster c : clusters) next.put(c.getKey(), c);
+
+        int removed = 0, added = 0, updated = 0;
+        Iterator<Map.Entry<String, Marker>> it = markers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Marker> e = it.next();
+            if (!next.containsKey(e.getKey())) {
+                e.getValue().remove();
+                it.remove();
+                removed++;
+            }
+        }
+
+        for (StationClusterer.Cluster c : clusters) {
+            Marker marker = markers.get(c.getKey());
+            if (marker == null) {
+                marker = map.addMarker(optionsFor(c));
+                if (marker == null) continue;
+                markers.put(c.getKey(), marker);
+                added++;
+            } else {
+                StationClusterer.Cluster old = getCluster(marker);
+                if (!c.sameAs(old)) {
+                    marker.setPosition(new LatLng(c.getLatitude(), c.getLongitude()));
+                    marker.setTitle(titleFor(c));
+                    if (old == null || old.getSize() != c.getSize()) marker.setIcon(iconFor(c));
+                    updated++;
+                }
+            }
+            marker.setTag(c);
+        }
+        Log.d(TAG, "Markers: +" + added + " -" + removed + " ~" + updated + " (" + markers.size() + " shown)");
+    }
+
+    private MarkerOptions optionsFor(StationClusterer.Cluster c) {
+        MarkerOptions options = new MarkerOptions()
+                .position(new LatLng(c.getLatitude(), c.getLongitude()))
+                .title(titleFor(c))
+                .icon(iconFor(c));
+        if (c.isSingle()) options.snippet(c.getStation().getLocation());
+        if (c.getKey().startsWith(SELECTED_KEY_PREFIX)) options.zIndex(1f);
+        return options;
+    }
+
+    private static String titleFor(StationClusterer.Cluster c) {
+        return c.isSingle() ? c.getStation().getName() : c.getSize() + " stations";
+    }
+
+    // ---------------------------------------------------------------------
+    // Icons
+    // ---------------------------------------------------------------------
+
+    private BitmapDescriptor iconFor(StationClusterer.Cluster c) {
+        if (c.getKey().startsWith(SELECTED_KEY_PREFIX)) return BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_GREEN);
+        if (c.isSingle()) return BitmapDescriptorFactory.defaultMarker();
+
+        String label = clusterLabel(c.getSize());
+        BitmapDescriptor icon = clusterIcons.get(label);
+        if (icon == null) {
+            icon = BitmapDescriptorFactory.fromBitmap(drawClusterIcon(label));
+            clusterIcons.put(label, icon);
+        }
+        return icon;
+    }
+
+    // Bucketed so a handful of bitmaps cover every cluster size
+    private static String clusterLabel(int size) {
+        if (size < 10) return String.valueOf(size);
+        if (size < 50) return "10+";
+        if (size < 100) return "50+";
+        return "100+";
+    }
+
+    private Bitmap drawClusterIcon(String label) {
+        int size = Math.round(40 * density);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float r = size / 2f;
+
+        Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+        fill.setColor(Color.parseColor("#1E88E5"));
+        canvas.drawCircle(r, r, r, fill);
+
+        Paint ring = new Paint(Paint.ANTI_ALIAS_FLAG);
+        ring.setColor(Color.WHITE);
+        ring.setStyle(Paint.Style.STROKE);
+        ring.setStrokeWidth(3 * density);
+        canvas.drawCircle(r, r, r - 2 * density, ring);
+
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setColor(Color.WHITE);
+        text.setTextAlign(Paint.Align.CENTER);
+        text.setTypeface(Typeface.DEFAULT_BOLD);
+        text.setTextSize(14 * density);
+        canvas.drawText(label, r, r - (text.descent() + text.ascent()) / 2, text);
+        return bitmap;
+    }
+
+    private static void removeById(List<Station> stations, String stationId) {
+        Iterator<Station> it = stations.iterator();
+        while (it.hasNext()) {
+            if (stationId.equals(it.next().getStationId())) it.remove();
+        }
+    }
+}
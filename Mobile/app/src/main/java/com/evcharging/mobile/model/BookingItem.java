@@ -1,5 +1,7 @@
 package com.evcharging.mobile.model;
 
+import java.util.Objects;
+
 public class BookingItem {
 
     // --- Fields ---
@@ -54,6 +56,36 @@ public class BookingItem {
         this.cancellationReason = cancellationReason;
     }
 
+    // --- Diffing helpers ---
+    /**
+     * Hash of every field a booking row renders. Used by the list adapters to
+     * decide whether a row with the same bookingId actually needs rebinding.
+     */
+    public int contentHash() {
+        return Objects.hash(stationName, slotNumber, status, startTime, endTime,
+                qrImageBase64, cancellationReason);
+    }
+
+    /**
+     * Same rendered fields and the same ids. The ids don't show, but the
+     * update/cancel flows and BookingIndex read them from the kept item, so a
+     * move to another slot or timeslot must count as a change.
+     */
+    public boolean sameContentAs(BookingItem other) {
+        return other != null
+                && Objects.equals(stationId, other.stationId)
+                && Objects.equals(slotId, other.slotId)
+                && Objects.equals(timeSlotId, other.timeSlotId)
+                && Objects.equals(ownerId, other.ownerId)
+                && Objects.equals(stationName, other.stationName)
+                && Objects.equals(slotNumber, other.slotNumber)
+                && Objects.equals(status, other.status)
+                && Objects.equals(startTime, other.startTime)
+                && Objects.equals(endTime, other.endTime)
+                && Objects.equals(qrImageBase64, other.qrImageBase64)
+                && Objects.equals(cancellationReason, other.cancellationReason);
+    }
+
     // --- Helper formatted display ---
     public String getStartTimeFormatted() {
         try {
@@ -0,0 +1,35 @@
+package com.evcharging.mobile.model;
+
+/**
+ * Booking lifecycle states as returned by the backend. Parse the raw string
+ * once with {@link #from(String)} and compare enums afterwards instead of
+ * repeating equalsIgnoreCase checks on every bind.
+ */
+public enum BookingStatus {
+    PENDING("Pending"),
+    APPROVED("Approved"),
+    CHARGING("Charging"),
+    COMPLETED("Completed"),
+    FINALIZED("Finalized"),
+    CANCELLED("Cancelled"),
+    EXPIRED("Expired"),
+    UNKNOWN("Unknown");
+
+    private final String label;
+
+    BookingStatus(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static BookingStatus from(String raw) {
+        if (raw == null) return UNKNOWN;
+        for (BookingStatus s : values()) {
+            if (s.label.equalsIgnoreCase(raw.trim())) return s;
+        }
+        return UNKNOWN;
+    }
+}
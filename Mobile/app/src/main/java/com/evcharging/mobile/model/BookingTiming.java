@@ -0,0 +1,32 @@
+package com.evcharging.mobile.model;
+
+/**
+ * Immutable timing view of a station booking: just what the station
+ * analytics aggregate (slot, status and start/end as epoch millis).
+ */
+public final class BookingTiming {
+
+    private final String bookingId;
+    private final int slotNumber;
+    private final BookingStatus status;
+    private final long startEpoch;
+    private final long endEpoch;
+
+    public BookingTiming(String bookingId, int slotNumber, BookingStatus status, long startEpoch, long endEpoch) {
+        this.bookingId = bookingId;
+        this.slotNumber = slotNumber;
+        this.status = status;
+        this.startEpoch = startEpoch;
+        this.endEpoch = endEpoch;
+    }
+
+    public BookingTiming withStatus(BookingStatus newStatus) {
+        return new BookingTiming(bookingId, slotNumber, newStatus, startEpoch, endEpoch);
+    }
+
+    public String getBookingId() { return bookingId; }
+    public int getSlotNumber() { return slotNumber; }
+    public BookingStatus getStatus() { return status; }
+    public long getStartEpoch() { return startEpoch; }
+    public long getEndEpoch() { return endEpoch; }
+}
@@ -2,6 +2,7 @@ package com.evcharging.mobile.model;
 
 import com.google.gson.annotations.SerializedName;
 import java.util.Date;
+import java.util.Objects;
 
 public class Notification {
     @SerializedName("id")
@@ -23,6 +24,15 @@ public class Notification {
     public Notification() {
     }
 
+    // Copy used by the adapter so list snapshots are never mutated in place
+    public Notification(Notification other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.message = other.message;
+        this.createdAt = other.createdAt;
+        this.isRead = other.isRead;
+    }
+
     // Getters and setters
     public String getId() {
         return id;
@@ -63,4 +73,16 @@ public class Notification {
     public void setRead(boolean read) {
         isRead = read;
     }
-}
\ No newline at end of file
+
+    // Diffing helpers
+    public int contentHash() {
+        return Objects.hash(message, createdAt, isRead);
+    }
+
+    public boolean sameContentAs(Notification other) {
+        return other != null
+                && isRead == other.isRead
+                && Objects.equals(message, other.message)
+                && Objects.equals(createdAt, other.createdAt);
+    }
+}
@@ -0,0 +1,49 @@
+package com.evcharging.mobile.model;
+
+import org.json.JSONObject;
+
+import java.util.Objects;
+
+/**
+ * Immutable charging slot row for the operator "Update Slot Status" screen.
+ * A status change produces a new row via {@link #withStatus(String)} so the
+ * list adapter can diff and rebind just that slot.
+ */
+public final class SlotRow {
+
+    private final String slotId;
+    private final String number;
+    private final String connectorType;
+    private final String status;
+
+    public SlotRow(String slotId, String number, String connectorType, String status) {
+        this.slotId = slotId;
+        this.number = number;
+        this.connectorType = connectorType;
+        this.status = status != null ? status : "";
+    }
+
+    public static SlotRow fromJson(JSONObject s) {
+        return new SlotRow(
+                s.optString("slotId"),
+                s.optString("number"),
+                s.optString("connectorType"),
+                s.optString("status"));
+    }
+
+    public SlotRow withStatus(String newStatus) {
+        return new SlotRow(slotId, number, connectorType, newStatus);
+    }
+
+    public String getSlotId() { return slotId; }
+    public String getNumber() { return number; }
+    public String getConnectorType() { return connectorType; }
+    public String getStatus() { return status; }
+
+    public boolean sameContentAs(SlotRow other) {
+        return other != null
+                && Objects.equals(number, other.number)
+                && Objects.equals(connectorType, other.connectorType)
+                && status.equalsIgnoreCase(other.status);
+    }
+}
@@ -0,0 +1,79 @@
+package com.evcharging.mobile.model;
+
+import org.json.JSONObject;
+
+import java.util.Objects;
+
+/**
+ * Immutable row for the operator booking lists (today's reservations and
+ * upcoming bookings). Decoded once from the station bookings JSON so binding
+ * a row never touches the JSONObject again.
+ */
+public final class StationBookingRow {
+
+    private final String bookingId;
+    private final String rawStatus;
+    private final BookingStatus status;
+    private final int slotNumber;
+    private final String startTime;
+    private final String endTime;
+    private final String ownerName;
+    private final String qrCode;
+    private final String qrImageBase64;
+    private final int contentHash;
+
+    public StationBookingRow(String bookingId, String rawStatus, int slotNumber, String startTime,
+                             String endTime, String ownerName, String qrCode, String qrImageBase64) {
+        this.bookingId = bookingId;
+        this.rawStatus = rawStatus;
+        this.status = BookingStatus.from(rawStatus);
+        this.slotNumber = slotNumber;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.ownerName = ownerName;
+        this.qrCode = qrCode;
+        this.qrImageBase64 = qrImageBase64;
+        this.contentHash = Objects.hash(rawStatus, slotNumber, startTime, endTime, ownerName,
+                qrCode, qrImageBase64);
+    }
+
+    /** Prefers the server-formatted times, same fallbacks the old adapters used. */
+    public static StationBookingRow fromJson(JSONObject obj) {
+        return new StationBookingRow(
+                obj.optString("bookingId", "N/A"),
+                obj.optString("status", "N/A"),
+                obj.optInt("slotNumber", 0),
+                obj.optString("formattedStartTime", obj.optString("startTime", "")),
+                obj.optString("formattedEndTime", obj.optString("endTime", "")),
+                obj.optString("ownerName", "Unknown"),
+                obj.optString("qrCode"),
+                obj.optString("qrImageBase64"));
+    }
+
+    public String getBookingId() { return bookingId; }
+    public String getRawStatus() { return rawStatus; }
+    public BookingStatus getStatus() { return status; }
+    public int getSlotNumber() { return slotNumber; }
+    public String getStartTime() { return startTime; }
+    public String getEndTime() { return endTime; }
+    public String getOwnerName() { return ownerName; }
+    public String getQrCode() { return qrCode; }
+    public String getQrImageBase64() { return qrImageBase64; }
+    public int getContentHash() { return contentHash; }
+
+    public String getSlotLabel() {
+        return slotNumber > 0 ? "Slot " + slotNumber : "N/A";
+    }
+
+    public boolean sameContentAs(StationBookingRow other) {
+        return other != null
+                && contentHash == other.contentHash
+                && slotNumber == other.slotNumber
+                && Objects.equals(rawStatus, other.rawStatus)
+                && Objects.equals(startTime, other.startTime)
+                && Objects.equals(endTime, other.endTime)
+                && Objects.equals(ownerName, other.ownerName)
+                && Objects.equals(qrCode, other.qrCode)
+                && Objects.equals(qrImageBase64, other.qrImageBase64);
+    }
+}
@@ -13,8 +13,10 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
@@ -23,6 +25,7 @@ import javax.net.ssl.X509TrustManager;
 
 import java.security.cert.X509Certificate;
 
+import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -40,30 +43,97 @@ public class ApiClient {
     private static final String TAG = "ApiClient";
     private static final String BASE = "https://abedc2cdc096.ngrok-free.app";
     private static final String BASE_URL = BASE + "/api";
+    public static final String ME_ENDPOINT = "/auth/me";
+    public static final String NOTIFICATIONS_ENDPOINT = "/notifications/user";
+    static final String COUNT_PENDING_ENDPOINT = "/bookings/count/pending";
+    static final String COUNT_APPROVED_ENDPOINT = "/bookings/count/approved";
+    private static final String STATION_NAMES_KEY = "station-names";
     private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
 
+    // One client for the whole app: shared connection pool, dispatcher and metrics
+    private static OkHttpClient sharedClient;
+    private static RequestHedger sharedHedger;
+    // Latest call per supersede key; a new call cancels the one it replaces
+    private static final ConcurrentHashMap<String, Call> inFlightByKey = new ConcurrentHashMap<>();
+
     private OkHttpClient client;
     private SessionManager sessionManager;
     private Gson gson;
+    private long deadlineMs;      // <= 0: per endpoint, see CallDeadlines
+    private String supersedeKey;
+    private RequestScheduler.Lane lane; // null: by method, see RequestScheduler.laneOf
 
     public ApiClient(SessionManager sessionManager) {
         this.sessionManager = sessionManager;
         this.gson = new Gson();
+        this.client = httpClient();
+    }
+
+    private ApiClient(ApiClient base) {
+        this.sessionManager = base.sessionManager;
+        this.gson = base.gson;
+        this.client = base.client;
+        this.deadlineMs = base.deadlineMs;
+        this.supersedeKey = base.supersedeKey;
+        this.lane = base.lane;
+    }
+
+    /** A client whose calls must finish within {@code deadlineMs}, whatever the endpoint. */
+    public ApiClient withDeadline(long deadlineMs) {
+        ApiClient copy = new ApiClient(this);
+        copy.deadlineMs = deadlineMs;
+        return copy;
+    }
+
+    /**
+     * A client whose calls cancel the previous in-flight call with the same
+     * key, e.g. one lookup per keystroke. For reads: the canceled GET returns
+     * "Superseded" instead of "Network error".
+     */
+    public ApiClient superseding(String key) {
+        ApiClient copy = new ApiClient(this);
+        copy.supersedeKey = key;
+        return copy;
+    }
+
+    /** A client whose calls queue in {@code lane} (see {@link RequestScheduler}). */
+    public ApiClient withLane(RequestScheduler.Lane lane) {
+        ApiClient copy = new ApiClient(this);
+        copy.lane = lane;
+        return copy;
+    }
+
+    /** The app's OkHttp client; every call through it is recorded in {@link ApiMetrics}. */
+    public static synchronized OkHttpClient httpClient() {
+        if (sharedClient == null) {
+            // ✅ Allow HTTPS (ngrok) connections during development
+            // Per-phase limits are only a backstop: each call gets its own deadline (CallDeadlines)
+            sharedClient = new OkHttpClient.Builder()
+                    .connectTimeout(10, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .writeTimeout(30, TimeUnit.SECONDS)
+                    .hostnameVerifier((hostname, session) -> true)
+                    .sslSocketFactory(getUnsafeSslContext().getSocketFactory(), getTrustAllCertsManager())
+                    .eventListenerFactory(ApiMetrics.eventListenerFactory())
+                    .addInterceptor(ResilienceInterceptor.withDefaults())
+                    // Inside the retry loop, so a backing-off request holds no permit
+                    .addInterceptor(RequestScheduler.withDefaults())
+                    // Innermost: sees the exact bytes going out and the inflated bytes coming back
+                    .addInterceptor(new CompressionInterceptor())
+                    .build();
+        }
+        return sharedClient;
+    }
 
-        // ✅ Allow HTTPS (ngrok) connections during development
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .hostnameVerifier((hostname, session) -> true)
-                .sslSocketFactory(getUnsafeSslContext().getSocketFactory(), getTrustAllCertsManager())
-                .build();
+    private static synchronized RequestHedger hedger() {
+        if (sharedHedger == null) sharedHedger = new RequestHedger(httpClient());
+        return sharedHedger;
     }
 
     // ---------------------------------------------------------------------
     // SSL: Disable certificate validation for ngrok (development only)
     // ---------------------------------------------------------------------
-    private SSLContext getUnsafeSslContext() {
+    private static SSLContext getUnsafeSslContext() {
         try {
             TrustManager[] trustAllCerts = new TrustManager[] { getTrustAllCertsManager() };
             SSLContext sslContext = SSLContext.getInstance("SSL");
@@ -74,7 +144,7 @@ public class ApiClient {
         }
     }
 
-    private X509TrustManager getTrustAllCertsManager() {
+    private static X509TrustManager getTrustAllCertsManager() {
         return new X509TrustManager() {
             @Override
             public void checkClientTrusted(X509Certificate[] chain, String authType) {
@@ -117,8 +187,8 @@ public class ApiClient {
 
             logRequest("POST", "/auth/login", data);
 
-            Response response = client.newCall(request).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(request);
+            String responseBody = readBody(response);
             logApi("POST", "/auth/login", response, responseBody);
 
             if (response.code() == 200 && !responseBody.isEmpty()) {
@@ -163,8 +233,8 @@ public class ApiClient {
                     .post(body)
                     .build();
 
-            Response response = client.newCall(request).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(request);
+            String responseBody = readBody(response);
             logApi("POST", "/owners/register", response, responseBody);
 
             if (response.isSuccessful()) {
@@ -196,8 +266,8 @@ public class ApiClient {
                     .post(body)
                     .build();
 
-            Response response = client.newCall(request).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(request);
+            String responseBody = readBody(response);
             logApi("POST", "/operators/register", response, responseBody);
 
             if (response.isSuccessful()) {
@@ -218,24 +288,24 @@ public class ApiClient {
     public ApiResponse getUser() {
         try {
             Request.Builder builder = new Request.Builder()
-                    .url(BASE_URL + "/auth/me")
+                    .url(BASE_URL + ME_ENDPOINT)
                     .get()
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(builder.build());
+            String responseBody = readBody(response);
 
             // ✅ ADD: Debug logging for raw response
             Log.d(TAG, "🔍 RAW /auth/me RESPONSE: " + responseBody);
 
-            logApi("GET", "/auth/me", response, responseBody);
+            logApi("GET", ME_ENDPOINT, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Success", responseBody);
+                return new ApiResponse(true, "Success", responseBody, response.code());
             else {
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Failed"), null);
+                return new ApiResponse(false, err.optString("message", "Failed"), null, response.code());
             }
         } catch (Exception e) {
             Log.e(TAG, "GET request error", e);
@@ -308,6 +378,7 @@ public class ApiClient {
         return get(endpoint); // We'll filter by type/location in the service layer
     }
 
+    // Typeahead: each lookup cancels the previous one still in flight
     public ApiResponse getStationNameSuggestions(String type, String location) {
         String endpoint = "/station/names";
         if (type != null || location != null) {
@@ -317,7 +388,7 @@ public class ApiClient {
             if (location != null)
                 endpoint += "location=" + location;
         }
-        return get(endpoint);
+        return superseding(STATION_NAMES_KEY).get(endpoint);
     }
 
     // ---------------------------------------------------------------------
@@ -328,6 +399,12 @@ public class ApiClient {
         return get(endpoint);
     }
 
+    // Free timeslots of one slot on one day (yyyy-MM-dd)
+    public ApiResponse getAvailableTimeslotsForSlot(String stationId, String slotId, String date) {
+        String endpoint = String.format("/timeslot/available?stationId=%s&slotId=%s&date=%s", stationId, slotId, date);
+        return getHedged(endpoint);
+    }
+
     public ApiResponse getAvailableSlotsForTimeSlot(String timeSlotId) {
         String endpoint = "/bookings/timeslots/" + timeSlotId + "/available-slots";
         return get(endpoint);
@@ -352,6 +429,21 @@ public class ApiClient {
         return get(endpoint);
     }
 
+    // Paged variant; servers that ignore the params return the full array
+    public ApiResponse getBookingsByOwner(String ownerId, int page, int pageSize) {
+        return get(ownerBookingsEndpoint(ownerId, page, pageSize));
+    }
+
+    /** Same page, decoded by {@code reader} as it streams in; see {@link #getStreamed}. */
+    public <T> T getBookingsByOwnerStreamed(String ownerId, int page, int pageSize, BodyReader<T> reader)
+            throws ApiException {
+        return getStreamed(ownerBookingsEndpoint(ownerId, page, pageSize), reader);
+    }
+
+    static String ownerBookingsEndpoint(String ownerId, int page, int pageSize) {
+        return "/bookings/owner/" + ownerId + "?page=" + page + "&pageSize=" + pageSize;
+    }
+
     public ApiResponse cancelBooking(String bookingId) {
         String endpoint = "/bookings/" + bookingId + "/cancel";
         return patch(endpoint, null);
@@ -380,11 +472,11 @@ public class ApiClient {
     }
 
     public ApiResponse getTodayBookingsByStation(String stationId) {
-        return get("/bookings/station/" + stationId + "/today");
+        return getHedged("/bookings/station/" + stationId + "/today");
     }
 
     public ApiResponse getUpcomingBookingsByStation(String stationId) {
-        return get("/bookings/station/" + stationId + "/upcoming");
+        return getHedged("/bookings/station/" + stationId + "/upcoming");
     }
 
     public ApiResponse approveBooking(String bookingId) {
@@ -433,7 +525,7 @@ public class ApiClient {
     // NOTIFICATIONS
     // ---------------------------------------------------------------------
     public ApiResponse getUserNotifications() {
-        return get("/notifications/user");
+        return get(NOTIFICATIONS_ENDPOINT);
     }
 
     public ApiResponse markNotificationAsRead(String id) {
@@ -459,11 +551,11 @@ public class ApiClient {
     // STATISTICS & COUNTS
     // ---------------------------------------------------------------------
     public ApiResponse countPendingBookings() {
-        return get("/bookings/count/pending");
+        return get(COUNT_PENDING_ENDPOINT);
     }
 
     public ApiResponse countApprovedFutureBookings() {
-        return get("/bookings/count/approved");
+        return get(COUNT_APPROVED_ENDPOINT);
     }
 
     // ---------------------------------------------------------------------
@@ -474,7 +566,8 @@ public class ApiClient {
             post("/auth/logout", new JSONObject());
         } catch (Exception ignored) {
         }
-        sessionManager.clearToken();
+        // Also drops the user's cached rows; remembered credentials stay
+        sessionManager.logout(false);
         return new ApiResponse(true, "Logged out", null);
     }
 
@@ -565,7 +658,54 @@ public class ApiClient {
     // ---------------------------------------------------------------------
     // GENERIC HTTP METHODS
     // ---------------------------------------------------------------------
+
+    /** Several GETs in one round trip; see {@link BatchRequest}. */
+    public BatchRequest batch() {
+        return new BatchRequest(this);
+    }
+
+    static String urlFor(String endpoint) {
+        return BASE_URL + endpoint;
+    }
+
+    /** Runs the call under its deadline, canceling the call it supersedes, if any. */
+    Response execute(Request request) throws IOException {
+        Call call = CallDeadlines.newCall(client, inLane(request), deadlineMs);
+        if (supersedeKey == null) return call.execute();
+
+        Call previous = inFlightByKey.put(supersedeKey, call);
+        if (previous != null) previous.cancel();
+        try {
+            return call.execute();
+        } catch (IOException e) {
+            if (call.isCanceled()) throw new CallSupersededException(supersedeKey);
+            throw e;
+        } finally {
+            inFlightByKey.remove(supersedeKey, call);
+        }
+    }
+
+    private Request inLane(Request request) {
+        return lane != null ? request.newBuilder().tag(RequestScheduler.Lane.class, lane).build() : request;
+    }
+
+    private long deadlineFor(Request request) {
+        return deadlineMs > 0 ? deadlineMs : CallDeadlines.forRequest(request);
+    }
+
     public ApiResponse get(String endpoint) {
+        return get(endpoint, false);
+    }
+
+    /**
+     * GET that sends a second attempt when the first is slower than the
+     * endpoint's usual p90 (see {@link RequestHedger}). Idempotent reads only.
+     */
+    public ApiResponse getHedged(String endpoint) {
+        return get(endpoint, true);
+    }
+
+    private ApiResponse get(String endpoint, boolean hedged) {
         try {
             Request.Builder builder = new Request.Builder()
                     .url(BASE_URL + endpoint)
@@ -573,22 +713,72 @@ public class ApiClient {
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Request request = builder.build();
+            Response response = hedged
+                    ? hedger().execute(inLane(request), deadlineFor(request))
+                    : execute(request);
+            String responseBody = readBody(response);
             logApi("GET", endpoint, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Success", responseBody);
+                return new ApiResponse(true, "Success", responseBody, response.code());
             else {
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Failed"), null);
+                return new ApiResponse(false, err.optString("message", "Failed"), null, response.code());
             }
+        } catch (CallSupersededException e) {
+            Log.d(TAG, "GET " + endpoint + " superseded");
+            return new ApiResponse(false, "Superseded", null);
         } catch (Exception e) {
             Log.e(TAG, "GET request error", e);
             return new ApiResponse(false, "Network error", null);
         }
     }
 
+    /** Consumes a successful response body as a character stream. */
+    public interface BodyReader<T> {
+        T read(Reader body) throws Exception;
+    }
+
+    /**
+     * GET whose body goes to {@code reader} as a stream (already inflated if
+     * it came gzipped) instead of a String, so a large list is decoded as it
+     * arrives without a full copy in memory. Transport, HTTP and decoding
+     * failures come back as an {@link ApiException}.
+     */
+    public <T> T getStreamed(String endpoint, BodyReader<T> reader) throws ApiException {
+        Request.Builder builder = new Request.Builder()
+                .url(BASE_URL + endpoint)
+                .get()
+                .addHeader("X-Client-Type", "Mobile");
+        addAuth(builder);
+
+        try (Response response = execute(builder.build())) {
+            if (!response.isSuccessful()) {
+                String responseBody = readBody(response);
+                logApi("GET", endpoint, response, responseBody);
+                String message = "Failed";
+                try {
+                    message = new JSONObject(responseBody).optString("message", message);
+                } catch (JSONException ignored) {
+                }
+                throw new ApiException(message);
+            }
+            Log.d(TAG, "📥 GET " + endpoint + " → " + response.code() + " (streamed)");
+            return reader.read(response.body().charStream());
+        } catch (ApiException e) {
+            throw e;
+        } catch (CallSupersededException e) {
+            throw new ApiException("Superseded");
+        } catch (IOException e) {
+            Log.e(TAG, "GET request error", e);
+            throw new ApiException("Network error");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to decode " + endpoint, e);
+            throw new ApiException("Parsing error");
+        }
+    }
+
     public ApiResponse post(String endpoint, JSONObject data) {
         try {
             logRequest("POST", endpoint, data);
@@ -599,15 +789,15 @@ public class ApiClient {
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(builder.build());
+            String responseBody = readBody(response);
             logApi("POST", endpoint, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Success", responseBody);
+                return new ApiResponse(true, "Success", responseBody, response.code());
             else {
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Request failed"), null);
+                return new ApiResponse(false, err.optString("message", "Request failed"), null, response.code());
             }
         } catch (Exception e) {
             Log.e(TAG, "POST request error", e);
@@ -629,17 +819,17 @@ public class ApiClient {
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(builder.build());
+            String responseBody = readBody(response);
             logApi("PATCH", endpoint, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Success", responseBody);
+                return new ApiResponse(true, "Success", responseBody, response.code());
             else {
                 if (responseBody.isEmpty())
-                    return new ApiResponse(false, "Empty error body", null);
+                    return new ApiResponse(false, "Empty error body", null, response.code());
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Failed"), null);
+                return new ApiResponse(false, err.optString("message", "Failed"), null, response.code());
             }
         } catch (Exception e) {
             Log.e(TAG, "PATCH request error", e);
@@ -657,15 +847,15 @@ public class ApiClient {
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(builder.build());
+            String responseBody = readBody(response);
             logApi("PUT", endpoint, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Success", responseBody);
+                return new ApiResponse(true, "Success", responseBody, response.code());
             else {
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Failed"), null);
+                return new ApiResponse(false, err.optString("message", "Failed"), null, response.code());
             }
         } catch (Exception e) {
             Log.e(TAG, "PUT request error", e);
@@ -681,15 +871,15 @@ public class ApiClient {
                     .addHeader("X-Client-Type", "Mobile");
             addAuth(builder);
 
-            Response response = client.newCall(builder.build()).execute();
-            String responseBody = response.body() != null ? response.body().string() : "";
+            Response response = execute(builder.build());
+            String responseBody = readBody(response);
             logApi("DELETE", endpoint, response, responseBody);
 
             if (response.isSuccessful())
-                return new ApiResponse(true, "Deleted", responseBody);
+                return new ApiResponse(true, "Deleted", responseBody, response.code());
             else {
                 JSONObject err = new JSONObject(responseBody);
-                return new ApiResponse(false, err.optString("message", "Failed"), null);
+                return new ApiResponse(false, err.optString("message", "Failed"), null, response.code());
             }
         } catch (Exception e) {
             Log.e(TAG, "DELETE request error", e);
@@ -702,10 +892,12 @@ public class ApiClient {
 
     // ADD: nearby stations filtered by type (Owner flow)
     public ApiResponse getNearbyStationsByType(String type, double latitude, double longitude, double radiusKm) {
-        String endpoint = String.format("/station/nearby-by-type?type=%s&latitude=%f&longitude=%f&radiusKm=%f",
-                type, latitude, longitude, radiusKm);
+        return get(nearbyStationsByTypeEndpoint(type, latitude, longitude, radiusKm));
+    }
 
-        return get(endpoint);
+    public static String nearbyStationsByTypeEndpoint(String type, double latitude, double longitude, double radiusKm) {
+        return String.format("/station/nearby-by-type?type=%s&latitude=%f&longitude=%f&radiusKm=%f",
+                type, latitude, longitude, radiusKm);
     }
 
     // OPTIONAL fallback if Owner cannot call /station/{id} yet.
@@ -719,7 +911,18 @@ public class ApiClient {
     // ---------------------------------------------------------------------
     // 🔹 HELPERS: AUTH + LOGGING
     // ---------------------------------------------------------------------
-    private void addAuth(Request.Builder builder) {
+    /** Read the body as a String, timing it as the endpoint's decode step. */
+    static String readBody(Response response) throws IOException {
+        if (response.body() == null) return "";
+        long start = System.nanoTime();
+        String body = response.body().string();
+        Request request = response.request();
+        ApiMetrics.record(EndpointTemplate.of(request.method(), request.url()), ApiMetrics.DECODE,
+                (System.nanoTime() - start) / 1000);
+        return body;
+    }
+
+    void addAuth(Request.Builder builder) {
         String token = sessionManager.getToken();
         if (token != null)
             builder.addHeader("Authorization", "Bearer " + token);
@@ -0,0 +1,13 @@
+package com.evcharging.mobile.network;
+
+/**
+ * A failed call delivered through a future rather than an {@link ApiResponse}.
+ * The message is what ApiResponse.getMessage() would have said, e.g.
+ * "Network error" or the server's "message" field.
+ */
+public class ApiException extends Exception {
+
+    public ApiException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,348 @@
+package com.evcharging.mobile.network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLException;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * ApiMetrics - per-endpoint request telemetry
+ *
+ * Purpose: Show which backend calls make the app feel slow. Every call made
+ * through the shared OkHttp client is timed by an {@link EventListener} and
+ * recorded under its {@link EndpointTemplate} into lock-free
+ * {@link LatencyHistogram}s:
+ *
+ *   dns, connect (TCP + TLS), tls, ttfb (call start to first response
+ *   byte), total, decode (reading the body into a String in ApiClient) -
+ *   all in microseconds; response_bytes in bytes as received on the wire
+ *   (still compressed)
+ *
+ * Successful calls are also timed under "CONNECTIONS" as cold_call (had to
+ * open a connection) or warm_call (reused a pooled one).
+ *
+ * Canceled calls only bump error.canceled: they are neither calls nor part
+ * of the timings.
+ *
+ * Counters hold the number of calls and failures per class (timeout, dns,
+ * connect, tls, io, canceled, circuit_open, http_4xx, http_5xx). Other
+ * network layers add their own histograms and counters through
+ * {@link #record} and {@link #increment}.
+ *
+ * Read it on the debug screen (ApiMetricsActivity) or {@link #export} it.
+ */
+public final class ApiMetrics {
+
+    public static final String DNS = "dns";
+    public static final String CONNECT = "connect";
+    public static final String TLS = "tls";
+    public static final String TTFB = "ttfb";
+    public static final String TOTAL = "total";
+    public static final String DECODE = "decode";
+    public static final String RESPONSE_BYTES = "response_bytes";
+
+    public static final String COLD_CALL = "cold_call";
+    public static final String WARM_CALL = "warm_call";
+    static final String CONNECTIONS_KEY = "CONNECTIONS";
+
+    public static final String CALLS = "calls";
+    public static final String ERROR_PREFIX = "error.";
+
+    private static final int EXPORT_VERSION = 1;
+
+    /** Everything recorded for one endpoint template. */
+    public static final class Endpoint {
+        private final String template;
+        private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+        Endpoint(String template) {
+            this.template = template;
+        }
+
+        public String getTemplate() { return template; }
+
+        /** The histogram, or null if nothing was recorded under that name. */
+        public LatencyHistogram histogram(String metric) {
+            return histograms.get(metric);
+        }
+
+        public long counter(String name) {
+            AtomicLong c = counters.get(name);
+            return c != null ? c.get() : 0;
+        }
+
+        /** Failure counters by class (without the "error." prefix), sorted. */
+        public Map<String, Long> errors() {
+            Map<String, Long> out = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> e : counters.entrySet()) {
+                if (e.getKey().startsWith(ERROR_PREFIX)) {
+                    out.put(e.getKey().substring(ERROR_PREFIX.length()), e.getValue().get());
+                }
+            }
+            return out;
+        }
+
+        /** Counters other than calls and failures (retries, breaker transitions...), sorted. */
+        public Map<String, Long> otherCounters() {
+            Map<String, Long> out = new TreeMap<>();
+            for (Map.Entry<String, AtomicLong> e : counters.entrySet()) {
+                if (!e.getKey().equals(CALLS) && !e.getKey().startsWith(ERROR_PREFIX)) {
+                    out.put(e.getKey(), e.getValue().get());
+                }
+            }
+            return out;
+        }
+
+        /** Failed calls; canceled ones are not failures and not counted in calls either. */
+        public long errorCount() {
+            long n = 0;
+            for (Map.Entry<String, Long> e : errors().entrySet()) {
+                if (!e.getKey().equals("canceled")) n += e.getValue();
+            }
+            return n;
+        }
+
+        LatencyHistogram histogramOrCreate(String metric) {
+            LatencyHistogram h = histograms.get(metric);
+            if (h == null) {
+                h = new LatencyHistogram();
+                LatencyHistogram raced = histograms.putIfAbsent(metric, h);
+                if (raced != null) h = raced;
+            }
+            return h;
+        }
+
+        AtomicLong counterOrCreate(String name) {
+            AtomicLong c = counters.get(name);
+            if (c == null) {
+                c = new AtomicLong();
+                AtomicLong raced = counters.putIfAbsent(name, c);
+                if (raced != null) c = raced;
+            }
+            return c;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private ApiMetrics() {
+    }
+
+    // ---------------------------------------------------------------------
+    // Recording
+    // ---------------------------------------------------------------------
+
+    public static void record(String template, String metric, long value) {
+        endpoint(template).histogramOrCreate(metric).record(value);
+    }
+
+    public static void increment(String template, String counter) {
+        endpoint(template).counterOrCreate(counter).incrementAndGet();
+    }
+
+    /** Listener factory for the shared OkHttp client; one listener per call. */
+    public static EventListener.Factory eventListenerFactory() {
+        return call -> new CallListener();
+    }
+
+    private static Endpoint endpoint(String template) {
+        Endpoint e = endpoints.get(template);
+        if (e == null) {
+            e = new Endpoint(template);
+            Endpoint raced = endpoints.putIfAbsent(template, e);
+            if (raced != null) e = raced;
+        }
+        return e;
+    }
+
+    // ---------------------------------------------------------------------
+    // Reading
+    // ---------------------------------------------------------------------
+
+    /** All endpoints seen so far, sorted by template. */
+    public static List<Endpoint> endpoints() {
+        List<Endpoint> out = new ArrayList<>(endpoints.values());
+        Collections.sort(out, (a, b) -> a.template.compareTo(b.template));
+        return out;
+    }
+
+    /** One endpoint's histogram, or null if nothing was recorded under that name. */
+    public static LatencyHistogram histogram(String template, String metric) {
+        Endpoint e = endpoints.get(template);
+        return e != null ? e.histogram(metric) : null;
+    }
+
+    public static void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * Compact, lossless text dump for offline analysis. One line per counter
+     * set and per histogram:
+     *
+     * <pre>
+     * # ev-api-metrics v1 exportedAt=... buckets=log16
+     * C  template  calls=12,error.timeout=1
+     * H  template  metric  count  sum  max  index:count,index:count...
+     * </pre>
+     *
+     * Fields are tab separated. Bucket indexes follow LatencyHistogram: below
+     * 16 the index is the value; above, index i covers
+     * [(16 + i % 16) << (i / 16 - 1), next bucket).
+     */
+    public static String export(long exportedAtMillis) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# ev-api-metrics v").append(EXPORT_VERSION)
+                .append(" exportedAt=").append(exportedAtMillis)
+                .append(" buckets=log16\n");
+        for (Endpoint e : endpoints()) {
+            sb.append("C\t").append(e.template).append('\t');
+            boolean first = true;
+            for (Map.Entry<String, AtomicLong> c : new TreeMap<>(e.counters).entrySet()) {
+                if (!first) sb.append(',');
+                sb.append(c.getKey()).append('=').append(c.getValue().get());
+                first = false;
+            }
+            sb.append('\n');
+            for (Map.Entry<String, LatencyHistogram> h : new TreeMap<>(e.histograms).entrySet()) {
+                LatencyHistogram hist = h.getValue();
+                sb.append("H\t").append(e.template).append('\t').append(h.getKey())
+                        .append('\t').append(hist.getCount())
+                        .append('\t').append(hist.getSum())
+                        .append('\t').append(hist.getMax())
+                        .append('\t');
+                hist.appendSparse(sb);
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------------------
+    // Per-call listener
+    // ---------------------------------------------------------------------
+
+    private static final class CallListener extends EventListener {
+        private String template;
+        private long callStart, dnsStart, connectStart, secureConnectStart;
+        private boolean firstByteSeen;
+        private boolean newConnection;
+
+        @Override
+        public void callStart(Call call) {
+            template = EndpointTemplate.of(call.request().method(), call.request().url());
+            callStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            record(template, DNS, micros(dnsStart));
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            newConnection = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            record(template, TLS, micros(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            record(template, CONNECT, micros(connectStart));
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            // Retries and redirects inside one call only count the first response
+            if (firstByteSeen) return;
+            firstByteSeen = true;
+            record(template, TTFB, micros(callStart));
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            int code = response.code();
+            if (code >= 500) {
+                increment(template, ERROR_PREFIX + "http_5xx");
+            } else if (code >= 400) {
+                increment(template, ERROR_PREFIX + "http_4xx");
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            record(template, RESPONSE_BYTES, byteCount);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            long total = micros(callStart);
+            record(template, TOTAL, total);
+            increment(template, CALLS);
+            // What a connection costs: calls that had to open one vs calls on a pooled one
+            if (call.request().tag(ConnectionWarmer.class) == null) {
+                record(CONNECTIONS_KEY, newConnection ? COLD_CALL : WARM_CALL, total);
+            }
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            // A canceled call (e.g. a hedge loser) was cut short on purpose; its
+            // truncated duration would skew the percentiles the hedge delay is based on
+            if (call.isCanceled()) {
+                increment(template, ERROR_PREFIX + "canceled");
+                return;
+            }
+            record(template, TOTAL, micros(callStart));
+            increment(template, CALLS);
+            increment(template, ERROR_PREFIX + errorClass(call, ioe));
+        }
+
+        private static long micros(long startNanos) {
+            return (System.nanoTime() - startNanos) / 1000;
+        }
+    }
+
+    static String errorClass(Call call, IOException e) {
+        if (call.isCanceled()) return "canceled";
+        if (e instanceof CircuitOpenException) return "circuit_open";
+        if (e instanceof UnknownHostException) return "dns";
+        if (e instanceof ConnectException) return "connect";
+        if (e instanceof SSLException) return "tls";
+        if (e instanceof InterruptedIOException) return "timeout";
+        return "io";
+    }
+}
@@ -4,11 +4,17 @@ public class ApiResponse {
     private boolean success;
     private String message;
     private String data;
+    private int statusCode;
 
     public ApiResponse(boolean success, String message, String data) {
+        this(success, message, data, 0);
+    }
+
+    public ApiResponse(boolean success, String message, String data, int statusCode) {
         this.success = success;
         this.message = message;
         this.data = data;
+        this.statusCode = statusCode;
     }
 
     public boolean isSuccess() {
@@ -22,4 +28,9 @@ public class ApiResponse {
     public String getData() {
         return data;
     }
+
+    /** HTTP status of the answer, or 0 when there was none (network error, local result). */
+    public int getStatusCode() {
+        return statusCode;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package com.evcharging.mobile.network;
+
+import android.util.Log;
+
+import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.Notification;
+import com.evcharging.mobile.model.User;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * BatchRequest - several GETs in one round trip
+ *
+ * Purpose: A screen that needs the profile, counts, bookings and
+ * notifications shouldn't pay for four round trips and four sets of headers.
+ * Queue the GETs, then {@link #execute()} sends them as one POST /api/batch
+ * (contract: batch-api.md in the repository root) and completes each
+ * caller's future with its own, already parsed, result.
+ *
+ * When the server has no batch endpoint (404/405/501), or leaves a part out
+ * of its answer, those parts are fetched one by one instead; an unsupported
+ * server isn't asked again for UNSUPPORTED_RECHECK_MS. A failed part
+ * completes its future with an {@link ApiException} carrying the message
+ * ApiClient would have returned.
+ *
+ * <pre>
+ * BatchRequest batch = apiClient.batch();
+ * CompletableFuture&lt;User&gt; profile = batch.profile();
+ * CompletableFuture&lt;List&lt;Notification&gt;&gt; notifications = batch.notifications();
+ * batch.execute(); // blocks: background thread only
+ * </pre>
+ */
+public class BatchRequest {
+
+    private static final String TAG = "BatchRequest";
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    static final String ENDPOINT = "/batch";
+    /** Server-side limit from the contract; bigger batches are split. */
+    public static final int MAX_PARTS = 10;
+    private static final long UNSUPPORTED_RECHECK_MS = 10 * 60_000;
+    private static final int FALLBACK_PARALLELISM = 4;
+
+    private static volatile long unsupportedUntil;
+    private static ExecutorService fallbackPool;
+
+    /** Turns a successful part's body into the caller's type; null or a throw fails the part. */
+    public interface Parser<T> {
+        T parse(String data) throws Exception;
+    }
+
+    private final ApiClient api;
+    private final Gson gson = new Gson();
+    private final List<Part<?>> parts = new ArrayList<>();
+    private boolean executed;
+
+    BatchRequest(ApiClient api) {
+        this.api = api;
+    }
+
+    // ---------------------------------------------------------------------
+    // Parts
+    // ---------------------------------------------------------------------
+
+    public <T> CompletableFuture<T> get(String endpoint, Parser<T> parser) {
+        if (executed) throw new IllegalStateException("Batch already executed");
+        Part<T> part = new Part<>(endpoint, parser);
+        parts.add(part);
+        return part.future;
+    }
+
+    public CompletableFuture<User> profile() {
+        return get(ApiClient.ME_ENDPOINT, api::parseLoggedOwner);
+    }
+
+    /** Admin and operator accounts only. */
+    public CompletableFuture<Integer> countPendingBookings() {
+        return get(ApiClient.COUNT_PENDING_ENDPOINT, data -> new JSONObject(data).getInt("pendingCount"));
+    }
+
+    /** Admin and operator accounts only. */
+    public CompletableFuture<Integer> countApprovedFutureBookings() {
+        return get(ApiClient.COUNT_APPROVED_ENDPOINT, data -> new JSONObject(data).getInt("approvedCount"));
+    }
+
+    public CompletableFuture<List<BookingItem>> bookingsByOwner(String ownerId, int page, int pageSize) {
+        Type listType = new TypeToken<List<BookingItem>>() {}.getType();
+        return get(ApiClient.ownerBookingsEndpoint(ownerId, page, pageSize), data -> gson.fromJson(data, listType));
+    }
+
+    public CompletableFuture<List<Notification>> notifications() {
+        return get(ApiClient.NOTIFICATIONS_ENDPOINT, api::parseNotifications);
+    }
+
+    // ---------------------------------------------------------------------
+    // Execution
+    // ---------------------------------------------------------------------
+
+    /** Sends everything queued and returns once every future is complete. */
+    public void execute() {
+        if (executed) throw new IllegalStateException("Batch already executed");
+        executed = true;
+        if (parts.size() == 1 || System.currentTimeMillis() < unsupportedUntil) {
+            runIndividually(parts);
+            return;
+        }
+        for (int from = 0; from < parts.size(); from += MAX_PARTS) {
+            List<Part<?>> chunk = parts.subList(from, Math.min(parts.size(), from + MAX_PARTS));
+            if (System.currentTimeMillis() < unsupportedUntil) {
+                runIndividually(chunk);
+            } else {
+                sendBatch(chunk);
+            }
+        }
+    }
+
+    private void sendBatch(List<Part<?>> chunk) {
+        String responseBody;
+        Response response;
+        try {
+            JSONArray requests = new JSONArray();
+            for (int i = 0; i < chunk.size(); i++) {
+                requests.put(new JSONObject()
+                        .put("id", String.valueOf(i))
+                        .put("method", "GET")
+                        .put("path", chunk.get(i).endpoint));
+            }
+            Request.Builder builder = new Request.Builder()
+                    .url(ApiClient.urlFor(ENDPOINT))
+                    .post(RequestBody.create(new JSONObject().put("requests", requests).toString(), JSON))
+                    .addHeader("X-Client-Type", "Mobile")
+                    // A bundle of reads, not a mutation
+                    .tag(RequestScheduler.Lane.class, RequestScheduler.Lane.INTERACTIVE_READ);
+            api.addAuth(builder);
+            response = api.execute(builder.build());
+            responseBody = ApiClient.readBody(response);
+        } catch (Exception e) {
+            Log.e(TAG, "Batch request error", e);
+            for (Part<?> part : chunk) part.complete(new ApiResponse(false, "Network error", null));
+            return;
+        }
+
+        int code = response.code();
+        if (code == 404 || code == 405 || code == 501) {
+            Log.i(TAG, "Server has no batch endpoint (HTTP " + code + "); using single calls");
+            unsupportedUntil = System.currentTimeMillis() + UNSUPPORTED_RECHECK_MS;
+            runIndividually(chunk);
+            return;
+        }
+        if (!response.isSuccessful()) {
+            String message = "Failed";
+            try {
+                message = new JSONObject(responseBody).optString("message", message);
+            } catch (Exception ignored) {
+            }
+            for (Part<?> part : chunk) part.complete(new ApiResponse(false, message, null));
+            return;
+        }
+
+        List<Part<?>> missing = new ArrayList<>(chunk);
+        try {
+            JSONArray responses = new JSONObject(responseBody).getJSONArray("responses");
+            for (int i = 0; i < responses.length(); i++) {
+                JSONObject item = responses.getJSONObject(i);
+                int index = Integer.parseInt(item.getString("id"));
+                if (index < 0 || index >= chunk.size()) continue;
+                Part<?> part = chunk.get(index);
+                if (!missing.remove(part)) continue; // duplicate id
+                part.complete(toApiResponse(item.getInt("status"), item.opt("body")));
+                ApiMetrics.increment(EndpointTemplate.of("GET", HttpUrl.get(ApiClient.urlFor(part.endpoint))), "batched");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Malformed batch response; fetching the rest one by one", e);
+        }
+        if (!missing.isEmpty()) runIndividually(missing);
+    }
+
+    // Same success/message rules as ApiClient.get()
+    private static ApiResponse toApiResponse(int status, Object body) {
+        String data = body == null || body == JSONObject.NULL ? null : body.toString();
+        if (status >= 200 && status < 300) return new ApiResponse(true, "Success", data, status);
+        String message = body instanceof JSONObject ? ((JSONObject) body).optString("message", "Failed") : "Failed";
+        return new ApiResponse(false, message, null, status);
+    }
+
+    private void runIndividually(List<Part<?>> todo) {
+        List<Callable<Void>> calls = new ArrayList<>(todo.size());
+        for (Part<?> part : todo) {
+            calls.add(() -> {
+                part.complete(api.get(part.endpoint));
+                return null;
+            });
+        }
+        try {
+            fallbackPool().invokeAll(calls);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Part<?> part : todo) part.complete(new ApiResponse(false, "Interrupted", null));
+        }
+    }
+
+    private static synchronized ExecutorService fallbackPool() {
+        if (fallbackPool == null) fallbackPool = Executors.newFixedThreadPool(FALLBACK_PARALLELISM);
+        return fallbackPool;
+    }
+
+    private static final class Part<T> {
+        final String endpoint;
+        final Parser<T> parser;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Part(String endpoint, Parser<T> parser) {
+            this.endpoint = endpoint;
+            this.parser = parser;
+        }
+
+        void complete(ApiResponse res) {
+            if (future.isDone()) return;
+            if (res == null || !res.isSuccess()) {
+                future.completeExceptionally(new ApiException(res != null ? res.getMessage() : "Network error"));
+                return;
+            }
+            try {
+                T value = res.getData() != null ? parser.parse(res.getData()) : null;
+                if (value != null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(new ApiException("Parsing error"));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to parse " + endpoint, e);
+                future.completeExceptionally(new ApiException("Parsing error"));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.evcharging.mobile.network;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+
+/**
+ * CallDeadlines - per-call time budgets instead of one 30 s timeout for all
+ *
+ * Purpose: A typeahead lookup and a booking creation shouldn't wait equally
+ * long. Every call gets a deadline for the whole call (connect, retries,
+ * response body) through OkHttp's call timeout, picked in this order:
+ *
+ *   1. the caller's own deadline (ApiClient.withDeadline)
+ *   2. a fixed deadline for the endpoint template (setFixed)
+ *   3. for GETs with enough history: P99_MULTIPLIER x the endpoint's
+ *      observed p99, between MIN_MS and DEFAULT_MS
+ *   4. DEFAULT_MS
+ *
+ * Mutations never adapt: timing out a booking or a start/finalize leaves its
+ * outcome unknown, so they keep the generous default.
+ */
+public final class CallDeadlines {
+
+    public static final long DEFAULT_MS = 30_000;
+    private static final long MIN_MS = 3_000;
+    private static final int MIN_SAMPLES = 30;
+    private static final int P99_MULTIPLIER = 4;
+
+    private static final ConcurrentHashMap<String, Long> fixed = new ConcurrentHashMap<>();
+
+    static {
+        // Typeahead: a late answer is a useless answer
+        fixed.put("GET /station/names", 5_000L);
+    }
+
+    private CallDeadlines() {
+    }
+
+    /** Pin an endpoint template (e.g. "GET /station/names") to a fixed deadline. */
+    public static void setFixed(String template, long deadlineMs) {
+        fixed.put(template, deadlineMs);
+    }
+
+    public static long forRequest(Request request) {
+        String template = EndpointTemplate.of(request.method(), request.url());
+        Long pinned = fixed.get(template);
+        if (pinned != null) return pinned;
+        if (!"GET".equals(request.method())) return DEFAULT_MS;
+
+        LatencyHistogram total = ApiMetrics.histogram(template, ApiMetrics.TOTAL);
+        if (total == null || total.getCount() < MIN_SAMPLES) return DEFAULT_MS;
+        long p99Ms = total.percentile(99) / 1000;
+        return Math.max(MIN_MS, Math.min(DEFAULT_MS, p99Ms * P99_MULTIPLIER));
+    }
+
+    /** A new call with its deadline set; {@code deadlineMs <= 0} picks one from the policy above. */
+    public static Call newCall(OkHttpClient client, Request request, long deadlineMs) {
+        Call call = client.newCall(request);
+        call.timeout().timeout(deadlineMs > 0 ? deadlineMs : forRequest(request), TimeUnit.MILLISECONDS);
+        return call;
+    }
+}
@@ -0,0 +1,15 @@
+package com.evcharging.mobile.network;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a call was canceled because a newer call with the same
+ * supersede key started (see {@link ApiClient#superseding}). Not a network
+ * failure: the caller has simply stopped caring about the answer.
+ */
+public class CallSupersededException extends IOException {
+
+    public CallSupersededException(String key) {
+        super("Superseded: " + key);
+    }
+}
@@ -0,0 +1,91 @@
+package com.evcharging.mobile.network;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Locale;
+
+/**
+ * CircuitBreaker - fail fast while an endpoint group keeps failing
+ *
+ * Purpose: Stop hammering an overloaded backend. After failureThreshold
+ * failures in a row (transport errors or 5xx) the breaker opens and every
+ * request of the group fails at once for the open period. Then one probe
+ * request is let through (half open): success closes the breaker, failure
+ * opens it again.
+ *
+ * Every state change is counted in {@link ApiMetrics} under
+ * "BREAKER /group" (to_open, to_half_open, to_closed), together with the
+ * number of requests it rejected.
+ */
+public class CircuitBreaker {
+
+    private static final String TAG = "CircuitBreaker";
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String group;
+    private final String metricsKey;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String group, int failureThreshold, long openMillis) {
+        this.group = group;
+        this.metricsKey = "BREAKER " + group;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** Whether a request may go out now. A false answer is counted as rejected. */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && SystemClock.elapsedRealtime() - openedAt >= openMillis) {
+            moveTo(State.HALF_OPEN);
+        }
+        boolean allowed;
+        if (state == State.CLOSED) {
+            allowed = true;
+        } else if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            allowed = true;
+        } else {
+            allowed = false;
+        }
+        if (!allowed) ApiMetrics.increment(metricsKey, "rejected");
+        return allowed;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) moveTo(State.CLOSED);
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = SystemClock.elapsedRealtime();
+            moveTo(State.OPEN);
+        }
+    }
+
+    /** The request was let through but never completed (e.g. canceled); neither outcome. */
+    public synchronized void onAbandoned() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void moveTo(State next) {
+        Log.w(TAG, group + ": " + state + " -> " + next);
+        state = next;
+        ApiMetrics.increment(metricsKey, "to_" + next.name().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,15 @@
+package com.evcharging.mobile.network;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while its endpoint group's
+ * {@link CircuitBreaker} is open. ApiClient reports it like any other
+ * network failure.
+ */
+public class CircuitOpenException extends IOException {
+
+    public CircuitOpenException(String group) {
+        super("Circuit open for " + group);
+    }
+}
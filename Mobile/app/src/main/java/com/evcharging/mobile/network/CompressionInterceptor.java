@@ -0,0 +1,160 @@
+package com.evcharging.mobile.network;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * CompressionInterceptor - gzip request bodies and payload-size accounting
+ *
+ * Purpose: Booking lists and base64 QR images are big and compress well.
+ *
+ * Responses: OkHttp already sends "Accept-Encoding: gzip" and decompresses
+ * on the fly as the body is read, as long as nobody sets Accept-Encoding by
+ * hand - so nothing here may. The decoder downstream reads the inflated
+ * stream directly; nothing is buffered whole.
+ *
+ * Requests: POST/PUT/PATCH bodies of MIN_COMPRESS_BYTES or more are gzipped,
+ * but only for hosts that advertised gzip in an Accept-Encoding response
+ * header (RFC 7694), and only when that makes them smaller. A 415 answer to
+ * a compressed body means the host doesn't take it after all: the request is
+ * sent again uncompressed (415 means it wasn't processed) and that host gets
+ * plain bodies from then on.
+ *
+ * Per endpoint in {@link ApiMetrics}: request_bytes / request_wire_bytes for
+ * bodies sent, decoded_bytes for bodies received (response_bytes, recorded
+ * by the event listener, is what came over the wire).
+ */
+public class CompressionInterceptor implements Interceptor {
+
+    private static final String TAG = "CompressionInterceptor";
+
+    public static final String REQUEST_BYTES = "request_bytes";
+    public static final String REQUEST_WIRE_BYTES = "request_wire_bytes";
+    public static final String DECODED_BYTES = "decoded_bytes";
+
+    static final long MIN_COMPRESS_BYTES = 1024;
+
+    private final Set<String> gzipHosts = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request original = chain.request();
+        String template = EndpointTemplate.of(original.method(), original.url());
+        String host = original.url().host();
+
+        Request request = original;
+        RequestBody body = original.body();
+        if (body != null) {
+            long size = body.contentLength();
+            Buffer compressed = size >= MIN_COMPRESS_BYTES && gzipHosts.contains(host) && !body.isOneShot()
+                    && original.header("Content-Encoding") == null ? gzip(body) : null;
+            if (compressed != null && compressed.size() < size) {
+                request = original.newBuilder()
+                        .header("Content-Encoding", "gzip")
+                        .method(original.method(), RequestBody.create(compressed.readByteString(), body.contentType()))
+                        .build();
+            }
+            if (size >= 0) {
+                ApiMetrics.record(template, REQUEST_BYTES, size);
+                ApiMetrics.record(template, REQUEST_WIRE_BYTES, request == original ? size : request.body().contentLength());
+            }
+        }
+
+        Response response = chain.proceed(request);
+        if (request != original && response.code() == 415) {
+            Log.w(TAG, host + " rejected a gzip request body; sending plain bodies from now on");
+            gzipHosts.remove(host);
+            response.close();
+            response = chain.proceed(original);
+        }
+        learn(host, response.header("Accept-Encoding"));
+
+        if (response.body() == null) return response;
+        return response.newBuilder()
+                .body(new CountingBody(response.body(), template))
+                .build();
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void learn(String host, String acceptEncoding) {
+        if (acceptEncoding == null) return; // not every response advertises; keep what we know
+        if (acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            gzipHosts.add(host);
+        } else {
+            gzipHosts.remove(host);
+        }
+    }
+
+    private static Buffer gzip(RequestBody body) throws IOException {
+        Buffer out = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(out))) {
+            body.writeTo(sink);
+        }
+        return out;
+    }
+
+    /** Counts the decoded bytes the caller reads and records them once at the end. */
+    private static final class CountingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingBody(ResponseBody delegate, String template) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                long total;
+                boolean recorded;
+
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long n = super.read(sink, byteCount);
+                    if (n == -1) {
+                        record();
+                    } else {
+                        total += n;
+                    }
+                    return n;
+                }
+
+                // Only a fully read body says anything about its size
+                private void record() {
+                    if (recorded) return;
+                    recorded = true;
+                    if (total > 0) ApiMetrics.record(template, DECODED_BYTES, total);
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
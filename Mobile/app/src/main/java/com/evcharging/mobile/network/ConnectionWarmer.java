@@ -0,0 +1,103 @@
+package com.evcharging.mobile.network;
+
+import android.util.Log;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * ConnectionWarmer - resolve the backend and open a pooled TLS connection early
+ *
+ * Purpose: The first call after launch or login (ApiClient.login, then
+ * getUser) would otherwise pay DNS, TCP and TLS one after another while the
+ * user waits. warmUp() does that work ahead of time, off the main thread:
+ * it resolves the backend host, then sends a HEAD to it so the shared
+ * client's pool holds a live TLS connection the first interactive call can
+ * reuse. It is skipped while the pool already has an idle connection.
+ *
+ * Recorded in {@link ApiMetrics} under "WARMUP": dns (the pre-resolution)
+ * and warmup (the whole step), counters "warmups" and "skipped". The effect
+ * shows under "CONNECTIONS": cold_call vs warm_call latency for calls that
+ * had to open a connection vs calls that reused one.
+ */
+public final class ConnectionWarmer {
+
+    private static final String TAG = "ConnectionWarmer";
+
+    public static final String METRICS_KEY = "WARMUP";
+    public static final String WARMUP = "warmup";
+
+    private static final long WARMUP_DEADLINE_MS = 10_000;
+
+    private static ConnectionWarmer instance;
+
+    private final OkHttpClient client;
+    private final HttpUrl target;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+
+    private ConnectionWarmer(OkHttpClient client, HttpUrl target) {
+        this.client = client;
+        this.target = target;
+    }
+
+    public static synchronized ConnectionWarmer getInstance() {
+        if (instance == null) {
+            instance = new ConnectionWarmer(ApiClient.httpClient(), HttpUrl.get(ApiClient.urlFor("/")));
+        }
+        return instance;
+    }
+
+    /** Non-blocking; {@code reason} only goes to the log. */
+    public void warmUp(String reason) {
+        if (client.connectionPool().idleConnectionCount() > 0 || !inFlight.compareAndSet(false, true)) {
+            ApiMetrics.increment(METRICS_KEY, "skipped");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                run(reason);
+            } finally {
+                inFlight.set(false);
+            }
+        });
+    }
+
+    private void run(String reason) {
+        long start = System.nanoTime();
+        try {
+            List<InetAddress> addresses = client.dns().lookup(target.host());
+            long dnsMicros = (System.nanoTime() - start) / 1000;
+            ApiMetrics.record(METRICS_KEY, ApiMetrics.DNS, dnsMicros);
+
+            // Any answer will do (even a 404): what we want is the connection left in the pool
+            Request request = new Request.Builder()
+                    .url(target)
+                    .head()
+                    .addHeader("X-Client-Type", "Mobile")
+                    .tag(ConnectionWarmer.class, this)
+                    .tag(RequestScheduler.Lane.class, RequestScheduler.Lane.BACKGROUND_PREFETCH)
+                    .build();
+            try (Response response = CallDeadlines.newCall(client, request, WARMUP_DEADLINE_MS).execute()) {
+                long totalMicros = (System.nanoTime() - start) / 1000;
+                ApiMetrics.record(METRICS_KEY, WARMUP, totalMicros);
+                ApiMetrics.increment(METRICS_KEY, "warmups");
+                Log.d(TAG, "Warmed up (" + reason + "): " + target.host() + " -> " + addresses.size()
+                        + " address(es), dns " + dnsMicros / 1000 + " ms, total " + totalMicros / 1000
+                        + " ms, HTTP " + response.code());
+            }
+        } catch (Exception e) {
+            // Nothing lost: the first real call simply connects itself
+            ApiMetrics.increment(METRICS_KEY, "failed");
+            Log.w(TAG, "Warm-up failed (" + reason + "): " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.evcharging.mobile.network;
+
+import java.util.List;
+
+import okhttp3.HttpUrl;
+
+/**
+ * EndpointTemplate - logical endpoint name for a request URL
+ *
+ * Purpose: Group metrics by endpoint rather than by raw URL, so
+ * "/bookings/station/68e1.../today" for every station lands in one
+ * "GET /bookings/station/{id}/today" bucket. Query strings are dropped and
+ * path segments that look like identifiers (ObjectIds, GUIDs, NICs, numbers)
+ * become {id}.
+ */
+public final class EndpointTemplate {
+
+    private static final String API_SEGMENT = "api";
+
+    private EndpointTemplate() {
+    }
+
+    public static String of(String method, HttpUrl url) {
+        StringBuilder sb = new StringBuilder(method).append(' ');
+        List<String> segments = url.pathSegments();
+        int start = 0;
+        if (!segments.isEmpty() && API_SEGMENT.equals(segments.get(0))) start = 1;
+        if (start == segments.size()) sb.append('/');
+        for (int i = start; i < segments.size(); i++) {
+            String s = segments.get(i);
+            if (s.isEmpty()) continue;
+            sb.append('/').append(looksLikeId(s) ? "{id}" : s);
+        }
+        return sb.toString();
+    }
+
+    /** First path segment after /api, e.g. "/bookings"; used to group circuit breakers. */
+    public static String groupOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        int i = !segments.isEmpty() && API_SEGMENT.equals(segments.get(0)) ? 1 : 0;
+        return i < segments.size() ? "/" + segments.get(i) : "/";
+    }
+
+    static boolean looksLikeId(String segment) {
+        int digits = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.isDigit(segment.charAt(i))) digits++;
+        }
+        if (digits == 0) return false;
+        // Plain numbers, or long mixed tokens (ObjectIds, GUIDs, NICs like 991234567V)
+        return digits == segment.length() || segment.length() >= 8;
+    }
+}
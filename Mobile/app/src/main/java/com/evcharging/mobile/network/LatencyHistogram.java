@@ -0,0 +1,100 @@
+package com.evcharging.mobile.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram - lock-free log-linear histogram (HDR style)
+ *
+ * Purpose: Record many values from many threads without locks and answer
+ * percentile queries afterwards. Values below 16 get a bucket each; above
+ * that every power of two is split into 16 equal sub-buckets, so any value is
+ * reported within about 6% of what was recorded. Recording is one atomic
+ * increment on a fixed array; nothing is allocated per value.
+ *
+ * Units are up to the caller (ApiMetrics uses microseconds and bytes).
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int MAX_MAGNITUDE = 40; // ~1.1e12, far above any timing or size we see
+    static final int BUCKET_COUNT = SUB_BUCKETS * (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value)) m = max.get();
+    }
+
+    public long getCount() { return count.get(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = count.get();
+        return n > 0 ? (double) sum.get() / n : 0;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0..100), or 0
+     * when nothing was recorded. Capped at the largest recorded value.
+     */
+    public long percentile(double p) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) buckets.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /** Non-empty buckets as "index:count" pairs, comma separated. */
+    void appendSparse(StringBuilder out) {
+        boolean first = true;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long c = buckets.get(i);
+            if (c == 0) continue;
+            if (!first) out.append(',');
+            out.append(i).append(':').append(c);
+            first = false;
+        }
+    }
+
+    long getSum() { return sum.get(); }
+
+    // ---------------------------------------------------------------------
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) return BUCKET_COUNT - 1;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (value >> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS * (shift + 1) + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
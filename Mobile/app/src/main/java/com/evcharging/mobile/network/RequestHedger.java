@@ -0,0 +1,167 @@
+package com.evcharging.mobile.network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * RequestHedger - hedged GETs to cut tail latency on read endpoints
+ *
+ * Purpose: On a flaky link a few requests hang for seconds while most answer
+ * in well under one. A hedged request sends the GET, and if no answer came
+ * within the endpoint's observed p90 it sends the same GET again; whichever
+ * answers first wins and the other is canceled. A 5xx or a failure is not an
+ * answer: the other attempt is still awaited.
+ *
+ * Budget: every hedgeable request earns 0.1 token (up to MAX_TOKENS), every
+ * hedge spends one, so hedging adds at most ~10% extra requests and a burst
+ * of slow calls can't double the load on an already slow backend.
+ *
+ * Only for idempotent reads. Metrics per endpoint: "hedges", "hedge_wins",
+ * and "request" - the latency the caller saw, next to the per-attempt "total"
+ * - so the effect on p99 shows on the debug screen.
+ */
+public class RequestHedger {
+
+    public static final String REQUEST = "request";
+
+    private static final long DEFAULT_DELAY_MS = 800; // until the endpoint has enough samples
+    private static final long MIN_DELAY_MS = 50;
+    private static final long MAX_DELAY_MS = 3000;
+    private static final int MIN_SAMPLES = 20;
+    private static final double TOKENS_PER_REQUEST = 0.1;
+    private static final double MAX_TOKENS = 5;
+
+    private final OkHttpClient client;
+    private double tokens = MAX_TOKENS;
+
+    public RequestHedger(OkHttpClient client) {
+        this.client = client;
+    }
+
+    /** @param deadlineMs deadline for the whole request, hedge included; see {@link CallDeadlines} */
+    public Response execute(Request request, long deadlineMs) throws IOException {
+        String template = EndpointTemplate.of(request.method(), request.url());
+        long start = System.nanoTime();
+        earnToken();
+
+        Attempts attempts = new Attempts();
+        List<Call> calls = new ArrayList<>(2);
+        calls.add(attempts.start(CallDeadlines.newCall(client, request, deadlineMs), false));
+        try {
+            Outcome outcome = attempts.results.poll(delayMs(template), TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                long remainingMs = deadlineMs - (System.nanoTime() - start) / 1_000_000;
+                if (remainingMs > 0 && spendToken()) {
+                    ApiMetrics.increment(template, "hedges");
+                    calls.add(attempts.start(CallDeadlines.newCall(client, request, remainingMs), true));
+                }
+                outcome = attempts.results.take();
+            }
+            // A failed attempt isn't an answer while another is still running
+            for (int pending = calls.size() - 1; !outcome.isAnswer() && pending > 0; pending--) {
+                // Close the 5xx we pass over: it holds a pooled connection and a scheduler permit
+                if (outcome.response != null) outcome.response.close();
+                outcome = attempts.results.take();
+            }
+
+            for (Call c : calls) {
+                if (c != outcome.call) c.cancel();
+            }
+            attempts.finish(outcome);
+            if (outcome.hedge && outcome.isAnswer()) ApiMetrics.increment(template, "hedge_wins");
+            ApiMetrics.record(template, REQUEST, (System.nanoTime() - start) / 1000);
+
+            if (outcome.response != null) return outcome.response;
+            throw outcome.failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Call c : calls) c.cancel();
+            attempts.finish(null);
+            throw new InterruptedIOException("Interrupted while waiting for " + template);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+
+    /** The endpoint's p90, clamped; a fixed default until there is enough history. */
+    private static long delayMs(String template) {
+        LatencyHistogram total = ApiMetrics.histogram(template, ApiMetrics.TOTAL);
+        if (total == null || total.getCount() < MIN_SAMPLES) return DEFAULT_DELAY_MS;
+        return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, total.percentile(90) / 1000));
+    }
+
+    private synchronized void earnToken() {
+        tokens = Math.min(MAX_TOKENS, tokens + TOKENS_PER_REQUEST);
+    }
+
+    private synchronized boolean spendToken() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    private static final class Outcome {
+        final Call call;
+        final boolean hedge;
+        final Response response;
+        final IOException failure;
+
+        Outcome(Call call, boolean hedge, Response response, IOException failure) {
+            this.call = call;
+            this.hedge = hedge;
+            this.response = response;
+            this.failure = failure;
+        }
+
+        boolean isAnswer() {
+            return response != null && response.code() < 500;
+        }
+    }
+
+    /** Collects attempt outcomes; anything arriving after the winner is closed. */
+    private static final class Attempts {
+        final LinkedBlockingQueue<Outcome> results = new LinkedBlockingQueue<>();
+        private boolean finished;
+
+        Call start(Call call, boolean hedge) {
+            call.enqueue(new Callback() {
+                @Override
+                public void onResponse(Call c, Response response) {
+                    deliver(new Outcome(c, hedge, response, null));
+                }
+
+                @Override
+                public void onFailure(Call c, IOException e) {
+                    deliver(new Outcome(c, hedge, null, e));
+                }
+            });
+            return call;
+        }
+
+        private synchronized void deliver(Outcome outcome) {
+            if (finished) {
+                if (outcome.response != null) outcome.response.close();
+            } else {
+                results.offer(outcome);
+            }
+        }
+
+        synchronized void finish(Outcome winner) {
+            finished = true;
+            for (Outcome o : results) {
+                if (o != winner && o.response != null) o.response.close();
+            }
+            results.clear();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.evcharging.mobile.network;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * RequestScheduler - priority lanes and per-host concurrency caps
+ *
+ * Purpose: Keep a background prefetch from delaying the user's "Confirm
+ * booking". Every attempt needs a permit for its host before it goes out:
+ *
+ *   - at most maxPerHost requests per host are in flight, and background
+ *     lanes (prefetch, telemetry) may hold at most maxBackgroundPerHost of
+ *     them, so interactive work always finds headroom
+ *   - a free permit goes to the oldest waiter of the highest lane; queued
+ *     lower-lane work is overtaken (it is never canceled once in flight)
+ *
+ * The lane comes from the request's {@link Lane} tag (ApiClient.withLane);
+ * untagged GETs are interactive reads, everything else interactive mutations.
+ * A permit is held until the response body is closed. Waiting counts against
+ * the call's deadline: a call canceled or timed out in the queue leaves it.
+ *
+ * Per lane, under "LANE name" in {@link ApiMetrics}: the queue_wait
+ * histogram (microseconds) and the "overtaken" counter.
+ */
+public class RequestScheduler implements Interceptor {
+
+    public static final String QUEUE_WAIT = "queue_wait";
+
+    /** In priority order, highest first. */
+    public enum Lane {
+        INTERACTIVE_MUTATION, INTERACTIVE_READ, BACKGROUND_PREFETCH, TELEMETRY;
+
+        boolean isBackground() {
+            return this == BACKGROUND_PREFETCH || this == TELEMETRY;
+        }
+
+        String metricsKey() {
+            return "LANE " + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final long CANCEL_POLL_MS = 100;
+
+    private final int maxPerHost;
+    private final int maxBackgroundPerHost;
+    private final Map<String, Host> hosts = new HashMap<>(); // guarded by this
+
+    public RequestScheduler(int maxPerHost, int maxBackgroundPerHost) {
+        this.maxPerHost = maxPerHost;
+        this.maxBackgroundPerHost = maxBackgroundPerHost;
+    }
+
+    /** 4 requests per host, at most 2 of them background. */
+    public static RequestScheduler withDefaults() {
+        return new RequestScheduler(4, 2);
+    }
+
+    public static Lane laneOf(Request request) {
+        Lane lane = request.tag(Lane.class);
+        if (lane != null) return lane;
+        return "GET".equals(request.method()) ? Lane.INTERACTIVE_READ : Lane.INTERACTIVE_MUTATION;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Lane lane = laneOf(request);
+        String host = request.url().host();
+
+        long start = System.nanoTime();
+        acquire(host, lane, chain.call());
+        ApiMetrics.record(lane.metricsKey(), QUEUE_WAIT, (System.nanoTime() - start) / 1000);
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            release(host, lane);
+            throw e;
+        }
+        if (response.body() == null) {
+            release(host, lane);
+            return response;
+        }
+        return response.newBuilder()
+                .body(new ReleasingBody(response.body(), () -> release(host, lane)))
+                .build();
+    }
+
+    // ---------------------------------------------------------------------
+    // Permits
+    // ---------------------------------------------------------------------
+
+    private static final class Host {
+        final ArrayDeque<Object>[] queues;
+        int active;
+        int activeBackground;
+
+        @SuppressWarnings("unchecked")
+        Host() {
+            queues = new ArrayDeque[Lane.values().length];
+            for (int i = 0; i < queues.length; i++) queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    private synchronized void acquire(String hostName, Lane lane, Call call) throws IOException {
+        Host host = hosts.get(hostName);
+        if (host == null) {
+            host = new Host();
+            hosts.put(hostName, host);
+        }
+        ArrayDeque<Object> queue = host.queues[lane.ordinal()];
+        Object ticket = new Object();
+        queue.addLast(ticket);
+        try {
+            while (!mayStart(host, lane, ticket)) {
+                if (call.isCanceled()) throw new IOException("Canceled while queued");
+                wait(CANCEL_POLL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while queued");
+        } finally {
+            queue.remove(ticket);
+            notifyAll(); // the next ticket in this lane may be at the head now
+        }
+
+        host.active++;
+        if (lane.isBackground()) host.activeBackground++;
+        for (int i = lane.ordinal() + 1; i < host.queues.length; i++) {
+            if (!host.queues[i].isEmpty()) ApiMetrics.increment(Lane.values()[i].metricsKey(), "overtaken");
+        }
+    }
+
+    private boolean mayStart(Host host, Lane lane, Object ticket) {
+        if (host.queues[lane.ordinal()].peekFirst() != ticket) return false;
+        for (int i = 0; i < lane.ordinal(); i++) {
+            if (!host.queues[i].isEmpty()) return false;
+        }
+        if (host.active >= maxPerHost) return false;
+        return !lane.isBackground() || host.activeBackground < maxBackgroundPerHost;
+    }
+
+    private synchronized void release(String hostName, Lane lane) {
+        Host host = hosts.get(hostName);
+        host.active--;
+        if (lane.isBackground()) host.activeBackground--;
+        notifyAll();
+    }
+
+    /** Hands the permit back once, when the body is closed. */
+    private static final class ReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        ReleasingBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            AtomicBoolean released = new AtomicBoolean();
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) release.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.evcharging.mobile.network;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * ResilienceInterceptor - retries with backoff and per-group circuit breakers
+ *
+ * Purpose: Ride out short backend hiccups without the user noticing, and stop
+ * sending traffic to a backend that is clearly struggling.
+ *
+ * Retries: only idempotent verbs (GET, HEAD, PUT, DELETE, OPTIONS), after a
+ * transport failure or a 429/502/503/504, up to maxRetries times. The wait
+ * doubles each attempt with jitter (half fixed, half random) up to
+ * maxBackoffMs; a Retry-After header replaces it, and a Retry-After longer
+ * than MAX_RETRY_AFTER_MS ends the retries. POST and PATCH are never retried,
+ * so a booking or a start/finalize can't be applied twice.
+ *
+ * Circuit breaking: one {@link CircuitBreaker} per endpoint group (the first
+ * path segment, e.g. "/bookings"). Each logical request counts once, with its
+ * final outcome; 5xx and 429 count as failures, other statuses as successes.
+ * While a breaker is open, requests fail at once with
+ * {@link CircuitOpenException}.
+ *
+ * Retries are counted per endpoint in {@link ApiMetrics} ("retries").
+ */
+public class ResilienceInterceptor implements Interceptor {
+
+    private static final String TAG = "ResilienceInterceptor";
+
+    private static final Set<String> IDEMPOTENT = new HashSet<>(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS"));
+    private static final long MAX_RETRY_AFTER_MS = 10_000;
+
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ResilienceInterceptor(int maxRetries, long baseBackoffMs, long maxBackoffMs,
+                                 int failureThreshold, long openMillis) {
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** 2 retries from 300 ms, capped at 4 s; open for 15 s after 5 failures in a row. */
+    public static ResilienceInterceptor withDefaults() {
+        return new ResilienceInterceptor(2, 300, 4000, 5, 15_000);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String group = EndpointTemplate.groupOf(request.url());
+        CircuitBreaker breaker = breakerFor(group);
+        if (!breaker.allowRequest()) throw new CircuitOpenException(group);
+
+        boolean idempotent = IDEMPOTENT.contains(request.method());
+        for (int attempt = 0; ; attempt++) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            if (chain.call().isCanceled()) {
+                breaker.onAbandoned();
+                if (failure != null) throw failure;
+                return response;
+            }
+
+            int code = response != null ? response.code() : -1;
+            boolean retryable = failure != null || code == 429 || code == 502 || code == 503 || code == 504;
+            long delay = retryable && idempotent && attempt < maxRetries
+                    && breaker.getState() == CircuitBreaker.State.CLOSED
+                    ? retryDelay(attempt, response) : -1;
+
+            if (delay < 0) {
+                if (failure != null || code >= 500 || code == 429) {
+                    breaker.onFailure();
+                } else {
+                    breaker.onSuccess();
+                }
+                if (failure != null) throw failure;
+                return response;
+            }
+
+            if (response != null) response.close();
+            ApiMetrics.increment(EndpointTemplate.of(request.method(), request.url()), "retries");
+            Log.d(TAG, "Retrying " + request.method() + " " + request.url().encodedPath()
+                    + " in " + delay + " ms (" + (failure != null ? failure.getClass().getSimpleName() : "HTTP " + code) + ")");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                breaker.onAbandoned();
+                throw new InterruptedIOException("Interrupted while backing off");
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+
+    private CircuitBreaker breakerFor(String group) {
+        CircuitBreaker breaker = breakers.get(group);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(group, failureThreshold, openMillis);
+            CircuitBreaker raced = breakers.putIfAbsent(group, breaker);
+            if (raced != null) breaker = raced;
+        }
+        return breaker;
+    }
+
+    /** Wait before the next attempt, or -1 when the server asked for longer than we'll wait. */
+    private long retryDelay(int attempt, Response response) {
+        if (response != null) {
+            long retryAfter = retryAfterMs(response);
+            if (retryAfter >= 0) return retryAfter <= MAX_RETRY_AFTER_MS ? retryAfter : -1;
+        }
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << attempt);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    // Retry-After is either delay-seconds or an HTTP date
+    private static long retryAfterMs(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) return -1;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException ignored) {
+        }
+        Date date = response.headers().getDate("Retry-After");
+        return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+    }
+}
@@ -0,0 +1,110 @@
+package com.evcharging.mobile.service;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.evcharging.mobile.utils.AvailabilityMatrix;
+import com.evcharging.mobile.utils.AvailabilitySummary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AvailabilityCache - short-lived cache of station availability
+ *
+ * Purpose: Keep each station's fully loaded {@link AvailabilityMatrix} and
+ * its {@link AvailabilitySummary} for TTL_MS, so reopening the booking screen
+ * for the same station shows the date/slot counts at once instead of running
+ * the whole prefetch again.
+ *
+ * Anything that changes bookings (creating, updating or cancelling one, or a
+ * booking notification from the server) must invalidate the affected station,
+ * or everything when the station isn't known. A prefetch that started before
+ * an invalidation is not stored, since it may predate the change.
+ */
+public class AvailabilityCache {
+
+    private static final String TAG = "AvailabilityCache";
+
+    private static final long TTL_MS = 2 * 60 * 1000L;
+
+    private static AvailabilityCache instance;
+
+    private static final class Entry {
+        final AvailabilityMatrix matrix;
+        final AvailabilitySummary summary;
+        final long storedAt;
+
+        Entry(AvailabilityMatrix matrix, long storedAt) {
+            this.matrix = matrix;
+            this.summary = AvailabilitySummary.of(matrix);
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int epoch = 0;
+
+    private AvailabilityCache() {
+    }
+
+    public static synchronized AvailabilityCache getInstance() {
+        if (instance == null) {
+            instance = new AvailabilityCache();
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /** Token to pass to {@link #put} for a load starting now. */
+    public synchronized int getEpoch() {
+        return epoch;
+    }
+
+    /** Store a complete matrix, unless bookings changed since {@code epochAtStart}. */
+    public synchronized void put(AvailabilityMatrix matrix, int epochAtStart) {
+        if (epochAtStart != epoch || !matrix.isComplete()) return;
+        entries.put(matrix.getStationId(), new Entry(matrix, SystemClock.elapsedRealtime()));
+    }
+
+    /** The cached matrix if still fresh and for the current window, else null. */
+    public synchronized AvailabilityMatrix getMatrix(String stationId) {
+        Entry e = fresh(stationId);
+        return e != null ? e.matrix : null;
+    }
+
+    public synchronized AvailabilitySummary getSummary(String stationId) {
+        Entry e = fresh(stationId);
+        return e != null ? e.summary : null;
+    }
+
+    public synchronized void invalidate(String stationId) {
+        epoch++;
+        if (stationId == null) {
+            entries.clear();
+        } else {
+            entries.remove(stationId);
+        }
+        Log.d(TAG, "Invalidated " + (stationId != null ? stationId : "all stations"));
+    }
+
+    public void invalidateAll() {
+        invalidate(null);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private Entry fresh(String stationId) {
+        Entry e = entries.get(stationId);
+        if (e == null) return null;
+        boolean expired = SystemClock.elapsedRealtime() - e.storedAt > TTL_MS;
+        // Past midnight the window has moved on by a day
+        boolean outdated = !e.matrix.getDates().equals(AvailabilityService.windowDates());
+        if (expired || outdated) {
+            entries.remove(stationId);
+            return null;
+        }
+        return e;
+    }
+}
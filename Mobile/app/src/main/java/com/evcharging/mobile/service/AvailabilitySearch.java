@@ -0,0 +1,215 @@
+package com.evcharging.mobile.service;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.evcharging.mobile.model.SlotItem;
+import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.model.TimeSlotItem;
+import com.evcharging.mobile.utils.StationGeoIndex;
+import com.evcharging.mobile.utils.TimeUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * AvailabilitySearch - "find me a free charger" across nearby stations
+ *
+ * Purpose: Replace the pick-station / pick-slot / read-spinner loop with one
+ * search. Takes the nearest stations of a type, queries their slots and free
+ * timeslots for a day concurrently (bounded by PARALLELISM, cut off at
+ * DEADLINE_MS), and streams a ranked list of bookable (station, slot,
+ * timeslot) options to the UI as each station finishes.
+ *
+ * Ranking uses one cost: minutes until the timeslot starts plus
+ * MINUTES_PER_KM for each km of distance. A slightly later start next door
+ * can beat an earlier one across town.
+ */
+public class AvailabilitySearch {
+
+    private static final String TAG = "AvailabilitySearch";
+
+    private static final int MAX_STATIONS = 8;
+    private static final int PARALLELISM = 4;
+    private static final long DEADLINE_MS = 8000;
+    private static final int MAX_OPTIONS = 30;
+    private static final double MINUTES_PER_KM = 2.0;
+
+    /** One bookable choice. */
+    public static final class Option {
+        private final Station station;
+        private final double distanceKm;
+        private final SlotItem slot;
+        private final TimeSlotItem timeSlot;
+        private final long startMillis;
+        private final double cost;
+
+        Option(Station station, double distanceKm, SlotItem slot, TimeSlotItem timeSlot, long startMillis, long now) {
+            this.station = station;
+            this.distanceKm = distanceKm;
+            this.slot = slot;
+            this.timeSlot = timeSlot;
+            this.startMillis = startMillis;
+            this.cost = (startMillis - now) / 60000.0 + distanceKm * MINUTES_PER_KM;
+        }
+
+        public Station getStation() { return station; }
+        public double getDistanceKm() { return distanceKm; }
+        public SlotItem getSlot() { return slot; }
+        public TimeSlotItem getTimeSlot() { return timeSlot; }
+        public long getStartMillis() { return startMillis; }
+
+        @Override
+        public String toString() {
+            return station.getName() + " • " + slot + "\n" + timeSlot
+                    + String.format(Locale.getDefault(), "  (%.1f km)", distanceKm);
+        }
+    }
+
+    private static final Comparator<Option> BY_COST = (a, b) -> {
+        int c = Double.compare(a.cost, b.cost);
+        return c != 0 ? c : Double.compare(a.distanceKm, b.distanceKm);
+    };
+
+    public interface Listener {
+        /** Called after each station finishes, with the best options so far. */
+        void onProgress(List<Option> ranked, int stationsDone, int stationsTotal);
+
+        /** @param timedOut true if the deadline cut off slow stations */
+        void onFinished(List<Option> ranked, boolean timedOut);
+
+        void onError(String message);
+    }
+
+    private final StationService stationService;
+    private final AvailabilityService fetcher;
+    private final ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile int generation = 0;
+    private Runnable pendingDeadline;
+
+    public AvailabilitySearch(StationService stationService, AvailabilityService fetcher) {
+        this.stationService = stationService;
+        this.fetcher = fetcher;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /** Start a search; any previous search is cancelled. Call on the main thread. */
+    public void search(String type, double latitude, double longitude, double radiusKm, String dateYmd,
+                       Listener listener) {
+        cancel();
+        final int gen = ++generation;
+        final long startedAt = System.currentTimeMillis();
+        final List<Option> collected = new ArrayList<>(); // main thread only
+        final int[] done = {0};
+
+        pendingDeadline = () -> finish(gen, collected, listener, true, startedAt);
+        mainHandler.postDelayed(pendingDeadline, DEADLINE_MS);
+
+        pool.execute(() -> {
+            List<Station> nearby = stationService.getNearbyStationsByType(type, latitude, longitude, radiusKm);
+            if (nearby == null) {
+                post(gen, () -> {
+                    cancel();
+                    listener.onError("Failed to fetch stations");
+                });
+                return;
+            }
+
+            List<Station> nearest = nearest(nearby, latitude, longitude);
+            final int total = nearest.size();
+            post(gen, () -> listener.onProgress(Collections.<Option>emptyList(), 0, total));
+            if (total == 0) {
+                post(gen, () -> finish(gen, collected, listener, false, startedAt));
+                return;
+            }
+
+            for (Station station : nearest) {
+                pool.execute(() -> {
+                    if (gen != generation) return;
+                    double km = StationGeoIndex.distanceKm(latitude, longitude,
+                            station.getLatitude(), station.getLongitude());
+                    List<Option> found = searchStation(station, km, dateYmd, gen);
+                    post(gen, () -> {
+                        collected.addAll(found);
+                        done[0]++;
+                        listener.onProgress(rank(collected), done[0], total);
+                        if (done[0] == total) finish(gen, collected, listener, false, startedAt);
+                    });
+                });
+            }
+        });
+    }
+
+    public void cancel() {
+        generation++;
+        if (pendingDeadline != null) {
+            mainHandler.removeCallbacks(pendingDeadline);
+            pendingDeadline = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    // ---------------------------------------------------------------------
+
+    private List<Option> searchStation(Station station, double km, String dateYmd, int gen) {
+        List<Option> options = new ArrayList<>();
+        List<SlotItem> slots = fetcher.fetchSlots(station.getStationId());
+        if (slots == null) return options;
+
+        long now = System.currentTimeMillis();
+        for (SlotItem slot : slots) {
+            if (gen != generation) break; // deadline hit or superseded
+            List<TimeSlotItem> free = fetcher.fetchTimeslots(station.getStationId(), slot.slotId, dateYmd);
+            if (free == null) continue;
+            for (TimeSlotItem ts : free) {
+                long start = TimeUtils.parseUtcMillis(ts.getStartTime());
+                if (start < now) continue; // already started
+                options.add(new Option(station, km, slot, ts, start, now));
+            }
+        }
+        return options;
+    }
+
+    private void finish(int gen, List<Option> collected, Listener listener, boolean timedOut, long startedAt) {
+        if (gen != generation) return;
+        cancel(); // drop stations still in flight
+        Log.d(TAG, "Search finished in " + (System.currentTimeMillis() - startedAt) + " ms, "
+                + collected.size() + " options" + (timedOut ? " (deadline)" : ""));
+        listener.onFinished(rank(collected), timedOut);
+    }
+
+    private static List<Station> nearest(List<Station> stations, double lat, double lng) {
+        List<Station> sorted = new ArrayList<>();
+        for (Station s : stations) {
+            if (s != null && s.getStationId() != null) sorted.add(s);
+        }
+        Collections.sort(sorted, (a, b) -> Double.compare(
+                StationGeoIndex.distanceKm(lat, lng, a.getLatitude(), a.getLongitude()),
+                StationGeoIndex.distanceKm(lat, lng, b.getLatitude(), b.getLongitude())));
+        return sorted.size() > MAX_STATIONS ? new ArrayList<>(sorted.subList(0, MAX_STATIONS)) : sorted;
+    }
+
+    private static List<Option> rank(List<Option> options) {
+        List<Option> ranked = new ArrayList<>(options);
+        Collections.sort(ranked, BY_COST);
+        return ranked.size() > MAX_OPTIONS ? new ArrayList<>(ranked.subList(0, MAX_OPTIONS)) : ranked;
+    }
+
+    private void post(int gen, Runnable r) {
+        mainHandler.post(() -> {
+            if (gen == generation) r.run();
+        });
+    }
+}
@@ -0,0 +1,238 @@
+package com.evcharging.mobile.service;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.evcharging.mobile.model.SlotItem;
+import com.evcharging.mobile.model.TimeSlotItem;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.RequestScheduler;
+import com.evcharging.mobile.utils.AvailabilityMatrix;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.reflect.Type;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AvailabilityService - prefetches a station's availability for the booking window
+ *
+ * Purpose: Once a station is picked, load its slots and then every
+ * (slot, day) timeslot list for the next WINDOW_DAYS days in parallel, into
+ * an {@link AvailabilityMatrix}. Later slot/date changes in the booking
+ * wizard read the matrix instead of waiting on a round trip each.
+ *
+ * Listener callbacks arrive on the main thread. Starting a new prefetch
+ * drops callbacks from the previous one. A complete matrix is kept in
+ * {@link AvailabilityCache} and served from there while it is fresh.
+ */
+public class AvailabilityService {
+
+    private static final String TAG = "AvailabilityService";
+
+    /** Today plus six days, matching the booking date picker. */
+    public static final int WINDOW_DAYS = 7;
+    private static final int PARALLELISM = 4;
+    private static final int HTTP_NOT_FOUND = 404; // TimeSlotController: no free timeslots
+
+    public interface Listener {
+        /** Slots are known; the cells are still loading. */
+        void onSlotsLoaded(AvailabilityMatrix matrix);
+
+        void onCellLoaded(AvailabilityMatrix matrix, int slotIndex, int dayIndex);
+
+        void onComplete(AvailabilityMatrix matrix, long elapsedMs);
+
+        void onError(String message);
+    }
+
+    private final ApiClient apiClient;
+    private final ApiClient prefetchClient;
+    private final Gson gson = new Gson();
+    private final ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile int generation = 0;
+
+    public AvailabilityService(ApiClient apiClient) {
+        this.apiClient = apiClient;
+        // Up to slots x WINDOW_DAYS GETs; they must not hold up the booking itself
+        this.prefetchClient = apiClient.withLane(RequestScheduler.Lane.BACKGROUND_PREFETCH);
+    }
+
+    // ---------------------------------------------------------------------
+    // Prefetch
+    // ---------------------------------------------------------------------
+
+    public void prefetch(String stationId, Listener listener) {
+        final int gen = ++generation;
+        final long start = System.currentTimeMillis();
+        final AvailabilityCache cache = AvailabilityCache.getInstance();
+
+        AvailabilityMatrix cached = cache.getMatrix(stationId);
+        if (cached != null) {
+            post(gen, () -> {
+                listener.onSlotsLoaded(cached);
+                listener.onComplete(cached, 0);
+            });
+            return;
+        }
+
+        final int epoch = cache.getEpoch();
+        pool.execute(() -> {
+            List<SlotItem> slots = fetchSlots(prefetchClient, stationId);
+            if (slots == null) {
+                post(gen, () -> listener.onError("Failed to load slots. Please try again."));
+                return;
+            }
+
+            AvailabilityMatrix matrix = new AvailabilityMatrix(stationId, slots, windowDates());
+            post(gen, () -> listener.onSlotsLoaded(matrix));
+            if (slots.isEmpty()) {
+                cache.put(matrix, epoch);
+                post(gen, () -> listener.onComplete(matrix, System.currentTimeMillis() - start));
+                return;
+            }
+
+            List<String> dates = matrix.getDates();
+            AtomicInteger remaining = new AtomicInteger(slots.size() * dates.size());
+            for (int s = 0; s < slots.size(); s++) {
+                for (int d = 0; d < dates.size(); d++) {
+                    final int slotIdx = s, dayIdx = d;
+                    pool.execute(() -> {
+                        if (gen != generation) return; // superseded; skip the request
+                        List<TimeSlotItem> free = fetchTimeslots(prefetchClient, stationId,
+                                slots.get(slotIdx).slotId, dates.get(dayIdx));
+                        if (free != null) {
+                            matrix.setCell(slotIdx, dayIdx, free);
+                        } else {
+                            matrix.markFailed(slotIdx, dayIdx);
+                        }
+                        post(gen, () -> listener.onCellLoaded(matrix, slotIdx, dayIdx));
+
+                        if (remaining.decrementAndGet() == 0) {
+                            long elapsed = System.currentTimeMillis() - start;
+                            Log.d(TAG, "Prefetched " + slots.size() + " slots x " + dates.size()
+                                    + " days for " + stationId + " in " + elapsed + " ms");
+                            cache.put(matrix, epoch);
+                            post(gen, () -> listener.onComplete(matrix, elapsed));
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /** Drop callbacks and queued requests of the current prefetch. */
+    public void cancel() {
+        generation++;
+    }
+
+    public void shutdown() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    // ---------------------------------------------------------------------
+    // Single requests
+    // ---------------------------------------------------------------------
+
+    /** The station's slots, or null if they could not be loaded. Interactive lane. */
+    @WorkerThread
+    public List<SlotItem> fetchSlots(String stationId) {
+        return fetchSlots(apiClient, stationId);
+    }
+
+    private List<SlotItem> fetchSlots(ApiClient apiClient, String stationId) {
+        try {
+            ApiResponse res = apiClient.getSlotsByStation(stationId);
+            if (res == null || !res.isSuccess()) res = apiClient.getStationPublic(stationId);
+            if (res == null || !res.isSuccess() || res.getData() == null) return null;
+
+            JSONArray arr;
+            if (res.getData().trim().startsWith("[")) {
+                arr = new JSONArray(res.getData());
+            } else {
+                arr = new JSONObject(res.getData()).optJSONArray("slots");
+            }
+            if (arr == null) return Collections.emptyList();
+
+            List<SlotItem> slots = new ArrayList<>(arr.length());
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject o = arr.getJSONObject(i);
+                SlotItem s = new SlotItem();
+                s.slotId = o.optString("slotId");
+                s.number = o.optString("number");
+                s.status = o.optString("status");
+                s.connectorType = o.optString("connectorType");
+                slots.add(s);
+            }
+            return slots;
+        } catch (Exception e) {
+            Log.e(TAG, "Error fetching slots", e);
+            return null;
+        }
+    }
+
+    /**
+     * Free timeslots of one slot on one day, or null if they could not be
+     * loaded. The backend answers "no timeslots" with a 404, so only that is
+     * an empty list; any other failure is null. Interactive lane.
+     */
+    @WorkerThread
+    public List<TimeSlotItem> fetchTimeslots(String stationId, String slotId, String dateYmd) {
+        return fetchTimeslots(apiClient, stationId, slotId, dateYmd);
+    }
+
+    private List<TimeSlotItem> fetchTimeslots(ApiClient apiClient, String stationId, String slotId, String dateYmd) {
+        try {
+            ApiResponse res = apiClient.getAvailableTimeslotsForSlot(stationId, slotId, dateYmd);
+            if (res == null) return null;
+            if (!res.isSuccess()) {
+                return res.getStatusCode() == HTTP_NOT_FOUND ? Collections.<TimeSlotItem>emptyList() : null;
+            }
+            if (res.getData() == null) return Collections.emptyList();
+
+            Type t = new TypeToken<List<TimeSlotItem>>() {}.getType();
+            List<TimeSlotItem> list = gson.fromJson(res.getData(), t);
+            return list != null ? list : Collections.<TimeSlotItem>emptyList();
+        } catch (Exception e) {
+            Log.e(TAG, "Error fetching timeslots", e);
+            return null;
+        }
+    }
+
+    /** yyyy-MM-dd for today and the following days of the window, local time. */
+    public static List<String> windowDates() {
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        Calendar day = Calendar.getInstance();
+        List<String> dates = new ArrayList<>(WINDOW_DAYS);
+        for (int i = 0; i < WINDOW_DAYS; i++) {
+            dates.add(fmt.format(day.getTime()));
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return dates;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void post(int gen, Runnable r) {
+        mainHandler.post(() -> {
+            if (gen == generation) r.run();
+        });
+    }
+}
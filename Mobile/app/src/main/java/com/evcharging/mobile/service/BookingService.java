@@ -2,14 +2,27 @@ package com.evcharging.mobile.service;
 
 import android.util.Log;
 
+import com.evcharging.mobile.database.BookingDao;
+import com.evcharging.mobile.model.BookingItem;
 import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiException;
 import com.evcharging.mobile.network.ApiResponse;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
 public class BookingService {
     private static final String TAG = "BookingService";
+    private static final int WRITE_BATCH = 100;
+    private static final int MAX_SYNC_PAGES = 500;
+    private final Gson gson = new Gson();
     private ApiClient apiClient;
 
     public BookingService(ApiClient apiClient) {
@@ -33,4 +46,69 @@ public class BookingService {
         // POST request to backend
         return apiClient.post("/bookings", body);
     }
+
+    /**
+     * Pull the owner's bookings page by page and write them into the local
+     * store. Each response is decoded as it arrives from the network and
+     * written to SQLite in small batches, so neither the body nor the decoded
+     * list is ever held in memory as a whole.
+     *
+     * @return number of bookings synced, or -1 if the first request failed
+     */
+    public int syncOwnerBookings(String ownerId, BookingDao dao, int pageSize) {
+        long syncStartedAt = System.currentTimeMillis();
+        int total = 0;
+        String previousFirstId = null;
+
+        for (int page = 1; page <= MAX_SYNC_PAGES; page++) {
+            String[] firstId = new String[1];
+            int received;
+            try {
+                // Decoded straight off the (inflated) network stream into SQLite
+                received = apiClient.getBookingsByOwnerStreamed(ownerId, page, pageSize,
+                        body -> streamIntoStore(body, ownerId, dao, syncStartedAt, firstId));
+            } catch (ApiException e) {
+                Log.w(TAG, "Booking sync stopped at page " + page + ": " + e.getMessage());
+                return page == 1 ? -1 : total;
+            }
+            if (received < 0) return page == 1 ? -1 : total;
+
+            // Backend without paging support: it returned everything (or the same page again)
+            if (firstId[0] != null && firstId[0].equals(previousFirstId)) break;
+            total += received;
+            if (received != pageSize) break;
+            previousFirstId = firstId[0];
+        }
+
+        int removed = dao.deleteStale(ownerId, syncStartedAt);
+        Log.d(TAG, "Booking sync done: " + total + " stored, " + removed + " removed");
+        return total;
+    }
+
+    private int streamIntoStore(Reader body, String ownerId, BookingDao dao, long syncedAt, String[] firstIdOut) {
+        List<BookingItem> batch = new ArrayList<>(WRITE_BATCH);
+        int count = 0;
+        try (JsonReader reader = new JsonReader(body)) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) return 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                BookingItem b = gson.fromJson(reader, BookingItem.class);
+                if (b == null || b.getBookingId() == null) continue;
+                if (b.getOwnerId() == null) b.setOwnerId(ownerId);
+                if (count == 0) firstIdOut[0] = b.getBookingId();
+                batch.add(b);
+                count++;
+                if (batch.size() == WRITE_BATCH) {
+                    dao.upsertAll(batch, syncedAt);
+                    batch.clear();
+                }
+            }
+            reader.endArray();
+            dao.upsertAll(batch, syncedAt);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse bookings page", e);
+            return -1;
+        }
+        return count;
+    }
 }
@@ -0,0 +1,273 @@
+package com.evcharging.mobile.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.annotation.MainThread;
+
+import com.evcharging.mobile.database.BookingDao;
+import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.TimeSlotItem;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.utils.AvailabilityMatrix;
+import com.evcharging.mobile.utils.TimeUtils;
+import com.google.gson.Gson;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BookingStore - optimistic booking creation on top of the local booking table
+ *
+ * Purpose: Show a new booking the moment the owner confirms it instead of
+ * after the POST round trip. A provisional booking (id "local-...") is checked
+ * locally for conflicts, written to the bookings table and pushed to every
+ * registered list view. When the server answers, the provisional row is
+ * swapped for the server's copy in one transaction, or removed again, and the
+ * views get that change as a single update.
+ *
+ * Local conflict checks:
+ *   - the timeslot must still be free in the station's availability matrix
+ *     (when that cell is loaded)
+ *   - the owner must not already hold an active booking overlapping it
+ *
+ * Listeners and callbacks run on the main thread.
+ */
+public class BookingStore {
+
+    private static final String TAG = "BookingStore";
+
+    public static final String LOCAL_ID_PREFIX = "local-";
+    private static final List<String> ACTIVE_STATUSES = Arrays.asList("Pending", "Approved", "Charging");
+    // Lower bound for the overlap query; no timeslot is longer than this
+    private static final long MAX_BOOKING_MS = 24 * 60 * 60 * 1000L;
+
+    private static BookingStore instance;
+
+    /** Open views of the owner's bookings. */
+    public interface Listener {
+        void onBookingsChanged(List<BookingItem> upserted, List<String> removedIds);
+    }
+
+    public interface SubmitCallback {
+        /** The provisional booking is stored and shown; the server call is running. */
+        void onAccepted(BookingItem provisional);
+
+        /** A local conflict; nothing was stored. */
+        void onRejected(String message);
+    }
+
+    private final Context appContext;
+    private final BookingDao dao;
+    private final Gson gson = new Gson();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Main thread only
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Map<String, BookingItem> provisional = new LinkedHashMap<>();
+
+    private BookingStore(Context context) {
+        this.appContext = context;
+        this.dao = new BookingDao(context);
+    }
+
+    public static synchronized BookingStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new BookingStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Views
+    // ---------------------------------------------------------------------
+
+    @MainThread
+    public void addListener(Listener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    @MainThread
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public static boolean isProvisional(BookingItem booking) {
+        return booking != null && booking.getBookingId() != null
+                && booking.getBookingId().startsWith(LOCAL_ID_PREFIX);
+    }
+
+    /**
+     * Provisional bookings still waiting on the server, minus any that
+     * {@code fetched} already contains under their real id.
+     */
+    @MainThread
+    public List<BookingItem> provisionalNotIn(List<BookingItem> fetched) {
+        List<BookingItem> out = new ArrayList<>();
+        for (BookingItem p : provisional.values()) {
+            boolean known = false;
+            for (BookingItem f : fetched) {
+                if (f != null && p.getTimeSlotId() != null && p.getTimeSlotId().equals(f.getTimeSlotId())
+                        && p.getSlotId() != null && p.getSlotId().equals(f.getSlotId())) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) out.add(p);
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+    // Optimistic create
+    // ---------------------------------------------------------------------
+
+    /**
+     * Book {@code timeSlot} optimistically.
+     *
+     * @param draft    booking fields known locally (owner, station, slot,
+     *                 timeslot, times); the id and status are filled in here
+     * @param matrix   the station's availability, or null to use the cached one
+     */
+    @MainThread
+    public void submit(ApiClient apiClient, BookingItem draft, TimeSlotItem timeSlot,
+                       AvailabilityMatrix matrix, SubmitCallback callback) {
+        AvailabilityMatrix availability = matrix != null ? matrix
+                : AvailabilityCache.getInstance().getMatrix(draft.getStationId());
+        int slotIdx = -1, dayIdx = -1;
+        if (availability != null && availability.getStationId().equals(draft.getStationId())) {
+            slotIdx = availability.slotIndexOf(draft.getSlotId());
+            dayIdx = dayIndexOf(availability, timeSlot);
+        }
+        final boolean tracked = slotIdx >= 0 && dayIdx >= 0
+                && availability.getState(slotIdx, dayIdx) == AvailabilityMatrix.CellState.LOADED;
+        if (tracked && !availability.containsTimeslot(slotIdx, dayIdx, draft.getTimeSlotId())) {
+            callback.onRejected("That time slot has just been booked. Please pick another one.");
+            return;
+        }
+
+        draft.setBookingId(LOCAL_ID_PREFIX + UUID.randomUUID());
+        draft.setStatus("Pending");
+        final String localId = draft.getBookingId();
+        final int slot = slotIdx, day = dayIdx;
+
+        executor.execute(() -> {
+            BookingItem overlap = findOverlap(draft);
+            if (overlap != null) {
+                mainHandler.post(() -> callback.onRejected("You already have a booking at "
+                        + (overlap.getStationName() != null ? overlap.getStationName() : "another station")
+                        + " during this time."));
+                return;
+            }
+            dao.upsert(draft, System.currentTimeMillis());
+
+            mainHandler.post(() -> {
+                if (tracked) availability.clearTimeslot(slot, day, draft.getTimeSlotId());
+                provisional.put(localId, draft);
+                notifyListeners(Collections.singletonList(draft), Collections.<String>emptyList());
+                callback.onAccepted(draft);
+            });
+
+            ApiResponse res;
+            try {
+                res = apiClient.createBooking(draft.getStationId(), draft.getTimeSlotId(), draft.getSlotId());
+            } catch (Exception e) {
+                Log.e(TAG, "Booking error", e);
+                res = null;
+            }
+            // The timeslot changed hands (or failed to) either way
+            AvailabilityCache.getInstance().invalidate(draft.getStationId());
+
+            BookingItem confirmed = res != null && res.isSuccess() ? merge(draft, res.getData()) : null;
+            if (confirmed != null && dao.replace(localId, confirmed, System.currentTimeMillis())) {
+                mainHandler.post(() -> {
+                    provisional.remove(localId);
+                    notifyListeners(Collections.singletonList(confirmed), Collections.singletonList(localId));
+                });
+                return;
+            }
+
+            dao.delete(localId);
+            if (res != null && res.isSuccess()) {
+                // Created, but the reply had no usable booking; the next list refresh brings it in
+                mainHandler.post(() -> {
+                    provisional.remove(localId);
+                    notifyListeners(Collections.<BookingItem>emptyList(), Collections.singletonList(localId));
+                    Toast.makeText(appContext, "Booking created. Pull to refresh to see it.", Toast.LENGTH_LONG).show();
+                });
+                return;
+            }
+
+            // Roll back: row, list views and the optimistic availability change
+            boolean networkError = res == null || "Network error".equals(res.getMessage());
+            String reason = res != null && res.getMessage() != null ? res.getMessage() : "Network error";
+            Log.w(TAG, "Rolling back " + localId + ": " + reason);
+            mainHandler.post(() -> {
+                provisional.remove(localId);
+                notifyListeners(Collections.<BookingItem>emptyList(), Collections.singletonList(localId));
+                // Only a transport failure leaves the slot free; a rejection means it's taken
+                if (tracked && networkError) availability.restoreTimeslot(slot, day, timeSlot);
+                Toast.makeText(appContext, "Booking failed: " + reason, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    // ---------------------------------------------------------------------
+
+    private BookingItem findOverlap(BookingItem draft) {
+        long start = TimeUtils.parseUtcMillis(draft.getStartTime());
+        long end = TimeUtils.parseUtcMillis(draft.getEndTime());
+        if (start < 0 || end < 0 || draft.getOwnerId() == null) return null;
+
+        for (BookingItem b : dao.findStartingBetween(draft.getOwnerId(), ACTIVE_STATUSES, start - MAX_BOOKING_MS, end)) {
+            long bEnd = TimeUtils.parseUtcMillis(b.getEndTime());
+            if (bEnd > start) return b;
+        }
+        return null;
+    }
+
+    /** The server's copy of a created booking, filled in with what it leaves out. */
+    private BookingItem merge(BookingItem draft, String json) {
+        try {
+            BookingItem server = gson.fromJson(json, BookingItem.class);
+            if (server == null || server.getBookingId() == null) return null;
+            if (server.getStationName() == null) server.setStationName(draft.getStationName());
+            if (server.getSlotNumber() == null) server.setSlotNumber(draft.getSlotNumber());
+            if (server.getOwnerId() == null) server.setOwnerId(draft.getOwnerId());
+            if (server.getStartTime() == null) server.setStartTime(draft.getStartTime());
+            if (server.getEndTime() == null) server.setEndTime(draft.getEndTime());
+            return server;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse created booking", e);
+            return null;
+        }
+    }
+
+    private static int dayIndexOf(AvailabilityMatrix matrix, TimeSlotItem timeSlot) {
+        long start = TimeUtils.parseUtcMillis(timeSlot.getStartTime());
+        if (start < 0) return -1;
+        String ymd = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date(start));
+        return matrix.dayIndexOf(ymd);
+    }
+
+    private void notifyListeners(List<BookingItem> upserted, List<String> removedIds) {
+        for (Listener l : new ArrayList<>(listeners)) {
+            l.onBookingsChanged(upserted, removedIds);
+        }
+    }
+}
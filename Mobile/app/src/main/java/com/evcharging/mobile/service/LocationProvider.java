@@ -0,0 +1,215 @@
+package com.evcharging.mobile.service;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.CancellationTokenSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LocationProvider - process-wide location cache with a staleness policy
+ *
+ * Purpose: Stop every screen (and every Activity recreation) from asking the
+ * fused provider for a brand-new high-accuracy fix. A request is answered, in
+ * order of preference, from:
+ *   1. the last fix this process saw, if it is younger than MAX_FIX_AGE_MS
+ *   2. the system's last known location, under the same age limit
+ *   3. a fresh fix at balanced power priority
+ * Concurrent requests share one fresh fix. Hits, misses and fresh-fix latency
+ * are counted and logged.
+ *
+ * Movement anchors let callers skip location-dependent queries (e.g. nearby
+ * stations) until the user has actually moved.
+ *
+ * Callers must hold a location permission before calling getLocation().
+ */
+public class LocationProvider {
+
+    private static final String TAG = "LocationProvider";
+
+    private static final long MAX_FIX_AGE_MS = 2 * 60 * 1000L;
+    private static final long FIX_TIMEOUT_MS = 15 * 1000L;
+
+    private static LocationProvider instance;
+
+    public interface Callback {
+        void onLocation(Location location);
+
+        void onError(String message);
+    }
+
+    private final FusedLocationProviderClient fusedClient;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Location lastFix;
+    private final List<Callback> waiting = new ArrayList<>();
+    private final Map<String, Location> anchors = new HashMap<>();
+
+    // Metrics
+    private int hits;
+    private int misses;
+    private long fixLatencyTotalMs;
+    private int fixCount;
+
+    private LocationProvider(Context context) {
+        this.fusedClient = LocationServices.getFusedLocationProviderClient(context);
+    }
+
+    public static synchronized LocationProvider getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationProvider(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Location
+    // ---------------------------------------------------------------------
+
+    /** Last fix seen by this process regardless of age, or null. */
+    public Location getLastFix() {
+        return lastFix;
+    }
+
+    @MainThread
+    @SuppressLint("MissingPermission") // callers check the permission first
+    public void getLocation(Callback callback) {
+        if (isFresh(lastFix)) {
+            hits++;
+            logStats("memory");
+            callback.onLocation(lastFix);
+            return;
+        }
+
+        waiting.add(callback);
+        if (waiting.size() > 1) return; // a lookup is already running
+
+        fusedClient.getLastLocation()
+                .addOnSuccessListener(location -> {
+                    if (isFresh(location)) {
+                        hits++;
+                        logStats("last known");
+                        deliver(location);
+                    } else {
+                        requestFreshFix();
+                    }
+                })
+                .addOnFailureListener(e -> requestFreshFix());
+    }
+
+    @SuppressLint("MissingPermission")
+    private void requestFreshFix() {
+        misses++;
+        final long start = SystemClock.elapsedRealtime();
+        final CancellationTokenSource cancel = new CancellationTokenSource();
+        final Runnable timeout = cancel::cancel;
+        mainHandler.postDelayed(timeout, FIX_TIMEOUT_MS);
+
+        fusedClient.getCurrentLocation(Priority.PRIORITY_BALANCED_POWER_ACCURACY, cancel.getToken())
+                .addOnSuccessListener(location -> {
+                    mainHandler.removeCallbacks(timeout);
+                    long latency = SystemClock.elapsedRealtime() - start;
+                    fixLatencyTotalMs += latency;
+                    fixCount++;
+                    logStats("fresh fix in " + latency + " ms");
+                    if (location != null) {
+                        deliver(location);
+                    } else {
+                        fail("Unable to get location.");
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    mainHandler.removeCallbacks(timeout);
+                    Log.e(TAG, "Location fix failed", e);
+                    fail("Error getting location");
+                })
+                // The timeout cancels the task, which reaches neither listener above
+                .addOnCanceledListener(() -> {
+                    Log.w(TAG, "Location fix timed out after " + FIX_TIMEOUT_MS + " ms");
+                    fail("Timed out getting location.");
+                });
+    }
+
+    private void deliver(Location location) {
+        lastFix = location;
+        List<Callback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Callback cb : callbacks) cb.onLocation(location);
+    }
+
+    private void fail(String message) {
+        List<Callback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        // A stale fix is still better than nothing for centring the map
+        for (Callback cb : callbacks) {
+            if (lastFix != null) {
+                cb.onLocation(lastFix);
+            } else {
+                cb.onError(message);
+            }
+        }
+    }
+
+    private static boolean isFresh(Location location) {
+        if (location == null) return false;
+        long ageMs = (SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos()) / 1_000_000;
+        return ageMs <= MAX_FIX_AGE_MS;
+    }
+
+    // ---------------------------------------------------------------------
+    // Movement anchors
+    // ---------------------------------------------------------------------
+
+    /**
+     * Whether a location-based query identified by {@code key} should run
+     * again: the first time, after moving more than {@code thresholdMeters}
+     * from where it last ran, or once that run is older than {@code maxAgeMs}.
+     * Only a run reported through {@link #markQueried} counts, so a failed
+     * query is retried on the next call.
+     */
+    public synchronized boolean shouldRequery(String key, Location location, float thresholdMeters, long maxAgeMs) {
+        Location anchor = anchors.get(key);
+        if (anchor != null
+                && anchor.distanceTo(location) < thresholdMeters
+                && (location.getElapsedRealtimeNanos() - anchor.getElapsedRealtimeNanos()) / 1_000_000 < maxAgeMs) {
+            Log.d(TAG, key + ": moved " + Math.round(anchor.distanceTo(location)) + " m, skipping requery");
+            return false;
+        }
+        return true;
+    }
+
+    /** Record that the query {@code key} succeeded at {@code location}. */
+    public synchronized void markQueried(String key, Location location) {
+        anchors.put(key, location);
+    }
+
+    // ---------------------------------------------------------------------
+    // Metrics
+    // ---------------------------------------------------------------------
+
+    public synchronized String getStats() {
+        int total = hits + misses;
+        return "hits " + hits + "/" + total
+                + (total > 0 ? " (" + (100 * hits / total) + "%)" : "")
+                + ", fresh fixes " + fixCount
+                + (fixCount > 0 ? ", avg " + (fixLatencyTotalMs / fixCount) + " ms" : "");
+    }
+
+    private void logStats(String source) {
+        Log.d(TAG, "Location from " + source + " | " + getStats());
+    }
+}
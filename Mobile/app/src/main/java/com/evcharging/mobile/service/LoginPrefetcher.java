@@ -0,0 +1,290 @@
+package com.evcharging.mobile.service;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.evcharging.mobile.database.BookingDao;
+import com.evcharging.mobile.model.Notification;
+import com.evcharging.mobile.model.User;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiException;
+import com.evcharging.mobile.network.ApiMetrics;
+import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.session.SessionManager;
+import com.evcharging.mobile.utils.JwtUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * LoginPrefetcher - loads what the home screen needs while it is opening
+ *
+ * Purpose: Right after login, fetch the role's data concurrently instead of
+ * letting each screen start its own requests once it is up:
+ *
+ *   both roles  profile (saved to the session), notification backlog
+ *   owner       bookings, synced into {@link BookingDao}
+ *   operator    station slots, today's/upcoming station bookings (synced
+ *               into {@link OperatorOfflineStore})
+ *
+ * The operator's station comes from the token, or from the profile when the
+ * token doesn't carry one (those two stages then wait for it).
+ *
+ * The home screen {@link #claim}s the running pipeline once and renders from
+ * the local stores when it completes; a pipeline older than FRESH_MS is not
+ * handed out. Profile, notifications and slots also go into
+ * {@link ResourceRepository}, so their screens open on them without a fetch.
+ *
+ * Timings: each stage is recorded in {@link ApiMetrics} as "stage" under
+ * "PREFETCH &lt;stage&gt;" (failures as counter "failed"), the whole run under
+ * "PREFETCH total".
+ */
+public class LoginPrefetcher {
+
+    private static final String TAG = "LoginPrefetcher";
+
+    public static final String STAGE = "stage";
+    private static final String METRICS_PREFIX = "PREFETCH ";
+
+    private static final long FRESH_MS = 60 * 1000L;
+    private static final int PARALLELISM = 4;
+    private static final int SYNC_PAGE_SIZE = 100;
+
+    private static LoginPrefetcher instance;
+
+    public enum Stage {
+        PROFILE, NOTIFICATIONS, BOOKINGS, SLOTS, STATION_BOOKINGS;
+
+        String metricsKey() {
+            return METRICS_PREFIX + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** What one pipeline run did: per-stage duration and outcome. */
+    public static final class Report {
+        private final String role;
+        private final long startedAt = SystemClock.elapsedRealtime();
+        private final Map<Stage, Long> millis = Collections.synchronizedMap(new EnumMap<>(Stage.class));
+        private final Set<Stage> failed = Collections.synchronizedSet(EnumSet.noneOf(Stage.class));
+        private volatile long finishedAt;
+
+        private volatile String ownerId;
+        private volatile List<Notification> notifications;
+        private volatile OperatorOfflineStore.SyncResult stationSync;
+
+        Report(String role) {
+            this.role = role;
+        }
+
+        public boolean succeeded(Stage stage) {
+            return millis.containsKey(stage) && !failed.contains(stage);
+        }
+
+        /** Duration of {@code stage} in ms, or -1 if it didn't run. */
+        public long getMillis(Stage stage) {
+            Long ms = millis.get(stage);
+            return ms != null ? ms : -1;
+        }
+
+        public long getTotalMillis() {
+            return finishedAt > 0 ? finishedAt - startedAt : -1;
+        }
+
+        /** The owner id the bookings were synced under, or null for operators. */
+        public String getOwnerId() {
+            return ownerId;
+        }
+
+        /** Unread notifications in the prefetched backlog, or -1 if it wasn't loaded. */
+        public int getUnreadNotifications() {
+            List<Notification> list = notifications;
+            if (list == null) return -1;
+            int unread = 0;
+            for (Notification n : list) {
+                if (!n.isRead()) unread++;
+            }
+            return unread;
+        }
+
+        /** The station sync done by the pipeline, or null if it didn't run. */
+        public OperatorOfflineStore.SyncResult getStationSync() {
+            return stationSync;
+        }
+
+        boolean isFresh() {
+            return finishedAt == 0 || SystemClock.elapsedRealtime() - finishedAt <= FRESH_MS;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(role).append(": ").append(getTotalMillis()).append(" ms");
+            for (Stage stage : Stage.values()) {
+                long ms = getMillis(stage);
+                if (ms < 0) continue;
+                sb.append(", ").append(stage.name().toLowerCase(Locale.ROOT)).append(' ').append(ms).append(" ms");
+                if (failed.contains(stage)) sb.append(" (failed)");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Context context;
+    private final ResourceRepository repository;
+    private final ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM);
+
+    private CompletableFuture<Report> pending;
+    private Report last;
+
+    private LoginPrefetcher(Context context) {
+        this.context = context;
+        this.repository = ResourceRepository.getInstance(context);
+    }
+
+    public static synchronized LoginPrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new LoginPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Pipeline
+    // ---------------------------------------------------------------------
+
+    /**
+     * Start the pipeline for a freshly issued token. Replaces whatever an
+     * earlier login left behind. The future never completes exceptionally;
+     * failed stages show up in the report.
+     */
+    public synchronized CompletableFuture<Report> start(String token) {
+        String role = JwtUtils.getRoleFromToken(token);
+        User fromToken = JwtUtils.getUserFromToken(token);
+        SessionManager session = new SessionManager(context);
+        ApiClient api = new ApiClient(session);
+        Report report = new Report(role != null ? role.toLowerCase(Locale.ROOT) : "unknown");
+
+        List<CompletableFuture<?>> stages = new ArrayList<>();
+        String userId = fromToken != null ? fromToken.getUserId() : null;
+        CompletableFuture<User> profile = stage(report, Stage.PROFILE, () -> loadProfile(api, session, userId));
+        stages.add(profile);
+        stages.add(stage(report, Stage.NOTIFICATIONS,
+                () -> report.notifications = loadNotifications(api, userId)));
+
+        if ("owner".equalsIgnoreCase(role) && userId != null) {
+            report.ownerId = userId;
+            stages.add(stage(report, Stage.BOOKINGS, () -> syncBookings(api, userId)));
+        } else if ("operator".equalsIgnoreCase(role)) {
+            CompletableFuture<String> stationId = hasStation(fromToken)
+                    ? CompletableFuture.completedFuture(fromToken.getStationId())
+                    : profile.handle((user, e) -> hasStation(user) ? user.getStationId() : null);
+            stages.add(stationId.thenCompose(id -> id == null ? CompletableFuture.completedFuture(null)
+                    : stage(report, Stage.SLOTS, () -> loadSlots(api, id))));
+            stages.add(stationId.thenCompose(id -> id == null ? CompletableFuture.completedFuture(null)
+                    : stage(report, Stage.STATION_BOOKINGS, () -> syncStation(api, report, id))));
+        }
+
+        last = report;
+        pending = CompletableFuture.allOf(stages.toArray(new CompletableFuture[0]))
+                .handle((ignored, e) -> {
+                    report.finishedAt = SystemClock.elapsedRealtime();
+                    ApiMetrics.record(METRICS_PREFIX + "total", STAGE, report.getTotalMillis() * 1000);
+                    Log.d(TAG, "Prefetch done, " + report);
+                    return report;
+                });
+        return pending;
+    }
+
+    /**
+     * The pipeline started by the last login, for the home screen to wait
+     * on. Handed out once; null if there is none or it is no longer fresh.
+     */
+    public synchronized CompletableFuture<Report> claim() {
+        CompletableFuture<Report> claimed = pending;
+        pending = null;
+        return claimed != null && last.isFresh() ? claimed : null;
+    }
+
+    // ---------------------------------------------------------------------
+    // Stages
+    // ---------------------------------------------------------------------
+
+    private <T> CompletableFuture<T> stage(Report report, Stage stage, Callable<T> work) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try {
+                T result = work.call();
+                report.millis.put(stage, SystemClock.elapsedRealtime() - start);
+                return result;
+            } catch (Exception e) {
+                report.failed.add(stage);
+                report.millis.put(stage, SystemClock.elapsedRealtime() - start);
+                ApiMetrics.increment(stage.metricsKey(), "failed");
+                Log.w(TAG, "Prefetch stage " + stage + " failed: " + e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                long ms = report.getMillis(stage);
+                if (ms >= 0) ApiMetrics.record(stage.metricsKey(), STAGE, ms * 1000);
+            }
+        }, pool);
+    }
+
+    private User loadProfile(ApiClient api, SessionManager session, String userId) throws ApiException {
+        String data = require(api.getUser());
+        User user = api.parseLoggedOwner(data);
+        if (user == null) throw new ApiException("Unreadable profile");
+        session.saveLoggedInUser(user);
+        repository.seed(ResourceRepository.profile(api, userId), data);
+        return user;
+    }
+
+    private List<Notification> loadNotifications(ApiClient api, String userId) throws ApiException {
+        String data = require(api.getUserNotifications());
+        List<Notification> list = api.parseNotifications(data);
+        if (list == null) throw new ApiException("Unreadable notifications");
+        repository.seed(ResourceRepository.notifications(api, userId), data);
+        return list;
+    }
+
+    private Integer syncBookings(ApiClient api, String ownerId) throws ApiException {
+        int synced = new BookingService(api).syncOwnerBookings(ownerId, new BookingDao(context), SYNC_PAGE_SIZE);
+        if (synced < 0) throw new ApiException("Booking sync failed");
+        return synced;
+    }
+
+    private String loadSlots(ApiClient api, String stationId) throws ApiException {
+        String json = require(api.getSlotsByStation(stationId));
+        repository.seed(ResourceRepository.slots(stationId), json);
+        return json;
+    }
+
+    private OperatorOfflineStore.SyncResult syncStation(ApiClient api, Report report, String stationId)
+            throws ApiException {
+        OperatorOfflineStore.SyncResult result = OperatorOfflineStore.getInstance(context).sync(api, stationId);
+        report.stationSync = result;
+        if (result.offline) throw new ApiException("Network error");
+        return result;
+    }
+
+    private static String require(ApiResponse res) throws ApiException {
+        if (res == null) throw new ApiException("Network error");
+        if (!res.isSuccess() || res.getData() == null) throw new ApiException(res.getMessage());
+        return res.getData();
+    }
+
+    private static boolean hasStation(User user) {
+        return user != null && user.getStationId() != null && !user.getStationId().isEmpty()
+                && !"string".equals(user.getStationId());
+    }
+}
@@ -0,0 +1,497 @@
+package com.evcharging.mobile.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.evcharging.mobile.database.StationBookingDao;
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.BookingTiming;
+import com.evcharging.mobile.model.StationBookingRow;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.utils.StationAnalytics;
+import com.evcharging.mobile.utils.TimeUtils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * OperatorOfflineStore - lets an operator work a shift without signal
+ *
+ * Purpose: Download today's and upcoming bookings of the operator's station
+ * into {@link StationBookingDao}, verify scanned QR codes against a hashed
+ * token index (one hash + one map lookup), and accept start/finalize actions
+ * while offline. Offline actions are applied locally, queued, and replayed in
+ * order on the next sync.
+ *
+ * Replay conflicts: if the server rejects a queued action, the booking's
+ * current server state is fetched. If it already reached the target state the
+ * action is dropped silently; otherwise the server state wins locally and the
+ * conflict is reported back so the operator can follow up.
+ *
+ * Batch scanning: {@link #loadScanIndex} gives the scan screen today's
+ * bookings keyed by QR hash so each decoded code is matched in memory, and
+ * {@link #startBatch} sends the starts collected over a short window together.
+ *
+ * Analytics: every booking written or changed here is also fed to the day's
+ * {@link StationAnalytics}, so {@link #analytics} never recomputes from scratch
+ * except once per station per day.
+ */
+public class OperatorOfflineStore {
+
+    private static final String TAG = "OperatorOfflineStore";
+
+    public static final String ACTION_START = "start";
+    public static final String ACTION_FINALIZE = "finalize";
+    private static final String NETWORK_ERROR = "Network error";
+    // Concurrent PATCHes per batch; the backend has no bulk start endpoint
+    private static final int BATCH_PARALLELISM = 4;
+
+    private static OperatorOfflineStore instance;
+
+    public static final class SyncResult {
+        public final boolean offline;
+        public final int pendingActions;
+        public final List<String> conflicts;
+
+        SyncResult(boolean offline, int pendingActions, List<String> conflicts) {
+            this.offline = offline;
+            this.pendingActions = pendingActions;
+            this.conflicts = conflicts;
+        }
+    }
+
+    /** Outcome of one booking in a {@link #startBatch} call. */
+    public static final class BatchResult {
+        public final String bookingId;
+        public final String newStatus; // null when failed
+        public final boolean queued;
+        public final String error;
+
+        BatchResult(String bookingId, String newStatus, boolean queued, String error) {
+            this.bookingId = bookingId;
+            this.newStatus = newStatus;
+            this.queued = queued;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    public interface BatchCallback {
+        /** One result per requested booking, in request order. */
+        void onBatchDone(List<BatchResult> results);
+    }
+
+    public interface SyncCallback {
+        void onSynced(SyncResult result);
+    }
+
+    public interface TransitionCallback {
+        /** @param queued true if applied offline and waiting to be sent */
+        void onDone(String newStatus, boolean queued);
+
+        void onFailed(String message);
+    }
+
+    private final StationBookingDao dao;
+    private final ResourceRepository repository;
+    // Serialises sync, replay and new actions so the queue keeps its order
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(BATCH_PARALLELISM);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile Map<String, String> qrIndex;
+    private volatile String qrIndexStation;
+
+    private final Object analyticsLock = new Object();
+    private volatile StationAnalytics stationAnalytics;
+
+    private OperatorOfflineStore(Context context) {
+        this.dao = new StationBookingDao(context);
+        this.repository = ResourceRepository.getInstance(context);
+    }
+
+    public static synchronized OperatorOfflineStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new OperatorOfflineStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Sync
+    // ---------------------------------------------------------------------
+
+    /**
+     * Replay queued actions, then download the station's bookings. When the
+     * server can't be reached, local data is left as it is.
+     */
+    @WorkerThread
+    public synchronized SyncResult sync(ApiClient api, String stationId) {
+        List<String> conflicts = new ArrayList<>();
+        if (!replay(api, conflicts)) {
+            return new SyncResult(true, dao.countPending(), conflicts);
+        }
+
+        long syncStartedAt = System.currentTimeMillis();
+        Set<String> syncedIds = new HashSet<>();
+        boolean today = download(api.getTodayBookingsByStation(stationId), stationId, syncStartedAt, syncedIds);
+        boolean upcoming = download(api.getUpcomingBookingsByStation(stationId), stationId, syncStartedAt, syncedIds);
+        if (today && upcoming) {
+            int removed = dao.deleteStale(stationId, syncStartedAt);
+            Log.d(TAG, "Station bookings synced, " + removed + " stale removed");
+            StationAnalytics analytics = stationAnalytics;
+            if (analytics != null && analytics.isFor(stationId, startOfToday())) analytics.retainOnly(syncedIds);
+        }
+        rebuildQrIndex(stationId);
+        return new SyncResult(!today && !upcoming, dao.countPending(), conflicts);
+    }
+
+    /** A station's bookings starting today (local time), from the local store. */
+    @WorkerThread
+    public List<StationBookingRow> loadToday(String stationId) {
+        long start = startOfToday();
+        return dao.queryStartingBetween(stationId, start, endOfDay(start));
+    }
+
+    /**
+     * Today's occupancy and throughput at the station. The first call of the
+     * day builds the aggregates from the local store; later calls only read them.
+     */
+    @WorkerThread
+    public StationAnalytics.Snapshot analytics(String stationId) {
+        long dayStart = startOfToday();
+        StationAnalytics analytics;
+        synchronized (analyticsLock) {
+            analytics = stationAnalytics;
+            if (analytics == null || !analytics.isFor(stationId, dayStart)) {
+                analytics = new StationAnalytics(stationId, dayStart);
+                analytics.load(dao.queryTimings(stationId, dayStart, endOfDay(dayStart)));
+                stationAnalytics = analytics;
+            }
+        }
+        return analytics.snapshot(System.currentTimeMillis());
+    }
+
+    @WorkerThread
+    public StationBookingRow findBooking(String bookingId) {
+        return dao.findById(bookingId);
+    }
+
+    private boolean download(ApiResponse res, String stationId, long syncedAt, Set<String> syncedIds) {
+        if (res == null || !res.isSuccess() || res.getData() == null) return false;
+        try {
+            JSONArray arr = new JSONArray(res.getData());
+            List<StationBookingRow> rows = new ArrayList<>(arr.length());
+            List<Long> starts = new ArrayList<>(arr.length());
+            List<Long> ends = new ArrayList<>(arr.length());
+            List<String> hashes = new ArrayList<>(arr.length());
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject o = arr.getJSONObject(i);
+                rows.add(StationBookingRow.fromJson(o));
+                starts.add(TimeUtils.parseUtcMillis(o.optString("startTime")));
+                ends.add(TimeUtils.parseUtcMillis(o.optString("endTime")));
+                String token = o.optString("qrCode", "");
+                hashes.add(token.isEmpty() || "null".equals(token) ? null : hashToken(token));
+            }
+            dao.upsertAll(stationId, rows, starts, ends, hashes, syncedAt);
+
+            StationAnalytics analytics = stationAnalytics;
+            boolean track = analytics != null && analytics.isFor(stationId, startOfToday());
+            for (int i = 0; i < rows.size(); i++) {
+                StationBookingRow r = rows.get(i);
+                syncedIds.add(r.getBookingId());
+                if (track) {
+                    analytics.apply(new BookingTiming(r.getBookingId(), r.getSlotNumber(), r.getStatus(),
+                            starts.get(i), ends.get(i)));
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse station bookings", e);
+            return false;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // QR verification
+    // ---------------------------------------------------------------------
+
+    /** The booking a scanned QR token belongs to, or null if it isn't known locally. */
+    @WorkerThread
+    public String verifyQr(String stationId, String scanned) {
+        if (scanned == null || stationId == null) return null;
+        Map<String, String> index = qrIndex;
+        if (index == null || !stationId.equals(qrIndexStation)) {
+            rebuildQrIndex(stationId);
+            index = qrIndex;
+        }
+        return index.get(hashToken(scanned));
+    }
+
+    /**
+     * Today's bookings of a station keyed by QR hash, for matching many scans
+     * in a row without touching the database. Look codes up with {@link #hashToken}.
+     */
+    @WorkerThread
+    public Map<String, StationBookingRow> loadScanIndex(String stationId) {
+        Map<String, StationBookingRow> byId = new HashMap<>();
+        for (StationBookingRow row : loadToday(stationId)) byId.put(row.getBookingId(), row);
+
+        Map<String, StationBookingRow> index = new HashMap<>();
+        for (Map.Entry<String, String> e : dao.loadQrIndex(stationId).entrySet()) {
+            StationBookingRow row = byId.get(e.getValue());
+            if (row != null) index.put(e.getKey(), row);
+        }
+        return index;
+    }
+
+    private void rebuildQrIndex(String stationId) {
+        qrIndex = Collections.unmodifiableMap(dao.loadQrIndex(stationId));
+        qrIndexStation = stationId;
+    }
+
+    /** SHA-256 of the trimmed, lower-cased token; matches the old equalsIgnoreCase check. */
+    public static String hashToken(String token) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest(token.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Start / finalize
+    // ---------------------------------------------------------------------
+
+    /** Send a start/finalize now, or apply and queue it if the server can't be reached. */
+    public void transition(ApiClient api, String bookingId, String action, TransitionCallback callback) {
+        executor.execute(() -> {
+            String target = targetStatus(action);
+            StationBookingRow local = dao.findById(bookingId);
+            String from = local != null ? local.getRawStatus() : null;
+
+            // Anything queued must reach the server first
+            boolean online = dao.countPending() == 0 || replay(api, new ArrayList<>());
+            ApiResponse res = online ? api.patch("/bookings/" + bookingId + "/" + action, null) : null;
+
+            if (res != null && res.isSuccess()) {
+                setStatus(bookingId, target);
+                mainHandler.post(() -> callback.onDone(target, false));
+                return;
+            }
+            if (res != null && !NETWORK_ERROR.equals(res.getMessage())) {
+                mainHandler.post(() -> callback.onFailed(res.getMessage()));
+                return;
+            }
+
+            // Offline: only allow what the server would allow from the last known state
+            if (local == null) {
+                mainHandler.post(() -> callback.onFailed("Offline and this booking isn't saved on the device"));
+                return;
+            }
+            if (!allowedFrom(action, local.getStatus())) {
+                mainHandler.post(() -> callback.onFailed("Booking is " + from));
+                return;
+            }
+            dao.enqueue(bookingId, action, from, target);
+            noteStatus(bookingId, target);
+            Log.d(TAG, "Queued " + action + " for " + bookingId + " (offline)");
+            mainHandler.post(() -> callback.onDone(target, true));
+        });
+    }
+
+    /**
+     * Start several bookings at once. The PATCHes run side by side; any that
+     * can't reach the server are applied locally and queued like
+     * {@link #transition} does. Only starts are batched, since that's what
+     * scanning at the station produces.
+     */
+    public void startBatch(ApiClient api, List<String> bookingIds, BatchCallback callback) {
+        executor.execute(() -> {
+            boolean online = dao.countPending() == 0 || replay(api, new ArrayList<>());
+            String target = targetStatus(ACTION_START);
+
+            List<ApiResponse> responses = new ArrayList<>(Collections.nCopies(bookingIds.size(), (ApiResponse) null));
+            if (online) {
+                List<Callable<ApiResponse>> calls = new ArrayList<>(bookingIds.size());
+                for (String id : bookingIds) {
+                    calls.add(() -> api.patch("/bookings/" + id + "/" + ACTION_START, null));
+                }
+                try {
+                    List<Future<ApiResponse>> futures = batchExecutor.invokeAll(calls);
+                    for (int i = 0; i < futures.size(); i++) {
+                        try {
+                            responses.set(i, futures.get(i).get());
+                        } catch (Exception e) {
+                            Log.e(TAG, "Batch start failed for " + bookingIds.get(i), e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            List<BatchResult> results = new ArrayList<>(bookingIds.size());
+            int queued = 0;
+            for (int i = 0; i < bookingIds.size(); i++) {
+                String id = bookingIds.get(i);
+                ApiResponse res = responses.get(i);
+                if (res != null && res.isSuccess()) {
+                    setStatus(id, target);
+                    results.add(new BatchResult(id, target, false, null));
+                    continue;
+                }
+                if (res != null && !NETWORK_ERROR.equals(res.getMessage())) {
+                    results.add(new BatchResult(id, null, false, res.getMessage()));
+                    continue;
+                }
+                StationBookingRow local = dao.findById(id);
+                if (local == null) {
+                    results.add(new BatchResult(id, null, false, "Offline and this booking isn't saved on the device"));
+                } else if (!allowedFrom(ACTION_START, local.getStatus())) {
+                    results.add(new BatchResult(id, null, false, "Booking is " + local.getRawStatus()));
+                } else {
+                    dao.enqueue(id, ACTION_START, local.getRawStatus(), target);
+                    noteStatus(id, target);
+                    results.add(new BatchResult(id, target, true, null));
+                    queued++;
+                }
+            }
+            Log.d(TAG, "Batch start of " + bookingIds.size() + " bookings, " + queued + " queued offline");
+            mainHandler.post(() -> callback.onBatchDone(results));
+        });
+    }
+
+    /** Run {@link #sync} on the store's thread and report back on the main thread. */
+    public void syncInBackground(ApiClient api, String stationId, SyncCallback callback) {
+        executor.execute(() -> {
+            SyncResult result = sync(api, stationId);
+            mainHandler.post(() -> callback.onSynced(result));
+        });
+    }
+
+    /**
+     * Send whatever is still queued, e.g. before logout drops the queue.
+     * Reports on the main thread; {@code pendingActions} is what couldn't be
+     * sent (the server was unreachable).
+     */
+    public void flushPending(ApiClient api, SyncCallback callback) {
+        executor.execute(() -> {
+            List<String> conflicts = new ArrayList<>();
+            boolean reached = replay(api, conflicts);
+            SyncResult result = new SyncResult(!reached, dao.countPending(), conflicts);
+            mainHandler.post(() -> callback.onSynced(result));
+        });
+    }
+
+    /**
+     * Send queued actions oldest first.
+     *
+     * @return false if the server couldn't be reached (the rest stay queued)
+     */
+    private synchronized boolean replay(ApiClient api, List<String> conflicts) {
+        for (StationBookingDao.PendingTransition t : dao.loadPending()) {
+            ApiResponse res = api.patch("/bookings/" + t.bookingId + "/" + t.action, null);
+            if (res == null || NETWORK_ERROR.equals(res.getMessage())) return false;
+
+            if (!res.isSuccess()) {
+                String serverStatus = fetchServerStatus(api, t.bookingId);
+                if (serverStatus == null) return false;
+                if (!reached(t.action, BookingStatus.from(serverStatus))) {
+                    conflicts.add("Booking " + t.bookingId + ": " + t.action + " (offline) was rejected, it is "
+                            + serverStatus + " on the server");
+                }
+                setStatus(t.bookingId, serverStatus);
+            }
+            dao.deletePending(t.id);
+        }
+        return true;
+    }
+
+    private void setStatus(String bookingId, String status) {
+        dao.updateStatus(bookingId, status);
+        noteStatus(bookingId, status);
+        // The server has it too: cached booking lists are out of date
+        repository.invalidate(ResourceRepository.STATION_BOOKINGS);
+    }
+
+    private void noteStatus(String bookingId, String status) {
+        StationAnalytics analytics = stationAnalytics;
+        if (analytics != null) analytics.updateStatus(bookingId, BookingStatus.from(status));
+    }
+
+    private static long startOfToday() {
+        Calendar start = Calendar.getInstance();
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+        return start.getTimeInMillis();
+    }
+
+    // Not start + 24h: days around a DST change are shorter or longer
+    private static long endOfDay(long dayStart) {
+        Calendar end = Calendar.getInstance();
+        end.setTimeInMillis(dayStart);
+        end.add(Calendar.DAY_OF_MONTH, 1);
+        return end.getTimeInMillis();
+    }
+
+    private static String fetchServerStatus(ApiClient api, String bookingId) {
+        ApiResponse res = api.get("/bookings/" + bookingId);
+        if (res == null || !res.isSuccess() || res.getData() == null) return null;
+        try {
+            return new JSONObject(res.getData()).optString("status", null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String targetStatus(String action) {
+        return ACTION_START.equals(action) ? "Charging" : "Finalized";
+    }
+
+    // Mirrors the backend's StartChargingAsync / FinalizeBookingAsync guards
+    private static boolean allowedFrom(String action, BookingStatus status) {
+        if (ACTION_START.equals(action)) {
+            return status == BookingStatus.APPROVED || status == BookingStatus.PENDING;
+        }
+        return status == BookingStatus.CHARGING || status == BookingStatus.APPROVED;
+    }
+
+    // The action's effect is already in place on the server
+    private static boolean reached(String action, BookingStatus status) {
+        if (ACTION_START.equals(action)) {
+            return status == BookingStatus.CHARGING || status == BookingStatus.FINALIZED;
+        }
+        return status == BookingStatus.FINALIZED;
+    }
+}
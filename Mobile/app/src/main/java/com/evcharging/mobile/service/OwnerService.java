@@ -174,7 +174,9 @@ import static com.evcharging.mobile.network.ApiClient.getApiBaseUrl;
 import android.content.Context;
 import android.util.Log;
 
+import com.evcharging.mobile.network.ApiClient;
 import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.CallDeadlines;
 import com.evcharging.mobile.session.SessionManager;
 
 import org.json.JSONException;
@@ -182,7 +184,6 @@ import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.Iterator;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -209,11 +210,8 @@ public class OwnerService {
     }
 
     private void initializeHttpClient() {
-        client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+        // Shared client, so these calls show up in ApiMetrics too
+        client = ApiClient.httpClient();
     }
 
     public ApiResponse registerOwner(String nic, String fullName, String email, String phone, String password) {
@@ -233,7 +231,7 @@ public class OwnerService {
                     .post(body)
                     .build();
 
-            Response response = client.newCall(request).execute();
+            Response response = CallDeadlines.newCall(client, request, 0).execute();
 
             String responseBody = response.body() != null ? response.body().string() : "";
             Log.d(TAG, "RegisterOwner Response: " + responseBody);
@@ -310,7 +308,7 @@ public class OwnerService {
             Request request = requestBuilder.build();
 
             // Execute request
-            Response response = client.newCall(request).execute();
+            Response response = CallDeadlines.newCall(client, request, 0).execute();
             Log.d(TAG, "UpdateOwner Status Code: " + response.code());
             String responseBody = response.body() != null ? response.body().string().trim() : "";
             Log.d(TAG, "UpdateOwner Response: " + responseBody);
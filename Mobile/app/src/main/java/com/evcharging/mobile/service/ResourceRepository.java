@@ -0,0 +1,442 @@
+package com.evcharging.mobile.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+
+import com.evcharging.mobile.database.ResponseCacheDao;
+import com.evcharging.mobile.model.Notification;
+import com.evcharging.mobile.model.SlotRow;
+import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.model.StationBookingRow;
+import com.evcharging.mobile.model.User;
+import com.evcharging.mobile.network.ApiClient;
+import com.evcharging.mobile.network.ApiMetrics;
+import com.evcharging.mobile.network.ApiResponse;
+import com.evcharging.mobile.network.BatchRequest;
+import com.evcharging.mobile.network.RequestScheduler;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ResourceRepository - stale-while-revalidate cache for read screens
+ *
+ * Purpose: Let a screen show what it showed last time at once instead of a
+ * spinner, and go to the network only when that data is older than the
+ * resource's TTL. Three tiers, checked in order:
+ *
+ *   memory   parsed values of the last MEMORY_ENTRIES resources used (LRU)
+ *   SQLite   raw response bodies ({@link ResponseCacheDao}), survive restarts
+ *   network  {@link ApiClient}
+ *
+ * {@link #load} delivers the cached value first (if any), then, when it is
+ * stale or missing, fetches the resource and delivers the new value only if
+ * the response body differs from the cached one. Revalidating behind data
+ * that is already shown queues in the background lane. Concurrent loads of
+ * one resource share a single request. {@link #refresh} (pull-to-refresh)
+ * skips the cache and the TTL.
+ *
+ * Anything that changes a resource must {@link #invalidate} its key prefix.
+ * As in {@link AvailabilityCache}, a fetch that started before an
+ * invalidation is not stored.
+ *
+ * Disk writes go through one writer thread, queued while the repository's
+ * lock is held so they land in order, but never run under it: the main
+ * thread takes that lock to read the memory tier.
+ *
+ * Counters under "REPOSITORY" in {@link ApiMetrics}: memory / disk / miss
+ * for where a load was served from, unchanged / changed for revalidations.
+ */
+public class ResourceRepository {
+
+    private static final String TAG = "ResourceRepository";
+
+    private static final String METRICS_KEY = "REPOSITORY";
+    private static final int MEMORY_ENTRIES = 32;
+    private static final int PARALLELISM = 3;
+
+    // Key prefixes, for invalidate()
+    public static final String PROFILE = "profile/";
+    public static final String NOTIFICATIONS = "notifications/";
+    public static final String SLOTS = "slots/";
+    public static final String STATION_BOOKINGS = "station-bookings/";
+    public static final String STATIONS = "stations/";
+
+    private static final long PROFILE_TTL_MS = 5 * 60 * 1000L;
+    private static final long NOTIFICATIONS_TTL_MS = 30 * 1000L;
+    private static final long SLOTS_TTL_MS = 30 * 1000L;
+    private static final long STATION_BOOKINGS_TTL_MS = 30 * 1000L;
+    private static final long STATIONS_TTL_MS = 10 * 60 * 1000L;
+
+    private static ResourceRepository instance;
+
+    /** What to cache under which key, where to fetch it and how to read it. */
+    public static final class Resource<T> {
+        final String key;
+        final String endpoint;
+        final long ttlMs;
+        final BatchRequest.Parser<T> parser;
+
+        public Resource(String key, String endpoint, long ttlMs, BatchRequest.Parser<T> parser) {
+            this.key = key;
+            this.endpoint = endpoint;
+            this.ttlMs = ttlMs;
+            this.parser = parser;
+        }
+    }
+
+    public interface Listener<T> {
+        /** Main thread. The cached value first if there is one, then the server's only if it differs. */
+        void onData(T value);
+
+        /**
+         * Main thread, once per load, after the last onData. {@code error} is
+         * null when the data delivered is current, else why it couldn't be
+         * checked (the cached value, if any, has been delivered regardless).
+         */
+        void onDone(String error);
+    }
+
+    private static final class Entry {
+        final String body;
+        final Object value;
+        final long fetchedAt;
+
+        Entry(String body, Object value, long fetchedAt) {
+            this.body = body;
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final class Fetched {
+        final String body;
+        final Object value;
+        final String error;
+
+        Fetched(String body, Object value, String error) {
+            this.body = body;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private final ResponseCacheDao dao;
+    private final ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM);
+    private final ExecutorService diskWriter = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, CompletableFuture<Fetched>> inFlight = new HashMap<>();
+    private final Map<String, Entry> memory = new LinkedHashMap<String, Entry>(MEMORY_ENTRIES + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+    private int epoch = 0;
+    // Prefixes whose DELETE is still queued on diskWriter; their rows must not be read back
+    private final Map<String, Integer> pendingDeletes = new HashMap<>();
+
+    private ResourceRepository(Context context) {
+        this.dao = new ResponseCacheDao(context);
+    }
+
+    public static synchronized ResourceRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new ResourceRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Resources
+    // ---------------------------------------------------------------------
+
+    public static Resource<User> profile(ApiClient api, String userId) {
+        return new Resource<>(PROFILE + userId, ApiClient.ME_ENDPOINT, PROFILE_TTL_MS,
+                data -> required(api.parseLoggedOwner(data)));
+    }
+
+    public static Resource<List<Notification>> notifications(ApiClient api, String userId) {
+        return new Resource<>(NOTIFICATIONS + userId, ApiClient.NOTIFICATIONS_ENDPOINT, NOTIFICATIONS_TTL_MS,
+                data -> required(api.parseNotifications(data)));
+    }
+
+    public static Resource<List<SlotRow>> slots(String stationId) {
+        return new Resource<>(SLOTS + stationId, "/slots/station/" + stationId, SLOTS_TTL_MS, data -> {
+            JSONArray arr = new JSONArray(data);
+            List<SlotRow> rows = new ArrayList<>(arr.length());
+            for (int i = 0; i < arr.length(); i++) {
+                rows.add(SlotRow.fromJson(arr.getJSONObject(i)));
+            }
+            return rows;
+        });
+    }
+
+    public static Resource<List<StationBookingRow>> upcomingStationBookings(String stationId) {
+        return new Resource<>(STATION_BOOKINGS + stationId + "/upcoming",
+                "/bookings/station/" + stationId + "/upcoming", STATION_BOOKINGS_TTL_MS, data -> {
+            JSONArray arr = new JSONArray(data);
+            List<StationBookingRow> rows = new ArrayList<>(arr.length());
+            for (int i = 0; i < arr.length(); i++) {
+                rows.add(StationBookingRow.fromJson(arr.getJSONObject(i)));
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Stations of {@code type} around a point. Points within about a
+     * kilometre of each other (two decimals) share one entry.
+     */
+    public static Resource<List<Station>> stationsNear(String type, double latitude, double longitude,
+                                                       double radiusKm) {
+        String key = String.format(Locale.US, "%s%s/%.2f,%.2f/%.0f", STATIONS, type, latitude, longitude, radiusKm);
+        return new Resource<>(key, ApiClient.nearbyStationsByTypeEndpoint(type, latitude, longitude, radiusKm),
+                STATIONS_TTL_MS, data -> {
+            JSONArray arr = new JSONArray(data);
+            List<Station> list = new ArrayList<>(arr.length());
+            for (int i = 0; i < arr.length(); i++) {
+                JSONObject obj = arr.getJSONObject(i);
+                Station s = new Station();
+                s.setStationId(obj.optString("stationId"));
+                s.setName(obj.optString("name"));
+                s.setLocation(obj.optString("location"));
+                s.setLatitude(obj.optDouble("latitude"));
+                s.setLongitude(obj.optDouble("longitude"));
+                s.setType(obj.optString("type"));
+                list.add(s);
+            }
+            return list;
+        });
+    }
+
+    // ---------------------------------------------------------------------
+    // Loading
+    // ---------------------------------------------------------------------
+
+    /** Cached value now (if any), the server's later if it is stale and changed. */
+    @MainThread
+    public <T> void load(ApiClient api, Resource<T> resource, Listener<T> listener) {
+        run(api, resource, listener, false);
+    }
+
+    /** Ask the server regardless of TTL; only a changed response is delivered. */
+    @MainThread
+    public <T> void refresh(ApiClient api, Resource<T> resource, Listener<T> listener) {
+        run(api, resource, listener, true);
+    }
+
+    /**
+     * Store a response fetched elsewhere (e.g. by the login prefetch) as if
+     * this repository had fetched it now.
+     */
+    public <T> void seed(Resource<T> resource, String body) {
+        int epochAtStart = currentEpoch();
+        try {
+            store(resource.key, body, resource.parser.parse(body), epochAtStart);
+        } catch (Exception e) {
+            Log.w(TAG, "Not seeding " + resource.key + ": " + e.getMessage());
+        }
+    }
+
+    /** Drop every cached resource whose key starts with {@code prefix}. */
+    public synchronized void invalidate(String prefix) {
+        epoch++;
+        Iterator<String> keys = memory.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(prefix)) keys.remove();
+        }
+        deleteFromDisk(prefix);
+        Log.d(TAG, "Invalidated " + prefix + "*");
+    }
+
+    /**
+     * Forget everything, on logout. Fetches still running for the previous
+     * user don't store, and writes already queued for them are deleted again.
+     */
+    public void clear() {
+        invalidate("");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void run(ApiClient api, Resource<T> resource, Listener<T> listener, boolean force) {
+        Entry inMemory = force ? null : memoryGet(resource.key);
+        if (inMemory != null) {
+            ApiMetrics.increment(METRICS_KEY, "memory");
+            listener.onData((T) inMemory.value);
+        }
+
+        pool.execute(() -> {
+            Entry cached = inMemory != null ? inMemory : force ? memoryGet(resource.key) : null;
+            if (cached == null) {
+                cached = readDisk(resource);
+                if (cached != null && !force) {
+                    ApiMetrics.increment(METRICS_KEY, "disk");
+                    T value = (T) cached.value;
+                    mainHandler.post(() -> listener.onData(value));
+                } else if (!force) {
+                    ApiMetrics.increment(METRICS_KEY, "miss");
+                }
+            }
+            if (!force && cached != null && System.currentTimeMillis() - cached.fetchedAt < resource.ttlMs) {
+                mainHandler.post(() -> listener.onDone(null));
+                return;
+            }
+
+            // Data already on screen: the check can wait behind interactive requests
+            Fetched fetched = revalidate(cached != null && !force
+                    ? api.withLane(RequestScheduler.Lane.BACKGROUND_PREFETCH) : api, resource);
+            if (fetched.error != null) {
+                mainHandler.post(() -> listener.onDone(fetched.error));
+                return;
+            }
+            if (cached != null && cached.body.equals(fetched.body)) {
+                ApiMetrics.increment(METRICS_KEY, "unchanged");
+            } else {
+                ApiMetrics.increment(METRICS_KEY, "changed");
+                T value = (T) fetched.value;
+                mainHandler.post(() -> listener.onData(value));
+            }
+            mainHandler.post(() -> listener.onDone(null));
+        });
+    }
+
+    // One request per resource at a time; later callers wait for its answer
+    private Fetched revalidate(ApiClient api, Resource<?> resource) {
+        CompletableFuture<Fetched> call;
+        boolean owner = false;
+        synchronized (inFlight) {
+            call = inFlight.get(resource.key);
+            if (call == null) {
+                call = new CompletableFuture<>();
+                inFlight.put(resource.key, call);
+                owner = true;
+            }
+        }
+        if (owner) {
+            try {
+                call.complete(fetch(api, resource));
+            } catch (RuntimeException e) {
+                // Waiters must not hang on a fetch that blew up
+                Log.e(TAG, "Fetching " + resource.key + " failed", e);
+                call.complete(new Fetched(null, null, "Network error"));
+            } finally {
+                synchronized (inFlight) {
+                    inFlight.remove(resource.key);
+                }
+            }
+        }
+        return call.join();
+    }
+
+    private Fetched fetch(ApiClient api, Resource<?> resource) {
+        int epochAtStart = currentEpoch();
+        ApiResponse res = api.get(resource.endpoint);
+        if (res == null) return new Fetched(null, null, "Network error");
+        if (!res.isSuccess() || res.getData() == null) return new Fetched(null, null, res.getMessage());
+        Object value;
+        try {
+            value = resource.parser.parse(res.getData());
+        } catch (Exception e) {
+            Log.e(TAG, "Unreadable " + resource.key, e);
+            return new Fetched(null, null, "Unreadable response");
+        }
+        store(resource.key, res.getData(), value, epochAtStart);
+        return new Fetched(res.getData(), value, null);
+    }
+
+    // ---------------------------------------------------------------------
+    // Tiers
+    // ---------------------------------------------------------------------
+
+    private synchronized int currentEpoch() {
+        return epoch;
+    }
+
+    private synchronized Entry memoryGet(String key) {
+        return memory.get(key);
+    }
+
+    private Entry readDisk(Resource<?> resource) {
+        int epochAtStart;
+        synchronized (this) {
+            if (deletePending(resource.key)) return null;
+            epochAtStart = epoch;
+        }
+        ResponseCacheDao.Cached row = dao.get(resource.key);
+        if (row == null) return null;
+        try {
+            Entry entry = new Entry(row.body, resource.parser.parse(row.body), row.fetchedAt);
+            synchronized (this) {
+                if (epochAtStart != epoch) return null; // invalidated while reading
+                memory.put(resource.key, entry);
+            }
+            return entry;
+        } catch (Exception e) {
+            // Written by an older app version, say; the network will replace it
+            Log.w(TAG, "Dropping unreadable cached " + resource.key + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private synchronized void store(String key, String body, Object value, int epochAtStart) {
+        if (epochAtStart != epoch) return;
+        long now = System.currentTimeMillis();
+        Entry previous = memory.put(key, new Entry(body, value, now));
+        boolean unchanged = previous != null && previous.body.equals(body);
+        diskWriter.execute(() -> {
+            try {
+                if (unchanged) {
+                    dao.touch(key, now);
+                } else {
+                    dao.put(key, body, now);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error writing cached " + key, e);
+            }
+        });
+    }
+
+    // Caller holds the lock, so the DELETE queues behind every write stored before it
+    private void deleteFromDisk(String prefix) {
+        pendingDeletes.merge(prefix, 1, Integer::sum);
+        diskWriter.execute(() -> {
+            try {
+                dao.deleteByPrefix(prefix);
+            } catch (Exception e) {
+                Log.e(TAG, "Error deleting cached " + prefix + "*", e);
+            } finally {
+                synchronized (this) {
+                    pendingDeletes.computeIfPresent(prefix, (k, n) -> n > 1 ? n - 1 : null);
+                }
+            }
+        });
+    }
+
+    private boolean deletePending(String key) {
+        for (String prefix : pendingDeletes.keySet()) {
+            if (key.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static <T> T required(T value) throws Exception {
+        if (value == null) throw new Exception("Unreadable response");
+        return value;
+    }
+}
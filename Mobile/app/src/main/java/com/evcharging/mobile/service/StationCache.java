@@ -0,0 +1,192 @@
+package com.evcharging.mobile.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.evcharging.mobile.database.StationDao;
+import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.utils.StationGeoIndex;
+import com.evcharging.mobile.utils.StationPrefixIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * StationCache - offline-capable station lookups
+ *
+ * Purpose: Serve nearby-station queries from a local spatial index backed by
+ * SQLite, and refresh the area around the user from the server in the
+ * background. Map and booking screens get an answer even when offline, and
+ * only wait for the network when nothing is cached for the area yet.
+ */
+public class StationCache {
+
+    private static final String TAG = "StationCache";
+
+    /** Area fetched by a background refresh; wider than a map query so panning stays local. */
+    public static final double REFRESH_RADIUS_KM = 25;
+    private static final long FRESH_MS = 10 * 60 * 1000L;
+
+    private static StationCache instance;
+
+    // A refreshed circle; queries fully inside a recent one skip the network
+    private static final class Area {
+        final double latitude, longitude, radiusKm;
+        final long refreshedAt;
+
+        Area(double latitude, double longitude, double radiusKm, long refreshedAt) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+            this.refreshedAt = refreshedAt;
+        }
+
+        boolean covers(double lat, double lng, double radius, long now) {
+            return now - refreshedAt < FRESH_MS
+                    && StationGeoIndex.distanceKm(latitude, longitude, lat, lng) + radius <= radiusKm;
+        }
+    }
+
+    private final StationDao dao;
+    private final StationGeoIndex index = new StationGeoIndex();
+    private final List<Area> freshAreas = new ArrayList<>();
+    // Serialises writers; readers go straight to the index snapshot
+    private final Object writeLock = new Object();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    private boolean loaded;
+    private boolean refreshing;
+
+    private StationCache(Context context) {
+        this.dao = new StationDao(context);
+    }
+
+    public static synchronized StationCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new StationCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------
+
+    /**
+     * Cached stations within {@code radiusKm}, nearest first.
+     *
+     * @param type "AC"/"DC", or null for every type
+     */
+    @WorkerThread
+    public List<Station> getNearby(double latitude, double longitude, double radiusKm, String type) {
+        ensureLoaded();
+        return index.nearby(latitude, longitude, radiusKm, type);
+    }
+
+    /** Cached stations inside a bounding box, e.g. the visible map region. */
+    @WorkerThread
+    public List<Station> getWithin(double south, double west, double north, double east, String type) {
+        ensureLoaded();
+        return index.within(south, west, north, east, type);
+    }
+
+    public synchronized boolean isFresh(double latitude, double longitude, double radiusKm) {
+        long now = System.currentTimeMillis();
+        for (Area a : freshAreas) {
+            if (a.covers(latitude, longitude, radiusKm, now)) return true;
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------
+    // Refresh
+    // ---------------------------------------------------------------------
+
+    /**
+     * Fetch the area from the server and store it.
+     *
+     * @return the fetched stations, or null if the request failed
+     */
+    @WorkerThread
+    public List<Station> refreshAround(StationService service, double latitude, double longitude, double radiusKm) {
+        List<Station> fetched = service.getNearbyStations(latitude, longitude, radiusKm);
+        if (fetched == null) return null;
+        storeArea(fetched, latitude, longitude, radiusKm, null);
+        return fetched;
+    }
+
+    /** Refresh {@link #REFRESH_RADIUS_KM} around a point unless it is already fresh. */
+    public void refreshInBackground(StationService service, double latitude, double longitude) {
+        synchronized (this) {
+            if (refreshing || isFresh(latitude, longitude, REFRESH_RADIUS_KM)) return;
+            refreshing = true;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                List<Station> fetched = refreshAround(service, latitude, longitude, REFRESH_RADIUS_KM);
+                Log.d(TAG, "Background refresh: " + (fetched != null ? fetched.size() + " stations" : "failed")
+                        + ", " + index.size() + " cached");
+            } finally {
+                synchronized (this) {
+                    refreshing = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Store a server answer for a circular area. Cached stations inside the
+     * area (of the given type) that the server no longer returns are dropped.
+     */
+    @WorkerThread
+    public void storeArea(List<Station> stations, double latitude, double longitude, double radiusKm, String type) {
+        ensureLoaded();
+        Set<String> returned = new HashSet<>();
+        for (Station s : stations) {
+            if (s != null && s.getStationId() != null) returned.add(s.getStationId());
+        }
+
+        synchronized (writeLock) {
+            Set<String> gone = new HashSet<>();
+            for (Station s : index.nearby(latitude, longitude, radiusKm, type)) {
+                if (!returned.contains(s.getStationId())) gone.add(s.getStationId());
+            }
+            dao.upsertAll(stations, System.currentTimeMillis());
+            dao.deleteByIds(gone);
+            index.upsertAll(stations);
+            index.removeAll(gone);
+        }
+        StationPrefixIndex.getInstance().addAll(stations);
+
+        // A type-filtered answer says nothing about the other type
+        if (type == null) markFresh(latitude, longitude, radiusKm);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private synchronized void ensureLoaded() {
+        if (loaded) return;
+        long start = System.nanoTime();
+        List<Station> stations = dao.loadAll();
+        index.replaceAll(stations);
+        StationPrefixIndex.getInstance().addAll(stations);
+        loaded = true;
+        Log.d(TAG, "Loaded " + stations.size() + " cached stations in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private synchronized void markFresh(double latitude, double longitude, double radiusKm) {
+        long now = System.currentTimeMillis();
+        Iterator<Area> it = freshAreas.iterator();
+        while (it.hasNext()) {
+            if (now - it.next().refreshedAt >= FRESH_MS) it.remove();
+        }
+        freshAreas.add(new Area(latitude, longitude, radiusKm, now));
+    }
+}
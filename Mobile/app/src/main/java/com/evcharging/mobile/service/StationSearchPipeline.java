@@ -0,0 +1,127 @@
+package com.evcharging.mobile.service;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.utils.StationPrefixIndex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Search-as-you-type for stations.
+ *
+ * Each keystroke is answered straight away from the local {@link StationPrefixIndex}.
+ * The network search only fires once typing pauses for {@code debounceMs}.
+ * A newer query cancels the pending debounce and the in-flight request.
+ * Any response that still arrives for an older query is dropped, so results
+ * can never go backwards.
+ *
+ * Call from the main thread; results are delivered on the main thread.
+ */
+public class StationSearchPipeline {
+
+    private static final String TAG = "StationSearch";
+    private static final int MAX_SUGGESTIONS = 10;
+
+    public interface Listener {
+        /**
+         * @param fromNetwork false for the instant local answer, true once the
+         *                    server results have been merged in
+         */
+        void onResults(String query, List<Station> stations, boolean fromNetwork);
+    }
+
+    private final StationService stationService;
+    private final StationPrefixIndex index;
+    private final long debounceMs;
+    private final Listener listener;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private Runnable pendingSearch;
+    private Future<?> inFlight;
+    private int generation = 0;
+
+    public StationSearchPipeline(StationService stationService, StationPrefixIndex index,
+                                 long debounceMs, Listener listener) {
+        this.stationService = stationService;
+        this.index = index;
+        this.debounceMs = debounceMs;
+        this.listener = listener;
+    }
+
+    public void onQueryChanged(String type, String rawQuery) {
+        final String query = rawQuery != null ? rawQuery.trim() : "";
+        final int gen = ++generation;
+        cancelPending();
+
+        if (query.isEmpty()) return;
+
+        // Instant answer from stations we've already seen
+        final List<Station> local = index.search(type, query, MAX_SUGGESTIONS);
+        listener.onResults(query, local, false);
+
+        pendingSearch = () -> {
+            pendingSearch = null;
+            inFlight = executor.submit(() -> {
+                List<Station> remote = stationService.searchStations(type, query);
+                if (remote != null) index.addAll(remote);
+                mainHandler.post(() -> {
+                    if (gen != generation) {
+                        Log.d(TAG, "Dropped stale results for \"" + query + "\"");
+                        return;
+                    }
+                    inFlight = null;
+                    listener.onResults(query, merge(remote, local), true);
+                });
+            });
+        };
+        mainHandler.postDelayed(pendingSearch, debounceMs);
+    }
+
+    /** Cancel anything pending, e.g. when the screen goes away. */
+    public void cancel() {
+        generation++;
+        cancelPending();
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    private void cancelPending() {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+        }
+    }
+
+    // Server order first, then local-only matches the server didn't return
+    private static List<Station> merge(List<Station> remote, List<Station> local) {
+        Map<String, Station> merged = new LinkedHashMap<>();
+        if (remote != null) {
+            for (Station s : remote) {
+                if (s != null && s.getStationId() != null) merged.put(s.getStationId(), s);
+            }
+        }
+        for (Station s : local) {
+            if (merged.size() >= MAX_SUGGESTIONS) break;
+            if (!merged.containsKey(s.getStationId())) merged.put(s.getStationId(), s);
+        }
+        return new ArrayList<>(merged.values());
+    }
+}
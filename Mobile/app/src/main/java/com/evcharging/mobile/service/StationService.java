@@ -1,6 +1,5 @@
 package com.evcharging.mobile.service;
 
-import android.os.Build;
 import android.util.Log;
 
 import com.evcharging.mobile.model.Station;
@@ -14,7 +13,6 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class StationService {
@@ -62,22 +60,30 @@ public class StationService {
         }
     }
 
-    public List<Station> searchStations(String type, String location) {
+    public List<Station> getNearbyStationsByType(String type, double latitude, double longitude, double radiusKm) {
         try {
-            Log.d(TAG, "Calling searchStations...");
-
-            String endpoint = null;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                endpoint = String.format("/station/names?type=%s&location=%s",
-                        type, URLEncoder.encode(location, StandardCharsets.UTF_8));
+            ApiResponse response = apiClient.getNearbyStationsByType(type, latitude, longitude, radiusKm);
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                Log.e(TAG, "Failed to fetch nearby " + type + " stations: "
+                        + (response != null ? response.getMessage() : "null response"));
+                return null;
             }
+            Type listType = new TypeToken<List<Station>>() {}.getType();
+            return gson.fromJson(response.getData(), listType);
+        } catch (Exception e) {
+            Log.e(TAG, "Error fetching nearby stations by type", e);
+            return null;
+        }
+    }
 
+    public List<Station> searchStations(String type, String location) {
+        try {
+            Log.d(TAG, "Calling searchStations...");
 
-            Log.d(TAG, "Search stations endpoint: " + endpoint);
-
-            ApiResponse response = apiClient.get(endpoint);
-
-            Log.d(TAG, "Search stations response: " + response.getData());
+            // The Charset overload is API 33+; the String one works on every level we support.
+            // A newer keystroke cancels this lookup if it is still in flight.
+            ApiResponse response = apiClient.getStationNameSuggestions(
+                    URLEncoder.encode(type, "UTF-8"), URLEncoder.encode(location, "UTF-8"));
 
             if (response == null || !response.isSuccess()) {
                 Log.e(TAG, "Failed to search stations: " + (response != null ? response.getMessage() : "null response"));
@@ -6,6 +6,7 @@ import android.util.Log;
 
 import com.evcharging.mobile.database.DatabaseHelper;
 import com.evcharging.mobile.model.User;
+import com.evcharging.mobile.service.ResourceRepository;
 import com.evcharging.mobile.utils.JwtUtils;
 
 /**
@@ -267,6 +268,8 @@ public class SessionManager {
 
         // Clear database
         dbHelper.deleteUser();
+        dbHelper.clearCachedData();
+        ResourceRepository.getInstance(context).clear();
         Log.d(TAG, "User data cleared from database");
 
         Log.d(TAG, "Complete session data cleared");
@@ -281,8 +284,10 @@ public class SessionManager {
         // Clear token
         clearToken();
 
-        // Clear user from database
+        // Clear user and their cached bookings from database
         dbHelper.deleteUser();
+        dbHelper.clearCachedData();
+        ResourceRepository.getInstance(context).clear();
 
         // Clear remember-me if requested
         if (clearRememberMe) {
@@ -0,0 +1,205 @@
+package com.evcharging.mobile.utils;
+
+import com.evcharging.mobile.model.SlotItem;
+import com.evcharging.mobile.model.TimeSlotItem;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AvailabilityMatrix - free timeslots for one station, per slot, per day
+ *
+ * Purpose: Hold a station's availability for the whole booking window so the
+ * slot/date/time spinners resolve locally. Each (slot, day) cell is a 96-bit
+ * bitset (two longs), one bit per 15-minute tick of the local day, set where
+ * a free timeslot starts. The TimeSlotItem behind each set bit is kept in a
+ * sparse map for its id and display text.
+ *
+ * Cells are filled independently as their requests finish, so each one
+ * tracks whether it is still loading, loaded or failed. Thread-safe: workers
+ * fill cells while the UI thread reads.
+ */
+public class AvailabilityMatrix {
+
+    public static final int TICK_MINUTES = 15;
+    public static final int TICKS_PER_DAY = 24 * 60 / TICK_MINUTES;
+    private static final int WORDS_PER_CELL = (TICKS_PER_DAY + 63) / 64;
+
+    public enum CellState { LOADING, LOADED, FAILED }
+
+    private final String stationId;
+    private final List<SlotItem> slots;
+    private final List<String> dates;
+    private final Map<String, Integer> slotIndex = new HashMap<>();
+    private final long createdAt = System.currentTimeMillis();
+
+    private final long[] bits;
+    private final CellState[] states;
+    private final Map<Integer, TimeSlotItem> items = new HashMap<>();
+
+    /**
+     * @param dates window days as yyyy-MM-dd, in order (index 0 = today)
+     */
+    public AvailabilityMatrix(String stationId, List<SlotItem> slots, List<String> dates) {
+        this.stationId = stationId;
+        this.slots = Collections.unmodifiableList(new ArrayList<>(slots));
+        this.dates = Collections.unmodifiableList(new ArrayList<>(dates));
+        for (int i = 0; i < slots.size(); i++) {
+            slotIndex.put(slots.get(i).slotId, i);
+        }
+        int cells = slots.size() * dates.size();
+        this.bits = new long[cells * WORDS_PER_CELL];
+        this.states = new CellState[cells];
+        for (int i = 0; i < cells; i++) states[i] = CellState.LOADING;
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------------
+
+    /** Fill one cell from a /timeslot/available response. */
+    public synchronized void setCell(int slot, int day, List<TimeSlotItem> available) {
+        int cell = cell(slot, day);
+        int base = cell * WORDS_PER_CELL;
+        for (int w = 0; w < WORDS_PER_CELL; w++) bits[base + w] = 0L;
+        for (int t = 0; t < TICKS_PER_DAY; t++) items.remove(cell * TICKS_PER_DAY + t);
+
+        if (available != null) {
+            for (TimeSlotItem ts : available) {
+                int tick = tickOf(ts.getStartTime());
+                if (tick < 0) continue;
+                bits[base + tick / 64] |= 1L << (tick % 64);
+                items.put(cell * TICKS_PER_DAY + tick, ts);
+            }
+        }
+        states[cell] = CellState.LOADED;
+    }
+
+    public synchronized void markFailed(int slot, int day) {
+        states[cell(slot, day)] = CellState.FAILED;
+    }
+
+    /** Take a timeslot out locally, e.g. right after booking it. */
+    public synchronized boolean clearTimeslot(int slot, int day, String timeSlotId) {
+        int cell = cell(slot, day);
+        int base = cell * WORDS_PER_CELL;
+        for (int tick = 0; tick < TICKS_PER_DAY; tick++) {
+            TimeSlotItem ts = items.get(cell * TICKS_PER_DAY + tick);
+            if (ts != null && ts.timeSlotId != null && ts.timeSlotId.equals(timeSlotId)) {
+                bits[base + tick / 64] &= ~(1L << (tick % 64));
+                items.remove(cell * TICKS_PER_DAY + tick);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Put a timeslot taken out by {@link #clearTimeslot} back, e.g. when its booking failed. */
+    public synchronized void restoreTimeslot(int slot, int day, TimeSlotItem ts) {
+        int tick = tickOf(ts.getStartTime());
+        if (tick < 0) return;
+        int cell = cell(slot, day);
+        bits[cell * WORDS_PER_CELL + tick / 64] |= 1L << (tick % 64);
+        items.put(cell * TICKS_PER_DAY + tick, ts);
+    }
+
+    // ---------------------------------------------------------------------
+    // Reads
+    // ---------------------------------------------------------------------
+
+    public String getStationId() { return stationId; }
+    public List<SlotItem> getSlots() { return slots; }
+    public List<String> getDates() { return dates; }
+    public long getCreatedAt() { return createdAt; }
+
+    /** -1 if the slot isn't part of this station. */
+    public int slotIndexOf(String slotId) {
+        Integer i = slotIndex.get(slotId);
+        return i != null ? i : -1;
+    }
+
+    /** -1 if the date is outside the window. */
+    public int dayIndexOf(String dateYmd) {
+        return dates.indexOf(dateYmd);
+    }
+
+    public synchronized CellState getState(int slot, int day) {
+        return states[cell(slot, day)];
+    }
+
+    /** Free timeslots of a cell in start-time order. */
+    public synchronized List<TimeSlotItem> getAvailable(int slot, int day) {
+        int cell = cell(slot, day);
+        int base = cell * WORDS_PER_CELL;
+        List<TimeSlotItem> out = new ArrayList<>();
+        for (int w = 0; w < WORDS_PER_CELL; w++) {
+            long word = bits[base + w];
+            while (word != 0) {
+                int tick = w * 64 + Long.numberOfTrailingZeros(word);
+                out.add(items.get(cell * TICKS_PER_DAY + tick));
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    public synchronized int countAvailable(int slot, int day) {
+        int base = cell(slot, day) * WORDS_PER_CELL;
+        int n = 0;
+        for (int w = 0; w < WORDS_PER_CELL; w++) n += Long.bitCount(bits[base + w]);
+        return n;
+    }
+
+    /** Free timeslots across every slot of the station on one day. */
+    public synchronized int countAvailableOnDay(int day) {
+        int n = 0;
+        for (int s = 0; s < slots.size(); s++) n += countAvailable(s, day);
+        return n;
+    }
+
+    /** Whether a loaded cell still lists {@code timeSlotId} as free. */
+    public synchronized boolean containsTimeslot(int slot, int day, String timeSlotId) {
+        int cell = cell(slot, day);
+        int base = cell * WORDS_PER_CELL;
+        for (int w = 0; w < WORDS_PER_CELL; w++) {
+            long word = bits[base + w];
+            while (word != 0) {
+                TimeSlotItem ts = items.get(cell * TICKS_PER_DAY + w * 64 + Long.numberOfTrailingZeros(word));
+                if (ts != null && timeSlotId.equals(ts.timeSlotId)) return true;
+                word &= word - 1;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean isAvailable(int slot, int day, int tick) {
+        int base = cell(slot, day) * WORDS_PER_CELL;
+        return (bits[base + tick / 64] & (1L << (tick % 64))) != 0;
+    }
+
+    public synchronized boolean isComplete() {
+        for (CellState s : states) {
+            if (s == CellState.LOADING) return false;
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private int cell(int slot, int day) {
+        return slot * dates.size() + day;
+    }
+
+    /** Local 15-minute tick of an ISO start time, or -1 if it can't be parsed. */
+    static int tickOf(String isoStart) {
+        long millis = TimeUtils.parseUtcMillis(isoStart);
+        if (millis < 0) return -1;
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(millis);
+        return (c.get(Calendar.HOUR_OF_DAY) * 60 + c.get(Calendar.MINUTE)) / TICK_MINUTES;
+    }
+}
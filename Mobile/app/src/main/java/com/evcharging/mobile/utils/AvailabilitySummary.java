@@ -0,0 +1,81 @@
+package com.evcharging.mobile.utils;
+
+import java.util.List;
+
+/**
+ * AvailabilitySummary - free timeslot counts of one station across the booking window
+ *
+ * Purpose: The numbers the date picker and slot spinner need (free timeslots
+ * per day, and per slot per day) without walking timeslot lists. Built in a
+ * single pass over a loaded {@link AvailabilityMatrix} and immutable
+ * afterwards, so it can be shared freely between threads and screens.
+ *
+ * A count of UNKNOWN means that cell (or any cell of that day) failed or was
+ * still loading when the summary was taken.
+ */
+public class AvailabilitySummary {
+
+    public static final int UNKNOWN = -1;
+
+    private final String stationId;
+    private final List<String> dates;
+    private final String[] slotIds;
+    private final int[] perDay;
+    private final int[][] perSlotDay;
+
+    private AvailabilitySummary(String stationId, List<String> dates, String[] slotIds,
+                                int[] perDay, int[][] perSlotDay) {
+        this.stationId = stationId;
+        this.dates = dates;
+        this.slotIds = slotIds;
+        this.perDay = perDay;
+        this.perSlotDay = perSlotDay;
+    }
+
+    public static AvailabilitySummary of(AvailabilityMatrix matrix) {
+        int slotCount = matrix.getSlots().size();
+        int dayCount = matrix.getDates().size();
+        String[] slotIds = new String[slotCount];
+        int[] perDay = new int[dayCount];
+        int[][] perSlotDay = new int[slotCount][dayCount];
+
+        for (int s = 0; s < slotCount; s++) {
+            slotIds[s] = matrix.getSlots().get(s).slotId;
+            for (int d = 0; d < dayCount; d++) {
+                int n = matrix.getState(s, d) == AvailabilityMatrix.CellState.LOADED
+                        ? matrix.countAvailable(s, d) : UNKNOWN;
+                perSlotDay[s][d] = n;
+                if (n == UNKNOWN || perDay[d] == UNKNOWN) {
+                    perDay[d] = UNKNOWN;
+                } else {
+                    perDay[d] += n;
+                }
+            }
+        }
+        return new AvailabilitySummary(matrix.getStationId(), matrix.getDates(), slotIds, perDay, perSlotDay);
+    }
+
+    public String getStationId() { return stationId; }
+    public List<String> getDates() { return dates; }
+
+    /** Free timeslots across all slots on a day, or UNKNOWN. */
+    public int countOnDay(String dateYmd) {
+        int d = dates.indexOf(dateYmd);
+        return d >= 0 ? perDay[d] : UNKNOWN;
+    }
+
+    /** Free timeslots of one slot on a day, or UNKNOWN. */
+    public int countForSlot(String slotId, String dateYmd) {
+        int d = dates.indexOf(dateYmd);
+        if (d < 0 || slotId == null) return UNKNOWN;
+        for (int s = 0; s < slotIds.length; s++) {
+            if (slotId.equals(slotIds[s])) return perSlotDay[s][d];
+        }
+        return UNKNOWN;
+    }
+
+    /** Days of the window known to have no free timeslot at all. */
+    public boolean isFullyBooked(String dateYmd) {
+        return countOnDay(dateYmd) == 0;
+    }
+}
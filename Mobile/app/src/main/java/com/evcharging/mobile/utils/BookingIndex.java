@@ -0,0 +1,197 @@
+package com.evcharging.mobile.utils;
+
+import com.evcharging.mobile.model.BookingItem;
+import com.evcharging.mobile.model.BookingStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BookingIndex - bookings bucketed by status, each bucket sorted by start time
+ *
+ * Purpose: Parse each booking's status and start time once, keep per-status
+ * buckets up to date on insert/update/remove, and hand out ready-made list
+ * views so switching a filter chip is a lookup instead of a rescan. Counts per
+ * status are O(1) for chip badges.
+ *
+ * Only statuses passed to the constructor are tracked; a booking that moves
+ * to any other status (e.g. Charging -> Finalized) simply leaves the index.
+ * Not thread-safe; use from one thread (the UI thread in the activities).
+ */
+public class BookingIndex {
+
+    private static final class Entry {
+        final BookingItem item;
+        final BookingStatus status;
+        final long startMillis;
+
+        Entry(BookingItem item) {
+            this.item = item;
+            this.status = BookingStatus.from(item.getStatus());
+            this.startMillis = TimeUtils.parseUtcMillis(item.getStartTime());
+        }
+    }
+
+    // Soonest first; unparseable times sink to the end, ties broken by id
+    private static final Comparator<Entry> BY_START = (a, b) -> {
+        long sa = a.startMillis < 0 ? Long.MAX_VALUE : a.startMillis;
+        long sb = b.startMillis < 0 ? Long.MAX_VALUE : b.startMillis;
+        if (sa != sb) return sa < sb ? -1 : 1;
+        return a.item.getBookingId().compareTo(b.item.getBookingId());
+    };
+
+    private final Set<BookingStatus> tracked;
+    private final Map<String, Entry> byId = new HashMap<>();
+    private final EnumMap<BookingStatus, List<Entry>> buckets = new EnumMap<>(BookingStatus.class);
+    private final List<Entry> all = new ArrayList<>();
+
+    // Cached immutable views, rebuilt only when their bucket changed
+    private final EnumMap<BookingStatus, List<BookingItem>> views = new EnumMap<>(BookingStatus.class);
+    private List<BookingItem> allView;
+
+    public BookingIndex(Set<BookingStatus> trackedStatuses) {
+        this.tracked = EnumSet.copyOf(trackedStatuses);
+        for (BookingStatus s : tracked) {
+            buckets.put(s, new ArrayList<>());
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Mutations
+    // ---------------------------------------------------------------------
+
+    /**
+     * Insert a new booking or replace an existing one with the same id. A
+     * status or start-time change moves it between/within buckets.
+     *
+     * @return true if the index changed
+     */
+    public boolean upsert(BookingItem item) {
+        if (item == null || item.getBookingId() == null) return false;
+
+        Entry existing = byId.get(item.getBookingId());
+        if (existing != null && existing.item.sameContentAs(item)) return false;
+
+        Entry entry = new Entry(item);
+        if (existing != null) removeEntry(existing);
+        if (!tracked.contains(entry.status)) return existing != null;
+
+        byId.put(item.getBookingId(), entry);
+        insertSorted(buckets.get(entry.status), entry);
+        insertSorted(all, entry);
+        views.remove(entry.status);
+        allView = null;
+        return true;
+    }
+
+    public boolean remove(String bookingId) {
+        Entry existing = byId.get(bookingId);
+        if (existing == null) return false;
+        removeEntry(existing);
+        return true;
+    }
+
+    /**
+     * Bring the index in line with a freshly fetched list: upserts what
+     * changed and removes ids that are no longer present. Unchanged bookings
+     * keep their slots, so cached views of untouched buckets stay valid.
+     *
+     * @return true if anything changed
+     */
+    public boolean replaceAll(Collection<BookingItem> items) {
+        boolean changed = false;
+        Set<String> seen = new HashSet<>();
+        for (BookingItem item : items) {
+            if (item == null || item.getBookingId() == null) continue;
+            seen.add(item.getBookingId());
+            changed |= upsert(item);
+        }
+        for (String id : new ArrayList<>(byId.keySet())) {
+            if (!seen.contains(id)) changed |= remove(id);
+        }
+        return changed;
+    }
+
+    public void clear() {
+        byId.clear();
+        all.clear();
+        for (List<Entry> bucket : buckets.values()) bucket.clear();
+        views.clear();
+        allView = null;
+    }
+
+    // ---------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------
+
+    /** Bookings with this status, sorted by start time. Unmodifiable. */
+    public List<BookingItem> view(BookingStatus status) {
+        if (!tracked.contains(status)) return Collections.emptyList();
+        List<BookingItem> view = views.get(status);
+        if (view == null) {
+            view = toItems(buckets.get(status));
+            views.put(status, view);
+        }
+        return view;
+    }
+
+    /** Every tracked booking, sorted by start time. Unmodifiable. */
+    public List<BookingItem> viewAll() {
+        if (allView == null) allView = toItems(all);
+        return allView;
+    }
+
+    public int count(BookingStatus status) {
+        List<Entry> bucket = buckets.get(status);
+        return bucket != null ? bucket.size() : 0;
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    public BookingItem get(String bookingId) {
+        Entry e = byId.get(bookingId);
+        return e != null ? e.item : null;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private void removeEntry(Entry entry) {
+        byId.remove(entry.item.getBookingId());
+        removeSorted(buckets.get(entry.status), entry);
+        removeSorted(all, entry);
+        views.remove(entry.status);
+        allView = null;
+    }
+
+    private static void insertSorted(List<Entry> list, Entry entry) {
+        int pos = Collections.binarySearch(list, entry, BY_START);
+        list.add(pos >= 0 ? pos : -(pos + 1), entry);
+    }
+
+    private static void removeSorted(List<Entry> list, Entry entry) {
+        if (list == null) return;
+        int pos = Collections.binarySearch(list, entry, BY_START);
+        if (pos >= 0 && list.get(pos) == entry) {
+            list.remove(pos);
+        } else {
+            list.remove(entry);
+        }
+    }
+
+    private static List<BookingItem> toItems(List<Entry> entries) {
+        List<BookingItem> items = new ArrayList<>(entries.size());
+        for (Entry e : entries) items.add(e.item);
+        return Collections.unmodifiableList(items);
+    }
+}
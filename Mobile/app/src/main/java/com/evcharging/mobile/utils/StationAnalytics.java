@@ -0,0 +1,236 @@
+package com.evcharging.mobile.utils;
+
+import com.evcharging.mobile.model.BookingStatus;
+import com.evcharging.mobile.model.BookingTiming;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * StationAnalytics - occupancy and throughput of one station for one day
+ *
+ * Purpose: Aggregate the day's bookings of the operator's station into
+ * per-minute counters as bookings arrive or change state, so the dashboard
+ * numbers cost the same to read with ten bookings or ten thousand.
+ *
+ * Every booking event removes the booking's previous contribution and adds
+ * its new one (O(1) per event). A {@link Snapshot} walks the 1440 minute
+ * buckets once per slot; it never touches individual bookings.
+ *
+ *   - rolling occupancy: minutes each slot was taken by a started or finished
+ *     session during the last ROLLING_MINUTES
+ *   - queue depth: Approved/Pending bookings due within QUEUE_HORIZON_MINUTES
+ *     (or already due) whose time hasn't run out
+ *   - average session: booked length of finished sessions
+ *   - no-show rate: bookings whose time ran out without being started;
+ *     expiry rate: bookings the server marked Expired; both out of the
+ *     bookings that were due so far
+ *
+ * Only bookings starting on {@code dayStart}'s day are counted. Thread-safe.
+ */
+public class StationAnalytics {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int ROLLING_MINUTES = 3 * 60;
+    private static final int QUEUE_HORIZON_MINUTES = 15;
+    private static final long MINUTE_MS = 60 * 1000L;
+
+    /** Immutable figures at one point in time. */
+    public static final class Snapshot {
+        private final Map<Integer, Double> occupancyBySlot;
+        private final double occupancy;
+        private final int queueDepth;
+        private final double avgSessionMinutes;
+        private final int bookingsToday;
+        private final int noShows;
+        private final int expired;
+        private final double noShowRate;
+        private final double expiryRate;
+
+        Snapshot(Map<Integer, Double> occupancyBySlot, double occupancy, int queueDepth,
+                 double avgSessionMinutes, int bookingsToday, int noShows, int expired,
+                 double noShowRate, double expiryRate) {
+            this.occupancyBySlot = Collections.unmodifiableMap(occupancyBySlot);
+            this.occupancy = occupancy;
+            this.queueDepth = queueDepth;
+            this.avgSessionMinutes = avgSessionMinutes;
+            this.bookingsToday = bookingsToday;
+            this.noShows = noShows;
+            this.expired = expired;
+            this.noShowRate = noShowRate;
+            this.expiryRate = expiryRate;
+        }
+
+        /** Slot number to occupied share (0..1) of the rolling window, by slot number. */
+        public Map<Integer, Double> getOccupancyBySlot() { return occupancyBySlot; }
+        /** Mean of the per-slot occupancies. */
+        public double getOccupancy() { return occupancy; }
+        public int getQueueDepth() { return queueDepth; }
+        public double getAvgSessionMinutes() { return avgSessionMinutes; }
+        public int getBookingsToday() { return bookingsToday; }
+        public int getNoShows() { return noShows; }
+        public int getExpired() { return expired; }
+        public double getNoShowRate() { return noShowRate; }
+        public double getExpiryRate() { return expiryRate; }
+    }
+
+    private final String stationId;
+    private final long dayStart;
+
+    private final Map<String, BookingTiming> tracked = new HashMap<>();
+    // Per slot: +1 at the minute a session starts, -1 where it ends
+    private final Map<Integer, int[]> sessionDelta = new TreeMap<>();
+    // Waiting (Approved/Pending) bookings by start minute and by end minute
+    private final int[] waitingStarts = new int[MINUTES_PER_DAY + 1];
+    private final int[] waitingEnds = new int[MINUTES_PER_DAY + 1];
+    private final int[] statusCounts = new int[BookingStatus.values().length];
+    private long finishedMinutes;
+    private int finishedCount;
+
+    public StationAnalytics(String stationId, long dayStart) {
+        this.stationId = stationId;
+        this.dayStart = dayStart;
+    }
+
+    public boolean isFor(String stationId, long dayStart) {
+        return this.stationId.equals(stationId) && this.dayStart == dayStart;
+    }
+
+    // ---------------------------------------------------------------------
+    // Events
+    // ---------------------------------------------------------------------
+
+    public synchronized void load(Collection<BookingTiming> bookings) {
+        for (BookingTiming b : bookings) apply(b);
+    }
+
+    /** A booking was added or changed. */
+    public synchronized void apply(BookingTiming booking) {
+        BookingTiming previous = tracked.remove(booking.getBookingId());
+        if (previous != null) contribute(previous, -1);
+        if (booking.getStartEpoch() < dayStart || booking.getStartEpoch() >= dayStart + MINUTES_PER_DAY * MINUTE_MS) {
+            return;
+        }
+        tracked.put(booking.getBookingId(), booking);
+        contribute(booking, 1);
+    }
+
+    public synchronized void updateStatus(String bookingId, BookingStatus status) {
+        BookingTiming previous = tracked.get(bookingId);
+        if (previous == null || previous.getStatus() == status) return;
+        contribute(previous, -1);
+        BookingTiming updated = previous.withStatus(status);
+        tracked.put(bookingId, updated);
+        contribute(updated, 1);
+    }
+
+    public synchronized void remove(String bookingId) {
+        BookingTiming previous = tracked.remove(bookingId);
+        if (previous != null) contribute(previous, -1);
+    }
+
+    /** Forget every booking not in {@code bookingIds} (gone from the server). */
+    public synchronized void retainOnly(Set<String> bookingIds) {
+        Iterator<Map.Entry<String, BookingTiming>> it = tracked.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, BookingTiming> e = it.next();
+            if (!bookingIds.contains(e.getKey())) {
+                contribute(e.getValue(), -1);
+                it.remove();
+            }
+        }
+    }
+
+    private void contribute(BookingTiming b, int sign) {
+        BookingStatus status = b.getStatus();
+        statusCounts[status.ordinal()] += sign;
+
+        // Rows saved before end times were stored only count by status
+        if (b.getEndEpoch() <= b.getStartEpoch()) return;
+        int start = minuteOf(b.getStartEpoch());
+        int end = minuteOf(b.getEndEpoch());
+
+        if (isSession(status)) {
+            int[] delta = sessionDelta.get(b.getSlotNumber());
+            if (delta == null) {
+                delta = new int[MINUTES_PER_DAY + 1];
+                sessionDelta.put(b.getSlotNumber(), delta);
+            }
+            delta[start] += sign;
+            delta[end] -= sign;
+            if (status != BookingStatus.CHARGING) {
+                finishedMinutes += sign * ((b.getEndEpoch() - b.getStartEpoch()) / MINUTE_MS);
+                finishedCount += sign;
+            }
+        } else if (status == BookingStatus.APPROVED || status == BookingStatus.PENDING) {
+            waitingStarts[start] += sign;
+            waitingEnds[end] += sign;
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Reading
+    // ---------------------------------------------------------------------
+
+    public synchronized Snapshot snapshot(long nowMillis) {
+        int now = minuteOf(nowMillis);
+        int windowStart = Math.max(0, now - ROLLING_MINUTES);
+        int window = now - windowStart;
+
+        Map<Integer, Double> bySlot = new LinkedHashMap<>();
+        double occupancySum = 0;
+        for (Map.Entry<Integer, int[]> e : sessionDelta.entrySet()) {
+            int[] delta = e.getValue();
+            int running = 0, occupied = 0;
+            for (int m = 0; m < now; m++) {
+                running += delta[m];
+                if (m >= windowStart && running > 0) occupied++;
+            }
+            double share = window > 0 ? (double) occupied / window : 0;
+            bySlot.put(e.getKey(), share);
+            occupancySum += share;
+        }
+
+        // Waiting bookings that ended before this minute never showed up
+        int noShows = 0;
+        for (int m = 0; m < now; m++) noShows += waitingEnds[m];
+        int dueSoon = 0;
+        int horizon = Math.min(MINUTES_PER_DAY, now + QUEUE_HORIZON_MINUTES);
+        for (int m = 0; m <= horizon; m++) dueSoon += waitingStarts[m];
+
+        int expired = statusCounts[BookingStatus.EXPIRED.ordinal()];
+        int sessions = statusCounts[BookingStatus.CHARGING.ordinal()]
+                + statusCounts[BookingStatus.COMPLETED.ordinal()]
+                + statusCounts[BookingStatus.FINALIZED.ordinal()];
+        int due = sessions + noShows + expired;
+
+        return new Snapshot(
+                bySlot,
+                bySlot.isEmpty() ? 0 : occupancySum / bySlot.size(),
+                dueSoon - noShows,
+                finishedCount > 0 ? (double) finishedMinutes / finishedCount : 0,
+                tracked.size(),
+                noShows,
+                expired,
+                due > 0 ? (double) noShows / due : 0,
+                due > 0 ? (double) expired / due : 0);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static boolean isSession(BookingStatus status) {
+        return status == BookingStatus.CHARGING || status == BookingStatus.COMPLETED
+                || status == BookingStatus.FINALIZED;
+    }
+
+    private int minuteOf(long epochMillis) {
+        long m = (epochMillis - dayStart) / MINUTE_MS;
+        return (int) Math.max(0, Math.min(MINUTES_PER_DAY, m));
+    }
+}
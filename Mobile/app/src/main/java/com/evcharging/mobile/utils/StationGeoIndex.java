@@ -0,0 +1,220 @@
+package com.evcharging.mobile.utils;
+
+import com.evcharging.mobile.model.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StationGeoIndex - grid-bucketed spatial index over station coordinates
+ *
+ * Purpose: Answer "stations within r km" and "stations in this viewport"
+ * without a network round trip. Stations are bucketed into fixed lat/lng
+ * cells. A query only visits the cells overlapping its bounding box, then
+ * checks the exact distance, so cost depends on local density rather than on
+ * the total number of stations.
+ *
+ * Reads are lock-free: writers build a new immutable snapshot and swap it in,
+ * so a background refresh never blocks a map query. The grid does not wrap
+ * at the antimeridian, which is fine for the regions this app serves.
+ */
+public class StationGeoIndex {
+
+    /** About 5.5 km of latitude; keeps a typical 5 km query to a 3x3 block of cells. */
+    public static final double DEFAULT_CELL_DEGREES = 0.05;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private static final class Snapshot {
+        final Map<Long, Station[]> cells;
+        final Map<String, Station> byId;
+
+        Snapshot(Map<Long, Station[]> cells, Map<String, Station> byId) {
+            this.cells = cells;
+            this.byId = byId;
+        }
+    }
+
+    private final double cellDegrees;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+
+    public StationGeoIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    public StationGeoIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes (copy-on-write)
+    // ---------------------------------------------------------------------
+
+    public synchronized void replaceAll(Collection<Station> stations) {
+        Map<String, Station> byId = new HashMap<>();
+        addTo(byId, stations);
+        snapshot = build(byId);
+    }
+
+    /** Insert new stations and replace existing ones with the same id. */
+    public synchronized void upsertAll(Collection<Station> stations) {
+        if (stations == null || stations.isEmpty()) return;
+        Map<String, Station> byId = new HashMap<>(snapshot.byId);
+        addTo(byId, stations);
+        snapshot = build(byId);
+    }
+
+    public synchronized void removeAll(Collection<String> stationIds) {
+        if (stationIds == null || stationIds.isEmpty()) return;
+        Map<String, Station> byId = new HashMap<>(snapshot.byId);
+        boolean changed = false;
+        for (String id : stationIds) {
+            changed |= byId.remove(id) != null;
+        }
+        if (changed) snapshot = build(byId);
+    }
+
+    public int size() {
+        return snapshot.byId.size();
+    }
+
+    // ---------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------
+
+    /**
+     * Stations within {@code radiusKm} of a point, nearest first.
+     *
+     * @param type station type ("AC"/"DC"); null matches every type
+     */
+    public List<Station> nearby(double latitude, double longitude, double radiusKm, String type) {
+        Snapshot snap = snapshot;
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double dLng = Math.min(radiusKm / (KM_PER_DEGREE_LAT * cosLat), 180);
+
+        List<Station> hits = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        int minRow = cell(latitude - dLat), maxRow = cell(latitude + dLat);
+        int minCol = cell(longitude - dLng), maxCol = cell(longitude + dLng);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Station[] bucket = snap.cells.get(key(row, col));
+                if (bucket == null) continue;
+                for (Station s : bucket) {
+                    if (!matchesType(s, type)) continue;
+                    double d = distanceKm(latitude, longitude, s.getLatitude(), s.getLongitude());
+                    if (d <= radiusKm) {
+                        hits.add(s);
+                        distances.add(d);
+                    }
+                }
+            }
+        }
+        return sortByDistance(hits, distances);
+    }
+
+    /** Stations inside a bounding box (e.g. the visible map region), unordered. */
+    public List<Station> within(double south, double west, double north, double east, String type) {
+        Snapshot snap = snapshot;
+        List<Station> hits = new ArrayList<>();
+        int minRow = cell(south), maxRow = cell(north);
+        int minCol = cell(west), maxCol = cell(east);
+        if (minRow > maxRow || minCol > maxCol) return hits;
+
+        // A zoomed-out box spans far more cells than are occupied: walk the occupied ones instead
+        long boxCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (boxCells > snap.cells.size()) {
+            for (Map.Entry<Long, Station[]> e : snap.cells.entrySet()) {
+                long k = e.getKey();
+                int row = (int) (k >> 32), col = (int) k;
+                if (row < minRow || row > maxRow || col < minCol || col > maxCol) continue;
+                addWithin(hits, e.getValue(), south, west, north, east, type);
+            }
+            return hits;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Station[] bucket = snap.cells.get(key(row, col));
+                if (bucket != null) addWithin(hits, bucket, south, west, north, east, type);
+            }
+        }
+        return hits;
+    }
+
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // ---------------------------------------------------------------------
+
+    private Snapshot build(Map<String, Station> byId) {
+        Map<Long, List<Station>> lists = new HashMap<>();
+        for (Station s : byId.values()) {
+            long k = key(cell(s.getLatitude()), cell(s.getLongitude()));
+            List<Station> list = lists.get(k);
+            if (list == null) {
+                list = new ArrayList<>(4);
+                lists.put(k, list);
+            }
+            list.add(s);
+        }
+        Map<Long, Station[]> cells = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Long, List<Station>> e : lists.entrySet()) {
+            cells.put(e.getKey(), e.getValue().toArray(new Station[0]));
+        }
+        return new Snapshot(cells, byId);
+    }
+
+    private static void addTo(Map<String, Station> byId, Collection<Station> stations) {
+        if (stations == null) return;
+        for (Station s : stations) {
+            if (s != null && s.getStationId() != null) byId.put(s.getStationId(), s);
+        }
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private static void addWithin(List<Station> hits, Station[] bucket, double south, double west,
+                                  double north, double east, String type) {
+        for (Station s : bucket) {
+            double lat = s.getLatitude(), lng = s.getLongitude();
+            if (lat >= south && lat <= north && lng >= west && lng <= east && matchesType(s, type)) {
+                hits.add(s);
+            }
+        }
+    }
+
+    private static boolean matchesType(Station s, String type) {
+        return type == null || type.isEmpty() || type.equalsIgnoreCase(s.getType());
+    }
+
+    private static List<Station> sortByDistance(List<Station> hits, List<Double> distances) {
+        int n = hits.size();
+        if (n < 2) return hits;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(distances.get(a), distances.get(b)));
+        List<Station> sorted = new ArrayList<>(n);
+        for (Integer i : order) sorted.add(hits.get(i));
+        return sorted;
+    }
+}
@@ -0,0 +1,192 @@
+package com.evcharging.mobile.utils;
+
+import com.evcharging.mobile.model.Station;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * StationPrefixIndex - in-memory prefix trie over station names and locations
+ *
+ * Purpose: Answer search-box prefixes instantly from stations the app has
+ * already seen (search results, nearby lookups), one trie per station type,
+ * so the network call only has to refine the list.
+ *
+ * Every word of a station's name and location is indexed. A multi-word query
+ * matches stations where each query word is a prefix of some indexed word
+ * ("col fort" matches "Colombo Fort Charging Hub"). Process-wide singleton;
+ * all methods are synchronized since writers and readers run on different
+ * threads.
+ */
+public class StationPrefixIndex {
+
+    private static final String ANY_TYPE = "*";
+
+    private static StationPrefixIndex instance;
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        // Stations having a word that ends exactly here
+        List<String> stationIds;
+    }
+
+    private final Map<String, Node> roots = new HashMap<>();
+    private final Map<String, Station> stations = new HashMap<>();
+    private final Map<String, String[]> wordsById = new HashMap<>();
+
+    public static synchronized StationPrefixIndex getInstance() {
+        if (instance == null) {
+            instance = new StationPrefixIndex();
+        }
+        return instance;
+    }
+
+    // ---------------------------------------------------------------------
+    // Writes
+    // ---------------------------------------------------------------------
+
+    public synchronized void addAll(List<Station> list) {
+        if (list == null) return;
+        for (Station s : list) add(s);
+    }
+
+    public synchronized void add(Station station) {
+        if (station == null || station.getStationId() == null) return;
+        String id = station.getStationId();
+        if (stations.containsKey(id)) {
+            // Name/location rarely change; keep the freshest object for display
+            stations.put(id, station);
+            return;
+        }
+        stations.put(id, station);
+
+        String[] words = tokenize(nonNull(station.getName()) + " " + nonNull(station.getLocation()));
+        wordsById.put(id, words);
+        Node typed = rootFor(typeKey(station.getType()));
+        Node any = rootFor(ANY_TYPE);
+        for (String w : words) {
+            insert(typed, w, id);
+            insert(any, w, id);
+        }
+    }
+
+    public synchronized int size() {
+        return stations.size();
+    }
+
+    // ---------------------------------------------------------------------
+    // Queries
+    // ---------------------------------------------------------------------
+
+    /**
+     * @param type station type ("AC"/"DC"); null or empty searches all types
+     * @return up to {@code limit} stations matching every word of the query
+     */
+    public synchronized List<Station> search(String type, String query, int limit) {
+        List<Station> out = new ArrayList<>();
+        String[] terms = tokenize(query);
+        if (terms.length == 0) return out;
+
+        Node root = roots.get(type == null || type.isEmpty() ? ANY_TYPE : typeKey(type));
+        if (root == null) return out;
+
+        // Walk the first term, then check the remaining terms per candidate
+        Node start = find(root, terms[0]);
+        if (start == null) return out;
+
+        LinkedHashMap<String, Boolean> candidates = new LinkedHashMap<>();
+        collect(start, candidates, limit * 4);
+
+        for (String id : candidates.keySet()) {
+            if (matchesAll(wordsById.get(id), terms)) {
+                out.add(stations.get(id));
+                if (out.size() >= limit) break;
+            }
+        }
+        return out;
+    }
+
+    // ---------------------------------------------------------------------
+
+    private Node rootFor(String key) {
+        Node root = roots.get(key);
+        if (root == null) {
+            root = new Node();
+            roots.put(key, root);
+        }
+        return root;
+    }
+
+    private static void insert(Node root, String word, String id) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            Node next = node.children.get(c);
+            if (next == null) {
+                next = new Node();
+                node.children.put(c, next);
+            }
+            node = next;
+        }
+        if (node.stationIds == null) node.stationIds = new ArrayList<>(1);
+        if (!node.stationIds.contains(id)) node.stationIds.add(id);
+    }
+
+    private static Node find(Node root, String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    // Depth-first; stops once enough candidates are gathered
+    private static void collect(Node node, LinkedHashMap<String, Boolean> out, int max) {
+        if (out.size() >= max) return;
+        if (node.stationIds != null) {
+            for (String id : node.stationIds) out.put(id, Boolean.TRUE);
+        }
+        for (Node child : node.children.values()) {
+            collect(child, out, max);
+            if (out.size() >= max) return;
+        }
+    }
+
+    private static boolean matchesAll(String[] words, String[] terms) {
+        if (words == null) return false;
+        for (int t = 1; t < terms.length; t++) {
+            boolean found = false;
+            for (String w : words) {
+                if (w.startsWith(terms[t])) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private static String nonNull(String s) {
+        return s != null ? s : "";
+    }
+
+    private static String typeKey(String type) {
+        return type == null ? "" : type.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) return new String[0];
+        String trimmed = text.toLowerCase(Locale.ROOT).trim();
+        if (trimmed.isEmpty()) return new String[0];
+        List<String> words = new ArrayList<>();
+        for (String w : trimmed.split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty()) words.add(w);
+        }
+        return words.toArray(new String[0]);
+    }
+}
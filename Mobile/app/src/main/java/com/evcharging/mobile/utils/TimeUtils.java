@@ -0,0 +1,70 @@
+package com.evcharging.mobile.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * TimeUtils - parsing helpers for the ISO-8601 timestamps the backend returns
+ *
+ * Purpose: Turn "2025-10-13T05:15:00Z", "2025-10-13T05:15:00.123Z" or
+ * "2025-10-13T10:45:00+05:30" into epoch millis once, so lists can sort and
+ * compare numbers instead of re-parsing strings.
+ */
+public final class TimeUtils {
+
+    private static final ThreadLocal<SimpleDateFormat> UTC_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+            fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return fmt;
+        }
+    };
+
+    private TimeUtils() {
+    }
+
+    /**
+     * @return epoch millis, or -1 if the value is missing or malformed
+     */
+    public static long parseUtcMillis(String iso) {
+        if (iso == null || iso.length() < 19) return -1;
+        try {
+            long millis = UTC_FORMAT.get().parse(iso.substring(0, 19)).getTime();
+
+            int i = 19;
+            // Optional fractional seconds; only the first three digits matter
+            if (i < iso.length() && iso.charAt(i) == '.') {
+                i++;
+                int digits = 0;
+                int fraction = 0;
+                while (i < iso.length() && Character.isDigit(iso.charAt(i))) {
+                    if (digits < 3) {
+                        fraction = fraction * 10 + (iso.charAt(i) - '0');
+                        digits++;
+                    }
+                    i++;
+                }
+                while (digits++ < 3) fraction *= 10;
+                millis += fraction;
+            }
+
+            // Optional offset; "Z" or nothing means UTC
+            if (i < iso.length() && (iso.charAt(i) == '+' || iso.charAt(i) == '-') && iso.length() >= i + 6) {
+                int sign = iso.charAt(i) == '+' ? 1 : -1;
+                int hours = Integer.parseInt(iso.substring(i + 1, i + 3));
+                int minutes = Integer.parseInt(iso.substring(i + 4, i + 6));
+                millis -= sign * (hours * 3_600_000L + minutes * 60_000L);
+            }
+            return millis;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /** Formats epoch millis back into the backend's UTC format. */
+    public static String formatUtc(long millis) {
+        return UTC_FORMAT.get().format(new java.util.Date(millis)) + "Z";
+    }
+}
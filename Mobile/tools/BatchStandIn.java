@@ -0,0 +1,315 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * BatchStandIn - local stand-in for the POST /api/batch contract (batch-api.md)
+ *
+ * Purpose: Exercise the app's BatchRequest before the backend implements
+ * batching. POST /api/batch is answered by calling the upstream backend once
+ * per part (in parallel, with the caller's headers); every other request is
+ * proxied unchanged, so the app can point all its traffic here.
+ *
+ * Single-file program, no dependencies (JDK 11+):
+ *
+ *   java Mobile/tools/BatchStandIn.java --upstream https://host [--port 8085]
+ *        [--delay-ms 0] [--no-batch]
+ *
+ * --delay-ms delays every incoming request, simulating a slow link, so one
+ * batch vs. several single calls shows up as a difference in round trips.
+ * --no-batch answers /api/batch with 404 to exercise the client's fallback.
+ */
+public class BatchStandIn {
+
+    private static final int MAX_PARTS = 10;
+    private static final Set<String> FORWARDED_HEADERS = Set.of("authorization", "x-client-type", "content-type", "accept");
+
+    private static String upstream;
+    private static long delayMs;
+    private static boolean batchEnabled = true;
+    private static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public static void main(String[] args) throws IOException {
+        int port = 8085;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--upstream": upstream = stripSlash(args[++i]); break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--delay-ms": delayMs = Long.parseLong(args[++i]); break;
+                case "--no-batch": batchEnabled = false; break;
+                default: usage();
+            }
+        }
+        if (upstream == null) usage();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", BatchStandIn::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.println("Batch stand-in on :" + port + " -> " + upstream
+                + (delayMs > 0 ? " (+" + delayMs + " ms per request)" : "")
+                + (batchEnabled ? "" : " (batch disabled)"));
+    }
+
+    private static void usage() {
+        System.err.println("usage: java BatchStandIn.java --upstream https://host [--port 8085] [--delay-ms 0] [--no-batch]");
+        System.exit(2);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static void handle(HttpExchange ex) throws IOException {
+        try {
+            if (delayMs > 0) Thread.sleep(delayMs);
+            String path = ex.getRequestURI().getRawPath();
+            if ("POST".equals(ex.getRequestMethod()) && "/api/batch".equals(path)) {
+                if (!batchEnabled) {
+                    send(ex, 404, "{\"message\":\"Not found\"}");
+                } else {
+                    batch(ex);
+                }
+            } else {
+                proxy(ex);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            send(ex, 502, "{\"message\":" + quote("Stand-in error: " + e.getMessage()) + "}");
+        } finally {
+            ex.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void batch(HttpExchange ex) throws Exception {
+        Object parsed;
+        try {
+            parsed = new Json(new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).value();
+        } catch (RuntimeException e) {
+            send(ex, 400, "{\"message\":\"Malformed batch\"}");
+            return;
+        }
+        Object requests = parsed instanceof Map ? ((Map<String, Object>) parsed).get("requests") : null;
+        if (!(requests instanceof List) || ((List<?>) requests).size() > MAX_PARTS) {
+            send(ex, 400, "{\"message\":\"Expected 1.." + MAX_PARTS + " requests\"}");
+            return;
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+        for (Object o : (List<Object>) requests) {
+            Map<String, Object> part = o instanceof Map ? (Map<String, Object>) o : Map.of();
+            if (!"GET".equals(part.get("method")) || !(part.get("id") instanceof String) || !(part.get("path") instanceof String)) {
+                send(ex, 400, "{\"message\":\"Each part needs an id, method GET and a path\"}");
+                return;
+            }
+            ids.add((String) part.get("id"));
+            HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(upstream + "/api" + part.get("path"))).GET();
+            copyHeaders(ex, b);
+            calls.add(http.sendAsync(b.build(), HttpResponse.BodyHandlers.ofString()));
+        }
+
+        StringBuilder sb = new StringBuilder("{\"responses\":[");
+        for (int i = 0; i < calls.size(); i++) {
+            HttpResponse<String> r = calls.get(i).join();
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(quote(ids.get(i)))
+                    .append(",\"status\":").append(r.statusCode())
+                    .append(",\"body\":").append(asJsonValue(r.body()))
+                    .append('}');
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private static void proxy(HttpExchange ex) throws Exception {
+        String query = ex.getRequestURI().getRawQuery();
+        URI target = URI.create(upstream + ex.getRequestURI().getRawPath() + (query != null ? "?" + query : ""));
+        byte[] body = ex.getRequestBody().readAllBytes();
+        HttpRequest.Builder b = HttpRequest.newBuilder(target)
+                .method(ex.getRequestMethod(), body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        copyHeaders(ex, b);
+        HttpResponse<byte[]> r = http.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+        r.headers().firstValue("content-type").ifPresent(v -> ex.getResponseHeaders().set("Content-Type", v));
+        ex.sendResponseHeaders(r.statusCode(), r.body().length == 0 ? -1 : r.body().length);
+        if (r.body().length > 0) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(r.body());
+            }
+        }
+    }
+
+    private static void copyHeaders(HttpExchange ex, HttpRequest.Builder b) {
+        for (Map.Entry<String, List<String>> h : ex.getRequestHeaders().entrySet()) {
+            if (!FORWARDED_HEADERS.contains(h.getKey().toLowerCase())) continue;
+            for (String v : h.getValue()) b.header(h.getKey(), v);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // The part's body as a JSON value: embedded as is when it parses, else as a string
+    private static String asJsonValue(String body) {
+        if (body == null || body.isBlank()) return "null";
+        try {
+            new Json(body).value();
+            return body;
+        } catch (RuntimeException e) {
+            return quote(body);
+        }
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** Minimal JSON reader: objects become Maps, arrays Lists, numbers Doubles. */
+    private static final class Json {
+        private final String s;
+        private int i;
+
+        Json(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            Object v = read();
+            skipWs();
+            if (i != s.length()) throw error("trailing data");
+            return v;
+        }
+
+        private Object read() {
+            skipWs();
+            if (i >= s.length()) throw error("unexpected end");
+            char c = s.charAt(i);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (s.startsWith("true", i)) { i += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", i)) { i += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", i)) { i += 4; return null; }
+            return number();
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            i++;
+            skipWs();
+            if (peek() == '}') { i++; return m; }
+            while (true) {
+                skipWs();
+                String key = string();
+                skipWs();
+                expect(':');
+                m.put(key, read());
+                skipWs();
+                if (peek() == ',') { i++; continue; }
+                expect('}');
+                return m;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            i++;
+            skipWs();
+            if (peek() == ']') { i++; return l; }
+            while (true) {
+                l.add(read());
+                skipWs();
+                if (peek() == ',') { i++; continue; }
+                expect(']');
+                return l;
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (i >= s.length()) throw error("unterminated string");
+                char c = s.charAt(i++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                char e = s.charAt(i++);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); i += 4; break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        private Double number() {
+            int start = i;
+            while (i < s.length() && "+-0123456789.eE".indexOf(s.charAt(i)) >= 0) i++;
+            if (start == i) throw error("unexpected character");
+            return Double.parseDouble(s.substring(start, i));
+        }
+
+        private void skipWs() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        private char peek() {
+            return i < s.length() ? s.charAt(i) : '\0';
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("expected '" + c + "'");
+            i++;
+        }
+
+        private IllegalArgumentException error(String what) {
+            return new IllegalArgumentException(what + " at " + i);
+        }
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
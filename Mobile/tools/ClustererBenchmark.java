@@ -0,0 +1,104 @@
+import com.evcharging.mobile.map.StationClusterer;
+import com.evcharging.mobile.model.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * ClustererBenchmark - StationClusterer timings without the Maps SDK
+ *
+ * Purpose: Time one clustering pass (what StationMarkerManager runs per
+ * camera-idle event) for 1k/10k/100k random stations across Sri Lanka at
+ * zoom 8..15, and check that re-clustering the same input yields the same
+ * cluster keys, which is what lets the marker layer apply only deltas.
+ * Cells are 64 dp at xxhdpi (192 px), as on a typical phone.
+ *
+ * StationClusterer and Station are plain Java, so compile them with this file
+ * (JDK 11+, from the repository root):
+ *
+ *   javac -d /tmp/bench Mobile/tools/ClustererBenchmark.java \
+ *       Mobile/app/src/main/java/com/evcharging/mobile/model/Station.java \
+ *       Mobile/app/src/main/java/com/evcharging/mobile/map/StationClusterer.java
+ *   java -cp /tmp/bench ClustererBenchmark [--cell-px 192] [--runs 20] [--seed 42]
+ */
+public class ClustererBenchmark {
+
+    // Rough bounding box of Sri Lanka
+    static final double SOUTH = 5.9, NORTH = 9.85, WEST = 79.7, EAST = 81.9;
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000};
+    private static final int[] ZOOMS = {8, 9, 10, 11, 12, 13, 14, 15};
+    private static final int MAX_CLUSTER_ZOOM = 15; // as in StationMarkerManager
+
+    private static int blackhole;
+
+    public static void main(String[] args) {
+        int cellPx = 192;
+        int runs = 20;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cell-px": cellPx = Integer.parseInt(args[++i]); break;
+                case "--runs": runs = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: usage();
+            }
+        }
+
+        StationClusterer clusterer = new StationClusterer(cellPx, MAX_CLUSTER_ZOOM);
+        Random random = new Random(seed);
+        System.out.printf(Locale.US, "cell %d px, median of %d runs per case%n", cellPx, runs);
+        System.out.printf(Locale.US, "  %-9s %4s %10s %10s %s%n", "stations", "zoom", "time", "clusters", "keys stable");
+        for (int size : SIZES) {
+            List<Station> stations = randomStations(random, size);
+            for (int zoom : ZOOMS) {
+                long[] nanos = new long[runs];
+                for (int r = -3; r < runs; r++) { // first three are warm-up
+                    long start = System.nanoTime();
+                    List<StationClusterer.Cluster> clusters = clusterer.cluster(stations, zoom);
+                    long elapsed = System.nanoTime() - start;
+                    blackhole += clusters.size();
+                    if (r >= 0) nanos[r] = elapsed;
+                }
+                List<StationClusterer.Cluster> first = clusterer.cluster(stations, zoom);
+                List<StationClusterer.Cluster> again = clusterer.cluster(stations, zoom);
+                Arrays.sort(nanos);
+                System.out.printf(Locale.US, "  %-9d %4d %8.2f ms %10d %s%n",
+                        size, zoom, nanos[runs / 2] / 1e6, first.size(), keys(first).equals(keys(again)) ? "yes" : "NO");
+            }
+        }
+        if (blackhole == 42) System.out.println();
+    }
+
+    private static void usage() {
+        System.err.println("usage: java -cp <classes> ClustererBenchmark [--cell-px 192] [--runs 20] [--seed 42]");
+        System.exit(2);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static Set<String> keys(List<StationClusterer.Cluster> clusters) {
+        Set<String> keys = new HashSet<>(clusters.size() * 2);
+        for (StationClusterer.Cluster c : clusters) keys.add(c.getKey());
+        return keys;
+    }
+
+    private static List<Station> randomStations(Random random, int count) {
+        List<Station> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Station s = new Station();
+            s.setStationId("st-" + i);
+            s.setName("Station " + i);
+            s.setLatitude(SOUTH + random.nextDouble() * (NORTH - SOUTH));
+            s.setLongitude(WEST + random.nextDouble() * (EAST - WEST));
+            s.setType(random.nextBoolean() ? "AC" : "DC");
+            stations.add(s);
+        }
+        return stations;
+    }
+}
@@ -0,0 +1,141 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SlowStandIn - proxy to the backend that stalls a share of the requests
+ *
+ * Purpose: Reproduce the tail latency RequestHedger is meant to cut. Every
+ * request is proxied unchanged to the upstream backend, but --slow-pct of
+ * them (picked independently per request) are held for --slow-ms first,
+ * like the occasional hung request on a flaky link. A hedge of a stalled GET
+ * is then most likely answered at normal speed.
+ *
+ * Single-file program, no dependencies (JDK 11+):
+ *
+ *   java Mobile/tools/SlowStandIn.java --upstream https://host [--port 8086]
+ *        [--slow-pct 5] [--slow-ms 2000] [--seed 42]
+ *
+ * Expose it like the backend (ngrok http 8086), point ApiClient.BASE at it
+ * and open the operator's bookings or a station's timeslots a few dozen
+ * times. On the debug screen (long-press the welcome text) the hedged
+ * endpoints show "total" (per attempt, carries the stalls in its p99) next
+ * to "request" (what the caller waited), plus the "hedges"/"hedge_wins"
+ * counters. Run once more with --slow-pct 0 for the baseline.
+ */
+public class SlowStandIn {
+
+    private static final Set<String> FORWARDED_HEADERS = Set.of("authorization", "x-client-type", "content-type", "accept");
+
+    private static String upstream;
+    private static double slowPct = 5;
+    private static long slowMs = 2000;
+    private static Random random = new Random();
+    private static final AtomicLong requests = new AtomicLong();
+    private static final AtomicLong stalled = new AtomicLong();
+    private static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public static void main(String[] args) throws IOException {
+        int port = 8086;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--upstream": upstream = stripSlash(args[++i]); break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--slow-pct": slowPct = Double.parseDouble(args[++i]); break;
+                case "--slow-ms": slowMs = Long.parseLong(args[++i]); break;
+                case "--seed": random = new Random(Long.parseLong(args[++i])); break;
+                default: usage();
+            }
+        }
+        if (upstream == null || slowPct < 0 || slowPct > 100 || slowMs < 0) usage();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", SlowStandIn::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        System.out.println("Slow stand-in on :" + port + " -> " + upstream
+                + " (" + slowPct + "% of requests held " + slowMs + " ms)");
+    }
+
+    private static void usage() {
+        System.err.println("usage: java SlowStandIn.java --upstream https://host [--port 8086]"
+                + " [--slow-pct 5] [--slow-ms 2000] [--seed 42]");
+        System.exit(2);
+    }
+
+    // ---------------------------------------------------------------------
+
+    private static void handle(HttpExchange ex) throws IOException {
+        try {
+            long n = requests.incrementAndGet();
+            if (stall()) {
+                long s = stalled.incrementAndGet();
+                System.out.println("stall " + ex.getRequestMethod() + " " + ex.getRequestURI().getRawPath()
+                        + " (" + s + "/" + n + ")");
+                Thread.sleep(slowMs);
+            }
+            proxy(ex);
+        } catch (Exception e) {
+            e.printStackTrace();
+            byte[] bytes = "{\"message\":\"Stand-in error\"}".getBytes();
+            ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            ex.sendResponseHeaders(502, bytes.length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private static boolean stall() {
+        synchronized (SlowStandIn.class) {
+            return random.nextDouble() * 100 < slowPct;
+        }
+    }
+
+    private static void proxy(HttpExchange ex) throws Exception {
+        String query = ex.getRequestURI().getRawQuery();
+        URI target = URI.create(upstream + ex.getRequestURI().getRawPath() + (query != null ? "?" + query : ""));
+        byte[] body = ex.getRequestBody().readAllBytes();
+        HttpRequest.Builder b = HttpRequest.newBuilder(target)
+                .method(ex.getRequestMethod(), body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        for (Map.Entry<String, List<String>> h : ex.getRequestHeaders().entrySet()) {
+            if (!FORWARDED_HEADERS.contains(h.getKey().toLowerCase())) continue;
+            for (String v : h.getValue()) b.header(h.getKey(), v);
+        }
+        HttpResponse<byte[]> r = http.send(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+        r.headers().firstValue("content-type").ifPresent(v -> ex.getResponseHeaders().set("Content-Type", v));
+        // HEAD answers carry no body, whatever the upstream's length says
+        boolean empty = r.body().length == 0 || "HEAD".equals(ex.getRequestMethod());
+        ex.sendResponseHeaders(r.statusCode(), empty ? -1 : r.body().length);
+        if (!empty) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(r.body());
+            }
+        }
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
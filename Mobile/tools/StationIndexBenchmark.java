@@ -0,0 +1,135 @@
+import com.evcharging.mobile.model.Station;
+import com.evcharging.mobile.utils.StationGeoIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * StationIndexBenchmark - StationGeoIndex against a linear scan on a plain JVM
+ *
+ * Purpose: Re-run the numbers behind the grid index: build time, radius
+ * queries (with and without a type filter), bounding-box queries and the
+ * linear scan the grid replaces, over random stations spread across Sri
+ * Lanka. Query points are random too, so hit counts are averages.
+ *
+ * StationGeoIndex and Station are plain Java, so compile them with this file
+ * (JDK 11+, from the repository root):
+ *
+ *   javac -d /tmp/bench Mobile/tools/StationIndexBenchmark.java \
+ *       Mobile/app/src/main/java/com/evcharging/mobile/model/Station.java \
+ *       Mobile/app/src/main/java/com/evcharging/mobile/utils/StationGeoIndex.java
+ *   java -cp /tmp/bench StationIndexBenchmark [--stations 100000] [--queries 2000] [--seed 42]
+ */
+public class StationIndexBenchmark {
+
+    // Rough bounding box of Sri Lanka
+    static final double SOUTH = 5.9, NORTH = 9.85, WEST = 79.7, EAST = 81.9;
+
+    private static int blackhole;
+
+    public static void main(String[] args) {
+        int stations = 100_000;
+        int queries = 2000;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stations": stations = Integer.parseInt(args[++i]); break;
+                case "--queries": queries = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: usage();
+            }
+        }
+
+        Random random = new Random(seed);
+        List<Station> all = randomStations(random, stations);
+        double[][] points = new double[queries][];
+        for (int i = 0; i < queries; i++) points[i] = randomPoint(random);
+
+        StationGeoIndex index = new StationGeoIndex();
+        for (int i = 0; i < 5; i++) index.replaceAll(all); // warm-up
+        long start = System.nanoTime();
+        index.replaceAll(all);
+        System.out.printf(Locale.US, "%,d stations, %,d queries per case%n", stations, queries);
+        System.out.printf(Locale.US, "  %-24s %8.1f ms%n", "build", (System.nanoTime() - start) / 1e6);
+
+        run("5 km radius", points, p -> index.nearby(p[0], p[1], 5, null).size());
+        run("5 km radius, DC only", points, p -> index.nearby(p[0], p[1], 5, "DC").size());
+        run("25 km radius", points, p -> index.nearby(p[0], p[1], 25, null).size());
+        double half = StationGeoIndex.DEFAULT_CELL_DEGREES / 2;
+        run("0.05 deg bounding box", points,
+                p -> index.within(p[0] - half, p[1] - half, p[0] + half, p[1] + half, null).size());
+        run("linear scan, 5 km", points, p -> linearScan(all, p[0], p[1], 5).size());
+
+        if (blackhole == 42) System.out.println();
+    }
+
+    private static void usage() {
+        System.err.println("usage: java -cp <classes> StationIndexBenchmark [--stations 100000] [--queries 2000] [--seed 42]");
+        System.exit(2);
+    }
+
+    // ---------------------------------------------------------------------
+
+    interface Query {
+        int hits(double[] point);
+    }
+
+    /** One warm-up pass, then a timed pass; prints time per query and mean hits. */
+    private static void run(String name, double[][] points, Query query) {
+        blackhole += pass(points, query);
+        long start = System.nanoTime();
+        int hits = pass(points, query);
+        double micros = (System.nanoTime() - start) / 1e3 / points.length;
+        blackhole += hits;
+        System.out.printf(Locale.US, "  %-24s %8s/query  (%.0f hits)%n",
+                name, micros >= 1000 ? String.format(Locale.US, "%.1f ms", micros / 1000)
+                        : String.format(Locale.US, "%.1f us", micros),
+                (double) hits / points.length);
+    }
+
+    private static int pass(double[][] points, Query query) {
+        int hits = 0;
+        for (double[] p : points) hits += query.hits(p);
+        return hits;
+    }
+
+    // What StationGeoIndex replaces: distance to every station, then sort
+    private static List<Station> linearScan(List<Station> all, double lat, double lng, double radiusKm) {
+        List<Station> hits = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        for (Station s : all) {
+            double d = StationGeoIndex.distanceKm(lat, lng, s.getLatitude(), s.getLongitude());
+            if (d <= radiusKm) {
+                hits.add(s);
+                distances.add(d);
+            }
+        }
+        List<Integer> order = new ArrayList<>(hits.size());
+        for (int i = 0; i < hits.size(); i++) order.add(i);
+        order.sort((a, b) -> Double.compare(distances.get(a), distances.get(b)));
+        List<Station> sorted = new ArrayList<>(hits.size());
+        for (int i : order) sorted.add(hits.get(i));
+        return sorted;
+    }
+
+    static List<Station> randomStations(Random random, int count) {
+        List<Station> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] p = randomPoint(random);
+            Station s = new Station();
+            s.setStationId("st-" + i);
+            s.setName("Station " + i);
+            s.setLatitude(p[0]);
+            s.setLongitude(p[1]);
+            s.setType(random.nextBoolean() ? "AC" : "DC");
+            stations.add(s);
+        }
+        return stations;
+    }
+
+    static double[] randomPoint(Random random) {
+        return new double[]{SOUTH + random.nextDouble() * (NORTH - SOUTH), WEST + random.nextDouble() * (EAST - WEST)};
+    }
+}